@@ -18,6 +18,8 @@ import org.eclipse.che.api.auth.oauth.OAuthTokenProvider;
 import org.eclipse.che.api.core.notification.WSocketEventBusClient;
 import org.eclipse.che.api.core.rest.ApiInfoService;
 import org.eclipse.che.api.core.rest.CoreRestModule;
+import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.api.core.rest.PooledHttpJsonRequestFactory;
 import org.eclipse.che.api.git.GitConnectionFactory;
 import org.eclipse.che.api.git.GitUserResolver;
 import org.eclipse.che.api.local.LocalUserDaoImpl;
@@ -56,6 +58,7 @@ public class MachineModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(ApiInfoService.class);
+        bind(HttpJsonRequestFactory.class).to(PooledHttpJsonRequestFactory.class);
 
         //TODO it's temporary solution. Ext war should not have binding for DAO.
         bind(UserDao.class).to(LocalUserDaoImpl.class);
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of metrics of asynchronous delivery of events to single subscriber. Latency is the time between publishing of event and
+ * start of its processing by subscriber.
+ *
+ * @author andrew00x
+ * @see EventService#getAsyncDeliveryMetrics(EventSubscriber)
+ */
+public final class AsyncDeliveryMetrics {
+    private final int  queueDepth;
+    private final int  maxQueueDepth;
+    private final long delivered;
+    private final long dropped;
+    private final long failed;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+
+    AsyncDeliveryMetrics(int queueDepth, int maxQueueDepth, long delivered, long dropped, long failed, long totalLatencyNanos,
+                         long maxLatencyNanos) {
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.failed = failed;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    /** Number of events that wait for delivery in all partitions. */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /** The highest number of events that waited for delivery in single partition. */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /** Number of events that were delivered to subscriber, including events that subscriber failed to process. */
+    public long getDeliveredCount() {
+        return delivered;
+    }
+
+    /** Number of events that were dropped because queue was full. */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /** Number of events that subscriber failed to process, i.e. {@link EventSubscriber#onEvent(Object)} threw exception. */
+    public long getFailedCount() {
+        return failed;
+    }
+
+    public long getAverageLatency(TimeUnit unit) {
+        return delivered == 0 ? 0 : unit.convert(totalLatencyNanos / delivered, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncDeliveryMetrics{" +
+               "queueDepth=" + queueDepth +
+               ", maxQueueDepth=" + maxQueueDepth +
+               ", delivered=" + delivered +
+               ", dropped=" + dropped +
+               ", failed=" + failed +
+               ", averageLatencyMillis=" + getAverageLatency(TimeUnit.MILLISECONDS) +
+               ", maxLatencyMillis=" + getMaxLatency(TimeUnit.MILLISECONDS) +
+               '}';
+    }
+}
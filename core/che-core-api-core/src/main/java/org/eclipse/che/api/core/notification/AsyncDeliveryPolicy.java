@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import java.util.function.Function;
+
+/**
+ * Describes asynchronous delivery of events to subscriber, see {@link EventService#subscribe(EventSubscriber, Class,
+ * AsyncDeliveryPolicy)}. Events are put in bounded queues and delivered to subscriber by threads of {@code EventService}, so
+ * publisher doesn't wait while subscriber processes event.
+ * <p>
+ * By default all events are delivered in the order they were published, one at a time. If events are partitioned by key, events
+ * with the same key are delivered in order, but events from different partitions may be delivered concurrently, so subscriber must
+ * be thread-safe. Usage example:
+ * <pre>
+ *     eventService.subscribe(subscriber,
+ *                            MachineStatusEvent.class,
+ *                            AsyncDeliveryPolicy.&lt;MachineStatusEvent&gt;defaults().partitionedBy(MachineStatusEvent::getMachineId, 4)
+ *                                                                                 .withBackpressure(Backpressure.DROP_OLDEST));
+ * </pre>
+ *
+ * @author andrew00x
+ */
+public final class AsyncDeliveryPolicy<T> {
+    /** Describes what happens when event is published but queue of subscriber is full. */
+    public enum Backpressure {
+        /**
+         * Publisher waits until there is space in queue. Publisher doesn't wait if it is one of threads that deliver events
+         * asynchronously, otherwise subscribers that publish events to each other may wait forever. In this case event is queued
+         * even if queue is full. Waiting publishers are released and their events are dropped when event service is stopped.
+         */
+        BLOCK,
+        /** Published event is dropped. */
+        DROP_NEWEST,
+        /** The oldest event in queue is dropped to free space for published event. */
+        DROP_OLDEST
+    }
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /** Delivers events in order of publishing, waits for space in queue if it is full. Capacity of queue is 1000 events. */
+    public static <T> AsyncDeliveryPolicy<T> defaults() {
+        return new AsyncDeliveryPolicy<>(DEFAULT_QUEUE_CAPACITY, Backpressure.BLOCK, null, 1);
+    }
+
+    private final int                    queueCapacity;
+    private final Backpressure           backpressure;
+    private final Function<? super T, ?> partitionKey;
+    private final int                    partitions;
+
+    private AsyncDeliveryPolicy(int queueCapacity, Backpressure backpressure, Function<? super T, ?> partitionKey, int partitions) {
+        this.queueCapacity = queueCapacity;
+        this.backpressure = backpressure;
+        this.partitionKey = partitionKey;
+        this.partitions = partitions;
+    }
+
+    /** Returns copy of this policy with specified capacity of queue of each partition. */
+    public AsyncDeliveryPolicy<T> withQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        return new AsyncDeliveryPolicy<>(queueCapacity, backpressure, partitionKey, partitions);
+    }
+
+    /** Returns copy of this policy with specified behaviour for full queue. */
+    public AsyncDeliveryPolicy<T> withBackpressure(Backpressure backpressure) {
+        if (backpressure == null) {
+            throw new IllegalArgumentException("Null backpressure");
+        }
+        return new AsyncDeliveryPolicy<>(queueCapacity, backpressure, partitionKey, partitions);
+    }
+
+    /**
+     * Returns copy of this policy that splits events in partitions by key, e.g. by project path or machine id. Events with the same
+     * key go to the same partition and are delivered in order. Events without key, i.e. if {@code partitionKey} returns {@code
+     * null}, go to the first partition.
+     *
+     * @param partitionKey
+     *         gets key of event
+     * @param partitions
+     *         number of partitions, i.e. max number of events that are delivered to subscriber concurrently
+     */
+    public AsyncDeliveryPolicy<T> partitionedBy(Function<? super T, ?> partitionKey, int partitions) {
+        if (partitionKey == null) {
+            throw new IllegalArgumentException("Null partition key");
+        }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Number of partitions must be positive");
+        }
+        return new AsyncDeliveryPolicy<>(queueCapacity, backpressure, partitionKey, partitions);
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    int partitionOf(T event) {
+        if (partitions == 1) {
+            return 0;
+        }
+        final Object key = partitionKey.apply(event);
+        return key == null ? 0 : (key.hashCode() & Integer.MAX_VALUE) % partitions;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncDeliveryPolicy{" +
+               "queueCapacity=" + queueCapacity +
+               ", backpressure=" + backpressure +
+               ", partitions=" + partitions +
+               '}';
+    }
+}
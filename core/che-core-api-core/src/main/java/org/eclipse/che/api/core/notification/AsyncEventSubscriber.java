@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Subscriber that puts events in queues of partitions and delivers them to wrapped subscriber by tasks of executor. At most one
+ * task processes single partition at a time, so events of partition are delivered in order. Task delivers limited number of events
+ * and is rescheduled if partition still has events, so busy partition doesn't hold thread of executor forever.
+ *
+ * @author andrew00x
+ */
+class AsyncEventSubscriber<T> implements EventSubscriber<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEventSubscriber.class);
+
+    /** Max number of events delivered by single task. */
+    private static final int BATCH_SIZE = 64;
+
+    /** Set for threads that deliver events. Such threads never wait for space in queue, see {@link AsyncDeliveryPolicy.Backpressure}. */
+    private static final ThreadLocal<Boolean> DELIVERY_THREAD = new ThreadLocal<>();
+
+    private final EventSubscriber<T>     subscriber;
+    private final AsyncDeliveryPolicy<T> policy;
+    private final Executor               executor;
+    private final List<Partition>        partitions;
+
+    private volatile boolean stopped;
+
+    private final LongAdder  delivered;
+    private final LongAdder  dropped;
+    private final LongAdder  failed;
+    private final LongAdder  totalLatencyNanos;
+    private final AtomicLong maxLatencyNanos;
+
+    AsyncEventSubscriber(EventSubscriber<T> subscriber, AsyncDeliveryPolicy<T> policy, Executor executor) {
+        this.subscriber = subscriber;
+        this.policy = policy;
+        this.executor = executor;
+        partitions = new ArrayList<>(policy.getPartitions());
+        for (int i = 0; i < policy.getPartitions(); i++) {
+            partitions.add(new Partition(policy.getQueueCapacity()));
+        }
+        delivered = new LongAdder();
+        dropped = new LongAdder();
+        failed = new LongAdder();
+        totalLatencyNanos = new LongAdder();
+        maxLatencyNanos = new AtomicLong();
+    }
+
+    @Override
+    public void onEvent(T event) {
+        if (stopped) {
+            dropped.increment();
+            return;
+        }
+        partitions.get(policy.partitionOf(event)).offer(new Envelope<>(event));
+    }
+
+    /**
+     * Stops delivery of events. Queued events and events that are published later are dropped. Publishers that wait for space in
+     * queue are released and their events are dropped as well.
+     */
+    void stop() {
+        stopped = true;
+        for (Partition partition : partitions) {
+            Envelope<T> envelope;
+            while ((envelope = partition.queue.poll()) != null) {
+                partition.release(envelope);
+                dropped.increment();
+            }
+            // Queue may be empty while publishers still wait for the permits that are held by events being delivered. Extra permit
+            // wakes up one waiting publisher and each released publisher passes its permit to the next one, see Partition#offer.
+            partition.space.release();
+        }
+    }
+
+    AsyncDeliveryMetrics getMetrics() {
+        int queueDepth = 0;
+        int maxQueueDepth = 0;
+        for (Partition partition : partitions) {
+            queueDepth += partition.depth.get();
+            maxQueueDepth = Math.max(maxQueueDepth, partition.maxDepth.get());
+        }
+        return new AsyncDeliveryMetrics(queueDepth,
+                                        maxQueueDepth,
+                                        delivered.sum(),
+                                        dropped.sum(),
+                                        failed.sum(),
+                                        totalLatencyNanos.sum(),
+                                        maxLatencyNanos.get());
+    }
+
+    private void deliver(Envelope<T> envelope) {
+        final long latency = System.nanoTime() - envelope.published;
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        try {
+            LOG.debug("Publish event {} for {}", envelope.event, subscriber);
+            subscriber.onEvent(envelope.event);
+        } catch (RuntimeException e) {
+            failed.increment();
+            LOG.error(e.getMessage(), e);
+        }
+        delivered.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncEventSubscriber{" +
+               "subscriber=" + subscriber +
+               ", policy=" + policy +
+               '}';
+    }
+
+    private static class Envelope<T> {
+        final T    event;
+        final long published;
+
+        /** Set if envelope holds permit of queue, i.e. it was queued when queue had free space. */
+        boolean permit;
+
+        Envelope(T event) {
+            this.event = event;
+            this.published = System.nanoTime();
+        }
+    }
+
+    private class Partition implements Runnable {
+        final Queue<Envelope<T>> queue;
+        /** Permits correspond to free space in queue. */
+        final Semaphore          space;
+        final AtomicBoolean      scheduled;
+        final AtomicInteger      depth;
+        final AtomicInteger      maxDepth;
+
+        Partition(int capacity) {
+            queue = new ConcurrentLinkedQueue<>();
+            space = new Semaphore(capacity);
+            scheduled = new AtomicBoolean();
+            depth = new AtomicInteger();
+            maxDepth = new AtomicInteger();
+        }
+
+        void offer(Envelope<T> envelope) {
+            switch (policy.getBackpressure()) {
+                case BLOCK:
+                    if (DELIVERY_THREAD.get() != null) {
+                        envelope.permit = space.tryAcquire();
+                    } else {
+                        try {
+                            space.acquire();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            dropped.increment();
+                            return;
+                        }
+                        if (stopped) {
+                            space.release();
+                            dropped.increment();
+                            return;
+                        }
+                        envelope.permit = true;
+                    }
+                    break;
+                case DROP_NEWEST:
+                    if (!space.tryAcquire()) {
+                        dropped.increment();
+                        return;
+                    }
+                    envelope.permit = true;
+                    break;
+                case DROP_OLDEST:
+                    while (!space.tryAcquire()) {
+                        final Envelope<T> oldest = queue.poll();
+                        if (oldest != null) {
+                            release(oldest);
+                            dropped.increment();
+                        }
+                    }
+                    envelope.permit = true;
+                    break;
+            }
+            queue.add(envelope);
+            maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    LOG.warn("Unable deliver events to {}, executor rejected task", subscriber);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            DELIVERY_THREAD.set(Boolean.TRUE);
+            try {
+                Envelope<T> envelope;
+                for (int i = 0; i < BATCH_SIZE && (envelope = queue.poll()) != null; i++) {
+                    release(envelope);
+                    deliver(envelope);
+                }
+            } finally {
+                DELIVERY_THREAD.remove();
+                scheduled.set(false);
+                if (!queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void release(Envelope<T> envelope) {
+            depth.decrementAndGet();
+            if (envelope.permit) {
+                space.release();
+            }
+        }
+    }
+}
@@ -13,10 +13,12 @@ package org.eclipse.che.api.core.notification;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -27,6 +29,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +44,9 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * By default events are delivered synchronously, i.e. subscribers are called in the thread that publishes event. Subscriber that
+ * may take long to process event may be subscribed with {@link AsyncDeliveryPolicy}, then its events are queued and delivered by
+ * shared pool of threads of this service.
  *
  * @author andrew00x
  */
@@ -51,12 +58,17 @@ public class EventService {
     private static final int CACHE_MASK = CACHE_NUM - 1;
     private static final int SEG_SIZE   = 32;
 
-    private final LoadingCache<Class<?>, Set<Class<?>>>[]       typeCache;
-    private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    private final LoadingCache<Class<?>, Set<Class<?>>>[]                     typeCache;
+    private final ConcurrentMap<Class<?>, Set<EventSubscriber>>               subscribersByEventType;
+    private final ConcurrentMap<EventSubscriber<?>, AsyncEventSubscriber<?>> asyncSubscribers;
+
+    private volatile ExecutorService asyncDeliveryExecutor;
+    private volatile boolean         stopped;
 
     @SuppressWarnings("unchecked")
     public EventService() {
         subscribersByEventType = new ConcurrentHashMap<>();
+        asyncSubscribers = new ConcurrentHashMap<>();
         typeCache = new LoadingCache[CACHE_NUM];
         for (int i = 0; i < CACHE_NUM; i++) {
             typeCache[i] = CacheBuilder.newBuilder().concurrencyLevel(SEG_SIZE).build(
@@ -134,6 +146,75 @@ public class EventService {
         doSubscribe(subscriber, eventType);
     }
 
+    /**
+     * Subscribe to an event with asynchronous delivery. Events are queued and delivered to subscriber by pool of threads of this
+     * service as described by {@code policy}, so publisher isn't blocked while subscriber processes event.
+     *
+     * @param subscriber The subscriber to call when an event is published.
+     * @param eventType The event to subscribe to.
+     * @param policy The policy of delivery of events.
+     * @throws IllegalStateException if this service is stopped
+     */
+    public <T> void subscribe(EventSubscriber<T> subscriber, Class<T> eventType, AsyncDeliveryPolicy<? super T> policy) {
+        if (stopped) {
+            throw new IllegalStateException("Event service is stopped");
+        }
+        @SuppressWarnings("unchecked")
+        final AsyncEventSubscriber<T> asyncSubscriber =
+                new AsyncEventSubscriber<>(subscriber, (AsyncDeliveryPolicy<T>)policy, getAsyncDeliveryExecutor());
+        if (asyncSubscribers.putIfAbsent(subscriber, asyncSubscriber) != null) {
+            throw new IllegalArgumentException(String.format("Subscriber %s is already subscribed asynchronously", subscriber));
+        }
+        doSubscribe(asyncSubscriber, eventType);
+        // 'stop' might be performed after the first check and miss this subscriber
+        if (stopped) {
+            asyncSubscriber.stop();
+        }
+    }
+
+    /**
+     * Get metrics of asynchronous delivery of events to subscriber.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @return metrics of delivery or {@code null} if subscriber isn't subscribed asynchronously
+     */
+    public AsyncDeliveryMetrics getAsyncDeliveryMetrics(EventSubscriber<?> subscriber) {
+        final AsyncEventSubscriber<?> asyncSubscriber = asyncSubscribers.get(subscriber);
+        return asyncSubscriber == null ? null : asyncSubscriber.getMetrics();
+    }
+
+    /**
+     * Stops threads that deliver events asynchronously. Events that weren't delivered yet are discarded, events that are published
+     * to asynchronous subscribers after stop are dropped and publishers that wait for space in queues of such subscribers are released.
+     * Synchronous subscribers still get events.
+     */
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        asyncSubscribers.values().forEach(AsyncEventSubscriber::stop);
+        final ExecutorService executor = asyncDeliveryExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExecutorService getAsyncDeliveryExecutor() {
+        ExecutorService executor = asyncDeliveryExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncDeliveryExecutor;
+                if (executor == null) {
+                    asyncDeliveryExecutor = executor =
+                            Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("EventService-AsyncDelivery-%d")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
+                }
+            }
+        }
+        return executor;
+    }
+
     private void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
         Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries == null) {
@@ -147,22 +228,27 @@ public class EventService {
     }
 
     /**
-     * Unsubscribe event listener.
+     * Unsubscribe event listener. Events that are queued for asynchronous subscriber are discarded and publishers that wait for space
+     * in its queue are released.
      *
      * @param subscriber
      *         event subscriber
      */
     public void unsubscribe(EventSubscriber<?> subscriber) {
         final Class<?> eventType = getEventType(subscriber);
+        final AsyncEventSubscriber<?> asyncSubscriber = asyncSubscribers.remove(subscriber);
         final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries != null && !entries.isEmpty()) {
-            boolean changed = entries.remove(subscriber);
+            boolean changed = entries.remove(asyncSubscriber != null ? asyncSubscriber : subscriber);
             if (changed) {
                 if (entries.isEmpty()) {
                     subscribersByEventType.remove(eventType);
                 }
             }
         }
+        if (asyncSubscriber != null) {
+            asyncSubscriber.stop();
+        }
     }
 
     private Class<?> getEventType(EventSubscriber<?> subscriber) {
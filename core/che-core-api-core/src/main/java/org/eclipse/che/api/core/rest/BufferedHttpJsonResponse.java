@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.gson.reflect.TypeToken;
+
+import org.eclipse.che.commons.json.JsonHelper;
+import org.eclipse.che.commons.json.JsonParseException;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of {@link HttpJsonResponse} which keeps body of response as bytes. DTOs are read from bytes with streaming reader,
+ * string is created only if it is requested with {@link #asString()}.
+ *
+ * @author andrew00x
+ */
+class BufferedHttpJsonResponse implements HttpJsonResponse {
+    private static final Type STRING_MAP_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+    private final byte[]  body;
+    private final Charset charset;
+    private final int     responseCode;
+
+    BufferedHttpJsonResponse(byte[] body, Charset charset, int responseCode) {
+        this.body = body;
+        this.charset = charset;
+        this.responseCode = responseCode;
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public String asString() {
+        return new String(body, charset);
+    }
+
+    @Override
+    public <T> T asDto(Class<T> dtoInterface) {
+        requireNonNull(dtoInterface, "Required non-null dto interface");
+        try {
+            return DtoFactory.getInstance().createDtoFromJson(newReader(), dtoInterface);
+        } catch (IOException e) {
+            // never happens, body is read from memory
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public <T> List<T> asList(Class<T> dtoInterface) {
+        requireNonNull(dtoInterface, "Required non-null dto interface");
+        try {
+            return DtoFactory.getInstance().createListDtoFromJson(newReader(), dtoInterface);
+        } catch (IOException e) {
+            // never happens, body is read from memory
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, String> asProperties() throws IOException {
+        return as(Map.class, STRING_MAP_TYPE);
+    }
+
+    @Override
+    public <T> T as(Class<T> clazz, Type genericType) throws IOException {
+        requireNonNull(clazz, "Required non-null class");
+        try {
+            return JsonHelper.fromJson(asString(), clazz, genericType);
+        } catch (JsonParseException jsonEx) {
+            throw new IOException(jsonEx.getLocalizedMessage(), jsonEx);
+        }
+    }
+
+    private Reader newReader() {
+        return new InputStreamReader(new ByteArrayInputStream(body), charset);
+    }
+}
@@ -11,6 +11,7 @@
 package org.eclipse.che.api.core.rest;
 
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ConflictException;
@@ -45,6 +46,11 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.Objects.requireNonNull;
@@ -64,6 +70,20 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
 
     private static final int      DEFAULT_QUERY_PARAMS_LIST_SIZE = 5;
     private static final Object[] EMPTY_ARRAY                    = new Object[0];
+    private static final int      ASYNC_THREADS                  = 2 * Runtime.getRuntime().availableProcessors();
+
+    /** Makes asynchronous requests. Requests block on I/O, so they must not take threads of common pool. */
+    private static final ExecutorService ASYNC_EXECUTOR;
+
+    static {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(ASYNC_THREADS, ASYNC_THREADS, 60, TimeUnit.SECONDS,
+                                                                   new LinkedBlockingQueue<>(),
+                                                                   new ThreadFactoryBuilder().setNameFormat("HttpJsonRequest-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+        executor.allowCoreThreadTimeOut(true);
+        ASYNC_EXECUTOR = executor;
+    }
 
     private final String url;
 
@@ -144,6 +164,12 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         return doRequest(timeout, url, method, body, queryParams, authorizationHeaderValue);
     }
 
+    /** Makes request in pool of daemon threads that is shared by all requests of {@link DefaultHttpJsonRequestFactory}. */
+    @Override
+    public CompletableFuture<HttpJsonResponse> requestAsync() {
+        return requestAsync(ASYNC_EXECUTOR);
+    }
+
     /**
      * Makes this request using {@link HttpURLConnection}.
      *
@@ -179,18 +205,18 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
      * @throws BadRequestException
      *         when response code is 400
      */
-    DefaultHttpJsonResponse doRequest(int timeout,
-                                      String url,
-                                      String method,
-                                      Object body,
-                                      List<Pair<String, ?>> parameters,
-                                      String authorizationHeaderValue) throws IOException,
-                                                                              ServerException,
-                                                                              ForbiddenException,
-                                                                              NotFoundException,
-                                                                              UnauthorizedException,
-                                                                              ConflictException,
-                                                                              BadRequestException {
+    HttpJsonResponse doRequest(int timeout,
+                               String url,
+                               String method,
+                               Object body,
+                               List<Pair<String, ?>> parameters,
+                               String authorizationHeaderValue) throws IOException,
+                                                                       ServerException,
+                                                                       ForbiddenException,
+                                                                       NotFoundException,
+                                                                       UnauthorizedException,
+                                                                       ConflictException,
+                                                                       BadRequestException {
         final String authToken = getAuthenticationToken();
         final boolean hasQueryParams = parameters != null && !parameters.isEmpty();
         if (hasQueryParams || authToken != null) {
@@ -205,9 +231,8 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
             }
             url = ub.build().toString();
         }
-        final HttpURLConnection conn = (HttpURLConnection)new URL(url).openConnection();
-        conn.setConnectTimeout(timeout > 0 ? timeout : 60000);
-        conn.setReadTimeout(timeout > 0 ? timeout : 60000);
+        final HttpURLConnection conn = openConnection(url, timeout);
+        boolean bodyConsumed = false;
         try {
             conn.setRequestMethod(method);
             //drop a hint for server side that we want to receive application/json
@@ -241,6 +266,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
                 try (Reader reader = new InputStreamReader(in)) {
                     str = CharStreams.toString(reader);
                 }
+                bodyConsumed = true;
                 final String contentType = conn.getContentType();
                 if (contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON)) {
                     final ServiceError serviceError = DtoFactory.getInstance().createDtoFromJson(str, ServiceError.class);
@@ -270,14 +296,58 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
                 throw new IOException(conn.getResponseMessage());
             }
 
-            try (Reader reader = new InputStreamReader(conn.getInputStream())) {
-                return new DefaultHttpJsonResponse(CharStreams.toString(reader), responseCode);
+            final HttpJsonResponse response;
+            try (InputStream in = conn.getInputStream()) {
+                response = readResponse(in, contentType, responseCode);
             }
+            bodyConsumed = true;
+            return response;
         } finally {
-            conn.disconnect();
+            releaseConnection(conn, bodyConsumed);
         }
     }
 
+    /**
+     * Opens connection to the given url.
+     *
+     * @param url
+     *         request url, query parameters are already added
+     * @param timeout
+     *         request timeout, used only if it is greater than 0
+     */
+    protected HttpURLConnection openConnection(String url, int timeout) throws IOException {
+        final HttpURLConnection conn = (HttpURLConnection)new URL(url).openConnection();
+        conn.setConnectTimeout(timeout > 0 ? timeout : 60000);
+        conn.setReadTimeout(timeout > 0 ? timeout : 60000);
+        return conn;
+    }
+
+    /**
+     * Reads body of successful response.
+     *
+     * @param body
+     *         stream of response body, closed by caller
+     * @param contentType
+     *         value of content type header of response, may be null
+     * @param responseCode
+     *         response code
+     */
+    protected HttpJsonResponse readResponse(InputStream body, String contentType, int responseCode) throws IOException {
+        return new DefaultHttpJsonResponse(CharStreams.toString(new InputStreamReader(body)), responseCode);
+    }
+
+    /**
+     * Called when request is completed, successfully or not. Closes connection.
+     *
+     * @param conn
+     *         connection of request
+     * @param bodyConsumed
+     *         {@code true} if body of response was read to the end and closed
+     */
+    protected void releaseConnection(HttpURLConnection conn, boolean bodyConsumed) {
+        conn.disconnect();
+    }
+
     private String getAuthenticationToken() {
         final User user = EnvironmentContext.getCurrent().getUser();
         if (user != null) {
@@ -19,6 +19,7 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.dto.server.JsonSerializable;
 
 import javax.validation.constraints.NotNull;
@@ -27,6 +28,8 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Defines simple set of methods for requesting json objects.
@@ -171,6 +174,38 @@ public interface HttpJsonRequest {
                                       ConflictException,
                                       BadRequestException;
 
+    /**
+     * Makes the same request as {@link #request()} does, but in pool of threads of implementation. Requests block on I/O, so
+     * implementation must not use common {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * @return future which is completed with response of this request, or exceptionally with one of exceptions that
+     * {@link #request()} throws
+     * @see #requestAsync(Executor)
+     */
+    CompletableFuture<HttpJsonResponse> requestAsync();
+
+    /**
+     * Makes the same request as {@link #request()} does with the given executor. Thread locals of current thread, e.g.
+     * {@link EnvironmentContext}, are propagated to the thread which makes request.
+     *
+     * @param executor
+     *         executor which makes request
+     * @return future which is completed with response of this request, or exceptionally with one of exceptions that
+     * {@link #request()} throws
+     */
+    default CompletableFuture<HttpJsonResponse> requestAsync(@NotNull Executor executor) {
+        Objects.requireNonNull(executor, "Required non-null executor");
+        final CompletableFuture<HttpJsonResponse> future = new CompletableFuture<>();
+        executor.execute(ThreadLocalPropagateContext.wrap(() -> {
+            try {
+                future.complete(request());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+
     /**
      * Uses {@link HttpMethod#GET} as a request method.
      *
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of metrics of requests made by {@link PooledHttpJsonRequestFactory}. Latency is the time between start of request,
+ * including waiting for free connection to the host, and reading of the whole response.
+ *
+ * @author andrew00x
+ * @see PooledHttpJsonRequestFactory#getMetrics()
+ */
+public final class HttpJsonRequestMetrics {
+    private final long requests;
+    private final long failed;
+    private final int  active;
+    private final long saturated;
+    private final long totalWaitNanos;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+
+    HttpJsonRequestMetrics(long requests, long failed, int active, long saturated, long totalWaitNanos, long totalLatencyNanos,
+                           long maxLatencyNanos) {
+        this.requests = requests;
+        this.failed = failed;
+        this.active = active;
+        this.saturated = saturated;
+        this.totalWaitNanos = totalWaitNanos;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    /** Number of completed requests, including failed requests. */
+    public long getRequestCount() {
+        return requests;
+    }
+
+    /** Number of requests that failed with exception, including requests that got error response from server. */
+    public long getFailedCount() {
+        return failed;
+    }
+
+    /** Number of requests that are in progress or wait for free connection. */
+    public int getActiveCount() {
+        return active;
+    }
+
+    /** Number of requests that had to wait because max number of connections to the host was reached. */
+    public long getSaturatedCount() {
+        return saturated;
+    }
+
+    /** Average time that saturated requests waited for free connection. */
+    public long getAverageWait(TimeUnit unit) {
+        return saturated == 0 ? 0 : unit.convert(totalWaitNanos / saturated, TimeUnit.NANOSECONDS);
+    }
+
+    public long getAverageLatency(TimeUnit unit) {
+        return requests == 0 ? 0 : unit.convert(totalLatencyNanos / requests, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpJsonRequestMetrics{" +
+               "requests=" + requests +
+               ", failed=" + failed +
+               ", active=" + active +
+               ", saturated=" + saturated +
+               ", averageWaitMillis=" + getAverageWait(TimeUnit.MILLISECONDS) +
+               ", averageLatencyMillis=" + getAverageLatency(TimeUnit.MILLISECONDS) +
+               ", maxLatencyMillis=" + getMaxLatency(TimeUnit.MILLISECONDS) +
+               '}';
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.UnauthorizedException;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.commons.lang.Pair;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Request created by {@link PooledHttpJsonRequestFactory}. Connection is not closed after response is read, so it may be reused by
+ * the next request to the same host.
+ *
+ * @author andrew00x
+ */
+class PooledHttpJsonRequest extends DefaultHttpJsonRequest {
+    private final PooledHttpJsonRequestFactory factory;
+
+    PooledHttpJsonRequest(PooledHttpJsonRequestFactory factory, String url) {
+        super(url);
+        this.factory = factory;
+    }
+
+    PooledHttpJsonRequest(PooledHttpJsonRequestFactory factory, Link link) {
+        super(link);
+        this.factory = factory;
+    }
+
+    @Override
+    public CompletableFuture<HttpJsonResponse> requestAsync() {
+        return requestAsync(factory.getExecutor());
+    }
+
+    @Override
+    HttpJsonResponse doRequest(int timeout,
+                               String url,
+                               String method,
+                               Object body,
+                               List<Pair<String, ?>> parameters,
+                               String authorizationHeaderValue) throws IOException,
+                                                                       ServerException,
+                                                                       ForbiddenException,
+                                                                       NotFoundException,
+                                                                       UnauthorizedException,
+                                                                       ConflictException,
+                                                                       BadRequestException {
+        final long start = System.nanoTime();
+        final Semaphore connection = factory.acquire(url, timeout);
+        boolean failure = true;
+        try {
+            final HttpJsonResponse response = super.doRequest(timeout, url, method, body, parameters, authorizationHeaderValue);
+            failure = false;
+            return response;
+        } finally {
+            factory.release(connection, start, failure);
+        }
+    }
+
+    @Override
+    protected HttpURLConnection openConnection(String url, int timeout) throws IOException {
+        final HttpURLConnection conn = super.openConnection(url, timeout);
+        if (timeout <= 0) {
+            conn.setConnectTimeout(factory.getConnectTimeout());
+            conn.setReadTimeout(factory.getReadTimeout());
+        }
+        return conn;
+    }
+
+    @Override
+    protected HttpJsonResponse readResponse(InputStream body, String contentType, int responseCode) throws IOException {
+        return new BufferedHttpJsonResponse(ByteStreams.toByteArray(body), charsetOf(contentType), responseCode);
+    }
+
+    /**
+     * Keeps connection open if body of response is read to the end, then connection goes back to keep-alive cache of JDK. Otherwise,
+     * e.g. when response has unexpected content type, reading is timed out or writing of request body fails, state of connection is
+     * unknown and it is closed.
+     */
+    @Override
+    protected void releaseConnection(HttpURLConnection conn, boolean bodyConsumed) {
+        if (!bodyConsumed) {
+            conn.disconnect();
+        }
+    }
+
+    /** Returns charset from content type or UTF-8, which is default encoding of JSON. */
+    private static Charset charsetOf(String contentType) {
+        if (contentType != null) {
+            final int index = contentType.toLowerCase(Locale.ENGLISH).indexOf("charset=");
+            if (index != -1) {
+                String charset = contentType.substring(index + "charset=".length());
+                final int end = charset.indexOf(';');
+                if (end != -1) {
+                    charset = charset.substring(0, end);
+                }
+                charset = charset.trim().replace("\"", "");
+                if (Charset.isSupported(charset)) {
+                    return Charset.forName(charset);
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public String toString() {
+        return "Pooled" + super.toString();
+    }
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of {@link HttpJsonRequestFactory} which reuses connections. Unlike {@link DefaultHttpJsonRequest} requests
+ * created by this factory don't close connection after response is read, so connection goes back to the keep-alive cache of JDK
+ * and is reused by the next request to the same host. Note that JDK keeps at most {@code http.maxConnections} (5 by default) idle
+ * connections per host, more connections are closed after use.
+ * <p>
+ * Number of concurrent requests to the single host is limited, request waits for free connection at most its timeout. Requests
+ * may be made asynchronously with {@link HttpJsonRequest#requestAsync()} by pool of threads of this factory. Body of response is
+ * read as bytes and DTOs are parsed from them with streaming reader, without building of string and JSON tree.
+ *
+ * @author andrew00x
+ * @see HttpJsonRequestMetrics
+ */
+@Singleton
+public class PooledHttpJsonRequestFactory implements HttpJsonRequestFactory {
+    private final int                              maxConnectionsPerHost;
+    private final int                              connectTimeout;
+    private final int                              readTimeout;
+    private final ExecutorService                  executor;
+    private final ConcurrentMap<String, Semaphore> connections;
+
+    private final LongAdder     requests;
+    private final LongAdder     failed;
+    private final AtomicInteger active;
+    private final LongAdder     saturated;
+    private final LongAdder     totalWaitNanos;
+    private final LongAdder     totalLatencyNanos;
+    private final AtomicLong    maxLatencyNanos;
+
+    @Inject
+    public PooledHttpJsonRequestFactory(@Named("che.http.client.max_connections_per_host") int maxConnectionsPerHost,
+                                        @Named("che.http.client.connect_timeout_ms") int connectTimeout,
+                                        @Named("che.http.client.read_timeout_ms") int readTimeout,
+                                        @Named("che.http.client.async_threads") int asyncThreads) {
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("Max number of connections per host must be positive");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        executor = Executors.newFixedThreadPool(asyncThreads, new ThreadFactoryBuilder().setNameFormat("PooledHttpJsonRequest-%d")
+                                                                                        .setDaemon(true)
+                                                                                        .build());
+        connections = new ConcurrentHashMap<>();
+        requests = new LongAdder();
+        failed = new LongAdder();
+        active = new AtomicInteger();
+        saturated = new LongAdder();
+        totalWaitNanos = new LongAdder();
+        totalLatencyNanos = new LongAdder();
+        maxLatencyNanos = new AtomicLong();
+    }
+
+    @Override
+    public HttpJsonRequest fromUrl(@NotNull String url) {
+        return new PooledHttpJsonRequest(this, url);
+    }
+
+    @Override
+    public HttpJsonRequest fromLink(@NotNull Link link) {
+        return new PooledHttpJsonRequest(this, link);
+    }
+
+    /** Returns snapshot of metrics of requests made by this factory. */
+    public HttpJsonRequestMetrics getMetrics() {
+        return new HttpJsonRequestMetrics(requests.sum(),
+                                          failed.sum(),
+                                          active.get(),
+                                          saturated.sum(),
+                                          totalWaitNanos.sum(),
+                                          totalLatencyNanos.sum(),
+                                          maxLatencyNanos.get());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Waits for free connection to the host of url. Returned permit must be released with {@link #release(Semaphore, long, boolean)}
+     * when request is completed.
+     *
+     * @param url
+     *         request url
+     * @param timeout
+     *         max time to wait for connection in milliseconds, default read timeout is used if it is not greater than 0
+     * @throws IOException
+     *         if there is no free connection within timeout or thread is interrupted
+     */
+    Semaphore acquire(String url, int timeout) throws IOException {
+        final Semaphore permits = connections.computeIfAbsent(hostOf(url), host -> new Semaphore(maxConnectionsPerHost, true));
+        active.incrementAndGet();
+        if (!permits.tryAcquire()) {
+            saturated.increment();
+            final long waitStart = System.nanoTime();
+            boolean acquired = false;
+            try {
+                acquired = permits.tryAcquire(timeout > 0 ? timeout : readTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                totalWaitNanos.add(System.nanoTime() - waitStart);
+            }
+            if (!acquired) {
+                active.decrementAndGet();
+                requests.increment();
+                failed.increment();
+                throw new IOException(String.format("Unable get connection to %s, max number of connections %d is reached",
+                                                    hostOf(url), maxConnectionsPerHost));
+            }
+        }
+        return permits;
+    }
+
+    /**
+     * Releases connection permit and records metrics of request.
+     *
+     * @param permits
+     *         permits of host
+     * @param startNanos
+     *         time when request was started, see {@link System#nanoTime()}
+     * @param failure
+     *         {@code true} if request failed
+     */
+    void release(Semaphore permits, long startNanos, boolean failure) {
+        permits.release();
+        active.decrementAndGet();
+        final long latency = System.nanoTime() - startNanos;
+        requests.increment();
+        if (failure) {
+            failed.increment();
+        }
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    private static String hostOf(String url) throws IOException {
+        try {
+            final URL parsed = new URL(requireNonNull(url));
+            return parsed.getProtocol() + "://" + parsed.getHost() + ':' + (parsed.getPort() == -1 ? parsed.getDefaultPort()
+                                                                                                     : parsed.getPort());
+        } catch (MalformedURLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
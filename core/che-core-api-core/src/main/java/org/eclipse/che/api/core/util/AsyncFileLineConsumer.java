@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Line consumer that writes lines to the file asynchronously. Lines are put to the bounded buffer and written to the file by
+ * background thread of {@link LogFileWriter} when buffer is half full or when flush interval is over, so writing of line doesn't
+ * make write system call. If lines are written faster than the background thread writes them and buffer is full, the thread that
+ * writes line drains buffer itself, so lines are never dropped.
+ * <p>
+ * When file exceeds max size it is renamed to {@code <name>.1}, previous {@code <name>.1} is renamed to {@code <name>.2} and so
+ * on, the oldest file is removed. Use {@link LogFileWriter#newReader(File)} to read the whole log including rotated files.
+ *
+ * @author andrew00x
+ * @see LogFileWriter#open(File)
+ */
+public class AsyncFileLineConsumer implements LineConsumer {
+    private final File                       file;
+    private final LogFileWriter              logFileWriter;
+    private final ArrayBlockingQueue<String> buffer;
+    private final int                        flushThreshold;
+    private final AtomicBoolean              flushScheduled;
+    /** Guards file and writer. */
+    private final Object                     lock;
+
+    private FileOutputStream out;
+    private Writer           writer;
+    private volatile boolean closed;
+
+    AsyncFileLineConsumer(File file, LogFileWriter logFileWriter) throws IOException {
+        this.file = file;
+        this.logFileWriter = logFileWriter;
+        buffer = new ArrayBlockingQueue<>(logFileWriter.getBufferLines());
+        flushThreshold = Math.max(1, logFileWriter.getBufferLines() / 2);
+        flushScheduled = new AtomicBoolean();
+        lock = new Object();
+        out = new FileOutputStream(file);
+        writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        if (closed) {
+            throw new IOException(String.format("Log file %s is closed", file));
+        }
+        final String notNullLine = line == null ? "" : line;
+        while (!buffer.offer(notNullLine)) {
+            // background writer doesn't keep up, write lines in current thread
+            flush();
+        }
+        if (buffer.size() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            logFileWriter.scheduleFlush(this);
+        }
+    }
+
+    /**
+     * Writes all buffered lines to the file. Also syncs file with storage device if fsync policy is {@link
+     * LogFileWriter.FsyncPolicy#ON_FLUSH} and rotates file if it exceeds max size.
+     */
+    public void flush() throws IOException {
+        flushScheduled.set(false);
+        synchronized (lock) {
+            if (writer == null) {
+                return;
+            }
+            String line;
+            boolean written = false;
+            while ((line = buffer.poll()) != null) {
+                writer.write(line);
+                writer.write('\n');
+                written = true;
+            }
+            if (!written) {
+                return;
+            }
+            writer.flush();
+            if (logFileWriter.getFsyncPolicy() == LogFileWriter.FsyncPolicy.ON_FLUSH) {
+                out.getFD().sync();
+            }
+            final long maxFileSize = logFileWriter.getMaxFileSize();
+            if (maxFileSize > 0 && out.getChannel().size() >= maxFileSize) {
+                rotate();
+            }
+        }
+    }
+
+    /** Writes all buffered lines to the file and closes it. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            flush();
+            synchronized (lock) {
+                if (writer != null) {
+                    if (logFileWriter.getFsyncPolicy() != LogFileWriter.FsyncPolicy.NEVER) {
+                        out.getFD().sync();
+                    }
+                    writer.close();
+                    writer = null;
+                    out = null;
+                }
+            }
+        } finally {
+            logFileWriter.closed(this);
+        }
+    }
+
+    /** Writes buffered lines and opens reader of the whole log, all files are opened before any of them may be rotated. */
+    Reader newReader() throws IOException {
+        synchronized (lock) {
+            flush();
+            return openReader(file, logFileWriter.getMaxFiles());
+        }
+    }
+
+    /** Opens reader of file that reads rotated files, the oldest first, and then file itself. */
+    static Reader openReader(File file, int maxFiles) throws IOException {
+        final List<InputStream> parts = new ArrayList<>();
+        try {
+            for (int i = maxFiles; i > 0; i--) {
+                final File rotated = rotatedFile(file, i);
+                if (rotated.isFile()) {
+                    parts.add(new FileInputStream(rotated));
+                }
+            }
+            parts.add(new FileInputStream(file));
+        } catch (IOException e) {
+            for (InputStream part : parts) {
+                try {
+                    part.close();
+                } catch (IOException ignored) {
+                }
+            }
+            throw e;
+        }
+        return new BufferedReader(new InputStreamReader(new SequenceInputStream(Collections.enumeration(parts)),
+                                                        Charset.defaultCharset()));
+    }
+
+    static File rotatedFile(File file, int index) {
+        return new File(file.getParentFile(), file.getName() + '.' + index);
+    }
+
+    private void rotate() throws IOException {
+        if (logFileWriter.getFsyncPolicy() == LogFileWriter.FsyncPolicy.ON_CLOSE) {
+            out.getFD().sync();
+        }
+        writer.close();
+        final int maxFiles = logFileWriter.getMaxFiles();
+        if (maxFiles > 0) {
+            Files.deleteIfExists(rotatedFile(file, maxFiles).toPath());
+            for (int i = maxFiles - 1; i > 0; i--) {
+                final File rotated = rotatedFile(file, i);
+                if (rotated.isFile()) {
+                    Files.move(rotated.toPath(), rotatedFile(file, i + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file.toPath(), rotatedFile(file, 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(file.toPath());
+        }
+        out = new FileOutputStream(file);
+        writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+    }
+}
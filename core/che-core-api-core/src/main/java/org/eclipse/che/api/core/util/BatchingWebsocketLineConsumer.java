@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.everrest.core.impl.provider.json.JsonUtils;
+import org.everrest.websockets.WSConnectionContext;
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Line consumer that sends lines to websocket channel in batches. Lines are accumulated and sent as single message which body is
+ * JSON array of lines, e.g. {@code ["line 1","line 2"]}. Batch is sent when it reaches max number of lines or characters, or when
+ * flush interval is over since the first line of batch was written, or when consumer is closed.
+ * <p>
+ * Lines are sent by background threads, so {@link #writeLine(String)} never waits for websocket. If lines are written faster than
+ * they are sent, e.g. some of subscribers of channel read messages slowly, number of pending lines is limited. In this case the
+ * oldest pending lines are dropped and the next batch starts with line that tells how many lines were skipped.
+ *
+ * @author andrew00x
+ * @see WebsocketLineConsumer
+ */
+public class BatchingWebsocketLineConsumer implements LineConsumer {
+    private static final Logger LOG = getLogger(BatchingWebsocketLineConsumer.class);
+
+    public static final int  DEFAULT_MAX_BATCH_LINES   = 500;
+    public static final int  DEFAULT_MAX_BATCH_CHARS   = 64 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 100;
+    public static final int  DEFAULT_MAX_PENDING_LINES = 10000;
+
+    private static final ScheduledExecutorService FLUSHER =
+            Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                                             new ThreadFactoryBuilder().setNameFormat("BatchingWebsocketLineConsumer-%d")
+                                                                       .setDaemon(true)
+                                                                       .build());
+
+    private final String                   channel;
+    private final int                      maxBatchLines;
+    private final int                      maxBatchChars;
+    private final long                     flushIntervalMillis;
+    private final int                      maxPendingLines;
+    private final ScheduledExecutorService executor;
+    /** Guards pending lines. */
+    private final Object                   lock;
+    /** Held while batch is taken from pending lines and sent, so batches are sent in order. */
+    private final Object                   sendLock;
+    private final ArrayDeque<String>       pending;
+
+    private int     pendingChars;
+    /** Number of lines dropped since the last batch was taken. */
+    private long    skipped;
+    private long    droppedTotal;
+    private boolean flushScheduled;
+    private boolean closed;
+
+    public BatchingWebsocketLineConsumer(String channel) {
+        this(channel, DEFAULT_MAX_BATCH_LINES, DEFAULT_MAX_BATCH_CHARS, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_MAX_PENDING_LINES);
+    }
+
+    public BatchingWebsocketLineConsumer(String channel, int maxBatchLines, int maxBatchChars, long flushIntervalMillis,
+                                         int maxPendingLines) {
+        this(channel, maxBatchLines, maxBatchChars, flushIntervalMillis, maxPendingLines, FLUSHER);
+    }
+
+    BatchingWebsocketLineConsumer(String channel, int maxBatchLines, int maxBatchChars, long flushIntervalMillis,
+                                  int maxPendingLines, ScheduledExecutorService executor) {
+        if (maxBatchLines < 1 || maxBatchChars < 1) {
+            throw new IllegalArgumentException("Max size of batch must be positive");
+        }
+        if (maxPendingLines < maxBatchLines) {
+            throw new IllegalArgumentException("Max number of pending lines may not be less than max number of lines in batch");
+        }
+        this.channel = channel;
+        this.maxBatchLines = maxBatchLines;
+        this.maxBatchChars = maxBatchChars;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPendingLines = maxPendingLines;
+        this.executor = executor;
+        lock = new Object();
+        sendLock = new Object();
+        pending = new ArrayDeque<>();
+    }
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            final boolean first = pending.isEmpty();
+            pending.add(line);
+            pendingChars += line.length();
+            while (pending.size() > maxPendingLines) {
+                pendingChars -= pending.removeFirst().length();
+                skipped++;
+                droppedTotal++;
+            }
+            if (first) {
+                schedule(flushIntervalMillis);
+            }
+            if (!flushScheduled && (pending.size() >= maxBatchLines || pendingChars >= maxBatchChars)) {
+                flushScheduled = true;
+                schedule(0);
+            }
+        }
+    }
+
+    /** Sends all pending lines and stops accepting new lines. */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+        }
+        while (flush()) {
+            // send all pending lines
+        }
+    }
+
+    /** Returns number of lines that were dropped because they were written faster than sent. */
+    public long getDroppedLines() {
+        synchronized (lock) {
+            return droppedTotal;
+        }
+    }
+
+    /** Sends message to websocket channel. */
+    protected void sendMessage(ChannelBroadcastMessage message) throws Exception {
+        WSConnectionContext.sendMessage(message);
+    }
+
+    private void schedule(long delayMillis) {
+        try {
+            executor.schedule(this::flushAll, delayMillis, MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Unable flush output to websocket channel {}, executor rejected task", channel);
+        }
+    }
+
+    /** Sends batches while there are enough lines for full batch. Rest of lines is sent by timer. */
+    private void flushAll() {
+        synchronized (lock) {
+            flushScheduled = false;
+        }
+        do {
+            flush();
+        } while (hasFullBatch());
+        synchronized (lock) {
+            if (!pending.isEmpty()) {
+                schedule(flushIntervalMillis);
+            }
+        }
+    }
+
+    private boolean hasFullBatch() {
+        synchronized (lock) {
+            return pending.size() >= maxBatchLines || pendingChars >= maxBatchChars;
+        }
+    }
+
+    /** Sends single batch of pending lines. Returns {@code false} if there are no pending lines. */
+    private boolean flush() {
+        synchronized (sendLock) {
+            final List<String> batch = takeBatch();
+            if (batch.isEmpty()) {
+                return false;
+            }
+            final StringBuilder body = new StringBuilder("[");
+            for (String line : batch) {
+                if (body.length() > 1) {
+                    body.append(',');
+                }
+                body.append(JsonUtils.getJsonString(line));
+            }
+            body.append(']');
+            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+            bm.setChannel(channel);
+            bm.setBody(body.toString());
+            try {
+                sendMessage(bm);
+            } catch (Exception e) {
+                LOG.error("A problem occurred while sending websocket message", e);
+            }
+            return true;
+        }
+    }
+
+    private List<String> takeBatch() {
+        synchronized (lock) {
+            final List<String> batch = new ArrayList<>(Math.min(pending.size() + 1, maxBatchLines));
+            if (skipped > 0) {
+                batch.add(String.format("[... %d lines skipped ...]", skipped));
+                skipped = 0;
+            }
+            int chars = 0;
+            while (!pending.isEmpty()
+                   && batch.size() < maxBatchLines
+                   && (chars == 0 || chars + pending.peek().length() <= maxBatchChars)) {
+                final String line = pending.removeFirst();
+                chars += line.length();
+                pendingChars -= line.length();
+                batch.add(line);
+            }
+            return batch;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BatchingWebsocketLineConsumer{" +
+               "channel='" + channel + '\'' +
+               '}';
+    }
+}
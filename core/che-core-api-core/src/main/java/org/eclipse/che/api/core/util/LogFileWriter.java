@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Writes log files asynchronously. Each file opened with {@link #open(File)} has own buffer of lines, buffers are written to the
+ * files by single background thread periodically and when buffer is half full. Unlike {@link FileLineConsumer} writing of line
+ * doesn't flush file, so chatty processes don't make write system call for each line.
+ * <p>
+ * Optionally file is synced with storage device, see {@link FsyncPolicy}, and rotated when it exceeds max size.
+ *
+ * @author andrew00x
+ * @see AsyncFileLineConsumer
+ */
+@Singleton
+public class LogFileWriter {
+    private static final Logger LOG = getLogger(LogFileWriter.class);
+
+    /** Defines when log file is synced with storage device. */
+    public enum FsyncPolicy {
+        /** File is never synced explicitly, operating system decides when data is written to the device. */
+        NEVER,
+        /** File is synced when it is closed or rotated. */
+        ON_CLOSE,
+        /** File is synced after each write of buffered lines. */
+        ON_FLUSH
+    }
+
+    private final int                                        bufferLines;
+    private final FsyncPolicy                                fsyncPolicy;
+    private final long                                       maxFileSize;
+    private final int                                        maxFiles;
+    private final ScheduledExecutorService                   executor;
+    private final ConcurrentMap<File, AsyncFileLineConsumer> openFiles;
+
+    /**
+     * @param bufferLines
+     *         max number of buffered lines per file
+     * @param flushIntervalMillis
+     *         interval of writing of buffered lines to the files
+     * @param fsyncPolicy
+     *         defines when files are synced with storage device
+     * @param maxFileSizeKb
+     *         max size of file in kilobytes, file is rotated when it exceeds this size, 0 means unlimited size
+     * @param maxFiles
+     *         max number of rotated files that are kept, the oldest files are removed
+     */
+    @Inject
+    public LogFileWriter(@Named("che.log.writer.buffer_lines") int bufferLines,
+                         @Named("che.log.writer.flush_interval_ms") long flushIntervalMillis,
+                         @Named("che.log.writer.fsync") FsyncPolicy fsyncPolicy,
+                         @Named("che.log.writer.max_file_size_kb") long maxFileSizeKb,
+                         @Named("che.log.writer.max_files") int maxFiles) {
+        if (bufferLines < 1) {
+            throw new IllegalArgumentException("Size of buffer must be positive");
+        }
+        if (flushIntervalMillis < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        if (maxFileSizeKb < 0 || maxFiles < 0) {
+            throw new IllegalArgumentException("Max size of file and max number of files may not be negative");
+        }
+        this.bufferLines = bufferLines;
+        this.fsyncPolicy = fsyncPolicy;
+        this.maxFileSize = maxFileSizeKb * 1024;
+        this.maxFiles = maxFiles;
+        openFiles = new ConcurrentHashMap<>();
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("LogFileWriter-%d")
+                                                                                        .setDaemon(true)
+                                                                                        .build());
+        executor.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, MILLISECONDS);
+    }
+
+    /**
+     * Creates new file, or truncates existing one, and returns consumer that writes lines to it. Consumer must be closed when it
+     * isn't needed anymore.
+     */
+    public AsyncFileLineConsumer open(File file) throws IOException {
+        final AsyncFileLineConsumer consumer = new AsyncFileLineConsumer(file, this);
+        final AsyncFileLineConsumer previous = openFiles.put(file.getAbsoluteFile(), consumer);
+        if (previous != null) {
+            LOG.warn("Log file {} is opened twice", file);
+        }
+        return consumer;
+    }
+
+    /**
+     * Opens reader of log file including its rotated parts. If file is opened for writing all buffered lines are written before
+     * reading, so reader sees all lines that were written before this method is called.
+     */
+    public Reader newReader(File file) throws IOException {
+        final AsyncFileLineConsumer consumer = openFiles.get(file.getAbsoluteFile());
+        if (consumer != null) {
+            return consumer.newReader();
+        }
+        return AsyncFileLineConsumer.openReader(file, maxFiles);
+    }
+
+    /** Closes all opened files. */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        for (AsyncFileLineConsumer consumer : new ArrayList<>(openFiles.values())) {
+            try {
+                consumer.close();
+            } catch (IOException e) {
+                LOG.warn("Unable close log file {}. {}", consumer.getFile(), e.getMessage());
+            }
+        }
+    }
+
+    /** Returns number of files that are opened for writing and aren't closed yet. */
+    public int getOpenFileCount() {
+        return openFiles.size();
+    }
+
+    int getBufferLines() {
+        return bufferLines;
+    }
+
+    FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    int getMaxFiles() {
+        return maxFiles;
+    }
+
+    void scheduleFlush(AsyncFileLineConsumer consumer) {
+        try {
+            executor.execute(() -> flush(consumer));
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Unable flush log file {}, executor rejected task", consumer.getFile());
+        }
+    }
+
+    void closed(AsyncFileLineConsumer consumer) {
+        openFiles.remove(consumer.getFile().getAbsoluteFile(), consumer);
+    }
+
+    private void flushAll() {
+        for (AsyncFileLineConsumer consumer : openFiles.values()) {
+            flush(consumer);
+        }
+    }
+
+    private void flush(AsyncFileLineConsumer consumer) {
+        try {
+            consumer.flush();
+        } catch (IOException e) {
+            LOG.warn("Unable write log file {}. {}", consumer.getFile(), e.getMessage());
+        }
+    }
+}
@@ -10,11 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.everrest;
 
-import com.google.common.hash.HashCode;
+import com.google.common.hash.Funnels;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
 
+import org.eclipse.che.api.core.rest.CheJsonProvider;
+import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.everrest.core.ApplicationContext;
 import org.everrest.core.Filter;
@@ -24,13 +27,18 @@ import org.everrest.core.impl.ApplicationContextImpl;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 
-import java.nio.charset.Charset;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.JSON_SERIALIZABLE;
 import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.STRING;
 import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.UNKNOWN;
@@ -38,12 +46,17 @@ import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.UNKNOWN;
 /**
  * Filter implementing {@link org.everrest.core.ResponseFilter} in order to generate ETag for clients that want to use conditional
  * requests.
- * It is applying on GET method and JSON content type only.
+ * It is applying on GET method and JSON content type only. If resource tags response itself, e.g. because its entity can't be
+ * hashed as JSON, filter only checks conditional request against that tag, regardless of content type.
+ * <p>
+ * Tag is a fast non-cryptographic hash of entity. DTOs are serialized only once: JSON is hashed while it is written to the buffer
+ * and the buffer is sent as entity of response.
  *
  * @author Florent Benoit
  */
 @Filter
 public class ETagResponseFilter implements ResponseFilter {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
 
     public enum EntityType {
         JSON_SERIALIZABLE,
@@ -67,11 +80,6 @@ public class ETagResponseFilter implements ResponseFilter {
             return;
         }
 
-        // Only handle JSON content
-        if (!MediaType.APPLICATION_JSON_TYPE.equals(containerResponse.getContentType())) {
-            return;
-        }
-
         // Get the request
         ApplicationContext applicationContext = ApplicationContextImpl.getCurrent();
         Request request = applicationContext.getRequest();
@@ -81,46 +89,77 @@ public class ETagResponseFilter implements ResponseFilter {
             return;
         }
 
-        // calculate hash with MD5
-        HashFunction hashFunction = Hashing.md5();
-        Hasher hasher = hashFunction.newHasher();
-        boolean hashingSuccess = true;
-
-        // Manage a list
-        if (entity instanceof List) {
-            List<?> entities = (List)entity;
-            for (Object simpleEntity : entities) {
-                hashingSuccess = addHash(simpleEntity, hasher);
-                if (!hashingSuccess) {
-                    break;
-                }
+        // ETag is already provided by resource, e.g. for file content, only check it
+        Object existingTag = containerResponse.getHttpHeaders().getFirst(HttpHeaders.ETAG);
+        if (existingTag != null) {
+            EntityTag entityTag = existingTag instanceof EntityTag ? (EntityTag)existingTag : EntityTag.valueOf(existingTag.toString());
+            Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
+            if (builder != null) {
+                containerResponse.setResponse(builder.tag(entityTag).build());
             }
-        } else {
-            hashingSuccess = addHash(entity, hasher);
+            return;
         }
 
-        // if we're able to handle the hash
-        if (hashingSuccess) {
+        // Only handle JSON content
+        if (!MediaType.APPLICATION_JSON_TYPE.equals(containerResponse.getContentType())) {
+            return;
+        }
 
-            // get result of the hash
-            HashCode hashCode = hasher.hash();
+        final EntityTag entityTag;
+        byte[] content = null;
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        if (dtoFactory.isJsonSerializable(entity)) {
+            // serialize DTOs once, the same bytes are hashed and sent to client
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final HashingOutputStream hashing = new HashingOutputStream(HASH_FUNCTION, bytes);
+            try (Writer writer = new OutputStreamWriter(hashing, UTF_8)) {
+                dtoFactory.toJson(entity, writer);
+            } catch (IOException | RuntimeException e) {
+                return;
+            }
+            entityTag = new EntityTag(hashing.hash().toString());
+            content = bytes.toByteArray();
+        } else {
+            final Hasher hasher = HASH_FUNCTION.newHasher();
+            boolean hashingSuccess = true;
+
+            // Manage a list
+            if (entity instanceof List) {
+                List<?> entities = (List)entity;
+                for (Object simpleEntity : entities) {
+                    hashingSuccess = addHash(simpleEntity, hasher);
+                    if (!hashingSuccess) {
+                        break;
+                    }
+                }
+            } else {
+                hashingSuccess = addHash(entity, hasher);
+            }
 
-            // Create the entity tag
-            EntityTag entityTag = new EntityTag(hashCode.toString());
+            // unable to handle the hash
+            if (!hashingSuccess) {
+                return;
+            }
+            entityTag = new EntityTag(hasher.hash().toString());
+        }
 
-            // Check the etag
-            Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
+        // Check the etag
+        Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
 
-            // not modified ?
-            if (builder != null) {
-                containerResponse.setResponse(builder.tag(entityTag).build());
-            } else {
-                // it has been changed, so send response with new ETag and entity
-                Response.ResponseBuilder responseBuilder = Response.fromResponse(containerResponse.getResponse()).tag(entityTag);
-                containerResponse.setResponse(responseBuilder.build());
+        // not modified ?
+        if (builder != null) {
+            containerResponse.setResponse(builder.tag(entityTag).build());
+        } else {
+            // it has been changed, so send response with new ETag and entity
+            Response.ResponseBuilder responseBuilder = Response.fromResponse(containerResponse.getResponse()).tag(entityTag);
+            if (content != null) {
+                // already serialized entity, it is written as is, Cache-Control is the same as for DTOs written by CheJsonProvider
+                responseBuilder.entity(content)
+                               .header(HttpHeaders.CONTENT_LENGTH, content.length)
+                               .header(HttpHeaders.CACHE_CONTROL, CheJsonProvider.DEFAULT_CACHE_CONTROL);
             }
+            containerResponse.setResponse(responseBuilder.build());
         }
-
     }
 
     /**
@@ -142,8 +181,15 @@ public class ETagResponseFilter implements ResponseFilter {
         }
         // add hash if all is OK
         try {
-            hasher.putString(getJson(entity, entityType), Charset.defaultCharset());
-        } catch (RuntimeException e) {
+            if (entityType == JSON_SERIALIZABLE) {
+                // JSON is written directly to the hasher, without building of JSON string
+                try (Writer writer = new OutputStreamWriter(Funnels.asOutputStream(hasher), UTF_8)) {
+                    DtoFactory.getInstance().toJson(entity, writer);
+                }
+            } else {
+                hasher.putString(getJson(entity, entityType), UTF_8);
+            }
+        } catch (IOException | RuntimeException e) {
             return false;
         }
         return true;
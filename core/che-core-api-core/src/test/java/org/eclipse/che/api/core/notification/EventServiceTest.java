@@ -15,8 +15,14 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author andrew00x
@@ -157,4 +163,207 @@ public class EventServiceTest {
         bus.publish(new Event());
         Assert.assertEquals(events.size(), 0);
     }
+
+    @Test
+    public void testAsyncDeliveryKeepsOrderOfEventsWithSameKey() throws Exception {
+        final Map<String, List<String>> events = new ConcurrentHashMap<>();
+        final CountDownLatch delivered = new CountDownLatch(300);
+        final EventSubscriber<Event> subscriber = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.computeIfAbsent(event.data.substring(0, 1), k -> Collections.synchronizedList(new ArrayList<>())).add(event.data);
+                delivered.countDown();
+            }
+        };
+        bus.subscribe(subscriber, Event.class, AsyncDeliveryPolicy.<Event>defaults().partitionedBy(e -> e.data.substring(0, 1), 3)
+                                                                                      .withQueueCapacity(10));
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new Event("a" + i));
+            bus.publish(new Event("b" + i));
+            bus.publish(new Event("c" + i));
+        }
+
+        Assert.assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        for (String key : Arrays.asList("a", "b", "c")) {
+            List<String> keyEvents = events.get(key);
+            Assert.assertEquals(keyEvents.size(), 100);
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals(keyEvents.get(i), key + i);
+            }
+        }
+        Assert.assertEquals(bus.getAsyncDeliveryMetrics(subscriber).getDeliveredCount(), 300);
+        bus.stop();
+    }
+
+    @Test
+    public void testAsyncDeliveryDoesNotBlockPublisher() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+                events.add(event);
+            }
+        };
+        bus.subscribe(subscriber, String.class, AsyncDeliveryPolicy.<String>defaults()
+                                                                   .withQueueCapacity(2)
+                                                                   .withBackpressure(AsyncDeliveryPolicy.Backpressure.DROP_NEWEST));
+        for (int i = 0; i < 10; i++) {
+            bus.publish("event" + i);
+        }
+        Assert.assertTrue(events.isEmpty());
+        release.countDown();
+
+        AsyncDeliveryMetrics metrics = bus.getAsyncDeliveryMetrics(subscriber);
+        for (int i = 0; i < 100 && metrics.getDeliveredCount() + metrics.getDroppedCount() < 10; i++) {
+            Thread.sleep(50);
+            metrics = bus.getAsyncDeliveryMetrics(subscriber);
+        }
+        Assert.assertEquals(metrics.getDeliveredCount() + metrics.getDroppedCount(), 10);
+        Assert.assertTrue(metrics.getDroppedCount() >= 7);
+        Assert.assertEquals(events.get(0), "event0");
+        bus.stop();
+    }
+
+    @Test
+    public void testUnsubscribeAsyncSubscriber() {
+        final EventSubscriber<Event> subscriber = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+            }
+        };
+        bus.subscribe(subscriber, Event.class, AsyncDeliveryPolicy.defaults());
+        Assert.assertNotNull(bus.getAsyncDeliveryMetrics(subscriber));
+
+        bus.unsubscribe(subscriber);
+
+        Assert.assertNull(bus.getAsyncDeliveryMetrics(subscriber));
+        bus.publish(new Event());
+        bus.stop();
+    }
+
+    @Test
+    public void testUnsubscribeDiscardsQueuedEventsAndReleasesPublishers() throws Exception {
+        final CountDownLatch deliveryStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                deliveryStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+                events.add(event);
+            }
+        };
+        bus.subscribe(subscriber, String.class, AsyncDeliveryPolicy.<String>defaults()
+                                                                   .withQueueCapacity(1)
+                                                                   .withBackpressure(AsyncDeliveryPolicy.Backpressure.BLOCK));
+        bus.publish("event0");
+        Assert.assertTrue(deliveryStarted.await(10, TimeUnit.SECONDS));
+        // the first event is being delivered, the second one takes the only place in queue, others wait for space
+        final List<Thread> publishers = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            final String event = "event" + i;
+            final Thread publisher = new Thread(() -> bus.publish(event));
+            publisher.start();
+            publishers.add(publisher);
+        }
+        for (int i = 0; i < 100 && bus.getAsyncDeliveryMetrics(subscriber).getQueueDepth() == 0; i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(bus.getAsyncDeliveryMetrics(subscriber).getQueueDepth(), 1);
+
+        bus.unsubscribe(subscriber);
+
+        for (Thread publisher : publishers) {
+            publisher.join(10000);
+            Assert.assertFalse(publisher.isAlive(), "Publisher still waits for space in queue");
+        }
+        release.countDown();
+        bus.publish("event4");
+        Thread.sleep(200);
+        Assert.assertEquals(events, Collections.singletonList("event0"));
+        bus.stop();
+    }
+
+    @Test
+    public void testEventsPublishedToAsyncSubscriberAfterStopAreDropped() {
+        final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+        final EventSubscriber<Event> subscriber = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event);
+            }
+        };
+        bus.subscribe(subscriber, Event.class, AsyncDeliveryPolicy.defaults());
+
+        bus.stop();
+        for (int i = 0; i < 5; i++) {
+            bus.publish(new Event());
+        }
+
+        final AsyncDeliveryMetrics metrics = bus.getAsyncDeliveryMetrics(subscriber);
+        Assert.assertEquals(metrics.getDroppedCount(), 5);
+        Assert.assertEquals(metrics.getQueueDepth(), 0);
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testAsyncSubscribeAfterStopFails() {
+        bus.stop();
+        bus.subscribe(new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+            }
+        }, Event.class, AsyncDeliveryPolicy.defaults());
+    }
+
+    @Test
+    public void testStopReleasesPublishersThatWaitForSpaceInQueue() throws Exception {
+        final CountDownLatch deliveryStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                deliveryStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        bus.subscribe(subscriber, String.class, AsyncDeliveryPolicy.<String>defaults()
+                                                                   .withQueueCapacity(1)
+                                                                   .withBackpressure(AsyncDeliveryPolicy.Backpressure.BLOCK));
+        bus.publish("event0");
+        Assert.assertTrue(deliveryStarted.await(10, TimeUnit.SECONDS));
+        // the first event is being delivered, the second one takes the only place in queue, others wait for space
+        final List<Thread> publishers = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            final String event = "event" + i;
+            final Thread publisher = new Thread(() -> bus.publish(event));
+            publisher.start();
+            publishers.add(publisher);
+        }
+        for (int i = 0; i < 100 && bus.getAsyncDeliveryMetrics(subscriber).getQueueDepth() == 0; i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(bus.getAsyncDeliveryMetrics(subscriber).getQueueDepth(), 1);
+
+        bus.stop();
+
+        for (Thread publisher : publishers) {
+            publisher.join(10000);
+            Assert.assertFalse(publisher.isAlive(), "Publisher still waits for space in queue");
+        }
+        Assert.assertEquals(bus.getAsyncDeliveryMetrics(subscriber).getDroppedCount(), 3);
+        release.countDown();
+    }
 }
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.user.User;
+import org.eclipse.che.commons.user.UserImpl;
+import org.everrest.assured.EverrestJetty;
+import org.everrest.core.Filter;
+import org.everrest.core.GenericContainerRequest;
+import org.everrest.core.RequestFilter;
+import org.testng.ITestContext;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.api.core.util.LinksHelper.createLink;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests of {@link PooledHttpJsonRequestFactory}.
+ *
+ * @author andrew00x
+ */
+@Listeners(EverrestJetty.class)
+public class PooledHttpJsonRequestFactoryTest {
+
+    @SuppressWarnings("unused") // used by EverrestJetty
+    private static final EnvironmentFilter  FILTER           = new EnvironmentFilter();
+    @SuppressWarnings("unused") // used by EverrestJetty
+    private static final ApiExceptionMapper EXCEPTION_MAPPER = new ApiExceptionMapper();
+    @SuppressWarnings("unused") // used by EverrestJetty
+    private static final TestService        TEST_SERVICE     = new TestService();
+    private static final User               TEST_USER        = new UserImpl("name", "id", "token", null, false);
+
+    private PooledHttpJsonRequestFactory factory;
+
+    @BeforeMethod
+    public void setUp() {
+        factory = new PooledHttpJsonRequestFactory(1, 10000, 10000, 2);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        factory.stop();
+        EnvironmentContext.reset();
+    }
+
+    @Test
+    public void shouldReadListOfDtosFromResponse(ITestContext ctx) throws Exception {
+        final Link link = createLink("GET", "localhost:8080/application-json", "rel");
+
+        final List<Link> links = factory.fromUrl(getUrl(ctx) + "/application-json")
+                                        .usePostMethod()
+                                        .setBody(singletonList(link))
+                                        .request()
+                                        .asList(Link.class);
+
+        assertEquals(links, singletonList(link));
+    }
+
+    @Test
+    public void shouldReleaseConnectionAfterEachRequest(ITestContext ctx) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(factory.fromUrl(getUrl(ctx) + "/application-json").useGetMethod().request().asString(),
+                         TestService.JSON_OBJECT);
+        }
+
+        final HttpJsonRequestMetrics metrics = factory.getMetrics();
+        assertEquals(metrics.getRequestCount(), 5);
+        assertEquals(metrics.getFailedCount(), 0);
+        assertEquals(metrics.getActiveCount(), 0);
+        assertEquals(metrics.getSaturatedCount(), 0);
+    }
+
+    @Test
+    public void shouldMakeRequestAsynchronouslyWithTokenFromCurrentContext(ITestContext ctx) throws Exception {
+        final EnvironmentContext context = new EnvironmentContext();
+        context.setUser(TEST_USER);
+        EnvironmentContext.setCurrent(context);
+
+        final HttpJsonResponse response = factory.fromUrl(getUrl(ctx) + "/token")
+                                                 .usePostMethod()
+                                                 .requestAsync()
+                                                 .get(10, TimeUnit.SECONDS);
+
+        assertEquals(response.getResponseCode(), 204);
+    }
+
+    @Test
+    public void shouldCompleteAsynchronousRequestExceptionallyWhenServerRespondsWithError(ITestContext ctx) throws Exception {
+        try {
+            factory.fromUrl(getUrl(ctx) + "/404/response-code-test").useGetMethod().requestAsync().get(10, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NotFoundException);
+        }
+
+        final HttpJsonRequestMetrics metrics = factory.getMetrics();
+        assertEquals(metrics.getRequestCount(), 1);
+        assertEquals(metrics.getFailedCount(), 1);
+    }
+
+    @Test
+    public void shouldFailWhenThereIsNoFreeConnectionToHostWithinTimeout(ITestContext ctx) throws Exception {
+        final Semaphore connection = factory.acquire(getUrl(ctx), 10);
+        try {
+            factory.fromUrl(getUrl(ctx) + "/application-json").useGetMethod().setTimeout(10).request();
+            fail("IOException expected");
+        } catch (IOException expected) {
+            assertEquals(factory.getMetrics().getSaturatedCount(), 1);
+        } finally {
+            factory.release(connection, System.nanoTime(), false);
+        }
+
+        assertEquals(factory.fromUrl(getUrl(ctx) + "/application-json").useGetMethod().request().asString(), TestService.JSON_OBJECT);
+    }
+
+    @Test
+    public void shouldCloseConnectionWhenResponseHasUnexpectedContentType(ITestContext ctx) throws Exception {
+        final HttpURLConnection[] connection = new HttpURLConnection[1];
+        final PooledHttpJsonRequest request = new PooledHttpJsonRequest(factory, getUrl(ctx) + "/text-plain") {
+            @Override
+            protected HttpURLConnection openConnection(String url, int timeout) throws IOException {
+                return connection[0] = spy(super.openConnection(url, timeout));
+            }
+        };
+        try {
+            request.useGetMethod().request();
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+
+        verify(connection[0]).disconnect();
+        assertEquals(factory.getMetrics().getActiveCount(), 0);
+    }
+
+    @Test
+    public void shouldKeepConnectionWhenResponseBodyIsConsumed() {
+        final HttpURLConnection connection = mock(HttpURLConnection.class);
+
+        new PooledHttpJsonRequest(factory, "http://localhost").releaseConnection(connection, true);
+
+        verify(connection, never()).disconnect();
+    }
+
+    @Test
+    public void shouldCloseConnectionWhenResponseBodyIsNotConsumed() {
+        final HttpURLConnection connection = mock(HttpURLConnection.class);
+
+        new PooledHttpJsonRequest(factory, "http://localhost").releaseConnection(connection, false);
+
+        verify(connection).disconnect();
+    }
+
+    @Filter
+    public static class EnvironmentFilter implements RequestFilter {
+
+        public void doFilter(GenericContainerRequest request) {
+            EnvironmentContext.getCurrent().setUser(TEST_USER);
+        }
+    }
+
+    private String getUrl(ITestContext ctx) {
+        return "http://localhost:" + ctx.getAttribute(EverrestJetty.JETTY_PORT) + "/rest/test";
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author andrew00x
+ */
+public class BatchingWebsocketLineConsumerTest {
+    private ScheduledExecutorService executor;
+    private List<String>             messages;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        messages = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void sendsLinesAsSingleMessageWhenClosed() throws Exception {
+        BatchingWebsocketLineConsumer consumer = createConsumer(100, 1024, 60000, 1000);
+
+        consumer.writeLine("first");
+        consumer.writeLine("second \"quoted\"");
+        consumer.close();
+
+        assertEquals(messages, Arrays.asList("[\"first\",\"second \\\"quoted\\\"\"]"));
+    }
+
+    @Test
+    public void sendsBatchWhenItReachesMaxNumberOfLines() throws Exception {
+        BatchingWebsocketLineConsumer consumer = createConsumer(2, 1024, 60000, 1000);
+
+        consumer.writeLine("1");
+        consumer.writeLine("2");
+        consumer.writeLine("3");
+        waitForMessages(1);
+        consumer.close();
+
+        assertEquals(messages, Arrays.asList("[\"1\",\"2\"]", "[\"3\"]"));
+    }
+
+    @Test
+    public void sendsBatchWhenFlushIntervalIsOver() throws Exception {
+        BatchingWebsocketLineConsumer consumer = createConsumer(100, 1024, 50, 1000);
+
+        consumer.writeLine("1");
+        waitForMessages(1);
+
+        assertEquals(messages, Arrays.asList("[\"1\"]"));
+    }
+
+    @Test
+    public void dropsOldestLinesWhenLinesAreWrittenFasterThanSent() throws Exception {
+        executor.shutdown();
+        BatchingWebsocketLineConsumer consumer = createConsumer(3, 1024, 60000, 3);
+
+        for (int i = 1; i <= 5; i++) {
+            consumer.writeLine(String.valueOf(i));
+        }
+        consumer.close();
+
+        assertEquals(consumer.getDroppedLines(), 2);
+        assertEquals(messages, Arrays.asList("[\"[... 2 lines skipped ...]\",\"3\",\"4\"]", "[\"5\"]"));
+    }
+
+    @Test
+    public void ignoresLinesWrittenAfterClose() throws Exception {
+        BatchingWebsocketLineConsumer consumer = createConsumer(100, 1024, 60000, 1000);
+
+        consumer.close();
+        consumer.writeLine("1");
+        consumer.close();
+
+        assertEquals(messages.size(), 0);
+    }
+
+    private BatchingWebsocketLineConsumer createConsumer(int maxBatchLines, int maxBatchChars, long flushIntervalMillis,
+                                                         int maxPendingLines) {
+        return new BatchingWebsocketLineConsumer("channel", maxBatchLines, maxBatchChars, flushIntervalMillis, maxPendingLines,
+                                                 executor) {
+            @Override
+            protected void sendMessage(ChannelBroadcastMessage message) {
+                messages.add(message.getBody());
+            }
+        };
+    }
+
+    private void waitForMessages(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (messages.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.eclipse.che.api.core.util.LogFileWriter.FsyncPolicy.NEVER;
+import static org.eclipse.che.api.core.util.LogFileWriter.FsyncPolicy.ON_FLUSH;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author andrew00x
+ */
+public class LogFileWriterTest {
+    private File          dir;
+    private LogFileWriter logFileWriter;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("logs").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (logFileWriter != null) {
+            logFileWriter.stop();
+        }
+        IoUtil.deleteRecursive(dir);
+    }
+
+    @Test
+    public void doesNotWriteLinesToFileImmediately() throws Exception {
+        logFileWriter = new LogFileWriter(100, 60000, NEVER, 0, 0);
+        final File file = new File(dir, "log");
+        final AsyncFileLineConsumer consumer = logFileWriter.open(file);
+
+        consumer.writeLine("first");
+
+        assertEquals(file.length(), 0);
+        consumer.close();
+        assertEquals(Files.readAllLines(file.toPath()), Arrays.asList("first"));
+    }
+
+    @Test
+    public void writesLinesWhenFlushIntervalIsOver() throws Exception {
+        logFileWriter = new LogFileWriter(100, 50, ON_FLUSH, 0, 0);
+        final File file = new File(dir, "log");
+        final AsyncFileLineConsumer consumer = logFileWriter.open(file);
+
+        consumer.writeLine("first");
+        consumer.writeLine(null);
+        consumer.writeLine("third");
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (Files.readAllLines(file.toPath()).size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Files.readAllLines(file.toPath()), Arrays.asList("first", "", "third"));
+        consumer.close();
+    }
+
+    @Test
+    public void writesLinesInCurrentThreadWhenBufferIsFull() throws Exception {
+        logFileWriter = new LogFileWriter(2, 60000, NEVER, 0, 0);
+        final File file = new File(dir, "log");
+        final AsyncFileLineConsumer consumer = logFileWriter.open(file);
+
+        for (int i = 0; i < 100; i++) {
+            consumer.writeLine(Integer.toString(i));
+        }
+        consumer.close();
+
+        assertEquals(Files.readAllLines(file.toPath()), numbers(0, 100));
+    }
+
+    @Test
+    public void readerSeesAllWrittenLines() throws Exception {
+        logFileWriter = new LogFileWriter(100, 60000, NEVER, 0, 0);
+        final File file = new File(dir, "log");
+        final AsyncFileLineConsumer consumer = logFileWriter.open(file);
+
+        consumer.writeLine("first");
+        consumer.writeLine("second");
+
+        assertEquals(readLines(logFileWriter.newReader(file)), Arrays.asList("first", "second"));
+        consumer.close();
+        assertEquals(readLines(logFileWriter.newReader(file)), Arrays.asList("first", "second"));
+    }
+
+    @Test
+    public void rotatesFileWhenItExceedsMaxSize() throws Exception {
+        logFileWriter = new LogFileWriter(1, 60000, NEVER, 1, 2);
+        final File file = new File(dir, "log");
+        final AsyncFileLineConsumer consumer = logFileWriter.open(file);
+        final char[] chars = new char[300];
+        Arrays.fill(chars, 'x');
+        final String line = new String(chars);
+
+        // each file keeps 4 lines, the oldest lines are removed with the oldest file
+        for (int i = 0; i < 20; i++) {
+            consumer.writeLine(i + line);
+        }
+
+        assertTrue(AsyncFileLineConsumer.rotatedFile(file, 1).isFile());
+        assertTrue(AsyncFileLineConsumer.rotatedFile(file, 2).isFile());
+        assertFalse(AsyncFileLineConsumer.rotatedFile(file, 3).exists());
+        final List<String> expected = new ArrayList<>();
+        for (int i = 12; i < 20; i++) {
+            expected.add(i + line);
+        }
+        assertEquals(readLines(logFileWriter.newReader(file)), expected);
+        consumer.close();
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void failsToWriteLineWhenFileIsClosed() throws Exception {
+        logFileWriter = new LogFileWriter(100, 60000, NEVER, 0, 0);
+        final AsyncFileLineConsumer consumer = logFileWriter.open(new File(dir, "log"));
+        consumer.close();
+
+        consumer.writeLine("line");
+    }
+
+    @Test
+    public void forgetsFileWhenItIsClosed() throws Exception {
+        logFileWriter = new LogFileWriter(100, 60000, NEVER, 0, 0);
+        final AsyncFileLineConsumer consumer = logFileWriter.open(new File(dir, "log"));
+        assertEquals(logFileWriter.getOpenFileCount(), 1);
+
+        consumer.close();
+
+        assertEquals(logFileWriter.getOpenFileCount(), 0);
+    }
+
+    private static List<String> numbers(int from, int to) {
+        final List<String> numbers = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            numbers.add(Integer.toString(i));
+        }
+        return numbers;
+    }
+
+    private static List<String> readLines(Reader reader) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        try (BufferedReader bufferedReader = new BufferedReader(reader)) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -10,7 +10,11 @@
  *******************************************************************************/
 package org.eclipse.che.everrest;
 
+import com.google.common.hash.Hashing;
+
 import org.eclipse.che.api.core.rest.ApiExceptionMapper;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.DtoFactory;
 import org.everrest.core.impl.ApplicationContextImpl;
 import org.everrest.core.impl.ApplicationProviderBinder;
 import org.everrest.core.impl.ContainerRequest;
@@ -39,7 +43,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
 import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.testng.Assert.assertEquals;
@@ -82,6 +88,22 @@ public class ETagResponseFilterTest {
         }
 
 
+        @GET
+        @Path("/dto")
+        @Produces(APPLICATION_JSON)
+        public Link getDto() {
+            return createLink();
+        }
+
+        @GET
+        @Path("/tagged")
+        @Produces(APPLICATION_OCTET_STREAM)
+        public Response getTagged() {
+            return Response.ok("binary".getBytes())
+                           .tag(new EntityTag("1234"))
+                           .build();
+        }
+
         @GET
         @Path("/modify")
         @Produces(APPLICATION_JSON)
@@ -140,7 +162,7 @@ public class ETagResponseFilterTest {
         List<Object> headerTags = response.getHttpHeaders().get("ETag");
         Assert.assertNotNull(headerTags);
         Assert.assertEquals(headerTags.size(), 1);
-        Assert.assertEquals(headerTags.get(0), new EntityTag("900150983cd24fb0d6963f7d28e17f72"));
+        Assert.assertEquals(headerTags.get(0), new EntityTag("6778ad3f3f3f96b4522dca264174a23b"));
     }
 
     /**
@@ -167,7 +189,7 @@ public class ETagResponseFilterTest {
         // Check etag
         List<Object> headerTags = response.getHttpHeaders().get("ETag");
         Assert.assertNotNull(headerTags);
-        Assert.assertEquals(headerTags.get(0), new EntityTag("77e671575d94cfd400ed26c5ef08e0fd"));
+        Assert.assertEquals(headerTags.get(0), new EntityTag("2915591287dfb635d1b17b33cb80d30c"));
     }
 
     /**
@@ -184,7 +206,7 @@ public class ETagResponseFilterTest {
         List<Object> headerTags = response.getHttpHeaders().get("ETag");
         Assert.assertNotNull(headerTags);
         Assert.assertEquals(headerTags.size(), 1);
-        Assert.assertEquals(headerTags.get(0), new EntityTag("5d41402abc4b2a76b9719d911017c592"));
+        Assert.assertEquals(headerTags.get(0), new EntityTag("029bbd41b3a7d8cb191dae486a901e5b"));
     }
 
 
@@ -196,7 +218,7 @@ public class ETagResponseFilterTest {
     public void filterListEntityTestWithEtag() throws Exception {
 
         Map<String, List<String>> headers = new HashMap<>();
-        headers.put("If-None-Match", Collections.singletonList(new EntityTag("900150983cd24fb0d6963f7d28e17f72").toString()));
+        headers.put("If-None-Match", Collections.singletonList(new EntityTag("6778ad3f3f3f96b4522dca264174a23b").toString()));
 
 
         final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/list", BASE_URI, headers, null, null);
@@ -212,7 +234,7 @@ public class ETagResponseFilterTest {
     public void filterSingleEntityTestWithEtag() throws Exception {
 
         Map<String, List<String>> headers = new HashMap<>();
-        headers.put("If-None-Match", Collections.singletonList(new EntityTag("5d41402abc4b2a76b9719d911017c592").toString()));
+        headers.put("If-None-Match", Collections.singletonList(new EntityTag("029bbd41b3a7d8cb191dae486a901e5b").toString()));
 
 
         final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/single", BASE_URI, headers, null, null);
@@ -221,4 +243,70 @@ public class ETagResponseFilterTest {
         Assert.assertNull(response.getEntity());
     }
 
+
+    /**
+     * Check if DTO is serialized once and ETag is hash of the serialized DTO
+     */
+    @Test
+    public void filterDtoEntityTest() throws Exception {
+
+        final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/dto", BASE_URI, null, null, null);
+        assertEquals(response.getStatus(), OK.getStatusCode());
+        final String json = DtoFactory.getInstance().toJson(createLink());
+        // check entity, it is already serialized
+        Assert.assertEquals(response.getEntity(), json.getBytes(UTF_8));
+        // Check etag
+        List<Object> headerTags = response.getHttpHeaders().get("ETag");
+        Assert.assertNotNull(headerTags);
+        Assert.assertEquals(headerTags.size(), 1);
+        Assert.assertEquals(headerTags.get(0), new EntityTag(Hashing.murmur3_128().hashString(json, UTF_8).toString()));
+    }
+
+    /**
+     * Check if ETag of DTO sent with header is redirecting to NOT_MODIFIED
+     */
+    @Test
+    public void filterDtoEntityTestWithEtag() throws Exception {
+
+        final String json = DtoFactory.getInstance().toJson(createLink());
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match",
+                    Collections.singletonList(new EntityTag(Hashing.murmur3_128().hashString(json, UTF_8).toString()).toString()));
+
+        final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/dto", BASE_URI, headers, null, null);
+        assertEquals(response.getStatus(), NOT_MODIFIED.getStatusCode());
+        Assert.assertNull(response.getEntity());
+    }
+
+    /**
+     * Check if ETag provided by resource is kept for not JSON content
+     */
+    @Test
+    public void keepsEtagProvidedByResource() throws Exception {
+
+        final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/tagged", BASE_URI, null, null, null);
+        assertEquals(response.getStatus(), OK.getStatusCode());
+        List<Object> headerTags = response.getHttpHeaders().get("ETag");
+        Assert.assertNotNull(headerTags);
+        Assert.assertEquals(headerTags.size(), 1);
+        Assert.assertEquals(headerTags.get(0), new EntityTag("1234"));
+    }
+
+    /**
+     * Check if ETag provided by resource is redirecting to NOT_MODIFIED
+     */
+    @Test
+    public void notModifiedWithEtagProvidedByResource() throws Exception {
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Collections.singletonList(new EntityTag("1234").toString()));
+
+        final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/tagged", BASE_URI, headers, null, null);
+        assertEquals(response.getStatus(), NOT_MODIFIED.getStatusCode());
+        Assert.assertNull(response.getEntity());
+    }
+
+    private static Link createLink() {
+        return DtoFactory.newDto(Link.class).withHref("http://localhost/service/myservice/dto").withRel("self").withMethod("GET");
+    }
 }
@@ -22,6 +22,7 @@ import org.eclipse.che.dto.shared.JsonStringMap;
 import org.eclipse.che.dto.shared.SerializationIndex;
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.Primitives;
+import com.google.gson.stream.JsonReader;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
@@ -70,8 +71,10 @@ public class DtoImplServerTemplate extends DtoImpl {
         // equals, hashCode, serialization and copy constructor
         emitEqualsAndHashCode(methods, builder);
         emitSerializer(methods, builder);
+        emitStreamingSerializer(methods, builder);
         emitDeserializer(methods, builder);
         emitDeserializerShortcut(builder);
+        emitStreamingDeserializer(methods, builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
         emitDelegateMethods(builder);
@@ -301,8 +304,13 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("\n");
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
-        // The default toJson() creates its own JSON for internal printing, thus keeping JSONs values is safe
-        builder.append("      return gson.toJson(toJsonElementInt(false));\n");
+        builder.append("      java.io.StringWriter out = new java.io.StringWriter();\n");
+        builder.append("      try {\n");
+        builder.append("        toJson(newJsonWriter(out));\n");
+        builder.append("      } catch (IOException e) {\n");
+        builder.append("        throw new IllegalStateException(e.getMessage(), e);\n");
+        builder.append("      }\n");
+        builder.append("      return out.toString();\n");
         builder.append("    }\n");
         builder.append("\n");
         builder.append("    @Override\n");
@@ -451,6 +459,123 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
 
+    /** Generates a method that writes DTO to JsonWriter without building of JSON tree. */
+    private void emitStreamingSerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void toJson(JsonWriter writer) throws IOException {\n");
+        if (isCompactJson()) {
+            builder.append("      gson.toJson(toJsonElementInt(false), writer);\n");
+        } else {
+            builder.append("      writer.beginObject();\n");
+            for (Method getter : getters) {
+                builder.append("\n");
+                builder.append("      writer.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+                emitWriterImpl(expandType(getter.getGenericReturnType()), 0, builder, getJavaFieldName(getter.getName()), "      ");
+            }
+            builder.append("      writer.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to write the value of the given variable to JsonWriter. Output is the same as output of code produced by {@link
+     * #emitSerializerImpl(List, int, StringBuilder, String, String, String)}.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitWriterImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        Type type = expandedTypes.get(depth);
+        String var = depth == 0 ? "this." + inVar : inVar;
+        String childInVar = inVar + "_";
+        String entryVar = "entry" + depth;
+        Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            String ni = i;
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            } else {
+                builder.append(i).append("if (").append(var).append(" == null) {\n");
+                builder.append(i).append("  writer.nullValue();\n");
+                builder.append(i).append("} else {\n");
+                ni = i + "  ";
+            }
+            if (isList(rawClass)) {
+                builder.append(ni).append("writer.beginArray();\n");
+                builder.append(ni).append("for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(var)
+                       .append(") {\n");
+            } else {
+                builder.append(ni).append("writer.beginObject();\n");
+                builder.append(ni).append("for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                       .append(" : ").append(var).append(".entrySet()) {\n");
+                builder.append(ni).append("  ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                       .append(".getValue();\n");
+                builder.append(ni).append("  writer.name(").append(entryVar).append(".getKey());\n");
+            }
+            emitWriterImpl(expandedTypes, depth + 1, builder, childInVar, ni + "  ");
+            builder.append(ni).append("}\n");
+            builder.append(ni).append(isList(rawClass) ? "writer.endArray();\n" : "writer.endObject();\n");
+            if (depth > 0) {
+                builder.append(i).append("}\n");
+            }
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("writer.value(").append(var).append(" == null ? null : ").append(var).append(".name());\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitWriteNullOr(var, "((" + getImplNameForDto(rawClass) + ")" + var + ").toJson(writer)", i, builder);
+        } else if (rawClass.equals(String.class)) {
+            builder.append(i).append("writer.value(").append(var).append(");\n");
+        } else if (rawClass == boolean.class) {
+            builder.append(i).append("writer.value(").append(var).append(");\n");
+        } else if (rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == float.class
+                   || rawClass == short.class
+                   || rawClass == byte.class) {
+            // Write boxed value to get the same output as JsonPrimitive, e.g. float 0.1 must not be widened to double
+            builder.append(i).append("writer.value((Number)").append(var).append(");\n");
+        } else if (rawClass == Boolean.class) {
+            emitWriteNullOr(var, "writer.value(" + var + ".booleanValue())", i, builder);
+        } else if (rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            builder.append(i).append("writer.value(").append(var).append(");\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("if (").append(var).append(" instanceof JsonElement) {\n");
+            builder.append(i).append("  gson.toJson((JsonElement)").append(var).append(", writer);\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitWriteNullOr(var, "((JsonSerializable)" + var + ").toJson(writer)", i, builder);
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    private void emitWriteNullOr(String var, String statement, String i, StringBuilder builder) {
+        builder.append(i).append("if (").append(var).append(" == null) {\n");
+        builder.append(i).append("  writer.nullValue();\n");
+        builder.append(i).append("} else {\n");
+        builder.append(i).append("  ").append(statement).append(";\n");
+        builder.append(i).append("}\n");
+    }
+
     /** Generates a static factory method that creates a new instance based on a JsonElement. */
     private void emitDeserializer(List<Method> getters, StringBuilder builder) {
         // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any' properties
@@ -489,6 +614,137 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /** Generates a static factory method that reads new instance from JsonReader without building of JSON tree. */
+    private void emitStreamingDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" fromJson(JsonReader reader) throws IOException {\n");
+        final Set<String> jsonFieldNames = new HashSet<>();
+        boolean uniqueNames = true;
+        for (Method getter : getters) {
+            uniqueNames &= jsonFieldNames.add(getJsonFieldName(getter));
+        }
+        if (isCompactJson() || !uniqueNames) {
+            // Array based JSON and JSON objects which fields are mapped to more than one property are read through JSON tree.
+            builder.append("      return fromJsonElement(new JsonParser().parse(reader), false);\n");
+            builder.append("    }\n\n");
+            return;
+        }
+        builder.append("      if (reader.peek() == JsonToken.NULL) {\n");
+        builder.append("        reader.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      reader.beginObject();\n");
+        builder.append("      while (reader.hasNext()) {\n");
+        builder.append("        switch (reader.nextName()) {\n");
+        for (Method getter : getters) {
+            final String fieldName = getFieldNameFromGetterName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ").append(quoteStringLiteral(getJsonFieldName(getter))).append(": {\n");
+            emitReaderImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ");
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            reader.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      reader.endObject();\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to read the value of the given type from JsonReader. Result is the same as result of code produced by {@link
+     * #emitDeserializerImpl(List, int, StringBuilder, String, String, String)}.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java variable that will be the output for deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitReaderImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        Type type = expandedTypes.get(depth);
+        String childOutVar = outVar + "_";
+        Class<?> rawClass = getRawClass(type);
+
+        if (isList(rawClass) || isMap(rawClass)) {
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (reader.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  reader.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  reader.beginArray();\n");
+                builder.append(i).append("  while (reader.hasNext()) {\n");
+                emitReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  reader.endArray();\n");
+            } else {
+                String keyVar = "key" + depth;
+                builder.append(i).append("  reader.beginObject();\n");
+                builder.append(i).append("  while (reader.hasNext()) {\n");
+                builder.append(i).append("    String ").append(keyVar).append(" = reader.nextName();\n");
+                emitReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar)
+                       .append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  reader.endObject();\n");
+            }
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".fromJson(reader);\n");
+        } else if (rawClass == boolean.class) {
+            builder.append(i).append("boolean ").append(outVar).append(" = reader.nextBoolean();\n");
+        } else if (rawClass == int.class || rawClass == long.class || rawClass == double.class) {
+            String primitiveName = rawClass.getSimpleName();
+            String primitiveNameCap = primitiveName.substring(0, 1).toUpperCase() + primitiveName.substring(1);
+            builder.append(i).append(primitiveName).append(" ").append(outVar).append(" = reader.next").append(primitiveNameCap)
+                   .append("();\n");
+        } else if (rawClass == short.class || rawClass == byte.class) {
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = (").append(rawClass.getSimpleName())
+                   .append(")reader.nextInt();\n");
+        } else if (rawClass == float.class) {
+            builder.append(i).append("float ").append(outVar).append(" = (float)reader.nextDouble();\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("JsonElement ").append(outVar).append(" = new JsonParser().parse(reader);\n");
+        } else if (rawClass.equals(String.class)) {
+            builder.append(i).append("String ").append(outVar).append(" = readString(reader);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            String className = getImplName(rawClass, false);
+            if (dtoImplementation != null) {
+                builder.append(i).append(className).append(" ").append(outVar).append(" = ");
+                if (hasStreamingDeserializer(dtoImplementation)) {
+                    builder.append(dtoImplementation.getCanonicalName()).append(".fromJson(reader);\n");
+                } else {
+                    builder.append(dtoImplementation.getCanonicalName()).append(".fromJsonElement(new JsonParser().parse(reader), false);\n");
+                }
+            } else {
+                // Use gson to handle all other types.
+                String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.fromJson(reader, ")
+                       .append(rawClassName).append(".class);\n");
+            }
+        }
+    }
+
+    /** Implementation of DTO from dependencies might be generated before streaming deserialization was introduced. */
+    private static boolean hasStreamingDeserializer(Class<?> dtoImplementation) {
+        try {
+            dtoImplementation.getMethod("fromJson", JsonReader.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     private void emitDeserializeFieldForMethod(Method method, StringBuilder builder) {
         final String fieldName = getFieldNameFromGetterName(method.getName());
         final String fieldNameIn = fieldName + "In";
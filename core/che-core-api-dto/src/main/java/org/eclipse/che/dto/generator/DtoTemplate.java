@@ -201,7 +201,11 @@ public class DtoTemplate {
             builder.append("import com.google.gson.JsonObject;\n");
             builder.append("import com.google.gson.JsonParser;\n");
             builder.append("import com.google.gson.JsonPrimitive;\n");
+            builder.append("import com.google.gson.stream.JsonReader;\n");
+            builder.append("import com.google.gson.stream.JsonToken;\n");
+            builder.append("import com.google.gson.stream.JsonWriter;\n");
             builder.append("\n");
+            builder.append("import java.io.IOException;\n");
             builder.append("import java.util.List;\n");
             builder.append("import java.util.Map;\n");
         }
@@ -230,6 +234,25 @@ public class DtoTemplate {
         builder.append(" {\n\n");
         if ("server".equals(implType)) {
             builder.append("  private static final Gson gson = new GsonBuilder().disableHtmlEscaping().create();\n\n");
+            // JsonWriter that produces the same output as gson.toJson(JsonElement)
+            builder.append("  private static JsonWriter newJsonWriter(java.io.Writer out) {\n");
+            builder.append("    JsonWriter writer = new JsonWriter(out);\n");
+            builder.append("    writer.setLenient(true);\n");
+            builder.append("    writer.setSerializeNulls(false);\n");
+            builder.append("    return writer;\n");
+            builder.append("  }\n\n");
+            // Reads string in the same way as gson does, i.e. boolean value is converted to string
+            builder.append("  private static String readString(JsonReader reader) throws IOException {\n");
+            builder.append("    JsonToken token = reader.peek();\n");
+            builder.append("    if (token == JsonToken.NULL) {\n");
+            builder.append("      reader.nextNull();\n");
+            builder.append("      return null;\n");
+            builder.append("    }\n");
+            builder.append("    if (token == JsonToken.BOOLEAN) {\n");
+            builder.append("      return Boolean.toString(reader.nextBoolean());\n");
+            builder.append("    }\n");
+            builder.append("    return reader.nextString();\n");
+            builder.append("  }\n\n");
             builder.append("  @Override\n" +
                            "  public void accept(org.eclipse.che.dto.server.DtoFactory dtoFactory) {\n");
             for (DtoImpl dto : getDtoInterfaces()) {
@@ -248,6 +271,9 @@ public class DtoTemplate {
                 builder.append("        public ").append(dtoInterface).append(" fromJson(com.google.gson.JsonElement json) {\n")
                        .append("            return ").append(dto.getImplClassName()).append(".fromJsonElement(json);\n");
                 builder.append("        }\n\n");
+                builder.append("        public ").append(dtoInterface).append(" fromJson(JsonReader reader) throws IOException {\n")
+                       .append("            return ").append(dto.getImplClassName()).append(".fromJson(reader);\n");
+                builder.append("        }\n\n");
                 builder.append("        public ").append(dtoInterface).append(" clone(").append(dtoInterface).append(" origin) {\n")
                        .append("            return new ").append(dto.getImplClassName()).append("(origin);\n");
                 builder.append("        }\n");
@@ -10,27 +10,28 @@
  *******************************************************************************/
 package org.eclipse.che.dto.server;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
-import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
 import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.io.StringReader;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,26 +44,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author andrew00x
  */
 public final class DtoFactory {
-    private static final Gson gson = new GsonBuilder().serializeNulls().create();
-
-    private static final LoadingCache<Type, ParameterizedType> listTypeCache = CacheBuilder.newBuilder().concurrencyLevel(16).build(
-            new CacheLoader<Type, ParameterizedType>() {
-                @Override
-                public ParameterizedType load(Type type) {
-                    return new ParameterizedTypeImpl(List.class, type);
-                }
-            });
-
-    private static final LoadingCache<Type, ParameterizedType> mapTypeCache = CacheBuilder.newBuilder().concurrencyLevel(16).build(
-            new CacheLoader<Type, ParameterizedType>() {
-                @Override
-                public ParameterizedType load(Type type) {
-                    return new ParameterizedTypeImpl(Map.class, String.class, type);
-                }
-            });
-
     private static final DtoFactory INSTANCE = new DtoFactory();
 
+    /** Writes JSON trees of DTOs in the same way as generated DTO implementations do, see {@link JsonSerializable#toJson(JsonWriter)}. */
+    static final Gson JSON_TREE_GSON = new GsonBuilder().disableHtmlEscaping().create();
+
     public static DtoFactory getInstance() {
         return INSTANCE;
     }
@@ -143,6 +129,61 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /**
+     * Writes JSON representation of DTO or collection of DTOs to specified writer. Unlike {@link #toJson(Object)} this method doesn't
+     * build string or JSON tree in memory, so it is suitable for big DTOs, e.g. tree of project items.
+     *
+     * @param dto
+     *         DTO or collection of DTOs
+     * @param out
+     *         writer for JSON data, this method doesn't close it
+     * @throws IllegalArgumentException
+     *         if {@code dto} or any element of collection isn't {@link JsonSerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toJson(T dto, Writer out) throws IOException {
+        if (!isJsonSerializable(dto)) {
+            throw new IllegalArgumentException("JsonSerializable instance required. ");
+        }
+        final JsonWriter writer = new JsonWriter(out);
+        // the same output as Gson produces for JsonElement
+        writer.setLenient(true);
+        writer.setSerializeNulls(false);
+        writeJson(dto, writer);
+        writer.flush();
+    }
+
+    /** Tests whether specified object is DTO or collection of DTOs which may be written with {@link #toJson(Object, Writer)}. */
+    public boolean isJsonSerializable(Object dto) {
+        if (dto instanceof JsonSerializable) {
+            return true;
+        }
+        if (dto instanceof Collection) {
+            for (Object item : (Collection<?>)dto) {
+                if (item != null && !isJsonSerializable(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void writeJson(Object dto, JsonWriter writer) throws IOException {
+        if (dto == null) {
+            writer.nullValue();
+        } else if (dto instanceof JsonSerializable) {
+            ((JsonSerializable)dto).toJson(writer);
+        } else {
+            writer.beginArray();
+            for (Object item : (Collection<?>)dto) {
+                writeJson(item, writer);
+            }
+            writer.endArray();
+        }
+    }
+
     public <T> JsonElement toJsonElement(T dto) {
         if (dto instanceof JsonSerializable) {
             return ((JsonSerializable)dto).toJsonElement();
@@ -176,7 +217,8 @@ public final class DtoFactory {
      *         if can't provide any implementation for specified interface
      */
     public <T> T createDtoFromJson(String json, Class<T> dtoInterface) {
-        return getDtoProvider(dtoInterface).fromJson(json);
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        return readJsonString(json, dtoProvider::fromJson);
     }
 
     /**
@@ -193,14 +235,8 @@ public final class DtoFactory {
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
-        }
-        return dtoProvider.fromJson(sb.toString());
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        return readJson(json, dtoProvider::fromJson);
     }
 
     /**
@@ -235,12 +271,7 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(String json, Class<T> dtoInterface) {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list = gson.fromJson(json, listTypeCache.getUnchecked(JsonElement.class));
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
-        }
-        return new JsonArrayImpl<>(result);
+        return readJsonString(json, reader -> readList(reader, dtoProvider));
     }
 
 
@@ -257,21 +288,7 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
-        try {
-            list = gson.fromJson(json, listTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
-            }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
-        }
-        return new JsonArrayImpl<>(result);
+        return readJson(json, reader -> readList(reader, dtoProvider));
     }
 
     /**
@@ -306,12 +323,7 @@ public final class DtoFactory {
      */
     public <T> JsonStringMap<T> createMapDtoFromJson(String json, Class<T> dtoInterface) {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map = gson.fromJson(json, mapTypeCache.getUnchecked(JsonElement.class));
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
-        }
-        return new JsonStringMapImpl<>(result);
+        return readJsonString(json, reader -> readMap(reader, dtoProvider));
     }
 
 
@@ -328,24 +340,9 @@ public final class DtoFactory {
      * @throws IOException
      *         if an i/o error occurs
      */
-    @SuppressWarnings("unchecked")
     public <T> JsonStringMap<T> createMapDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map;
-        try {
-            map = gson.fromJson(json, mapTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
-            }
-            throw e;
-        }
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
-        }
-        return new JsonStringMapImpl<>(result);
+        return readJson(json, reader -> readMap(reader, dtoProvider));
     }
 
     /**
@@ -367,6 +364,77 @@ public final class DtoFactory {
 
     //
 
+    /** Reads value from JSON stream. */
+    private interface JsonReadFunction<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    private static <T> T readJsonString(String json, JsonReadFunction<T> function) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return readJson(new StringReader(json), function);
+        } catch (IOException e) {
+            // never happens with StringReader
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads JSON data without building of JSON tree. Reader is lenient and errors are reported in the same way as Gson reports them,
+     * e.g. malformed JSON causes {@link JsonSyntaxException}. Empty document is read as {@code null}. Document must contain single value,
+     * data after the value causes {@link JsonSyntaxException}.
+     */
+    private static <T> T readJson(Reader json, JsonReadFunction<T> function) throws IOException {
+        final JsonReader reader = new JsonReader(json);
+        reader.setLenient(true);
+        try {
+            reader.peek();
+        } catch (EOFException e) {
+            return null;
+        } catch (MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        }
+        try {
+            final T result = function.read(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+            return result;
+        } catch (EOFException | MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static <T> JsonArray<T> readList(JsonReader reader, DtoProvider<T> dtoProvider) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        final List<T> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(dtoProvider.fromJson(reader));
+        }
+        reader.endArray();
+        return new JsonArrayImpl<>(result);
+    }
+
+    private static <T> JsonStringMap<T> readMap(JsonReader reader, DtoProvider<T> dtoProvider) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        final Map<String, T> result = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            result.put(reader.nextName(), dtoProvider.fromJson(reader));
+        }
+        reader.endObject();
+        return new JsonStringMapImpl<>(result);
+    }
+
     @SuppressWarnings("unchecked")
     private <T> DtoProvider<T> getDtoProvider(Class<T> dtoInterface) {
         DtoProvider<?> dtoProvider = dtoInterface2Providers.get(dtoInterface);
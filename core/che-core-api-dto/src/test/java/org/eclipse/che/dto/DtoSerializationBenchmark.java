@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Compares serialization and deserialization of DTOs through JSON tree with streaming serialization and deserialization. It is
+ * not a test and isn't run by build, run it manually from IDE or with command line:
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; org.eclipse.che.dto.DtoSerializationBenchmark [iterations]
+ * </pre>
+ * Prints number of operations per second and number of bytes allocated by single operation.
+ *
+ * @author andrew00x
+ */
+public class DtoSerializationBenchmark {
+    private static final DtoFactory DTO_FACTORY = DtoFactory.getInstance();
+    private static final Gson       GSON        = new Gson();
+
+    public static void main(String[] args) throws Exception {
+        final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        final ComplicatedDto dto = createDto();
+        final String json = DTO_FACTORY.toJson(dto);
+
+        for (int round = 0; round < 2; round++) {
+            // the first round is warm up
+            final boolean print = round > 0;
+            measure("write, JSON tree", iterations, print, () -> GSON.toJson(DTO_FACTORY.toJsonElement(dto)));
+            measure("write, streaming", iterations, print, () -> {
+                final StringWriter writer = new StringWriter();
+                DTO_FACTORY.toJson(dto, writer);
+                return writer;
+            });
+            measure("read, JSON tree", iterations, print,
+                    () -> DtoServerImpls.ComplicatedDtoImpl.fromJsonElement(new JsonParser().parse(json)));
+            measure("read, streaming", iterations, print,
+                    () -> DTO_FACTORY.createDtoFromJson(new StringReader(json), ComplicatedDto.class));
+        }
+    }
+
+    private static ComplicatedDto createDto() {
+        final List<SimpleDto> simpleDtos = new ArrayList<>();
+        final Map<String, SimpleDto> map = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final SimpleDto simpleDto = DTO_FACTORY.createDto(SimpleDto.class)
+                                                   .withName("name " + i)
+                                                   .withId(i)
+                                                   .withDefault("default \"value\" " + i);
+            simpleDtos.add(simpleDto);
+            map.put("key" + i, simpleDto);
+            strings.add("string " + i);
+        }
+        return DTO_FACTORY.createDto(ComplicatedDto.class)
+                          .withStrings(strings)
+                          .withSimpleDtos(simpleDtos)
+                          .withMap(map)
+                          .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE, ComplicatedDto.SimpleEnum.TWO)));
+    }
+
+    private static void measure(String name, int iterations, boolean print, Operation operation) throws Exception {
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        Object blackhole = null;
+        for (int i = 0; i < iterations; i++) {
+            blackhole = operation.run();
+        }
+        final long time = System.nanoTime() - start;
+        final long allocated = allocatedBytes() - allocatedBefore;
+        if (print) {
+            System.out.printf("%-20s %12.1f ops/s %12d bytes/op%n",
+                              name, iterations * 1e9 / time, allocated < 0 ? -1 : allocated / iterations);
+        }
+        if (blackhole == null) {
+            throw new IllegalStateException();
+        }
+    }
+
+    /** Returns number of bytes allocated by current thread or {@code -1} if JVM doesn't provide such information. */
+    private static long allocatedBytes() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private interface Operation {
+        Object run() throws Exception;
+    }
+}
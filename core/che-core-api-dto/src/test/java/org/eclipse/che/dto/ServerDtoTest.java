@@ -10,25 +10,32 @@
  *******************************************************************************/
 package org.eclipse.che.dto;
 
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
 
 import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DTOHierarchy;
 import org.eclipse.che.dto.definitions.DtoWithAny;
 import org.eclipse.che.dto.definitions.DtoWithDelegate;
 import org.eclipse.che.dto.definitions.DtoWithFieldNames;
+import org.eclipse.che.dto.definitions.DtoWithPrimitives;
 import org.eclipse.che.dto.definitions.SimpleDto;
 import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonSerializable;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +43,7 @@ import java.util.Map;
 
 import static java.util.Arrays.asList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -325,6 +333,126 @@ public class ServerDtoTest {
         assertEquals(complicatedDto.getArrayOfArrayOfEnum().get(0).get(2), ComplicatedDto.SimpleEnum.THREE);
     }
 
+    @Test
+    public void testStreamingSerializerProducesTheSameJsonAsJsonTree() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("<\"quoted\" & \u00e9\n>").withId(1);
+        Map<String, SimpleDto> mapDtos = new HashMap<>();
+        mapDtos.put("a", simpleDto);
+        mapDtos.put("b", null);
+        ComplicatedDto complicatedDto = dtoFactory.createDto(ComplicatedDto.class)
+                                                  .withStrings(asList("x", null, "z"))
+                                                  .withMap(mapDtos)
+                                                  .withSimpleDtos(asList(simpleDto, null))
+                                                  .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.TWO, null)));
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("key", "value");
+        Map<String, Map<String, String>> nestedAttributes = new HashMap<>();
+        nestedAttributes.put("nested", attributes);
+        DtoWithPrimitives primitivesDto = dtoFactory.createDto(DtoWithPrimitives.class)
+                                                    .withEnabled(true)
+                                                    .withSize(Long.MAX_VALUE)
+                                                    .withRatio(0.1)
+                                                    .withScale(0.1F)
+                                                    .withCount(7)
+                                                    .withAttributes(nestedAttributes);
+        DtoWithAny anyDto = dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny())
+                                      .withObjects(createListTestValueForAny());
+
+        for (Object dto : asList(simpleDto, complicatedDto, primitivesDto, anyDto, dtoFactory.createDto(DtoWithPrimitives.class))) {
+            String expected = new GsonBuilder().disableHtmlEscaping().create().toJson(dtoFactory.toJsonElement(dto));
+            assertEquals(dtoFactory.toJson(dto), expected);
+            StringWriter writer = new StringWriter();
+            dtoFactory.toJson(dto, writer);
+            assertEquals(writer.toString(), expected);
+        }
+    }
+
+    @Test
+    public void testWriteListOfDtosToWriter() throws Exception {
+        SimpleDto dto1 = dtoFactory.createDto(SimpleDto.class).withName("a").withId(1);
+        SimpleDto dto2 = dtoFactory.createDto(SimpleDto.class).withName("b").withId(2);
+        StringWriter writer = new StringWriter();
+
+        dtoFactory.toJson(asList(dto1, null, dto2), writer);
+
+        assertEquals(writer.toString(), "[" + dtoFactory.toJson(dto1) + ",null," + dtoFactory.toJson(dto2) + "]");
+    }
+
+    @Test
+    public void testStreamingDeserializer() throws Exception {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("key", "value");
+        Map<String, Map<String, String>> nestedAttributes = new HashMap<>();
+        nestedAttributes.put("nested", attributes);
+        DtoWithPrimitives dto = dtoFactory.createDto(DtoWithPrimitives.class)
+                                          .withEnabled(true)
+                                          .withSize(Long.MAX_VALUE)
+                                          .withRatio(0.1)
+                                          .withScale(0.1F)
+                                          .withVisible(false)
+                                          .withWeight(2.5)
+                                          .withAttributes(nestedAttributes);
+        JsonObject json = dtoFactory.toJsonElement(dto).getAsJsonObject();
+        json.addProperty("unknown", "ignored");
+        json.add("unknownObject", new JsonParser().parse("{a:[1,2,{b:null}]}"));
+
+        DtoWithPrimitives fromReader = dtoFactory.createDtoFromJson(new StringReader(json.toString()), DtoWithPrimitives.class);
+        DtoWithPrimitives fromString = dtoFactory.createDtoFromJson(json.toString(), DtoWithPrimitives.class);
+
+        assertEquals(fromReader, dto);
+        assertEquals(fromString, dto);
+        assertNull(fromReader.getCount());
+    }
+
+    @Test
+    public void testStreamingDeserializerReadsNullAndEmptyDocument() throws Exception {
+        assertNull(dtoFactory.createDtoFromJson("null", SimpleDto.class));
+        assertNull(dtoFactory.createDtoFromJson(new StringReader(""), SimpleDto.class));
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testStreamingDeserializerFailsOnMalformedJson() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"id\":1,"), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testStreamingDeserializerFailsOnUnexpectedType() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"id\":\"abc\"}"), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testStreamingDeserializerFailsOnDataAfterValue() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"id\":1} {\"id\":2}"), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testStreamingListDeserializerFailsOnDataAfterValue() throws Exception {
+        dtoFactory.createListDtoFromJson("[{\"id\":1}] garbage", SimpleDto.class);
+    }
+
+    @Test
+    public void testDefaultStreamingSerializerProducesTheSameJsonAsJsonTree() throws Exception {
+        final JsonObject json = new JsonObject();
+        json.addProperty("name", "<\"quoted\" & \u00e9\n>");
+        json.add("nothing", JsonNull.INSTANCE);
+        final JsonSerializable dto = new JsonSerializable() {
+            @Override
+            public String toJson() {
+                return json.toString();
+            }
+
+            @Override
+            public JsonElement toJsonElement() {
+                return json;
+            }
+        };
+        StringWriter writer = new StringWriter();
+
+        dtoFactory.toJson(dto, writer);
+
+        assertEquals(writer.toString(), new GsonBuilder().disableHtmlEscaping().create().toJson(json));
+    }
+
     private void checkSimpleDto(SimpleDto dto, String expectedName, int expectedId, String expectedDefault) {
         assertEquals(dto.getName(), expectedName);
         assertEquals(dto.getId(), expectedId);
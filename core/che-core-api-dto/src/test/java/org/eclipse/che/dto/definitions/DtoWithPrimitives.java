@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.definitions;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.Map;
+
+/**
+ * DTO for testing that streaming serialization of primitive and boxed types produces the same JSON as serialization through JSON
+ * tree.
+ *
+ * @author andrew00x
+ */
+@DTO
+public interface DtoWithPrimitives {
+    boolean isEnabled();
+
+    DtoWithPrimitives withEnabled(boolean enabled);
+
+    long getSize();
+
+    DtoWithPrimitives withSize(long size);
+
+    double getRatio();
+
+    DtoWithPrimitives withRatio(double ratio);
+
+    float getScale();
+
+    DtoWithPrimitives withScale(float scale);
+
+    Boolean getVisible();
+
+    DtoWithPrimitives withVisible(Boolean visible);
+
+    Integer getCount();
+
+    DtoWithPrimitives withCount(Integer count);
+
+    Double getWeight();
+
+    DtoWithPrimitives withWeight(Double weight);
+
+    Map<String, Map<String, String>> getAttributes();
+
+    DtoWithPrimitives withAttributes(Map<String, Map<String, String>> attributes);
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+/**
+ * Snapshot of statistics of {@link ConcurrentSLRUCache}.
+ *
+ * @author andrew00x
+ * @see ConcurrentSLRUCache#getStats()
+ */
+public final class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long loads;
+
+    CacheStats(long hits, long misses, long evictions, long loads) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.loads = loads;
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public long getMissCount() {
+        return misses;
+    }
+
+    /** Number of entries that were evicted because max weight of cache was reached. */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    /** Number of calls of loader, concurrent requests of the same key are counted once. */
+    public long getLoadCount() {
+        return loads;
+    }
+
+    public double getHitRate() {
+        final long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double)hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+               "hits=" + hits +
+               ", misses=" + misses +
+               ", evictions=" + evictions +
+               ", loads=" + loads +
+               '}';
+    }
+}
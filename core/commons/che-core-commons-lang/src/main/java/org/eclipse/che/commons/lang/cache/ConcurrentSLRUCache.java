@@ -0,0 +1,520 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntBiFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thread-safe segmented LRU cache. See for details <a href="http://en.wikipedia.org/wiki/Cache_algorithms#Segmented_LRU">Segmented
+ * LRU cache</a>. Unlike {@link SLRUCache} wrapped with {@link SynchronizedCache} readers don't block each other.
+ * <p/>
+ * Entries are kept in {@link ConcurrentHashMap}, so lookup doesn't need lock. Order of entries is kept separately by stripes, each
+ * stripe has own lock and own part of max weight of cache. Stripe of entry is selected by hash of key. Lookup tries to update order
+ * of entries but doesn't wait for the lock of stripe, if stripe is locked by other thread access isn't recorded, so under high
+ * contention order of entries is approximate. Modifications lock single stripe.
+ * <p/>
+ * New entries go to probationary segment, entries that are accessed again are moved to protected segment. When weight of stripe
+ * exceeds its limit, the least recently used entries of probationary segment are evicted first. By default weight of each entry
+ * is 1, i.e. max weight is max number of entries.
+ * <p/>
+ * Modification of key invalidates load of the same key that is in progress, see {@link #get(Object, Function)}, so value that is
+ * loaded before removal or update of key never replaces newer state of cache.
+ * <p/>
+ * Keys and values may not be {@code null}.
+ *
+ * @author andrew00x
+ */
+public class ConcurrentSLRUCache<K, V> implements Cache<K, V> {
+    /** Part of max weight of stripe that is used by protected segment. */
+    private static final double PROTECTED_RATIO           = 0.8;
+    private static final int    DEFAULT_CONCURRENCY_LEVEL = 16;
+    /** Small caches are not split to many stripes, otherwise order of entries of each stripe doesn't make much sense. */
+    private static final int    MIN_STRIPE_WEIGHT         = 16;
+
+    private final ConcurrentMap<K, Node<K, V>>           map;
+    private final ConcurrentMap<K, Load<K, V>>           loading;
+    private final Stripe<K, V>[]                         stripes;
+    private final ToIntBiFunction<? super K, ? super V>  weigher;
+    private final LongAdder                              hits;
+    private final LongAdder                              misses;
+    private final LongAdder                              evictions;
+    private final LongAdder                              loads;
+
+    /**
+     * @param maxSize
+     *         max number of entries
+     */
+    public ConcurrentSLRUCache(int maxSize) {
+        this(maxSize, (key, value) -> 1, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * @param maxWeight
+     *         max total weight of entries
+     * @param weigher
+     *         calculates weight of entry, weight may not be negative
+     * @param concurrencyLevel
+     *         max number of stripes, it is rounded up to the power of two. Cache uses less stripes if max weight is small
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentSLRUCache(long maxWeight, ToIntBiFunction<? super K, ? super V> weigher, int concurrencyLevel) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Max weight must be positive");
+        }
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("Concurrency level must be positive");
+        }
+        this.weigher = requireNonNull(weigher);
+        int numberOfStripes = 1;
+        while (numberOfStripes < concurrencyLevel && (numberOfStripes << 1) * MIN_STRIPE_WEIGHT <= maxWeight) {
+            numberOfStripes <<= 1;
+        }
+        stripes = new Stripe[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            // distribute remainder, so total weight of stripes is exactly max weight
+            final long stripeWeight = maxWeight / numberOfStripes + (i < maxWeight % numberOfStripes ? 1 : 0);
+            stripes[i] = new Stripe<>(stripeWeight, (long)(stripeWeight * PROTECTED_RATIO));
+        }
+        map = new ConcurrentHashMap<>();
+        loading = new ConcurrentHashMap<>();
+        hits = new LongAdder();
+        misses = new LongAdder();
+        evictions = new LongAdder();
+        loads = new LongAdder();
+    }
+
+    @Override
+    public V get(K key) {
+        final Node<K, V> node = map.get(requireNonNull(key));
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        final Stripe<K, V> stripe = stripeOf(key);
+        if (stripe.lock.tryLock()) {
+            try {
+                stripe.onAccess(node);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * Returns value for key and loads it with loader if it is not cached yet. If few threads request the same key at the same time
+     * only one of them loads value and others wait for it. Value isn't loaded under lock of cache, so loading of value doesn't block
+     * access to other keys. Value is not cached if loader returns {@code null} or throws exception. Value is returned but isn't cached
+     * either if the key is put, removed or cleared while value is loaded, since loaded value might be already stale.
+     *
+     * @param key
+     *         key
+     * @param loader
+     *         loads value for key
+     * @return value or {@code null} if value isn't cached and loader returned {@code null}
+     * @throws RuntimeException
+     *         if loader failed to load value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        requireNonNull(loader);
+        final V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final Load<K, V> load = new Load<>(key);
+        final Load<K, V> inProgress = loading.putIfAbsent(key, load);
+        if (inProgress != null) {
+            return waitFor(inProgress.future);
+        }
+        try {
+            // value might be added while we were registering load
+            V value = peek(key);
+            if (value == null) {
+                loads.increment();
+                value = loader.apply(key);
+                if (value != null) {
+                    put(key, value, load);
+                }
+            }
+            load.future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, null);
+    }
+
+    /** Puts value, if {@code load} isn't {@code null} value is put only if load wasn't invalidated. */
+    private V put(K key, V value, Load<K, V> load) {
+        requireNonNull(key);
+        requireNonNull(value);
+        final Node<K, V> node = new Node<>(key, value, weigher.applyAsInt(key, value));
+        if (node.weight < 0) {
+            throw new IllegalArgumentException("Weight of entry may not be negative");
+        }
+        final Stripe<K, V> stripe = stripeOf(key);
+        final List<Node<K, V>> evicted = new ArrayList<>();
+        final Node<K, V> previous;
+        stripe.lock.lock();
+        try {
+            if (load != null && load.invalidated) {
+                return null;
+            }
+            invalidateLoad(key);
+            previous = map.put(key, node);
+            if (previous != null) {
+                stripe.unlink(previous);
+            }
+            stripe.addProbationary(node);
+            while (stripe.weight > stripe.maxWeight) {
+                final Node<K, V> victim = stripe.victim();
+                map.remove(victim.key, victim);
+                stripe.unlink(victim);
+                evicted.add(victim);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (previous != null) {
+            evict(key, previous.value);
+        }
+        for (Node<K, V> victim : evicted) {
+            evictions.increment();
+            evict(victim.key, victim.value);
+        }
+        return previous == null ? null : previous.value;
+    }
+
+    @Override
+    public V remove(K key) {
+        final Stripe<K, V> stripe = stripeOf(requireNonNull(key));
+        final Node<K, V> removed;
+        stripe.lock.lock();
+        try {
+            invalidateLoad(key);
+            removed = map.remove(key);
+            if (removed != null) {
+                stripe.unlink(removed);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (removed == null) {
+            return null;
+        }
+        evict(key, removed.value);
+        return removed.value;
+    }
+
+    /**
+     * Removes entries which keys match specified filter. Loads of such keys that are in progress are invalidated, i.e. loaded values
+     * are not cached.
+     *
+     * @param filter
+     *         filter of keys
+     */
+    public void removeIf(Predicate<? super K> filter) {
+        requireNonNull(filter);
+        for (K key : map.keySet()) {
+            if (filter.test(key)) {
+                remove(key);
+            }
+        }
+        for (K key : loading.keySet()) {
+            if (filter.test(key)) {
+                remove(key);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return map.containsKey(requireNonNull(key));
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe<K, V> stripe : stripes) {
+            final List<Node<K, V>> removed = new ArrayList<>();
+            stripe.lock.lock();
+            try {
+                for (Load<K, V> load : loading.values()) {
+                    if (stripeOf(load.key) == stripe) {
+                        load.invalidated = true;
+                    }
+                }
+                Node<K, V> node;
+                while ((node = stripe.victim()) != null) {
+                    map.remove(node.key, node);
+                    stripe.unlink(node);
+                    removed.add(node);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            for (Node<K, V> node : removed) {
+                evict(node.key, node.value);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    /** Returns total weight of cached entries. */
+    public long weight() {
+        long weight = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                weight += stripe.weight;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return weight;
+    }
+
+    /** Returns snapshot of statistics of this cache. */
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), loads.sum());
+    }
+
+    /**
+     * Should be called when value is removed from cache, either explicitly, replaced with new value or evicted because cache is
+     * full. Called out of lock of cache.
+     *
+     * @param key
+     *         key
+     * @param value
+     *         evicted value
+     */
+    protected void evict(K key, V value) {
+        // nothing by default
+    }
+
+    /** Iterator is weakly consistent, it doesn't throw {@link java.util.ConcurrentModificationException}. */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        final Iterator<Node<K, V>> nodes = map.values().iterator();
+        return new Iterator<Entry<K, V>>() {
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                final Node<K, V> node = nodes.next();
+                return new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+            }
+        };
+    }
+
+    /** Gets value without recording of access and statistics. */
+    private V peek(K key) {
+        final Node<K, V> node = map.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /** Invalidates load of key that is in progress, must be called under lock of stripe of key. */
+    private void invalidateLoad(K key) {
+        final Load<K, V> load = loading.get(key);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    private Stripe<K, V> stripeOf(K key) {
+        int h = key.hashCode();
+        // spread bits, the same as ConcurrentHashMap does
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    private static <V> V waitFor(CompletableFuture<V> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error)cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Load of value that is in progress. */
+    private static final class Load<K, V> {
+        final K                    key;
+        final CompletableFuture<V> future;
+
+        /** Set if key is modified while value is loaded. Guarded by lock of stripe of key. */
+        boolean invalidated;
+
+        Load(K key) {
+            this.key = key;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K   key;
+        final V   value;
+        final int weight;
+
+        // guarded by lock of stripe
+        Node<K, V> prev;
+        Node<K, V> next;
+        boolean    protectedSegment;
+        boolean    linked;
+
+        Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /** Keeps order of entries of part of cache. All methods must be called under {@link #lock}. */
+    private static final class Stripe<K, V> {
+        final ReentrantLock lock;
+        final long          maxWeight;
+        final long          maxProtectedWeight;
+        /** Head is the most recently used entry, tail is the least recently used one. */
+        final Node<K, V>    probationary;
+        final Node<K, V>    protectedHead;
+
+        long weight;
+        long protectedWeight;
+
+        Stripe(long maxWeight, long maxProtectedWeight) {
+            this.maxWeight = maxWeight;
+            this.maxProtectedWeight = maxProtectedWeight;
+            lock = new ReentrantLock();
+            probationary = sentinel();
+            protectedHead = sentinel();
+        }
+
+        void onAccess(Node<K, V> node) {
+            if (!node.linked) {
+                // removed after lookup
+                return;
+            }
+            if (node.protectedSegment) {
+                moveToHead(node, protectedHead);
+                return;
+            }
+            moveToHead(node, protectedHead);
+            node.protectedSegment = true;
+            protectedWeight += node.weight;
+            // demote the least recently used protected entries
+            while (protectedWeight > maxProtectedWeight && protectedHead.prev != node) {
+                final Node<K, V> demoted = protectedHead.prev;
+                moveToHead(demoted, probationary);
+                demoted.protectedSegment = false;
+                protectedWeight -= demoted.weight;
+            }
+        }
+
+        void addProbationary(Node<K, V> node) {
+            linkAfter(node, probationary);
+            node.linked = true;
+            weight += node.weight;
+        }
+
+        /** Returns the least recently used entry of probationary segment, or of protected one if probationary segment is empty. */
+        Node<K, V> victim() {
+            if (probationary.prev != probationary) {
+                return probationary.prev;
+            }
+            if (protectedHead.prev != protectedHead) {
+                return protectedHead.prev;
+            }
+            return null;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (!node.linked) {
+                return;
+            }
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = node.next = null;
+            node.linked = false;
+            weight -= node.weight;
+            if (node.protectedSegment) {
+                protectedWeight -= node.weight;
+                node.protectedSegment = false;
+            }
+        }
+
+        private void moveToHead(Node<K, V> node, Node<K, V> head) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            linkAfter(node, head);
+        }
+
+        private static <K, V> void linkAfter(Node<K, V> node, Node<K, V> head) {
+            node.prev = head;
+            node.next = head.next;
+            head.next.prev = node;
+            head.next = node;
+        }
+
+        private static <K, V> Node<K, V> sentinel() {
+            final Node<K, V> sentinel = new Node<>(null, null, 0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Compares throughput of {@link SynchronizedCache} over {@link SLRUCache} and {@link ConcurrentSLRUCache} with 1 - 32 threads.
+ * Each thread reads skewed keys (about 90% reads, 10% puts on miss). It is not run as test, run it manually with
+ * <pre>
+ * java -cp ... org.eclipse.che.commons.lang.cache.CacheBenchmark [seconds per run]
+ * </pre>
+ *
+ * @author andrew00x
+ */
+public class CacheBenchmark {
+    private static final int   CACHE_SIZE = 1000;
+    private static final int   KEYS       = 10 * CACHE_SIZE;
+    private static final int[] THREADS    = {1, 2, 4, 8, 16, 32};
+
+    public static void main(String[] args) throws Exception {
+        final long millis = TimeUnit.SECONDS.toMillis(args.length > 0 ? Integer.parseInt(args[0]) : 2);
+        final Integer[] keys = new Integer[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = i;
+        }
+        System.out.printf("%-12s %-20s %15s %10s%n", "threads", "cache", "ops/s", "hit rate");
+        for (int threads : THREADS) {
+            run("synchronized", () -> new SynchronizedCache<>(new SLRUCache<>(CACHE_SIZE / 2, CACHE_SIZE / 2)), keys, threads, millis);
+            run("concurrent", () -> new ConcurrentSLRUCache<>(CACHE_SIZE), keys, threads, millis);
+        }
+    }
+
+    private static void run(String name, Supplier<Cache<Integer, Integer>> factory, Integer[] keys, int threads, long millis)
+            throws Exception {
+        final Cache<Integer, Integer> cache = factory.get();
+        final LongAdder operations = new LongAdder();
+        final LongAdder hits = new LongAdder();
+        final CyclicBarrier start = new CyclicBarrier(threads + 1);
+        final long[] deadline = new long[1];
+        final List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final Thread worker = new Thread(() -> {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    return;
+                }
+                long ops = 0;
+                long hit = 0;
+                while ((ops & 0xFF) != 0 || System.currentTimeMillis() < deadline[0]) {
+                    // skewed distribution, small keys are requested much more often
+                    final double r = random.nextDouble();
+                    final Integer key = keys[(int)(r * r * r * KEYS)];
+                    if (cache.get(key) == null) {
+                        cache.put(key, key);
+                    } else {
+                        hit++;
+                    }
+                    ops++;
+                }
+                operations.add(ops);
+                hits.add(hit);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        deadline[0] = System.currentTimeMillis() + millis;
+        start.await();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        final long ops = operations.sum();
+        System.out.printf("%-12d %-20s %,15d %10.3f%n", threads, name, ops * 1000 / millis, (double)hits.sum() / ops);
+    }
+}
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests of {@link ConcurrentSLRUCache}.
+ *
+ * @author andrew00x
+ */
+public class ConcurrentSLRUCacheTest {
+
+    @Test
+    public void shouldPutGetAndRemoveValue() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+
+        assertNull(cache.put("k1", "v1"));
+        assertEquals(cache.put("k1", "v2"), "v1");
+        assertEquals(cache.get("k1"), "v2");
+        assertTrue(cache.contains("k1"));
+        assertEquals(cache.size(), 1);
+
+        assertEquals(cache.remove("k1"), "v2");
+        assertNull(cache.get("k1"));
+        assertFalse(cache.contains("k1"));
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedProbationaryEntriesFirst() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(5, (key, value) -> 1, 1);
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+        // k1 goes to protected segment
+        cache.get("k1");
+
+        // scan of new keys must not push k1 out of cache
+        for (int i = 0; i < 10; i++) {
+            cache.put("scan" + i, "value" + i);
+        }
+
+        assertEquals(cache.size(), 5);
+        assertEquals(cache.get("k1"), "v1");
+        assertFalse(cache.contains("k2"));
+        assertEquals(cache.getStats().getEvictionCount(), 7);
+    }
+
+    @Test
+    public void shouldEvictEntriesByWeight() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10, (key, value) -> value.length(), 1);
+        cache.put("k1", "aaaa");
+        cache.put("k2", "bbbb");
+        assertEquals(cache.weight(), 8);
+
+        cache.put("k3", "cccccc");
+
+        assertFalse(cache.contains("k1"));
+        assertTrue(cache.contains("k2"));
+        assertTrue(cache.contains("k3"));
+        assertEquals(cache.weight(), 10);
+    }
+
+    @Test
+    public void shouldNotifyAboutEvictedEntries() {
+        final List<String> evicted = new ArrayList<>();
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<String, String>(2, (key, value) -> 1, 1) {
+            @Override
+            protected void evict(String key, String value) {
+                evicted.add(key + '=' + value);
+            }
+        };
+        cache.put("k1", "v1");
+        cache.put("k1", "v2");
+        cache.put("k2", "v1");
+        cache.put("k3", "v1");
+        cache.remove("k2");
+        cache.clear();
+
+        assertEquals(evicted.size(), 4);
+        assertEquals(evicted.subList(0, 3), Arrays.asList("k1=v1", "k1=v2", "k2=v1"));
+        assertTrue(evicted.contains("k3=v1"));
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.weight(), 0);
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+        cache.put("k1", "v1");
+
+        cache.get("k1");
+        cache.get("k1");
+        cache.get("k2");
+
+        final CacheStats stats = cache.getStats();
+        assertEquals(stats.getHitCount(), 2);
+        assertEquals(stats.getMissCount(), 1);
+        assertEquals(stats.getEvictionCount(), 0);
+    }
+
+    @Test
+    public void shouldIterateOverEntries() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+
+        int count = 0;
+        for (Map.Entry<String, String> entry : cache) {
+            assertEquals(cache.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(count, 2);
+    }
+
+    @Test
+    public void shouldLoadValueOnceWhenFewThreadsRequestTheSameKey() throws Exception {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("key", key -> {
+                    loads.incrementAndGet();
+                    loaderStarted.countDown();
+                    try {
+                        releaseLoader.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "value";
+                })));
+            }
+            assertTrue(loaderStarted.await(10, TimeUnit.SECONDS));
+            releaseLoader.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals(result.get(10, TimeUnit.SECONDS), "value");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.getStats().getLoadCount(), 1);
+        assertEquals(cache.get("key"), "value");
+    }
+
+    @Test
+    public void shouldNotCacheValueWhenLoaderFails() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+        try {
+            cache.get("key", key -> {
+                throw new IllegalStateException("failed");
+            });
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+            assertEquals(expected.getMessage(), "failed");
+        }
+
+        assertFalse(cache.contains("key"));
+        assertEquals(cache.get("key", key -> "value"), "value");
+    }
+
+    @Test
+    public void shouldNotCacheValueWhenKeyIsRemovedWhileValueIsLoaded() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+
+        assertEquals(cache.get("key", key -> {
+            cache.remove(key);
+            return "stale";
+        }), "stale");
+
+        assertFalse(cache.contains("key"));
+        assertEquals(cache.get("key", key -> "value"), "value");
+        assertEquals(cache.get("key"), "value");
+    }
+
+    @Test
+    public void shouldNotReplaceValueThatIsPutWhileValueIsLoaded() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+
+        cache.get("key", key -> {
+            cache.put(key, "new");
+            return "stale";
+        });
+
+        assertEquals(cache.get("key"), "new");
+    }
+
+    @Test
+    public void shouldNotCacheValueWhenCacheIsClearedWhileValueIsLoaded() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+
+        cache.get("key", key -> {
+            cache.clear();
+            return "stale";
+        });
+
+        assertFalse(cache.contains("key"));
+    }
+
+    @Test
+    public void shouldRemoveEntriesAndInvalidateLoadsByFilter() {
+        final ConcurrentSLRUCache<String, String> cache = new ConcurrentSLRUCache<>(10);
+        cache.put("/a", "a");
+        cache.put("/a/b", "b");
+        cache.put("/c", "c");
+
+        cache.get("/a/d", key -> {
+            cache.removeIf(path -> path.startsWith("/a"));
+            return "stale";
+        });
+
+        assertFalse(cache.contains("/a"));
+        assertFalse(cache.contains("/a/b"));
+        assertFalse(cache.contains("/a/d"));
+        assertEquals(cache.get("/c"), "c");
+    }
+
+    @Test
+    public void shouldKeepWeightWithinLimitUnderConcurrentAccess() throws Exception {
+        final ConcurrentSLRUCache<Integer, Integer> cache = new ConcurrentSLRUCache<>(100);
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int seed = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        final int key = (i * 31 + seed) % 500;
+                        if (cache.get(key) == null) {
+                            cache.put(key, key);
+                        }
+                        if (i % 100 == 0) {
+                            cache.remove(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(cache.size() <= 100);
+        assertEquals(cache.weight(), cache.size());
+        for (Map.Entry<Integer, Integer> entry : cache) {
+            assertEquals(entry.getKey(), entry.getValue());
+        }
+    }
+}
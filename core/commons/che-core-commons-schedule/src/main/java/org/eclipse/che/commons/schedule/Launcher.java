@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.che.commons.schedule;
 
+import org.eclipse.che.commons.schedule.executor.JobMetrics;
+
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -46,4 +50,8 @@ public interface Launcher {
      */
     void scheduleAtFixedRate(Runnable runnable, long initialDelay, long period, TimeUnit unit);
 
+    /** Returns metrics of scheduled jobs. Launcher that doesn't collect metrics returns empty list. */
+    default List<JobMetrics> getMetrics() {
+        return Collections.emptyList();
+    }
 }
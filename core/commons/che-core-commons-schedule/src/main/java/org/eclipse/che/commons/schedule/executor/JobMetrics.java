@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.schedule.executor;
+
+/**
+ * Snapshot of metrics of single scheduled job. Lag is the time between planned start of job and its actual start, e.g. when
+ * there is no free thread to run job.
+ *
+ * @author andrew00x
+ * @see WorkStealingLauncher
+ */
+public final class JobMetrics {
+    private final String  name;
+    private final String  schedule;
+    private final boolean running;
+    private final long    runCount;
+    private final long    failureCount;
+    private final long    skippedCount;
+    private final long    averageRunTimeMillis;
+    private final long    maxRunTimeMillis;
+    private final long    averageLagMillis;
+    private final long    maxLagMillis;
+    private final long    lastRunTime;
+    private final long    nextRunTime;
+
+    JobMetrics(String name, String schedule, boolean running, long runCount, long failureCount, long skippedCount,
+               long averageRunTimeMillis, long maxRunTimeMillis, long averageLagMillis, long maxLagMillis, long lastRunTime,
+               long nextRunTime) {
+        this.name = name;
+        this.schedule = schedule;
+        this.running = running;
+        this.runCount = runCount;
+        this.failureCount = failureCount;
+        this.skippedCount = skippedCount;
+        this.averageRunTimeMillis = averageRunTimeMillis;
+        this.maxRunTimeMillis = maxRunTimeMillis;
+        this.averageLagMillis = averageLagMillis;
+        this.maxLagMillis = maxLagMillis;
+        this.lastRunTime = lastRunTime;
+        this.nextRunTime = nextRunTime;
+    }
+
+    /** Name of job, e.g. class and method that are invoked by job. */
+    public String getName() {
+        return name;
+    }
+
+    /** Human readable schedule of job, e.g. {@code cron 0 0/5 * * * ?}. */
+    public String getSchedule() {
+        return schedule;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getRunCount() {
+        return runCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /** Number of runs that were skipped because the previous run of job was not completed yet. */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public long getAverageRunTimeMillis() {
+        return averageRunTimeMillis;
+    }
+
+    public long getMaxRunTimeMillis() {
+        return maxRunTimeMillis;
+    }
+
+    public long getAverageLagMillis() {
+        return averageLagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    /** Start time of the last run in milliseconds since epoch or 0 if job was never run. */
+    public long getLastRunTime() {
+        return lastRunTime;
+    }
+
+    /** Planned start time of the next run in milliseconds since epoch or 0 if job is not going to run anymore. */
+    public long getNextRunTime() {
+        return nextRunTime;
+    }
+
+    @Override
+    public String toString() {
+        return "JobMetrics{" +
+               "name='" + name + '\'' +
+               ", schedule='" + schedule + '\'' +
+               ", running=" + running +
+               ", runCount=" + runCount +
+               ", failureCount=" + failureCount +
+               ", skippedCount=" + skippedCount +
+               ", averageRunTimeMillis=" + averageRunTimeMillis +
+               ", maxRunTimeMillis=" + maxRunTimeMillis +
+               ", averageLagMillis=" + averageLagMillis +
+               ", maxLagMillis=" + maxLagMillis +
+               ", lastRunTime=" + lastRunTime +
+               ", nextRunTime=" + nextRunTime +
+               '}';
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.schedule.executor;
+
+import org.eclipse.che.commons.schedule.Launcher;
+
+import com.google.inject.ConfigurationException;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.ProvisionException;
+import com.google.inject.name.Names;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+/**
+ * Provides {@link Launcher} according to the {@code schedule.execution_mode} configuration parameter:
+ * <ul>
+ * <li>{@code pool} - {@link ThreadPullLauncher}, default mode</li>
+ * <li>{@code work_stealing} - {@link WorkStealingLauncher}</li>
+ * </ul>
+ *
+ * @author andrew00x
+ */
+public class LauncherProvider implements Provider<Launcher> {
+    static final String EXECUTION_MODE = "schedule.execution_mode";
+
+    private final Injector injector;
+
+    @Inject
+    public LauncherProvider(Injector injector) {
+        this.injector = injector;
+    }
+
+    @Override
+    public Launcher get() {
+        final String mode = getExecutionMode();
+        if (mode == null || mode.isEmpty() || "pool".equals(mode)) {
+            return injector.getInstance(ThreadPullLauncher.class);
+        }
+        if ("work_stealing".equals(mode)) {
+            return injector.getInstance(WorkStealingLauncher.class);
+        }
+        throw new org.eclipse.che.inject.ConfigurationException("Unsupported value of " + EXECUTION_MODE + ": " + mode);
+    }
+
+    private String getExecutionMode() {
+        try {
+            return injector.getInstance(Key.get(String.class, Names.named(EXECUTION_MODE)));
+        } catch (ConfigurationException | ProvisionException e) {
+            return null;
+        }
+    }
+}
@@ -18,7 +18,9 @@ import java.lang.reflect.Method;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Invoke given method of given object.
+ * Invoke given method of given object. Exception thrown by method is rethrown, so launcher knows that run failed, and
+ * subsequent runs of periodic task are suppressed as it is described in {@link org.eclipse.che.commons.schedule.ScheduleRate}
+ * and {@link org.eclipse.che.commons.schedule.ScheduleDelay}.
  *
  * @author Sergii Kabashniuk
  */
@@ -56,8 +58,17 @@ public class LoggedRunnable implements Runnable {
                               object.getClass().getName(),
                               object,
                               TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - startTime));
-                } catch (InvocationTargetException | IllegalAccessException e) {
-                    LOG.error(e.getLocalizedMessage());
+                } catch (InvocationTargetException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error)cause;
+                    }
+                    throw new RuntimeException(cause.getLocalizedMessage(), cause);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e.getLocalizedMessage(), e);
                 }
             }
         } catch (Exception e) {
@@ -66,4 +77,9 @@ public class LoggedRunnable implements Runnable {
         }
 
     }
+
+    @Override
+    public String toString() {
+        return object.getClass().getName() + '#' + method.getName();
+    }
 }
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.schedule.executor;
+
+import org.eclipse.che.commons.schedule.Launcher;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import java.util.List;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * Exposes metrics of scheduled jobs. Metrics are collected only in {@code work_stealing} execution mode, in other modes list of
+ * metrics is empty.
+ *
+ * @author andrew00x
+ * @see LauncherProvider
+ */
+@Path("/schedule")
+public class ScheduleMetricsService {
+    private final Launcher launcher;
+
+    @Inject
+    public ScheduleMetricsService(Launcher launcher) {
+        this.launcher = launcher;
+    }
+
+    @GET
+    @Path("/metrics")
+    @Produces(APPLICATION_JSON)
+    public List<JobMetrics> getMetrics() {
+        return launcher.getMetrics();
+    }
+}
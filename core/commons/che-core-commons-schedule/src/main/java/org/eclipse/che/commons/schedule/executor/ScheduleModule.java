@@ -25,7 +25,8 @@ import com.google.inject.Module;
 public class ScheduleModule implements Module {
     @Override
     public void configure(Binder binder) {
-        binder.bind(Launcher.class).to(ThreadPullLauncher.class).asEagerSingleton();
+        binder.bind(Launcher.class).toProvider(LauncherProvider.class).asEagerSingleton();
+        binder.bind(ScheduleMetricsService.class);
         binder.install(new InternalScheduleModule());
 
     }
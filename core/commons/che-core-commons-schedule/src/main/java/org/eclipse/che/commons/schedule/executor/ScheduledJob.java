@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.schedule.executor;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Job that is scheduled with {@link WorkStealingLauncher}. Keeps schedule of job, guards job against concurrent runs and collects
+ * metrics of its runs.
+ *
+ * @author andrew00x
+ */
+final class ScheduledJob {
+    enum Type {
+        CRON,
+        FIXED_RATE,
+        FIXED_DELAY
+    }
+
+    private final Runnable       task;
+    private final Type           type;
+    private final CronExpression cron;
+    private final long           periodMillis;
+    private final String         schedule;
+    private final AtomicBoolean  running;
+
+    private volatile boolean cancelled;
+
+    private long runCount;
+    private long failureCount;
+    private long skippedCount;
+    private long totalRunTime;
+    private long maxRunTime;
+    private long totalLag;
+    private long maxLag;
+    private long lastRunTime;
+    private long nextRunTime;
+
+    static ScheduledJob cron(Runnable task, CronExpression cron) {
+        return new ScheduledJob(task, Type.CRON, cron, 0, "cron " + cron.getCronExpression());
+    }
+
+    static ScheduledJob fixedRate(Runnable task, long periodMillis) {
+        return new ScheduledJob(task, Type.FIXED_RATE, null, periodMillis, "fixed rate " + periodMillis + "ms");
+    }
+
+    static ScheduledJob fixedDelay(Runnable task, long delayMillis) {
+        return new ScheduledJob(task, Type.FIXED_DELAY, null, delayMillis, "fixed delay " + delayMillis + "ms");
+    }
+
+    private ScheduledJob(Runnable task, Type type, CronExpression cron, long periodMillis, String schedule) {
+        this.task = task;
+        this.type = type;
+        this.cron = cron;
+        this.periodMillis = periodMillis;
+        this.schedule = schedule;
+        this.running = new AtomicBoolean();
+    }
+
+    Runnable getTask() {
+        return task;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets time of the next run of job after the run that is planned on {@code fireTime}. For fixed rate jobs the runs that are
+     * already missed at {@code now} are skipped, so job doesn't run many times in a row to catch up the schedule.
+     *
+     * @return time of the next run or {@code -1} if there is no next run, e.g. cron expression doesn't match any time in future or
+     * type of job is {@link Type#FIXED_DELAY}, next run of such job is known only when its current run is completed
+     */
+    long nextFireTime(long fireTime, long now) {
+        switch (type) {
+            case CRON:
+                final Date next = cron.getNextValidTimeAfter(new Date(Math.max(fireTime, now)));
+                return next == null ? -1 : next.getTime();
+            case FIXED_RATE:
+                long nextTime = fireTime + periodMillis;
+                if (nextTime < now) {
+                    final long missed = (now - nextTime) / periodMillis + 1;
+                    synchronized (this) {
+                        skippedCount += missed;
+                    }
+                    nextTime += missed * periodMillis;
+                }
+                return nextTime;
+            default:
+                return -1;
+        }
+    }
+
+    long getDelayMillis() {
+        return periodMillis;
+    }
+
+    /** Marks job as running. Returns {@code false} if job is already running. */
+    boolean tryStart() {
+        return running.compareAndSet(false, true);
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Stops job, its next runs are not started any more. */
+    void cancel() {
+        cancelled = true;
+        synchronized (this) {
+            nextRunTime = 0;
+        }
+    }
+
+    synchronized void planned(long time) {
+        nextRunTime = time;
+    }
+
+    synchronized void skipped() {
+        skippedCount++;
+    }
+
+    /**
+     * Records completed run of job and marks job as not running.
+     *
+     * @param started
+     *         time when run of job was started
+     * @param runTime
+     *         duration of run in milliseconds
+     * @param lag
+     *         difference between actual and planned start time of run in milliseconds
+     * @param failed
+     *         {@code true} if run failed
+     */
+    void completed(long started, long runTime, long lag, boolean failed) {
+        synchronized (this) {
+            runCount++;
+            if (failed) {
+                failureCount++;
+            }
+            totalRunTime += runTime;
+            maxRunTime = Math.max(maxRunTime, runTime);
+            totalLag += lag;
+            maxLag = Math.max(maxLag, lag);
+            lastRunTime = started;
+        }
+        running.set(false);
+    }
+
+    synchronized JobMetrics getMetrics() {
+        return new JobMetrics(task.toString(),
+                              schedule,
+                              running.get(),
+                              runCount,
+                              failureCount,
+                              skippedCount,
+                              runCount == 0 ? 0 : totalRunTime / runCount,
+                              maxRunTime,
+                              runCount == 0 ? 0 : totalLag / runCount,
+                              maxLag,
+                              lastRunTime,
+                              nextRunTime);
+    }
+}
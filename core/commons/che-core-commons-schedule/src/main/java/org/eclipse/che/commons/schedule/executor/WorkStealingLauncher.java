@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.schedule.executor;
+
+import org.eclipse.che.commons.schedule.Launcher;
+import org.eclipse.che.inject.ConfigurationException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Launcher that separates planning of jobs from their execution. Single dispatcher thread keeps time of the next run of each job
+ * and hands job over to the work-stealing pool when its time comes, so long running jobs don't delay other jobs as long as pool has
+ * free threads. Unlike {@link ThreadPullLauncher} this launcher:
+ * <ul>
+ * <li>never runs the same job concurrently, run of job that is still running is skipped</li>
+ * <li>may shift each run of job for random time up to {@code schedule.max_jitter_ms} so jobs with the same schedule don't start
+ * at the same moment</li>
+ * <li>collects run time and lag metrics of each job, see {@link #getMetrics()}</li>
+ * </ul>
+ * Job that is scheduled with fixed rate or fixed delay is stopped after the first failure, cron job keeps running.
+ *
+ * @author andrew00x
+ */
+@Singleton
+public class WorkStealingLauncher implements Launcher {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkStealingLauncher.class);
+
+    private final ScheduledThreadPoolExecutor dispatcher;
+    private final ForkJoinPool                workers;
+    private final List<ScheduledJob>          jobs;
+
+    private long maxJitterMillis;
+
+    /**
+     * @param parallelism
+     *         max number of jobs that are run at the same time
+     */
+    @Inject
+    public WorkStealingLauncher(@Named("schedule.core_pool_size") Integer parallelism) {
+        dispatcher = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat("Annotated-scheduler-dispatcher")
+                                                                                  .setDaemon(true)
+                                                                                  .build());
+        dispatcher.setRemoveOnCancelPolicy(true);
+        workers = new ForkJoinPool(parallelism, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Annotated-scheduler-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+        jobs = new CopyOnWriteArrayList<>();
+    }
+
+    /** Sets max random time in milliseconds that is added to planned start time of each run of job. Default value is 0. */
+    @Inject(optional = true)
+    public void setMaxJitter(@Named("schedule.max_jitter_ms") long maxJitterMillis) {
+        if (maxJitterMillis < 0) {
+            throw new IllegalArgumentException("Max jitter may not be negative");
+        }
+        this.maxJitterMillis = maxJitterMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Don't start new runs of jobs.
+        dispatcher.shutdownNow();
+        workers.shutdown();
+        try {
+            // Wait a while for running jobs to terminate
+            if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+                if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+                    LOG.warn("Pool did not terminate");
+                }
+            }
+        } catch (InterruptedException ie) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void scheduleCron(Runnable runnable, String cron) {
+        if (cron == null || cron.isEmpty()) {
+            throw new ConfigurationException("Cron parameter can't be null");
+        }
+        final CronExpression expression;
+        try {
+            expression = new CronExpression(cron);
+        } catch (ParseException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            throw new ConfigurationException(e.getLocalizedMessage());
+        }
+        final ScheduledJob job = ScheduledJob.cron(runnable, expression);
+        jobs.add(job);
+        final Date first = expression.getNextValidTimeAfter(new Date());
+        if (first != null) {
+            dispatch(job, first.getTime());
+        }
+        LOG.debug("Schedule method {} with cron  {} schedule", runnable, cron);
+    }
+
+    @Override
+    public void scheduleWithFixedDelay(Runnable runnable, long initialDelay, long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Delay must be positive");
+        }
+        final ScheduledJob job = ScheduledJob.fixedDelay(runnable, unit.toMillis(delay));
+        jobs.add(job);
+        dispatch(job, System.currentTimeMillis() + unit.toMillis(initialDelay));
+        LOG.debug("Schedule method {} with fixed initial delay {} delay {} unit {}",
+                  runnable,
+                  initialDelay,
+                  delay, unit);
+    }
+
+    @Override
+    public void scheduleAtFixedRate(Runnable runnable, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        final ScheduledJob job = ScheduledJob.fixedRate(runnable, unit.toMillis(period));
+        jobs.add(job);
+        dispatch(job, System.currentTimeMillis() + unit.toMillis(initialDelay));
+        LOG.debug("Schedule method {} with fixed rate. Initial delay {} period {} unit {}",
+                  runnable,
+                  initialDelay,
+                  period,
+                  unit);
+    }
+
+    @Override
+    public List<JobMetrics> getMetrics() {
+        final List<JobMetrics> metrics = new ArrayList<>(jobs.size());
+        for (ScheduledJob job : jobs) {
+            metrics.add(job.getMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Plans the next run of job.
+     *
+     * @param fireTime
+     *         time of run according to the schedule of job, random jitter is added to this time
+     */
+    private void dispatch(ScheduledJob job, long fireTime) {
+        if (job.isCancelled()) {
+            return;
+        }
+        final long plannedTime = maxJitterMillis > 0 ? fireTime + ThreadLocalRandom.current().nextLong(maxJitterMillis + 1) : fireTime;
+        job.planned(plannedTime);
+        try {
+            dispatcher.schedule(() -> fire(job, fireTime, plannedTime),
+                                Math.max(0, plannedTime - System.currentTimeMillis()),
+                                MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // launcher is stopped
+            job.cancel();
+        }
+    }
+
+    private void fire(ScheduledJob job, long fireTime, long plannedTime) {
+        if (job.isCancelled()) {
+            return;
+        }
+        if (job.tryStart()) {
+            try {
+                workers.execute(() -> run(job, plannedTime));
+            } catch (RejectedExecutionException e) {
+                job.completed(System.currentTimeMillis(), 0, 0, true);
+                job.cancel();
+                return;
+            }
+        } else {
+            LOG.debug("Skip run of {}, previous run is not completed yet", job.getTask());
+            job.skipped();
+        }
+        if (job.getType() != ScheduledJob.Type.FIXED_DELAY) {
+            final long next = job.nextFireTime(fireTime, System.currentTimeMillis());
+            if (next < 0) {
+                job.cancel();
+            } else {
+                dispatch(job, next);
+            }
+        }
+    }
+
+    private void run(ScheduledJob job, long plannedTime) {
+        final long started = System.currentTimeMillis();
+        boolean failed = true;
+        try {
+            job.getTask().run();
+            failed = false;
+        } catch (RuntimeException e) {
+            LOG.warn("Run of {} failed: {}", job.getTask(), e.getMessage());
+        } finally {
+            final long completed = System.currentTimeMillis();
+            job.completed(started, completed - started, Math.max(0, started - plannedTime), failed);
+            if (failed && job.getType() != ScheduledJob.Type.CRON) {
+                // same as ScheduledExecutorService, subsequent runs of periodic task are suppressed after failure
+                job.cancel();
+            } else if (job.getType() == ScheduledJob.Type.FIXED_DELAY) {
+                dispatch(job, completed + job.getDelayMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.schedule.executor;
+
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author andrew00x
+ */
+public class WorkStealingLauncherTest {
+    private WorkStealingLauncher launcher;
+
+    @BeforeMethod
+    public void setUp() {
+        launcher = new WorkStealingLauncher(2);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        launcher.shutdown();
+    }
+
+    @Test
+    public void runsJobWithFixedRate() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(3);
+
+        launcher.scheduleAtFixedRate(latch::countDown, 0, 10, MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runsJobWithFixedDelay() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(3);
+
+        launcher.scheduleWithFixedDelay(latch::countDown, 0, 10, MILLISECONDS);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void skipsRunWhenPreviousRunIsNotCompleted() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger concurrentRuns = new AtomicInteger();
+        final AtomicInteger maxConcurrentRuns = new AtomicInteger();
+
+        launcher.scheduleAtFixedRate(() -> {
+            maxConcurrentRuns.accumulateAndGet(concurrentRuns.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrentRuns.decrementAndGet();
+            }
+        }, 0, 5, MILLISECONDS);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        waitForSkippedRuns(3);
+        release.countDown();
+
+        final JobMetrics metrics = launcher.getMetrics().get(0);
+        assertTrue(metrics.getSkippedCount() >= 3);
+        assertEquals(maxConcurrentRuns.get(), 1);
+    }
+
+    @Test
+    public void stopsJobWithFixedRateAfterFailure() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+
+        launcher.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("failed");
+        }, 0, 5, MILLISECONDS);
+
+        waitForRuns(1);
+        Thread.sleep(100);
+
+        final JobMetrics metrics = launcher.getMetrics().get(0);
+        assertEquals(runs.get(), 1);
+        assertEquals(metrics.getRunCount(), 1);
+        assertEquals(metrics.getFailureCount(), 1);
+        assertEquals(metrics.getNextRunTime(), 0);
+    }
+
+    @Test
+    public void stopsAnnotatedJobAfterFailure() throws Exception {
+        final FailingJob job = new FailingJob();
+
+        launcher.scheduleAtFixedRate(new LoggedRunnable(job, FailingJob.class.getMethod("check")), 0, 5, MILLISECONDS);
+
+        waitForRuns(1);
+        Thread.sleep(100);
+
+        final JobMetrics metrics = launcher.getMetrics().get(0);
+        assertEquals(job.runs.get(), 1);
+        assertEquals(metrics.getRunCount(), 1);
+        assertEquals(metrics.getFailureCount(), 1);
+        assertEquals(metrics.getNextRunTime(), 0);
+    }
+
+    @Test
+    public void collectsMetricsOfJob() throws Exception {
+        final Runnable job = () -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        launcher.scheduleWithFixedDelay(job, 0, 10, MILLISECONDS);
+
+        waitForRuns(2);
+
+        final List<JobMetrics> metrics = launcher.getMetrics();
+        assertEquals(metrics.size(), 1);
+        final JobMetrics jobMetrics = metrics.get(0);
+        assertEquals(jobMetrics.getName(), job.toString());
+        assertEquals(jobMetrics.getSchedule(), "fixed delay 10ms");
+        assertTrue(jobMetrics.getRunCount() >= 2);
+        assertEquals(jobMetrics.getFailureCount(), 0);
+        assertTrue(jobMetrics.getMaxRunTimeMillis() >= 20);
+        assertTrue(jobMetrics.getAverageRunTimeMillis() >= 20);
+        assertTrue(jobMetrics.getLastRunTime() > 0);
+    }
+
+    @Test
+    public void addsJitterToPlannedRunTime() throws Exception {
+        launcher.setMaxJitter(50);
+        final long scheduled = System.currentTimeMillis();
+
+        launcher.scheduleAtFixedRate(() -> {}, 1, 1, TimeUnit.HOURS);
+
+        final long nextRunTime = launcher.getMetrics().get(0).getNextRunTime();
+        final long planned = scheduled + TimeUnit.HOURS.toMillis(1);
+        assertTrue(nextRunTime >= planned && nextRunTime <= planned + 1000, "Unexpected next run time " + nextRunTime);
+        assertFalse(launcher.getMetrics().get(0).isRunning());
+    }
+
+    public static class FailingJob {
+        private final AtomicInteger runs = new AtomicInteger();
+
+        @ScheduleRate(period = 5, unit = MILLISECONDS)
+        public void check() throws Exception {
+            runs.incrementAndGet();
+            throw new Exception("failed");
+        }
+    }
+
+    private void waitForRuns(int runs) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (launcher.getMetrics().get(0).getRunCount() < runs && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void waitForSkippedRuns(int skipped) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (launcher.getMetrics().get(0).getSkippedCount() < skipped && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
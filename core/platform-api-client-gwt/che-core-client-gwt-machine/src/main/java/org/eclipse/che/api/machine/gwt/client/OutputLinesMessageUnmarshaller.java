@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.gwt.client;
+
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONParser;
+import com.google.gwt.json.client.JSONString;
+import com.google.gwt.json.client.JSONValue;
+
+import org.eclipse.che.ide.websocket.Message;
+import org.eclipse.che.ide.websocket.rest.Unmarshallable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unmarshaller for websocket messages with output of machine or process. Message contains either single line as JSON string or
+ * batch of lines as JSON array of strings.
+ *
+ * @author andrew00x
+ */
+public class OutputLinesMessageUnmarshaller implements Unmarshallable<List<String>> {
+    private List<String> payload;
+
+    @Override
+    public void unmarshal(Message message) {
+        payload = parseLines(message.getBody());
+    }
+
+    @Override
+    public List<String> getPayload() {
+        return payload;
+    }
+
+    static List<String> parseLines(String body) {
+        final JSONValue json = JSONParser.parseStrict(body);
+        final JSONArray array = json.isArray();
+        if (array == null) {
+            return Collections.singletonList(stripStream(json.isString()));
+        }
+        final List<String> lines = new ArrayList<>(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            lines.add(stripStream(array.get(i).isString()));
+        }
+        return lines;
+    }
+
+    private static String stripStream(JSONString jsonString) {
+        final String line = jsonString.stringValue();
+        if (line.startsWith("[STDOUT]") || line.startsWith("[STDERR]")) {
+            return line.substring(9);
+        }
+        return line;
+    }
+}
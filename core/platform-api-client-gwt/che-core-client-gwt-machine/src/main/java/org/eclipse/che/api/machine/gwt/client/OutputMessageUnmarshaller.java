@@ -10,28 +10,31 @@
  *******************************************************************************/
 package org.eclipse.che.api.machine.gwt.client;
 
-import com.google.gwt.json.client.JSONParser;
-import com.google.gwt.json.client.JSONString;
-
 import org.eclipse.che.ide.websocket.Message;
 import org.eclipse.che.ide.websocket.rest.Unmarshallable;
 
+import java.util.List;
+
 /**
- * Unmarshaller for websocket messages from machine.
+ * Unmarshaller for websocket messages from machine. Batch of lines is joined into single string.
  *
  * @author Artem Zatsarynnyi
+ * @see OutputLinesMessageUnmarshaller
  */
 public class OutputMessageUnmarshaller implements Unmarshallable<String> {
     private String payload;
 
     @Override
     public void unmarshal(Message message) {
-        final JSONString jsonString = JSONParser.parseStrict(message.getBody()).isString();
-        payload = jsonString.stringValue();
-
-        if (payload.startsWith("[STDOUT]") || payload.startsWith("[STDERR]")) {
-            payload = payload.substring(9);
+        final List<String> lines = OutputLinesMessageUnmarshaller.parseLines(message.getBody());
+        final StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                joined.append('\n');
+            }
+            joined.append(lines.get(i));
         }
+        payload = joined.toString();
     }
 
     @Override
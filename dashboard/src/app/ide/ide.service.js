@@ -186,18 +186,21 @@ class IdeSvc {
                 );
               }
 
+                // output lines may come in batches
+                let lines = angular.isArray(message) ? message.join('\n') : message;
                 if (this.steps[agentStep].logs.length > 0) {
-                    this.steps[agentStep].logs = this.steps[agentStep].logs + '\n' + message;
+                    this.steps[agentStep].logs = this.steps[agentStep].logs + '\n' + lines;
                 } else {
-                    this.steps[agentStep].logs = message;
+                    this.steps[agentStep].logs = lines;
                 }
             });
 
             bus.subscribe(outputChannel, (message) => {
+                let lines = angular.isArray(message) ? message.join('\n') : message;
                 if (this.steps[this.currentStep].logs.length > 0) {
-                    this.steps[this.currentStep].logs = this.steps[this.currentStep].logs + '\n' + message;
+                    this.steps[this.currentStep].logs = this.steps[this.currentStep].logs + '\n' + lines;
                 } else {
-                    this.steps[this.currentStep].logs = message;
+                    this.steps[this.currentStep].logs = lines;
                 }
             });
 
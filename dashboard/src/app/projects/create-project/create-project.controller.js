@@ -356,10 +356,12 @@ export class CreateProjectCtrl {
           this.createProjectSvc.setCurrentProgressStep(2);
         }
         let agentStep = 2;
+        // output lines may come in batches
+        let lines = angular.isArray(message) ? message.join('\n') : message;
         if (this.getCreationSteps()[agentStep].logs.length > 0) {
-          this.getCreationSteps()[agentStep].logs = this.getCreationSteps()[agentStep].logs + '\n' + message;
+          this.getCreationSteps()[agentStep].logs = this.getCreationSteps()[agentStep].logs + '\n' + lines;
         } else {
-          this.getCreationSteps()[agentStep].logs = message;
+          this.getCreationSteps()[agentStep].logs = lines;
         }
       });
 
@@ -397,10 +399,11 @@ export class CreateProjectCtrl {
       if (outputChannel) {
         this.listeningChannels.push(outputChannel);
         bus.subscribe(outputChannel, (message) => {
+          let lines = angular.isArray(message) ? message.join('\n') : message;
           if (this.getCreationSteps()[this.getCurrentProgressStep()].logs.length > 0) {
-            this.getCreationSteps()[this.getCurrentProgressStep()].logs = this.getCreationSteps()[this.getCurrentProgressStep()].logs + '\n' + message;
+            this.getCreationSteps()[this.getCurrentProgressStep()].logs = this.getCreationSteps()[this.getCurrentProgressStep()].logs + '\n' + lines;
           } else {
-            this.getCreationSteps()[this.getCurrentProgressStep()].logs = message;
+            this.getCreationSteps()[this.getCurrentProgressStep()].logs = lines;
           }
         });
       }
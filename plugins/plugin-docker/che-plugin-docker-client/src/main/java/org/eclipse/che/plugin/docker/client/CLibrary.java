@@ -25,6 +25,12 @@ public interface CLibrary extends Library {
     int AF_UNIX     = 1; // Defined in 'sys/socket.h'
     int SOCK_STREAM = 1; // Defined in 'sys/socket.h'
 
+    int MSG_PEEK     = 0x02;   // Defined in 'sys/socket.h'
+    int MSG_DONTWAIT = 0x40;   // Defined in 'sys/socket.h'
+    int MSG_NOSIGNAL = 0x4000; // Defined in 'sys/socket.h'
+
+    int EAGAIN = 11; // Defined in 'errno.h'
+
     // Defined in 'unix.h', see http://man7.org/linux/man-pages/man7/unix.7.html
     class SockAddrUn extends Structure {
         public static final int UNIX_PATH_MAX = 108;
@@ -32,6 +32,9 @@ public abstract class DockerConnection implements Closeable {
     private StringBuilder         query   = new StringBuilder();
     private List<Pair<String, ?>> headers = Collections.emptyList();
 
+    private DockerRequestTracker tracker;
+    private boolean              permitTaken;
+
     public DockerConnection method(String method) {
         this.method = method;
         return this;
@@ -82,7 +85,23 @@ public abstract class DockerConnection implements Closeable {
     }
 
     public DockerResponse request() throws IOException {
-        return request(method, path, query.toString(), headers, entity);
+        if (tracker == null) {
+            return request(method, path, query.toString(), headers, entity);
+        }
+        final String endpoint = DockerRequestTracker.endpoint(method, path);
+        if (!permitTaken && !DockerRequestTracker.isLongLived(endpoint)) {
+            tracker.acquire();
+            permitTaken = true;
+        }
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final DockerResponse response = request(method, path, query.toString(), headers, entity);
+            failed = response.getStatus() >= 500;
+            return response;
+        } finally {
+            tracker.record(endpoint, System.nanoTime() - start, failed);
+        }
     }
 
     protected abstract DockerResponse request(String method,
@@ -91,7 +110,26 @@ public abstract class DockerConnection implements Closeable {
                                               List<Pair<String, ?>> headers,
                                               Entity entity) throws IOException;
 
-    public abstract void close();
+    @Override
+    public void close() {
+        try {
+            closeConnection();
+        } finally {
+            if (permitTaken) {
+                permitTaken = false;
+                tracker.release();
+            }
+        }
+    }
+
+    /** Releases resources of connection, e.g. returns socket to the pool or closes it. */
+    protected abstract void closeConnection();
+
+    /** Sets tracker that limits number of concurrent requests and collects latency of requests. */
+    DockerConnection tracker(DockerRequestTracker tracker) {
+        this.tracker = tracker;
+        return this;
+    }
 
     static abstract class Entity<T> {
         final T entity;
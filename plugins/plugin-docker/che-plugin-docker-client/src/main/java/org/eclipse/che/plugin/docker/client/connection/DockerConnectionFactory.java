@@ -16,19 +16,34 @@ import org.eclipse.che.plugin.docker.client.DockerCertificates;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Factory for connections to docker API.
  *
  * <p>Detects connection implementation by checking docker daemon URI.
  *
+ * <p>Connections are kept alive between requests for {@link #KEEP_ALIVE_MS_PROPERTY}: unix sockets are kept in the pool of this
+ * factory, tcp connections are kept by JDK. Number of concurrent requests is limited with {@link #MAX_CONCURRENT_REQUESTS_PROPERTY},
+ * request waits for free connection up to {@link #CONNECTION_TIMEOUT_MS_PROPERTY}. Latency of requests is collected per endpoint,
+ * see {@link #getMetrics()}.
+ *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class DockerConnectionFactory {
     public static final String CONNECTION_TIMEOUT_MS_PROPERTY      = "docker.connection.tcp.connection_timeout_ms";
     public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY = "docker.connection.tcp.read_timeout_ms";
+    public static final String MAX_CONCURRENT_REQUESTS_PROPERTY    = "docker.connection.max_concurrent_requests";
+    public static final String KEEP_ALIVE_MS_PROPERTY              = "docker.connection.keep_alive_ms";
+
+    static final int MAX_IDLE_CONNECTIONS = 16;
 
     @Inject(optional = true)
     @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -38,18 +53,77 @@ public class DockerConnectionFactory {
     @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
     private int connectionReadTimeoutMs = 60000;
 
-    private final DockerCertificates dockerCertificates;
+    @Inject(optional = true)
+    @Named(MAX_CONCURRENT_REQUESTS_PROPERTY)
+    private int maxConcurrentRequests = 100;
+
+    @Inject(optional = true)
+    @Named(KEEP_ALIVE_MS_PROPERTY)
+    private int keepAliveMs = 30000;
+
+    private final DockerCertificates                    dockerCertificates;
+    private final ConcurrentMap<String, UnixSocketPool> unixSocketPools;
+
+    private volatile DockerRequestTracker requestTracker;
 
     @Inject
     public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
         this.dockerCertificates = connectorConfiguration.getDockerCertificates();
+        this.unixSocketPools = new ConcurrentHashMap<>();
+    }
+
+    DockerConnectionFactory(DockerCertificates dockerCertificates, int connectionTimeoutMs, int maxConcurrentRequests, int keepAliveMs) {
+        this.dockerCertificates = dockerCertificates;
+        this.unixSocketPools = new ConcurrentHashMap<>();
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.keepAliveMs = keepAliveMs;
     }
 
     public DockerConnection openConnection(URI dockerDaemonUri) {
+        final boolean keepAlive = keepAliveMs > 0;
+        final DockerConnection connection;
         if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-            return new UnixSocketConnection(dockerDaemonUri.getPath());
+            final String path = dockerDaemonUri.getPath();
+            connection = new UnixSocketConnection(path, keepAlive ? unixSocketPools.computeIfAbsent(path, this::createUnixSocketPool)
+                                                                  : null);
         } else {
-            return new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+            connection = new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs, keepAlive);
+        }
+        return connection.tracker(getRequestTracker());
+    }
+
+    /** Returns latency metrics of docker API endpoints that are used since start, sorted by endpoint. */
+    public List<DockerEndpointMetrics> getMetrics() {
+        return getRequestTracker().getMetrics();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        unixSocketPools.values().forEach(UnixSocketPool::close);
+        unixSocketPools.clear();
+    }
+
+    DockerRequestTracker getRequestTracker() {
+        // injected fields are not set in constructor, so tracker is created with the first connection
+        DockerRequestTracker tracker = requestTracker;
+        if (tracker == null) {
+            synchronized (this) {
+                tracker = requestTracker;
+                if (tracker == null) {
+                    requestTracker = tracker = new DockerRequestTracker(maxConcurrentRequests, connectionTimeoutMs);
+                }
+            }
         }
+        return tracker;
+    }
+
+    int getIdleConnectionCount(String unixSocketPath) {
+        final UnixSocketPool pool = unixSocketPools.get(unixSocketPath);
+        return pool == null ? 0 : pool.getIdleCount();
+    }
+
+    private UnixSocketPool createUnixSocketPool(String path) {
+        return new UnixSocketPool(path, keepAliveMs, MAX_IDLE_CONNECTIONS);
     }
 }
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+/**
+ * Snapshot of metrics of single docker API endpoint. Latency is the time between start of request and receiving of status and
+ * headers of response, so it doesn't depend on how long content of response is read.
+ *
+ * @author andrew00x
+ * @see DockerConnectionFactory#getMetrics()
+ */
+public final class DockerEndpointMetrics {
+    private final String endpoint;
+    private final long   requestCount;
+    private final long   failureCount;
+    private final long   averageLatencyMicros;
+    private final long   maxLatencyMicros;
+
+    DockerEndpointMetrics(String endpoint, long requestCount, long failureCount, long averageLatencyMicros, long maxLatencyMicros) {
+        this.endpoint = endpoint;
+        this.requestCount = requestCount;
+        this.failureCount = failureCount;
+        this.averageLatencyMicros = averageLatencyMicros;
+        this.maxLatencyMicros = maxLatencyMicros;
+    }
+
+    /** Method and path of endpoint with ids replaced by placeholder, e.g. {@code GET /containers/{id}/json}. */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /** Number of requests that failed with I/O error or with server error status of response. */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    public long getAverageLatencyMicros() {
+        return averageLatencyMicros;
+    }
+
+    public long getMaxLatencyMicros() {
+        return maxLatencyMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "DockerEndpointMetrics{" +
+               "endpoint='" + endpoint + '\'' +
+               ", requestCount=" + requestCount +
+               ", failureCount=" + failureCount +
+               ", averageLatencyMicros=" + averageLatencyMicros +
+               ", maxLatencyMicros=" + maxLatencyMicros +
+               '}';
+    }
+}
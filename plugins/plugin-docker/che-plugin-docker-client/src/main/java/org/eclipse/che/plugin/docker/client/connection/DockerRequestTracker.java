@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds number of concurrent requests to docker API and collects latency of requests per endpoint. Request takes a permit before
+ * it is sent and returns it when connection is closed. Long-lived requests, e.g. events, output of attached container or waiting
+ * for container to stop, don't take permits, otherwise they could block all other requests.
+ *
+ * @author andrew00x
+ */
+class DockerRequestTracker {
+    private static final Set<String> RESOURCES            = ImmutableSet.of("containers", "exec", "images", "networks", "volumes");
+    private static final Set<String> RESOURCE_OPERATIONS  = ImmutableSet.of("create", "json", "search", "load", "get");
+    private static final Set<String> IMAGE_OPERATIONS     = ImmutableSet.of("json", "history", "push", "tag", "get");
+    private static final Set<String> LONG_LIVED_ENDPOINTS = ImmutableSet.of("GET /events",
+                                                                            "GET /containers/{id}/logs",
+                                                                            "POST /containers/{id}/attach",
+                                                                            "POST /containers/{id}/wait",
+                                                                            "POST /exec/{id}/start");
+
+    private final Semaphore                            permits;
+    private final long                                 permitTimeoutMillis;
+    private final ConcurrentMap<String, EndpointStats> endpoints;
+
+    DockerRequestTracker(int maxConcurrentRequests, long permitTimeoutMillis) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.permitTimeoutMillis = permitTimeoutMillis;
+        this.endpoints = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Takes permit for request, waits for free permit up to timeout.
+     *
+     * @throws IOException
+     *         if there is no free permit within timeout or if thread is interrupted
+     */
+    void acquire() throws IOException {
+        try {
+            if (!permits.tryAcquire(permitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException(String.format("Too many concurrent requests to docker API, no free connection within %d ms",
+                                                    permitTimeoutMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for free connection to docker API");
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    void record(String endpoint, long latencyNanos, boolean failed) {
+        endpoints.computeIfAbsent(endpoint, key -> new EndpointStats()).record(latencyNanos, failed);
+    }
+
+    /** Returns metrics of endpoints sorted by endpoint. */
+    List<DockerEndpointMetrics> getMetrics() {
+        final List<DockerEndpointMetrics> metrics = new ArrayList<>(endpoints.size());
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            metrics.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        metrics.sort(Comparator.comparing(DockerEndpointMetrics::getEndpoint));
+        return metrics;
+    }
+
+    /** Returns {@code true} if request to endpoint may stay open for unlimited time. */
+    static boolean isLongLived(String endpoint) {
+        return LONG_LIVED_ENDPOINTS.contains(endpoint);
+    }
+
+    /**
+     * Gets endpoint of request, i.e. method and path where ids and names of containers, images, etc. are replaced with
+     * {@code {id}}, e.g. {@code GET /containers/{id}/json}.
+     */
+    static String endpoint(String method, String path) {
+        final int typeEnd = path.indexOf('/', 1);
+        if (typeEnd < 0 || !RESOURCES.contains(path.substring(1, typeEnd))) {
+            return method + ' ' + path;
+        }
+        final String type = path.substring(1, typeEnd);
+        final String rest = path.substring(typeEnd + 1);
+        if (RESOURCE_OPERATIONS.contains(rest)) {
+            return method + ' ' + path;
+        }
+        // name of image may contain '/', e.g. registry:5000/codenvy/ubuntu_jdk8
+        final int idEnd = "images".equals(type) ? rest.lastIndexOf('/') : rest.indexOf('/');
+        if (idEnd < 0 || "images".equals(type) && !IMAGE_OPERATIONS.contains(rest.substring(idEnd + 1))) {
+            return method + " /" + type + "/{id}";
+        }
+        return method + " /" + type + "/{id}" + rest.substring(idEnd);
+    }
+
+    private static final class EndpointStats {
+        final LongAdder  count        = new LongAdder();
+        final LongAdder  failures     = new LongAdder();
+        final LongAdder  latencyNanos = new LongAdder();
+        final AtomicLong maxNanos     = new AtomicLong();
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                failures.increment();
+            }
+            latencyNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        DockerEndpointMetrics snapshot(String endpoint) {
+            final long requests = count.sum();
+            return new DockerEndpointMetrics(endpoint,
+                                             requests,
+                                             failures.sum(),
+                                             requests == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(latencyNanos.sum() / requests),
+                                             TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+        }
+    }
+}
@@ -56,14 +56,28 @@ public class LimitedInputStream extends InputStream {
             return 0;
         }
 
-        return doRead(b, 0, len);
+        return doRead(b, off, len);
+    }
+
+    /** Returns number of bytes that may be read without blocking, it never exceeds the number of remaining bytes. */
+    @Override
+    public synchronized int available() throws IOException {
+        return pos >= limit ? 0 : Math.min(input.available(), limit - pos);
+    }
+
+    /** Returns number of bytes that are left till the end of content. */
+    synchronized int remaining() {
+        return limit - pos;
     }
 
     private int doRead(byte[] b, int off, int len) throws IOException {
         if (pos >= limit) {
             return -1;
         }
-        int n = input.read(b, 0, Math.min(len - off, limit - pos));
+        int n = input.read(b, off, Math.min(len, limit - pos));
+        if (n < 0) {
+            throw new IOException("Unexpected end of content");
+        }
         pos += n;
         return n;
     }
@@ -24,6 +24,9 @@ import java.net.URL;
 import java.util.List;
 
 /**
+ * Connection to docker API over http(s). Connection may be kept alive after request, then JDK reuses it for the next request to
+ * the same daemon when response is read to the end or its stream is closed.
+ *
  * @author andrew00x
  * @author Alexander Garagatyi
  */
@@ -32,10 +35,16 @@ public class TcpConnection extends DockerConnection {
     private final DockerCertificates certificates;
     private final int                connectionTimeout;
     private final int                readTimeout;
+    private final boolean            keepAlive;
 
     private HttpURLConnection connection;
+    private TcpDockerResponse response;
 
     public TcpConnection(URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
+        this(baseUri, certificates, connectionTimeoutMs, readTimeoutMs, false);
+    }
+
+    TcpConnection(URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs, boolean keepAlive) {
         if ("https".equals(baseUri.getScheme())) {
             if (certificates == null) {
                 throw new IllegalArgumentException("Certificates are required for https connection.");
@@ -47,6 +56,7 @@ public class TcpConnection extends DockerConnection {
         this.certificates = certificates;
         this.connectionTimeout = connectionTimeoutMs;
         this.readTimeout = readTimeoutMs;
+        this.keepAlive = keepAlive;
     }
 
     @Override
@@ -62,8 +72,10 @@ public class TcpConnection extends DockerConnection {
             ((HttpsURLConnection)connection).setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
         }
         connection.setRequestMethod(method);
-        // needed to fix bug https://github.com/docker/docker/issues/12845
-        connection.setRequestProperty("Connection", "close");
+        if (!keepAlive || DockerRequestTracker.isLongLived(DockerRequestTracker.endpoint(method, path))) {
+            // needed to fix bug https://github.com/docker/docker/issues/12845
+            connection.setRequestProperty("Connection", "close");
+        }
         for (Pair<String, ?> header : headers) {
             connection.setRequestProperty(header.first, String.valueOf(header.second));
         }
@@ -73,13 +85,23 @@ public class TcpConnection extends DockerConnection {
                 entity.writeTo(output);
             }
         }
-        return new TcpDockerResponse(connection);
+        // read status and headers here, so stream of response is known when connection is closed
+        connection.getResponseCode();
+        return response = new TcpDockerResponse(connection);
     }
 
     @Override
-    public void close() {
-        if (connection != null) {
-            connection.disconnect();
+    protected void closeConnection() {
+        if (connection == null) {
+            return;
+        }
+        if (keepAlive && response != null) {
+            try {
+                response.getInputStream().close();
+                return;
+            } catch (IOException ignored) {
+            }
         }
+        connection.disconnect();
     }
 }
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.sun.jna.Native;
+
+import org.eclipse.che.plugin.docker.client.CLibrary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EAGAIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_DONTWAIT;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_PEEK;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Connected unix socket with buffered streams. Socket may serve several HTTP requests one by one, see {@link UnixSocketPool}.
+ *
+ * @author andrew00x
+ */
+class UnixSocket {
+    private final int          fd;
+    private final InputStream  input;
+    private final OutputStream output;
+
+    private long    lastUsed;
+    private boolean reused;
+
+    /**
+     * Connects to unix socket.
+     *
+     * @param path
+     *         path to unix socket
+     * @throws ConnectException
+     *         if socket can't be connected
+     */
+    static UnixSocket connect(String path) throws ConnectException {
+        final CLibrary cLib = getCLibrary();
+        final int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+        if (fd == -1) {
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", path));
+        }
+        final SockAddrUn sockAddr = new SockAddrUn(path);
+        if (cLib.connect(fd, sockAddr, sockAddr.size()) == -1) {
+            cLib.close(fd);
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", path));
+        }
+        return new UnixSocket(fd);
+    }
+
+    private UnixSocket(int fd) {
+        this.fd = fd;
+        this.input = new BufferedInputStream(new UnixSocketInputStream(fd));
+        this.output = new BufferedOutputStream(new UnixSocketOutputStream(fd));
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    InputStream getInputStream() {
+        return input;
+    }
+
+    OutputStream getOutputStream() {
+        return output;
+    }
+
+    /** Returns {@code true} if socket was taken from pool, so it might be already closed by docker daemon. */
+    boolean isReused() {
+        return reused;
+    }
+
+    void setReused(boolean reused) {
+        this.reused = reused;
+    }
+
+    /** Returns time when socket was returned to pool. */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void setLastUsed(long lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    /**
+     * Checks whether idle socket may be used for the next request, i.e. docker daemon didn't close it and there is no unexpected
+     * data that is left from the previous response.
+     */
+    boolean isAlive() {
+        try {
+            if (input.available() > 0) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        final CLibrary cLib = getCLibrary();
+        // 0 - socket is closed by daemon, > 0 - unexpected data, -1 and EAGAIN - nothing to read, socket is usable
+        return cLib.recv(fd, new byte[1], 1, MSG_PEEK | MSG_DONTWAIT) == -1 && Native.getLastError() == EAGAIN;
+    }
+
+    void close() {
+        getCLibrary().close(fd);
+    }
+}
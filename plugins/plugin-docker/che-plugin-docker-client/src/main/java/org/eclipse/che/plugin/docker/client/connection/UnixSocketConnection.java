@@ -13,68 +13,129 @@ package org.eclipse.che.plugin.docker.client.connection;
 import com.google.common.base.Strings;
 
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.net.ConnectException;
 import java.util.List;
+import java.util.Set;
 
-import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
-import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
-import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
-import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+import static com.google.common.collect.Sets.newHashSet;
 
 /**
+ * Connection to docker API over unix socket. If connection is created with {@link UnixSocketPool} socket is taken from the pool
+ * and returned back when connection is closed and response is read to the end, otherwise new socket is opened for each request.
+ *
  * @author andrew00x
  * @author Alexander Garagatyi
  */
 public class UnixSocketConnection extends DockerConnection {
-    private final String dockerSocketPath;
+    private static final Logger LOG = LoggerFactory.getLogger(UnixSocketConnection.class);
+
+    /**
+     * Methods of requests that may be sent once again if daemon didn't respond. DELETE isn't here since daemon responds with
+     * 'not found' on repeated request if the first one was performed.
+     */
+    private static final Set<String> REPEATABLE_METHODS = newHashSet("GET", "HEAD", "OPTIONS");
 
-    private int fd = -1;
+    private final String         dockerSocketPath;
+    private final UnixSocketPool pool;
+
+    private UnixSocket               socket;
+    private UnixSocketDockerResponse response;
 
     public UnixSocketConnection(String dockerSocketPath) {
+        this(dockerSocketPath, null);
+    }
+
+    UnixSocketConnection(String dockerSocketPath, UnixSocketPool pool) {
         this.dockerSocketPath = dockerSocketPath;
+        this.pool = pool;
     }
 
     @Override
     protected DockerResponse request(String method, String path, String query, List<Pair<String, ?>> headers, Entity entity)
             throws IOException {
-        fd = connect();
-        final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
-        writeHttpHeaders(output, method, path, query, headers);
-        if (entity != null) {
-            entity.writeTo(output);
+        final UnixSocket socket = pool == null ? UnixSocket.connect(dockerSocketPath) : pool.borrow();
+        try {
+            writeRequest(socket, method, path, query, headers, entity);
+        } catch (IOException e) {
+            // Daemon may close idle socket right after health check. It doesn't get request then, so request is sent once again
+            // with new socket. Stream entity can't be sent once again.
+            if (!socket.isReused() || entity instanceof StreamEntity) {
+                throw e;
+            }
+            LOG.debug("Idle socket of docker daemon {} is closed, open new one: {}", dockerSocketPath, e.getMessage());
+            return request(UnixSocket.connect(dockerSocketPath), method, path, query, headers, entity);
+        }
+        final UnixSocketDockerResponse response = new UnixSocketDockerResponse(socket.getInputStream());
+        try {
+            return readResponse(socket, response);
+        } catch (IOException e) {
+            // Daemon may also close idle socket after request is written. Request might be already performed by daemon in this case,
+            // so it is sent once again only if daemon responded nothing and request doesn't change anything.
+            if (!socket.isReused() || entity instanceof StreamEntity || response.isReceived() || !REPEATABLE_METHODS.contains(method)) {
+                throw e;
+            }
+            LOG.debug("Idle socket of docker daemon {} is closed, open new one: {}", dockerSocketPath, e.getMessage());
+            return request(UnixSocket.connect(dockerSocketPath), method, path, query, headers, entity);
         }
-        return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
     }
 
-
     @Override
-    public void close() {
-        if (fd != -1) {
-            getCLibrary().close(fd);
+    protected void closeConnection() {
+        if (socket != null) {
+            if (pool != null && response.isReusable()) {
+                pool.release(socket);
+            } else {
+                socket.close();
+            }
+            socket = null;
         }
     }
 
-    private int connect() throws IOException {
-        final CLibrary cLib = getCLibrary();
-        int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
-        if (fd == -1) {
-            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+    private DockerResponse request(UnixSocket socket,
+                                   String method,
+                                   String path,
+                                   String query,
+                                   List<Pair<String, ?>> headers,
+                                   Entity entity) throws IOException {
+        writeRequest(socket, method, path, query, headers, entity);
+        return readResponse(socket, new UnixSocketDockerResponse(socket.getInputStream()));
+    }
+
+    private void writeRequest(UnixSocket socket,
+                              String method,
+                              String path,
+                              String query,
+                              List<Pair<String, ?>> headers,
+                              Entity entity) throws IOException {
+        try {
+            final OutputStream output = socket.getOutputStream();
+            writeHttpHeaders(output, method, path, query, headers);
+            if (entity != null) {
+                entity.writeTo(output);
+            }
+        } catch (IOException e) {
+            socket.close();
+            throw e;
         }
-        final SockAddrUn sockAddr = new SockAddrUn(dockerSocketPath);
-        int c = cLib.connect(fd, sockAddr, sockAddr.size());
-        if (c == -1) {
-            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+    }
+
+    private DockerResponse readResponse(UnixSocket socket, UnixSocketDockerResponse response) throws IOException {
+        try {
+            // read status and headers here, so closed socket is detected before response is returned
+            response.getInputStream();
+            this.socket = socket;
+            this.response = response;
+            return response;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
         }
-        return fd;
     }
 
     private void writeHttpHeaders(OutputStream output, String method, String path, String query, List<Pair<String, ?>> headers)
@@ -97,12 +158,4 @@ public class UnixSocketConnection extends DockerConnection {
         writer.write("\r\n");
         writer.flush();
     }
-
-    private InputStream openInputStream(int fd) {
-        return new UnixSocketInputStream(fd);
-    }
-
-    private OutputStream openOutputStream(int fd) {
-        return new UnixSocketOutputStream(fd);
-    }
 }
@@ -26,11 +26,15 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
     };
 
+    /** Max size of unread content that is skipped to reuse socket for the next request. */
+    private static final int MAX_SKIP_SIZE = 64 * 1024;
+
     private final InputStream rawData;
 
     private InputStream data;
     private String[]    headersFields;
     private int         status;
+    private boolean     received;
 
     UnixSocketDockerResponse(InputStream input) {
         rawData = input;
@@ -122,6 +126,7 @@ public class UnixSocketDockerResponse implements DockerResponse {
             if (c == -1) {
                 break;
             }
+            received = true;
             lineBuf.append((char)c);
         }
         if (!lineBuf.toString().startsWith("HTTP/1.")) {
@@ -143,6 +148,11 @@ public class UnixSocketDockerResponse implements DockerResponse {
             }
         }
         this.headersFields = headerFields.toArray(new String[headerFields.size()]);
+        final int status = getStatus();
+        if (status == 204 || status == 304) {
+            // response has no content even if there is no Content-Length header
+            return data = EMPTY;
+        }
         final int contentLength = getContentLength();
         if (contentLength == 0) {
             return data = EMPTY;
@@ -152,4 +162,53 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
         return data = "chunked".equals(getHeader("Transfer-Encoding")) ? new ChunkedInputStream(rawData) : rawData;
     }
+
+    /** Returns {@code true} if at least one byte of response is received from docker daemon. */
+    synchronized boolean isReceived() {
+        return received;
+    }
+
+    /**
+     * Checks whether socket may be used for the next request after this response. Socket may be reused if content of response is read
+     * to the end or if the rest of content is short and is already received, then it is skipped. Raw stream, e.g. output of attached
+     * container, and stream that isn't completed yet, e.g. stream of events, end only with the end of connection. Never waits for
+     * content that isn't received yet.
+     */
+    synchronized boolean isReusable() {
+        if (headersFields == null) {
+            return false;
+        }
+        try {
+            if ("close".equalsIgnoreCase(getHeader("Connection"))) {
+                return false;
+            }
+            if (data == EMPTY) {
+                return true;
+            }
+            final boolean chunked = data instanceof ChunkedInputStream;
+            if (!(chunked || data instanceof LimitedInputStream)) {
+                return false;
+            }
+            if (!chunked && ((LimitedInputStream)data).remaining() > MAX_SKIP_SIZE) {
+                return false;
+            }
+            final byte[] buf = new byte[8192];
+            for (int skipped = 0; skipped <= MAX_SKIP_SIZE; ) {
+                if (chunked && !((ChunkedInputStream)data).isEof() && data.available() == 0 && rawData.available() == 0) {
+                    return false;
+                }
+                if (!chunked && ((LimitedInputStream)data).remaining() > 0 && data.available() == 0) {
+                    return false;
+                }
+                final int n = data.read(buf);
+                if (n == -1) {
+                    return true;
+                }
+                skipped += n;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return false;
+    }
 }
@@ -16,6 +16,8 @@ import com.sun.jna.LastErrorException;
 import java.io.IOException;
 import java.io.InputStream;
 
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_DONTWAIT;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_PEEK;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
@@ -65,4 +67,10 @@ public class UnixSocketInputStream extends InputStream {
         }
         return n;
     }
+
+    /** Returns {@code 1} if some data may be read from socket without blocking and {@code 0} otherwise. */
+    @Override
+    public int available() throws IOException {
+        return cLib.recv(fd, new byte[1], 1, MSG_PEEK | MSG_DONTWAIT) > 0 ? 1 : 0;
+    }
 }
@@ -16,6 +16,7 @@ import com.sun.jna.LastErrorException;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_NOSIGNAL;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
@@ -42,7 +43,8 @@ public class UnixSocketOutputStream extends OutputStream {
     public void write(byte[] b, int off, int len) throws IOException {
         int n;
         try {
-            n = cLib.send(fd, b, len, 0);
+            // report error instead of SIGPIPE if docker daemon closed idle socket
+            n = cLib.send(fd, b, len, MSG_NOSIGNAL);
         } catch (LastErrorException e) {
             throw new IOException("error: " + cLib.strerror(e.getErrorCode()));
         }
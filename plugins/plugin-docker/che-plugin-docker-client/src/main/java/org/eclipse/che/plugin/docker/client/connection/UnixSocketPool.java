@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Keeps sockets connected to docker daemon between requests, so each request doesn't open new socket. Socket is taken from the
+ * pool for the time of single request and is returned back when response is read to the end. Socket is checked before reuse and
+ * dropped if docker daemon closed it. Sockets that are not used for keep alive time are closed.
+ *
+ * @author andrew00x
+ */
+class UnixSocketPool {
+    private final String            path;
+    private final long              keepAliveMillis;
+    private final int               maxIdle;
+    private final Deque<UnixSocket> idle;
+
+    private volatile boolean closed;
+
+    UnixSocketPool(String path, long keepAliveMillis, int maxIdle) {
+        this.path = path;
+        this.keepAliveMillis = keepAliveMillis;
+        this.maxIdle = maxIdle;
+        this.idle = new ConcurrentLinkedDeque<>();
+    }
+
+    /**
+     * Gets idle socket or connects new one.
+     *
+     * @throws IOException
+     *         if new socket can't be connected
+     */
+    UnixSocket borrow() throws IOException {
+        final long expired = System.currentTimeMillis() - keepAliveMillis;
+        for (UnixSocket socket; (socket = idle.pollFirst()) != null; ) {
+            if (socket.getLastUsed() > expired && socket.isAlive()) {
+                socket.setReused(true);
+                return socket;
+            }
+            socket.close();
+        }
+        return UnixSocket.connect(path);
+    }
+
+    /** Returns socket to the pool, socket must not have unread data of the previous response. */
+    void release(UnixSocket socket) {
+        if (closed || idle.size() >= maxIdle) {
+            socket.close();
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        socket.setLastUsed(now);
+        // the most recently used socket is taken first, so extra sockets stay idle and get closed
+        idle.offerFirst(socket);
+        for (UnixSocket last; (last = idle.peekLast()) != null && last.getLastUsed() <= now - keepAliveMillis; ) {
+            if (idle.removeLastOccurrence(last)) {
+                last.close();
+            }
+        }
+    }
+
+    /** Returns number of sockets that are not used at the moment. */
+    int getIdleCount() {
+        return idle.size();
+    }
+
+    /** Closes all idle sockets, sockets that are returned after that are closed immediately. */
+    void close() {
+        closed = true;
+        for (UnixSocket socket; (socket = idle.pollFirst()) != null; ) {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures throughput of requests to {@link FakeDockerDaemon} with new socket per request and with kept alive sockets.
+ * Usage: {@code DockerConnectionBenchmark [threads] [requests per thread]}.
+ *
+ * @author andrew00x
+ */
+public class DockerConnectionBenchmark {
+    public static void main(String[] args) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        final int requests = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        final File tmpDir = Files.createTempDirectory("docker").toFile();
+        final FakeDockerDaemon daemon = new FakeDockerDaemon(new File(tmpDir, "docker.sock"));
+        daemon.start();
+        try {
+            final URI daemonUri = new URI("unix://" + daemon.getSocketPath());
+            for (int keepAliveMs : new int[]{0, 30000}) {
+                final DockerConnectionFactory factory = new DockerConnectionFactory(null, 60000, threads, keepAliveMs);
+                // warm up
+                run(factory, daemonUri, threads, requests / 10);
+                final int connections = daemon.getConnectionCount();
+                final long start = System.nanoTime();
+                run(factory, daemonUri, threads, requests);
+                final double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("keep alive %5d ms: %8.0f requests/s, %6d new connections%n",
+                                  keepAliveMs, threads * requests / seconds, daemon.getConnectionCount() - connections);
+                factory.getMetrics().forEach(System.out::println);
+                factory.shutdown();
+            }
+        } finally {
+            daemon.stop();
+            tmpDir.delete();
+        }
+    }
+
+    private static void run(DockerConnectionFactory factory, URI daemonUri, int threads, int requests) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int r = 0; r < requests; r++) {
+                        try (DockerConnection connection = factory.openConnection(daemonUri).method("GET").path("/version")) {
+                            ByteStreams.toByteArray(connection.request().getInputStream());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.util.SystemInfo;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests of {@link DockerConnectionFactory} with {@link FakeDockerDaemon} that listens on unix socket.
+ *
+ * @author andrew00x
+ */
+public class DockerConnectionFactoryTest {
+    private File                    tmpDir;
+    private FakeDockerDaemon        daemon;
+    private DockerConnectionFactory factory;
+    private URI                     daemonUri;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        if (!SystemInfo.isLinux()) {
+            throw new SkipException("Unix sockets are supported on linux only");
+        }
+        tmpDir = Files.createTempDirectory("docker").toFile();
+        daemon = new FakeDockerDaemon(new File(tmpDir, "docker.sock"));
+        daemon.start();
+        daemonUri = new URI("unix://" + daemon.getSocketPath());
+        factory = new DockerConnectionFactory(null, 200, 2, 30000);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (daemon != null) {
+            factory.shutdown();
+            daemon.stop();
+            tmpDir.delete();
+        }
+    }
+
+    @Test
+    public void reusesSocketForSequentialRequests() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(get("/version"), "{\"Version\":\"1.10.3\",\"ApiVersion\":\"1.22\",\"Os\":\"linux\",\"Arch\":\"amd64\"}");
+        }
+
+        assertEquals(daemon.getConnectionCount(), 1);
+        assertEquals(factory.getIdleConnectionCount(daemon.getSocketPath()), 1);
+    }
+
+    @Test
+    public void reusesSocketAfterChunkedResponse() throws Exception {
+        assertEquals(get("/info"), "{\"Containers\":3,\"Images\":5}");
+        get("/version");
+
+        assertEquals(daemon.getConnectionCount(), 1);
+    }
+
+    @Test
+    public void reusesSocketWhenReceivedContentIsNotRead() throws Exception {
+        try (DockerConnection connection = factory.openConnection(daemonUri).method("GET").path("/info")) {
+            assertEquals(connection.request().getStatus(), 200);
+        }
+        get("/version");
+
+        assertEquals(daemon.getConnectionCount(), 1);
+    }
+
+    @Test
+    public void reusesSocketAfterResponseWithoutContent() throws Exception {
+        try (DockerConnection connection = factory.openConnection(daemonUri).method("POST").path("/containers/abc/start")) {
+            assertEquals(connection.request().getStatus(), 204);
+        }
+        get("/version");
+
+        assertEquals(daemon.getConnectionCount(), 1);
+    }
+
+    @Test
+    public void closesSocketWhenStreamIsNotCompleted() throws Exception {
+        try (DockerConnection connection = factory.openConnection(daemonUri).method("GET").path("/events")) {
+            final DockerResponse response = connection.request();
+            assertEquals(response.getStatus(), 200);
+            assertTrue(response.getInputStream().read() != -1);
+        }
+        get("/version");
+
+        assertEquals(daemon.getConnectionCount(), 2);
+        assertEquals(factory.getIdleConnectionCount(daemon.getSocketPath()), 1);
+    }
+
+    @Test
+    public void opensNewSocketWhenDaemonClosesIdleSocket() throws Exception {
+        daemon.setCloseAfterResponse(true);
+
+        for (int i = 0; i < 5; i++) {
+            get("/version");
+        }
+
+        assertEquals(daemon.getRequestCount(), 5);
+        assertEquals(daemon.getConnectionCount(), 5);
+    }
+
+    @Test(timeOut = 10000)
+    public void closesSocketWhenContentIsNotReceivedYet() throws Exception {
+        try (DockerConnection connection = factory.openConnection(daemonUri).method("GET").path("/partial")) {
+            final DockerResponse response = connection.request();
+            assertEquals(response.getStatus(), 200);
+            assertEquals(response.getContentLength(), 100);
+        }
+        get("/version");
+
+        assertEquals(daemon.getConnectionCount(), 2);
+    }
+
+    @Test
+    public void repeatsIdempotentRequestWhenDaemonClosesReusedSocketWithoutResponse() throws Exception {
+        get("/version");
+
+        try {
+            get("/drop");
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+
+        // the second attempt with new socket fails as well
+        assertEquals(daemon.getRequestCount(), 3);
+        assertEquals(daemon.getConnectionCount(), 2);
+    }
+
+    @Test
+    public void doesNotRepeatNonIdempotentRequestWhenDaemonClosesReusedSocketWithoutResponse() throws Exception {
+        get("/version");
+
+        try (DockerConnection connection = factory.openConnection(daemonUri).method("POST").path("/drop")) {
+            connection.request();
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+
+        assertEquals(daemon.getRequestCount(), 2);
+        assertEquals(daemon.getConnectionCount(), 1);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Too many concurrent requests to docker API.*")
+    public void limitsNumberOfConcurrentRequests() throws Exception {
+        try (DockerConnection first = factory.openConnection(daemonUri).method("GET").path("/version");
+             DockerConnection second = factory.openConnection(daemonUri).method("GET").path("/version");
+             DockerConnection third = factory.openConnection(daemonUri).method("GET").path("/version")) {
+            first.request();
+            second.request();
+            third.request();
+        }
+    }
+
+    @Test
+    public void releasesPermitWhenConnectionIsClosed() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            get("/version");
+        }
+
+        assertEquals(factory.getRequestTracker().getAvailablePermits(), 2);
+    }
+
+    @Test
+    public void doesNotLimitLongLivedRequests() throws Exception {
+        try (DockerConnection first = factory.openConnection(daemonUri).method("GET").path("/events");
+             DockerConnection second = factory.openConnection(daemonUri).method("GET").path("/events")) {
+            first.request();
+            second.request();
+
+            assertEquals(get("/info"), "{\"Containers\":3,\"Images\":5}");
+        }
+    }
+
+    @Test
+    public void collectsMetricsPerEndpoint() throws Exception {
+        get("/containers/abc/json");
+        get("/containers/def/json");
+        get("/version");
+        get("/fail");
+
+        final List<DockerEndpointMetrics> metrics = factory.getMetrics();
+
+        assertEquals(metrics.size(), 3);
+        assertEquals(metrics.get(0).getEndpoint(), "GET /containers/{id}/json");
+        assertEquals(metrics.get(0).getRequestCount(), 2);
+        assertEquals(metrics.get(0).getFailureCount(), 0);
+        assertEquals(metrics.get(1).getEndpoint(), "GET /fail");
+        assertEquals(metrics.get(1).getFailureCount(), 1);
+        assertEquals(metrics.get(2).getEndpoint(), "GET /version");
+        assertEquals(metrics.get(2).getRequestCount(), 1);
+        assertTrue(metrics.get(2).getMaxLatencyMicros() >= metrics.get(2).getAverageLatencyMicros());
+    }
+
+    private String get(String path) throws IOException {
+        try (DockerConnection connection = factory.openConnection(daemonUri).method("GET").path(path)) {
+            return new String(ByteStreams.toByteArray(connection.request().getInputStream()), UTF_8);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author andrew00x
+ */
+public class DockerRequestTrackerTest {
+
+    @DataProvider(name = "endpoints")
+    public Object[][] endpoints() {
+        return new Object[][]{
+                {"GET", "/version", "GET /version"},
+                {"GET", "/containers/json", "GET /containers/json"},
+                {"POST", "/containers/create", "POST /containers/create"},
+                {"GET", "/containers/8d3f6e9a/json", "GET /containers/{id}/json"},
+                {"DELETE", "/containers/8d3f6e9a", "DELETE /containers/{id}"},
+                {"POST", "/exec/8d3f6e9a/start", "POST /exec/{id}/start"},
+                {"POST", "/images/create", "POST /images/create"},
+                {"GET", "/images/registry:5000/codenvy/ubuntu_jdk8/json", "GET /images/{id}/json"},
+                {"POST", "/images/codenvy/ubuntu_jdk8/push", "POST /images/{id}/push"},
+                {"DELETE", "/images/codenvy/ubuntu_jdk8", "DELETE /images/{id}"},
+                {"DELETE", "/images/ubuntu", "DELETE /images/{id}"}
+        };
+    }
+
+    @Test(dataProvider = "endpoints")
+    public void replacesIdsInEndpoint(String method, String path, String endpoint) {
+        assertEquals(DockerRequestTracker.endpoint(method, path), endpoint);
+    }
+
+    @Test
+    public void detectsLongLivedRequests() {
+        assertTrue(DockerRequestTracker.isLongLived(DockerRequestTracker.endpoint("GET", "/events")));
+        assertTrue(DockerRequestTracker.isLongLived(DockerRequestTracker.endpoint("POST", "/containers/8d3f6e9a/attach")));
+        assertTrue(DockerRequestTracker.isLongLived(DockerRequestTracker.endpoint("POST", "/exec/8d3f6e9a/start")));
+        assertFalse(DockerRequestTracker.isLongLived(DockerRequestTracker.endpoint("POST", "/containers/8d3f6e9a/start")));
+    }
+
+    @Test
+    public void collectsMetrics() {
+        final DockerRequestTracker tracker = new DockerRequestTracker(1, 100);
+
+        tracker.record("GET /version", 3000000, false);
+        tracker.record("GET /version", 1000000, true);
+
+        final DockerEndpointMetrics metrics = tracker.getMetrics().get(0);
+        assertEquals(metrics.getRequestCount(), 2);
+        assertEquals(metrics.getFailureCount(), 1);
+        assertEquals(metrics.getAverageLatencyMicros(), 2000);
+        assertEquals(metrics.getMaxLatencyMicros(), 3000);
+    }
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import org.eclipse.che.plugin.docker.client.CLibrary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_NOSIGNAL;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+
+/**
+ * Docker daemon that listens on unix socket and answers with predefined keep-alive HTTP responses:
+ * <ul>
+ * <li>{@code /version} - JSON with Content-Length</li>
+ * <li>{@code /info} - chunked JSON</li>
+ * <li>{@code /events} - chunked stream that is never completed</li>
+ * <li>{@code /containers/{id}/start} - no content</li>
+ * <li>{@code /partial} - the first part of content with Content-Length, the rest is never sent</li>
+ * <li>{@code /drop} - no response, connection is closed right after request is read</li>
+ * <li>{@code /fail} - server error</li>
+ * <li>any other path - not found</li>
+ * </ul>
+ *
+ * @author andrew00x
+ */
+public class FakeDockerDaemon {
+    private static final String VERSION = "{\"Version\":\"1.10.3\",\"ApiVersion\":\"1.22\",\"Os\":\"linux\",\"Arch\":\"amd64\"}";
+
+    private final File          socketFile;
+    private final SocketLibrary cLib;
+    private final Set<Integer>  clients;
+    private final AtomicInteger connections;
+    private final AtomicInteger requests;
+    private final ThreadGroup   threads;
+
+    private volatile int     serverFd;
+    private volatile boolean closeAfterResponse;
+
+    public FakeDockerDaemon(File socketFile) {
+        this.socketFile = socketFile;
+        this.cLib = (SocketLibrary)Native.loadLibrary("c", SocketLibrary.class);
+        this.clients = ConcurrentHashMap.newKeySet();
+        this.connections = new AtomicInteger();
+        this.requests = new AtomicInteger();
+        this.threads = new ThreadGroup("FakeDockerDaemon");
+    }
+
+    public void start() throws IOException {
+        serverFd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+        final CLibrary.SockAddrUn address = new CLibrary.SockAddrUn(socketFile.getAbsolutePath());
+        if (cLib.bind(serverFd, address, address.size()) == -1 || cLib.listen(serverFd, 128) == -1) {
+            cLib.close(serverFd);
+            throw new IOException("Unable to listen on " + socketFile);
+        }
+        final Thread acceptor = new Thread(threads, this::accept, "FakeDockerDaemonAcceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public void stop() {
+        // shutdown interrupts blocked accept and recv calls
+        cLib.shutdown(serverFd, SocketLibrary.SHUT_RDWR);
+        cLib.close(serverFd);
+        for (Integer fd : clients) {
+            cLib.shutdown(fd, SocketLibrary.SHUT_RDWR);
+        }
+        socketFile.delete();
+    }
+
+    public String getSocketPath() {
+        return socketFile.getAbsolutePath();
+    }
+
+    /** Returns number of accepted connections. */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /** Closes each connection after response like daemon that closes idle connections. */
+    public void setCloseAfterResponse(boolean closeAfterResponse) {
+        this.closeAfterResponse = closeAfterResponse;
+    }
+
+    private void accept() {
+        for (int fd; (fd = cLib.accept(serverFd, null, null)) != -1; ) {
+            connections.incrementAndGet();
+            clients.add(fd);
+            final int clientFd = fd;
+            final Thread worker = new Thread(threads, () -> serve(clientFd), "FakeDockerDaemonWorker");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void serve(int fd) {
+        try {
+            for (String path; (path = readRequest(fd)) != null; ) {
+                requests.incrementAndGet();
+                if (!respond(fd, path) || closeAfterResponse) {
+                    break;
+                }
+            }
+        } catch (IOException ignored) {
+        } finally {
+            clients.remove(fd);
+            cLib.close(fd);
+        }
+    }
+
+    /** Reads headers and content of request and returns path of request or {@code null} if client closed connection. */
+    private String readRequest(int fd) throws IOException {
+        final ByteArrayOutputStream headers = new ByteArrayOutputStream();
+        final byte[] b = new byte[1];
+        // last four bytes of headers, headers end with empty line
+        for (int last = 0; last != 0x0d0a0d0a; last = (last << 8) | (b[0] & 0xff)) {
+            if (cLib.recv(fd, b, 1, 0) <= 0) {
+                return null;
+            }
+            headers.write(b[0]);
+        }
+        final String[] lines = new String(headers.toByteArray(), UTF_8).split("\r\n");
+        int contentLength = 0;
+        for (String line : lines) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+            }
+        }
+        final byte[] content = new byte[Math.max(contentLength, 1)];
+        for (int read = 0; read < contentLength; ) {
+            final int n = cLib.recv(fd, content, contentLength - read, 0);
+            if (n <= 0) {
+                return null;
+            }
+            read += n;
+        }
+        final String path = lines[0].split(" ")[1];
+        final int query = path.indexOf('?');
+        return query < 0 ? path : path.substring(0, query);
+    }
+
+    /** Writes response and returns {@code false} if connection must be closed after that. */
+    private boolean respond(int fd, String path) throws IOException {
+        if ("/version".equals(path)) {
+            send(fd, "HTTP/1.1 200 OK\r\n" +
+                     "Content-Type: application/json\r\n" +
+                     "Content-Length: " + VERSION.length() + "\r\n" +
+                     "\r\n" +
+                     VERSION);
+        } else if ("/info".equals(path)) {
+            send(fd, "HTTP/1.1 200 OK\r\n" +
+                     "Content-Type: application/json\r\n" +
+                     "Transfer-Encoding: chunked\r\n" +
+                     "\r\n" +
+                     chunk("{\"Containers\":3,") +
+                     chunk("\"Images\":5}") +
+                     chunk(""));
+        } else if ("/events".equals(path)) {
+            send(fd, "HTTP/1.1 200 OK\r\n" +
+                     "Content-Type: application/json\r\n" +
+                     "Transfer-Encoding: chunked\r\n" +
+                     "\r\n" +
+                     chunk("{\"status\":\"start\",\"id\":\"abc\"}"));
+            // stream of events is completed when client closes connection
+            while (cLib.recv(fd, new byte[1], 1, 0) > 0) {
+            }
+            return false;
+        } else if ("/partial".equals(path)) {
+            send(fd, "HTTP/1.1 200 OK\r\n" +
+                     "Content-Length: 100\r\n" +
+                     "\r\n" +
+                     "0123456789");
+            // the rest of content is never sent, connection is closed by client
+            while (cLib.recv(fd, new byte[1], 1, 0) > 0) {
+            }
+            return false;
+        } else if ("/drop".equals(path)) {
+            return false;
+        } else if (path.startsWith("/containers/") && path.endsWith("/start")) {
+            send(fd, "HTTP/1.1 204 No Content\r\n\r\n");
+        } else if ("/fail".equals(path)) {
+            send(fd, "HTTP/1.1 500 Internal Server Error\r\n" +
+                     "Content-Length: 5\r\n" +
+                     "\r\n" +
+                     "error");
+        } else {
+            send(fd, "HTTP/1.1 404 Not Found\r\n" +
+                     "Content-Length: 9\r\n" +
+                     "\r\n" +
+                     "not found");
+        }
+        return true;
+    }
+
+    private void send(int fd, String response) throws IOException {
+        final byte[] bytes = response.getBytes(UTF_8);
+        for (int sent = 0; sent < bytes.length; ) {
+            final byte[] rest = new byte[bytes.length - sent];
+            System.arraycopy(bytes, sent, rest, 0, rest.length);
+            final int n = cLib.send(fd, rest, rest.length, MSG_NOSIGNAL);
+            if (n <= 0) {
+                throw new IOException("Unable to send response");
+            }
+            sent += n;
+        }
+    }
+
+    private static String chunk(String data) {
+        return Integer.toHexString(data.length()) + "\r\n" + data + "\r\n";
+    }
+
+    /** Server side functions of unix sockets. */
+    public interface SocketLibrary extends CLibrary {
+        int SHUT_RDWR = 2;
+
+        int bind(int fd, SockAddrUn sock_addr, int addr_len);
+
+        int listen(int fd, int backlog);
+
+        int accept(int fd, Pointer sock_addr, Pointer addr_len);
+
+        int shutdown(int fd, int how);
+    }
+}
@@ -14,6 +14,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 
+import org.eclipse.che.api.core.notification.AsyncDeliveryPolicy;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.project.server.ProjectCreatedEvent;
@@ -45,12 +46,14 @@ public class ProjectListeners {
     public ProjectListeners(@Named("che.user.workspaces.storage") String workspacePath, EventService eventService) {
         workspace = new File(workspacePath);
         eventService.subscribe(new ProjectCreated());
-        eventService.subscribe(new EventSubscriber<ProjectItemModifiedEvent>(){
+        // Updating of java model may take a while, don't hold thread that modifies files.
+        // Events are delivered in order of modification, one at a time.
+        eventService.subscribe(new EventSubscriber<ProjectItemModifiedEvent>() {
             @Override
             public void onEvent(ProjectItemModifiedEvent event) {
                 handleEvent(event);
             }
-        });
+        }, ProjectItemModifiedEvent.class, AsyncDeliveryPolicy.defaults());
     }
 
     public void handleEvent(ProjectItemModifiedEvent event) {
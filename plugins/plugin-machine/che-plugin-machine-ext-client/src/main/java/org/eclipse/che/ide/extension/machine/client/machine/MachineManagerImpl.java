@@ -17,7 +17,7 @@ import com.google.web.bindery.event.shared.EventBus;
 import org.eclipse.che.api.core.rest.shared.dto.LinkParameter;
 import org.eclipse.che.api.machine.gwt.client.MachineManager;
 import org.eclipse.che.api.machine.gwt.client.MachineServiceClient;
-import org.eclipse.che.api.machine.gwt.client.OutputMessageUnmarshaller;
+import org.eclipse.che.api.machine.gwt.client.OutputLinesMessageUnmarshaller;
 import org.eclipse.che.api.machine.gwt.client.WsAgentStateController;
 import org.eclipse.che.api.machine.gwt.client.events.DevMachineStateEvent;
 import org.eclipse.che.api.machine.gwt.client.events.MachineStartingEvent;
@@ -49,6 +49,8 @@ import org.eclipse.che.ide.websocket.WebSocketException;
 import org.eclipse.che.ide.websocket.rest.SubscriptionHandler;
 import org.eclipse.che.ide.websocket.rest.Unmarshallable;
 
+import java.util.List;
+
 import static org.eclipse.che.api.machine.gwt.client.MachineManager.MachineOperationType.DESTROY;
 import static org.eclipse.che.api.machine.gwt.client.MachineManager.MachineOperationType.RESTART;
 import static org.eclipse.che.api.machine.gwt.client.MachineManager.MachineOperationType.START;
@@ -89,7 +91,7 @@ public class MachineManagerImpl implements MachineManager, WorkspaceStoppedHandl
     private String                                  statusChannel;
     private String                                  outputChannel;
     private SubscriptionHandler<MachineStatusEvent> statusHandler;
-    private SubscriptionHandler<String>             outputHandler;
+    private SubscriptionHandler<List<String>>       outputHandler;
 
     @Inject
     public MachineManagerImpl(WsAgentStateController wsAgentStateController,
@@ -154,10 +156,12 @@ public class MachineManagerImpl implements MachineManager, WorkspaceStoppedHandl
             }
         };
 
-        outputHandler = new SubscriptionHandler<String>(new OutputMessageUnmarshaller()) {
+        outputHandler = new SubscriptionHandler<List<String>>(new OutputLinesMessageUnmarshaller()) {
             @Override
-            protected void onMessageReceived(String result) {
-                machineConsolePresenter.print(result);
+            protected void onMessageReceived(List<String> result) {
+                for (String line : result) {
+                    machineConsolePresenter.print(line);
+                }
             }
 
             @Override
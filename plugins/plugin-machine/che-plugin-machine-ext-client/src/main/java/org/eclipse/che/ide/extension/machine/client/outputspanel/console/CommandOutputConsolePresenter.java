@@ -16,7 +16,7 @@ import com.google.inject.assistedinject.Assisted;
 import com.google.web.bindery.event.shared.EventBus;
 
 import org.eclipse.che.api.machine.gwt.client.MachineServiceClient;
-import org.eclipse.che.api.machine.gwt.client.OutputMessageUnmarshaller;
+import org.eclipse.che.api.machine.gwt.client.OutputLinesMessageUnmarshaller;
 import org.eclipse.che.api.machine.shared.dto.MachineProcessDto;
 import org.eclipse.che.api.machine.shared.dto.event.MachineProcessEvent;
 import org.eclipse.che.ide.extension.machine.client.MachineResources;
@@ -114,10 +114,12 @@ public class CommandOutputConsolePresenter implements CommandOutputConsole, Outp
     @Override
     public void listenToOutput(String wsChannel) {
         outputChannel = wsChannel;
-        outputHandler = new SubscriptionHandler<String>(new OutputMessageUnmarshaller()) {
+        outputHandler = new SubscriptionHandler<List<String>>(new OutputLinesMessageUnmarshaller()) {
             @Override
-            protected void onMessageReceived(String result) {
-                view.print(result, result.endsWith("\r"));
+            protected void onMessageReceived(List<String> result) {
+                for (String line : result) {
+                    view.print(line, line.endsWith("\r"));
+                }
 
                 for (ConsoleOutputListener listener : outputListenes) {
                     listener.onConsoleOutput(CommandOutputConsolePresenter.this);
@@ -20,6 +20,7 @@ import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.api.core.model.project.SourceStorage;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.FileCleaner;
+import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.git.shared.Branch;
 import org.eclipse.che.api.git.shared.BranchListRequest;
@@ -29,6 +30,7 @@ import org.eclipse.che.api.git.shared.FetchRequest;
 import org.eclipse.che.api.git.shared.GitCheckoutEvent;
 import org.eclipse.che.api.git.shared.InitRequest;
 import org.eclipse.che.api.git.shared.RemoteAddRequest;
+import org.eclipse.che.api.git.shared.ResetRequest;
 import org.eclipse.che.api.project.server.FolderEntry;
 import org.eclipse.che.api.project.server.importer.ProjectImporter;
 import org.eclipse.che.commons.lang.IoUtil;
@@ -36,16 +38,25 @@ import org.eclipse.che.dto.server.DtoFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Named;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.eclipse.che.api.core.ErrorCodes.FAILED_CHECKOUT;
 import static org.eclipse.che.api.core.ErrorCodes.FAILED_CHECKOUT_WITH_START_POINT;
@@ -59,8 +70,24 @@ public class GitProjectImporter implements ProjectImporter {
 
     private final GitConnectionFactory gitConnectionFactory;
     private static final Logger LOG = LoggerFactory.getLogger(GitProjectImporter.class);
+    private static final int    MAX_CLONE_ATTEMPTS = 3;
+    /** Messages of git and curl about broken or timed out connection, in lower case. */
+    private static final List<String> TRANSIENT_FAILURES = Arrays.asList("early eof",
+                                                                         "the remote end hung up unexpectedly",
+                                                                         "unexpected disconnect",
+                                                                         "rpc failed",
+                                                                         "transfer closed with outstanding read data remaining",
+                                                                         "connection reset",
+                                                                         "connection timed out",
+                                                                         "operation timed out",
+                                                                         "could not resolve host",
+                                                                         "failed to connect to",
+                                                                         "index-pack failed");
+    private static final Pattern      MISSING_BRANCH     = Pattern.compile("Remote branch .+ not found");
     private final EventService         eventService;
 
+    private File referenceDir;
+
     @Inject
     public GitProjectImporter(GitConnectionFactory gitConnectionFactory,
                               EventService eventService) {
@@ -68,6 +95,17 @@ public class GitProjectImporter implements ProjectImporter {
         this.eventService = eventService;
     }
 
+    /**
+     * Sets directory with local copies of remote repositories that are used as source of objects while cloning, see
+     * {@link CloneRequest#getReference()}. Copy of repository {@code https://github.com/eclipse/che.git} or
+     * {@code git@github.com:eclipse/che.git} is looked up as {@code github.com/eclipse/che.git} in this directory. Copies may be
+     * prepared in workspace image with {@code git clone --mirror}.
+     */
+    @Inject(optional = true)
+    public void setReferenceDir(@Named("git.clone.reference_dir") String referenceDir) {
+        this.referenceDir = new File(referenceDir);
+    }
+
     @Override
     public String getId() {
         return "git";
@@ -123,6 +161,11 @@ public class GitProjectImporter implements ProjectImporter {
             // Delete vcs info if false.
             String branchMerge = null;
             boolean keepVcs = true;
+            // For big repositories: clone only the latest commits, skip file contents until they are needed,
+            // check out only listed comma separated directories.
+            int depth = 0;
+            String filter = null;
+            List<String> sparseCheckout = null;
 
             Map<String, String> parameters = storage.getParameters();
             if (parameters != null) {
@@ -135,28 +178,59 @@ public class GitProjectImporter implements ProjectImporter {
                     keepVcs = Boolean.parseBoolean(parameters.get("keepVcs"));
                 }
                 branchMerge = parameters.get("branchMerge");
+                if (parameters.containsKey("depth")) {
+                    depth = parseDepth(parameters.get("depth"));
+                }
+                filter = parameters.get("filter");
+                if (parameters.containsKey("sparseCheckout")) {
+                    sparseCheckout = Arrays.stream(parameters.get("sparseCheckout").split(","))
+                                           .map(String::trim)
+                                           .filter(path -> !path.isEmpty())
+                                           .collect(Collectors.toList());
+                }
+            }
+            if (keepDirectory != null) {
+                // Sub-project is checked out in the same way as directories of sparse checkout, but repository is cloned into
+                // temporary folder, which is copied to the project folder after that.
+                sparseCheckout = sparseCheckout == null ? new ArrayList<>() : new ArrayList<>(sparseCheckout);
+                sparseCheckout.add(keepDirectory);
+                if (branch == null) {
+                    branch = "master";
+                }
             }
             // Get path to local file. Git works with local filesystem only.
-            final String localPath = baseFolder.getVirtualFile().toIoFile().getAbsolutePath();
+            final File projectDir = baseFolder.getVirtualFile().toIoFile();
             final DtoFactory dtoFactory = DtoFactory.getInstance();
             final String location = storage.getLocation();
             final String projectName = baseFolder.getName();
-            if (keepDirectory != null) {
-                final File temp = Files.createTempDirectory(null).toFile();
-                try {
-                    git = gitConnectionFactory.getConnection(temp, consumerFactory);
-                    sparsecheckout(git, projectName, location, branch == null ? "master" : branch, startPoint, keepDirectory, dtoFactory);
-                    // Copy content of directory to the project folder.
-                    final File projectDir = new File(localPath);
-                    IoUtil.copy(temp, projectDir, IoUtil.ANY_FILTER);
-                } finally {
-                    FileCleaner.addFile(temp);
-                }
-            } else {
-
-                git = gitConnectionFactory.getConnection(localPath, consumerFactory);
-                if (baseFolder.getChildren().size() == 0) {
-                    cloneRepository(git, "origin", location, dtoFactory);
+            final File temp = keepDirectory == null ? null : Files.createTempDirectory(null).toFile();
+            try {
+                git = gitConnectionFactory.getConnection(temp == null ? projectDir : temp, consumerFactory);
+                if (temp != null || baseFolder.getChildren().isEmpty()) {
+                    final CloneRequest cloneRequest = dtoFactory.createDto(CloneRequest.class)
+                                                                .withRemoteName("origin")
+                                                                .withRemoteUri(location)
+                                                                .withFilter(filter)
+                                                                .withReference(findReference(location))
+                                                                .withNoCheckout(sparseCheckout != null && !sparseCheckout.isEmpty());
+                    // shallow clone may not contain the commit or start point
+                    if (commitId == null && startPoint == null && depth > 0) {
+                        cloneRequest.withDepth(depth);
+                        // shallow clone contains single branch, branch of pull request is fetched after clone
+                        if (remoteOriginFetch == null) {
+                            cloneRequest.withBranch(branch);
+                        }
+                    }
+                    // sub-project or sparse checkout of known branch doesn't need history of other branches,
+                    // branch created from start point may be absent in remote
+                    if (cloneRequest.isNoCheckout() && branch != null && remoteOriginFetch == null
+                        && (temp != null || startPoint == null)) {
+                        cloneRequest.withBranch(branch).withSingleBranch(true);
+                    }
+                    cloneRepository(git, cloneRequest, consumerFactory);
+                    if (cloneRequest.isNoCheckout()) {
+                        checkoutDirectories(git, sparseCheckout, dtoFactory);
+                    }
                     if (commitId != null) {
                         checkoutCommit(git, commitId, dtoFactory);
                     } else if (remoteOriginFetch != null) {
@@ -195,6 +269,14 @@ public class GitProjectImporter implements ProjectImporter {
                 if (!keepVcs) {
                     cleanGit(git.getWorkingDir());
                 }
+                if (temp != null) {
+                    // Copy content of directory to the project folder.
+                    IoUtil.copy(temp, projectDir, IoUtil.ANY_FILTER);
+                }
+            } finally {
+                if (temp != null) {
+                    FileCleaner.addFile(temp);
+                }
             }
         } catch (URISyntaxException e) {
             throw new ServerException(
@@ -208,10 +290,134 @@ public class GitProjectImporter implements ProjectImporter {
         }
     }
 
-    private void cloneRepository(GitConnection git, String remoteName, String url, DtoFactory dtoFactory)
+    private void cloneRepository(GitConnection git, CloneRequest request, LineConsumerFactory consumerFactory)
             throws ServerException, UnauthorizedException, URISyntaxException {
-        final CloneRequest request = dtoFactory.createDto(CloneRequest.class).withRemoteName(remoteName).withRemoteUri(url);
-        git.clone(request);
+        final File workingDir = git.getWorkingDir();
+        final long start = System.currentTimeMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                git.clone(request);
+                break;
+            } catch (GitException e) {
+                if (request.getBranch() != null && isMissingBranch(e)) {
+                    throw new GitException(e.getMessage(), FAILED_CHECKOUT);
+                }
+                // network failures are common for big repositories, clone again into the clean directory
+                if (attempt == MAX_CLONE_ATTEMPTS || !isTransientFailure(e)) {
+                    throw e;
+                }
+                LOG.warn("Clone of {} failed, attempt {} of {}: {}", request.getRemoteUri(), attempt, MAX_CLONE_ATTEMPTS, e.getMessage());
+                final File[] files = workingDir.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        IoUtil.deleteRecursive(file);
+                    }
+                }
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(attempt));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+        writeCloneSummary(new File(workingDir, ".git"), System.currentTimeMillis() - start, consumerFactory);
+    }
+
+    /** Returns {@code true} if clone failed because of broken connection and may succeed if it is started again. */
+    static boolean isTransientFailure(GitException e) {
+        final String message = e.getMessage();
+        if (message == null) {
+            return false;
+        }
+        final String lowerCase = message.toLowerCase(Locale.US);
+        return TRANSIENT_FAILURES.stream().anyMatch(lowerCase::contains);
+    }
+
+    /** Returns {@code true} if clone failed because branch that should be checked out doesn't exist. */
+    private static boolean isMissingBranch(GitException e) {
+        return e.getMessage() != null && MISSING_BRANCH.matcher(e.getMessage()).find();
+    }
+
+    /** Writes size of cloned repository and average speed of clone to the import output. */
+    private void writeCloneSummary(File gitDir, long millis, LineConsumerFactory consumerFactory) {
+        try (LineConsumer output = consumerFactory.newLineConsumer();
+             Stream<java.nio.file.Path> files = Files.walk(gitDir.toPath())) {
+            final long bytes = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+            final double mib = bytes / (1024D * 1024D);
+            output.writeLine(String.format(Locale.US, "Cloned %.2f MiB in %.1f s (%.2f MiB/s)",
+                                           mib, millis / 1000D, mib * 1000D / Math.max(1, millis)));
+        } catch (IOException | UncheckedIOException e) {
+            LOG.debug(e.getMessage(), e);
+        }
+    }
+
+    /** Checks out only the listed directories of repository that is cloned without checkout. */
+    private void checkoutDirectories(GitConnection git, List<String> directories, DtoFactory dtoFactory) throws GitException {
+        git.getConfig().add("core.sparsecheckout", "true");
+        final File sparseCheckout = new File(git.getWorkingDir(), ".git" + File.separator + "info" + File.separator + "sparse-checkout");
+        try {
+            Files.createDirectories(sparseCheckout.toPath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(sparseCheckout.toPath(), Charset.forName("UTF-8"))) {
+                for (String directory : directories) {
+                    writer.write(directory.startsWith("/") ? directory : '/' + directory);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new GitException(e);
+        }
+        final ResetRequest reset = dtoFactory.createDto(ResetRequest.class).withCommit("HEAD");
+        reset.setType(ResetRequest.ResetType.HARD);
+        git.reset(reset);
+    }
+
+    /**
+     * Finds local copy of remote repository in {@link #setReferenceDir(String) reference directory}. Returns {@code null} if
+     * reference directory is not set or there is no copy of repository.
+     */
+    String findReference(String url) {
+        if (referenceDir == null || url == null) {
+            return null;
+        }
+        // https://user@host:port/path, ssh://user@host:port/path, user@host:path
+        String name = url;
+        final int scheme = name.indexOf("://");
+        if (scheme >= 0) {
+            name = name.substring(scheme + 3);
+        }
+        final int at = name.indexOf('@');
+        final int slash = name.indexOf('/');
+        if (at >= 0 && (slash < 0 || at < slash)) {
+            name = name.substring(at + 1);
+        }
+        if (scheme >= 0) {
+            // drop port, path always starts with '/'
+            name = name.replaceFirst("^([^/:]+):\\d*/", "$1/");
+        } else {
+            // scp-like syntax, path may start with digits
+            name = name.replaceFirst("^([^/:]+):/?", "$1/");
+        }
+        while (name.endsWith("/")) {
+            name = name.substring(0, name.length() - 1);
+        }
+        if (name.startsWith("/") || name.indexOf('/') < 0 || name.contains("..")) {
+            // local path or path outside of reference directory
+            return null;
+        }
+        if (!name.endsWith(".git")) {
+            name += ".git";
+        }
+        final File reference = new File(referenceDir, name);
+        return reference.isDirectory() ? reference.getAbsolutePath() : null;
+    }
+
+    private int parseDepth(String depth) throws ServerException {
+        try {
+            return Integer.parseInt(depth);
+        } catch (NumberFormatException e) {
+            throw new ServerException("Invalid depth of clone: " + depth);
+        }
     }
 
     private void initRepository(GitConnection git, DtoFactory dtoFactory) throws GitException {
@@ -299,36 +505,6 @@ public class GitProjectImporter implements ProjectImporter {
         }
     }
 
-    private void sparsecheckout(GitConnection git,
-                                String projectName,
-                                String url,
-                                String branch,
-                                String startPoint,
-                                String directory,
-                                DtoFactory dtoFactory)
-            throws GitException, UnauthorizedException {
-        /*
-        Does following sequence of Git commands:
-        $ git init
-        $ git remote add origin <URL>
-        $ git config core.sparsecheckout true
-        $ echo keepDirectory >> .git/info/sparse-checkout
-        $ git pull origin master
-        */
-        initRepository(git, dtoFactory);
-        addRemote(git, "origin", url, dtoFactory);
-        git.getConfig().add("core.sparsecheckout", "true");
-        final File workingDir = git.getWorkingDir();
-        final File sparseCheckout = new File(workingDir, ".git" + File.separator + "info" + File.separator + "sparse-checkout");
-        try (BufferedWriter writer = Files.newBufferedWriter(sparseCheckout.toPath(), Charset.forName("UTF-8"))) {
-            writer.write(directory.startsWith(File.separator) ? directory : File.separator + directory);
-        } catch (IOException e) {
-            throw new GitException(e);
-        }
-        fetchBranch(git, "origin", branch, dtoFactory);
-        checkoutBranch(git, projectName, branch, startPoint, dtoFactory);
-    }
-
     private void cleanGit(File project) {
         IoUtil.deleteRecursive(new File(project, ".git"));
         new File(project, ".gitignore").delete();
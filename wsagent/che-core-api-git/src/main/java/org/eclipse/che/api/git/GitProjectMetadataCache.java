@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import org.eclipse.che.api.git.shared.Remote;
+import org.eclipse.che.api.git.shared.RemoteListRequest;
+import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherEventType;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.commons.lang.cache.ConcurrentSLRUCache;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+/**
+ * Caches git attributes of projects, see {@link GitValueProviderFactory}. Attributes of project are loaded once with single git
+ * connection, concurrent requests for the same project wait for the same load. Cached attributes are dropped when file watcher
+ * reports changes of {@code .git/HEAD}, {@code .git/refs} or {@code .git/config} of repository, or when {@code .git} directory is
+ * created or deleted. Attributes that are being loaded while they are dropped are not cached.
+ *
+ * @author andrew00x
+ */
+@Singleton
+public class GitProjectMetadataCache {
+    private static final int MAX_PROJECTS = 1000;
+
+    private final GitConnectionFactory                            gitConnectionFactory;
+    private final FileWatcherNotificationHandler                  fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener                 gitFilesListener;
+    private final ConcurrentSLRUCache<String, GitProjectMetadata> cache;
+
+    @Inject
+    public GitProjectMetadataCache(GitConnectionFactory gitConnectionFactory,
+                                   FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this.gitConnectionFactory = gitConnectionFactory;
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.cache = new ConcurrentSLRUCache<>(MAX_PROJECTS);
+        this.gitFilesListener = new FileWatcherNotificationListener(GitProjectMetadataCache::isRepositoryMetadata) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                final File gitDir = findGitDir(virtualFile.toIoFile());
+                if (gitDir != null) {
+                    invalidate(gitDir.getParentFile().getAbsolutePath());
+                }
+            }
+        };
+        fileWatcherNotificationHandler.addNotificationListener(gitFilesListener);
+    }
+
+    @PreDestroy
+    public void stop() {
+        fileWatcherNotificationHandler.removeNotificationListener(gitFilesListener);
+    }
+
+    /**
+     * Gets git attributes of project.
+     *
+     * @param projectPath
+     *         absolute path of project on local file system
+     * @throws GitException
+     *         if attributes can't be loaded
+     */
+    public GitProjectMetadata get(String projectPath) throws GitException {
+        try {
+            return cache.get(projectPath, this::load);
+        } catch (LoadException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Drops cached attributes of repository and of all projects inside it.
+     *
+     * @param workTree
+     *         absolute path of repository work tree on local file system
+     */
+    public void invalidate(String workTree) {
+        final String prefix = workTree + File.separatorChar;
+        cache.removeIf(projectPath -> projectPath.equals(workTree) || projectPath.startsWith(prefix));
+    }
+
+    private GitProjectMetadata load(String projectPath) {
+        try (GitConnection gitConnection = gitConnectionFactory.getConnection(projectPath)) {
+            //check whether the folder belongs to git repository
+            if (!gitConnection.isInsideWorkTree()) {
+                return GitProjectMetadata.NOT_REPOSITORY;
+            }
+            final String branchName = gitConnection.status(StatusFormat.LONG).getBranchName();
+            final List<String> remoteUrls = gitConnection.remoteList(newDto(RemoteListRequest.class))
+                                                         .stream()
+                                                         .map(Remote::getUrl)
+                                                         .collect(Collectors.toList());
+            return new GitProjectMetadata(true, branchName, remoteUrls);
+        } catch (GitException e) {
+            throw new LoadException(e);
+        }
+    }
+
+    private static boolean isRepositoryMetadata(VirtualFile virtualFile) {
+        final String path = virtualFile.getPath().toString();
+        return path.endsWith("/.git")
+               || path.endsWith("/.git/HEAD")
+               || path.endsWith("/.git/config")
+               || path.contains("/.git/refs/")
+               || path.endsWith("/.git/refs");
+    }
+
+    private static File findGitDir(File file) {
+        for (File current = file; current != null; current = current.getParentFile()) {
+            if (".git".equals(current.getName())) {
+                return current.getParentFile() == null ? null : current;
+            }
+        }
+        return null;
+    }
+
+    /** Git attributes of project. */
+    public static final class GitProjectMetadata {
+        static final GitProjectMetadata NOT_REPOSITORY = new GitProjectMetadata(false, null, Collections.emptyList());
+
+        private final boolean      repository;
+        private final String       branchName;
+        private final List<String> remoteUrls;
+
+        GitProjectMetadata(boolean repository, String branchName, List<String> remoteUrls) {
+            this.repository = repository;
+            this.branchName = branchName;
+            this.remoteUrls = Collections.unmodifiableList(remoteUrls);
+        }
+
+        /** Returns {@code true} if project is inside git work tree. */
+        public boolean isRepository() {
+            return repository;
+        }
+
+        public String getBranchName() {
+            return branchName;
+        }
+
+        public List<String> getRemoteUrls() {
+            return remoteUrls;
+        }
+    }
+
+    /** Passes {@link GitException} through the loader of cache. */
+    private static final class LoadException extends RuntimeException {
+        LoadException(GitException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized GitException getCause() {
+            return (GitException)super.getCause();
+        }
+    }
+}
@@ -92,6 +92,9 @@ public class GitService {
     @Inject
     private GitUrlResolver gitUrlResolver;
 
+    @Inject
+    private GitProjectMetadataCache gitProjectMetadataCache;
+
     @PathParam("ws-id")
     private String workspace;
 
@@ -114,6 +117,7 @@ public class GitService {
         try (GitConnection gitConnection = getGitConnection()) {
             gitConnection.checkout(request);
         }
+        invalidateGitAttributes();
     }
 
     @Path("branch-create")
@@ -142,6 +146,7 @@ public class GitService {
         try (GitConnection gitConnection = getGitConnection()) {
             gitConnection.branchRename(oldName, newName);
         }
+        invalidateGitAttributes();
     }
 
     @Path("branch-list")
@@ -167,6 +172,7 @@ public class GitService {
         GitConnection gitConnection = getGitConnection();
         try {
             gitConnection.clone(request);
+            gitProjectMetadataCache.invalidate(request.getWorkingDir());
             return DtoFactory.getInstance().createDto(RepoInfo.class).withRemoteUri(request.getRemoteUri());
         } finally {
             long end = System.currentTimeMillis();
@@ -233,6 +239,7 @@ public class GitService {
         try (GitConnection gitConnection = getGitConnection()) {
             gitConnection.init(request);
         }
+        invalidateGitAttributes();
         projectRegistry.setProjectType(projectPath, GitProjectType.TYPE_ID, true);
     }
 
@@ -300,6 +307,7 @@ public class GitService {
         try (GitConnection gitConnection = getGitConnection()) {
             gitConnection.remoteAdd(request);
         }
+        invalidateGitAttributes();
     }
 
     @Path("remote-delete/{name}")
@@ -308,6 +316,7 @@ public class GitService {
         try (GitConnection gitConnection = getGitConnection()) {
             gitConnection.remoteDelete(name);
         }
+        invalidateGitAttributes();
     }
 
     @Path("remote-list")
@@ -328,6 +337,7 @@ public class GitService {
         try (GitConnection gitConnection = getGitConnection()) {
             gitConnection.remoteUpdate(request);
         }
+        invalidateGitAttributes();
     }
 
     @Path("reset")
@@ -437,10 +447,12 @@ public class GitService {
         final RegisteredProject project = projectRegistry.getProject(projectPath);
         if (project.getBaseFolder().getChildFolder(".git") != null) {
             try (GitConnection gitConnection = getGitConnection()) {
+                final LogRequest lastCommit = DtoFactory.getInstance().createDto(LogRequest.class).withMaxCount(1);
                 return DtoFactory.getInstance().createDto(SourceStorageDto.class)
                                  .withType("git")
                                  .withLocation(gitUrlResolver.resolve(uriInfo.getBaseUri(), getAbsoluteProjectPath(projectPath)))
-                                 .withParameters(Collections.singletonMap("commitId", gitConnection.log(null).getCommits().get(0).getId()));
+                                 .withParameters(Collections.singletonMap("commitId",
+                                                                          gitConnection.log(lastCommit).getCommits().get(0).getId()));
 
             }
         } else {
@@ -462,6 +474,7 @@ public class GitService {
         final RegisteredProject project = projectRegistry.getProject(projectPath);
         final FolderEntry gitFolder = project.getBaseFolder().getChildFolder(".git");
         gitFolder.getVirtualFile().delete();
+        invalidateGitAttributes();
         projectRegistry.removeProjectType(projectPath, GitProjectType.TYPE_ID);
     }
 
@@ -473,4 +486,9 @@ public class GitService {
     private GitConnection getGitConnection() throws ApiException {
         return gitConnectionFactory.getConnection(getAbsoluteProjectPath(projectPath));
     }
+
+    /** Drops cached git attributes of project without waiting for file watcher, so the next read of project sees changes. */
+    private void invalidateGitAttributes() throws ApiException {
+        gitProjectMetadataCache.invalidate(getAbsoluteProjectPath(projectPath));
+    }
 }
@@ -13,9 +13,7 @@ package org.eclipse.che.api.git;
 import com.google.inject.Inject;
 
 import org.eclipse.che.api.core.ApiException;
-import org.eclipse.che.api.git.shared.Remote;
-import org.eclipse.che.api.git.shared.RemoteListRequest;
-import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.git.GitProjectMetadataCache.GitProjectMetadata;
 import org.eclipse.che.api.project.server.FolderEntry;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.server.type.ValueProvider;
@@ -24,21 +22,22 @@ import org.eclipse.che.api.project.server.type.ValueProviderFactory;
 import javax.inject.Singleton;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.eclipse.che.api.git.GitProjectType.GIT_CURRENT_BRANCH_NAME;
 import static org.eclipse.che.api.git.GitProjectType.GIT_REPOSITORY_REMOTES;
 import static org.eclipse.che.api.git.GitProjectType.VCS_PROVIDER_NAME;
-import static org.eclipse.che.dto.server.DtoFactory.newDto;
 
 /**
+ * Provides git attributes of project. Attributes are read from {@link GitProjectMetadataCache}, so listing of projects doesn't
+ * run git commands until repository is changed.
+ *
  * @author Roman Nikitenko
  */
 @Singleton
 public class GitValueProviderFactory implements ValueProviderFactory {
 
     @Inject
-    private GitConnectionFactory gitConnectionFactory;
+    private GitProjectMetadataCache gitProjectMetadataCache;
 
     @Override
     public ValueProvider newInstance(final FolderEntry folder) {
@@ -48,9 +47,10 @@ public class GitValueProviderFactory implements ValueProviderFactory {
                 if (folder == null) {
                     return Collections.emptyList();
                 }
-                try (GitConnection gitConnection = gitConnectionFactory.getConnection(resolveLocalPath(folder))) {
+                try {
+                    final GitProjectMetadata metadata = gitProjectMetadataCache.get(resolveLocalPath(folder));
                     //check whether the folder belongs to git repository
-                    if (!gitConnection.isInsideWorkTree()) {
+                    if (!metadata.isRepository()) {
                         return Collections.emptyList();
                     }
 
@@ -58,12 +58,9 @@ public class GitValueProviderFactory implements ValueProviderFactory {
                         case VCS_PROVIDER_NAME:
                             return Collections.singletonList("git");
                         case GIT_CURRENT_BRANCH_NAME:
-                            return Collections.singletonList(gitConnection.status(StatusFormat.LONG).getBranchName());
+                            return Collections.singletonList(metadata.getBranchName());
                         case GIT_REPOSITORY_REMOTES:
-                            return gitConnection.remoteList(newDto(RemoteListRequest.class))
-                                                .stream()
-                                                .map(Remote::getUrl)
-                                                .collect(Collectors.toList());
+                            return metadata.getRemoteUrls();
                         default:
                             return Collections.emptyList();
                     }
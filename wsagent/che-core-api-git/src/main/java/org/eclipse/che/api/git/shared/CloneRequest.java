@@ -58,4 +58,56 @@ public interface CloneRequest extends GitRequest {
     void setTimeout(int timeout);
     
     CloneRequest withTimeout(int timeout);
+
+    /** @return branch to check out after clone. If <code>null</code> then branch that remote HEAD points to is checked out */
+    String getBranch();
+
+    void setBranch(String branch);
+
+    CloneRequest withBranch(String branch);
+
+    /** @return <code>true</code> if only history of branch {@link #getBranch()} should be fetched */
+    boolean isSingleBranch();
+
+    void setSingleBranch(boolean singleBranch);
+
+    CloneRequest withSingleBranch(boolean singleBranch);
+
+    /**
+     * @return number of the latest commits of branch to fetch. If 0 then full history is fetched. Shallow clone contains single
+     *         branch, see {@link #getBranch()}
+     */
+    int getDepth();
+
+    void setDepth(int depth);
+
+    CloneRequest withDepth(int depth);
+
+    /**
+     * @return filter of objects for partial clone, e.g. <code>blob:none</code>, missing objects are fetched from remote when they are
+     *         needed. If <code>null</code> then all objects are fetched. Ignored if remote doesn't support partial clone
+     */
+    String getFilter();
+
+    void setFilter(String filter);
+
+    CloneRequest withFilter(String filter);
+
+    /**
+     * @return path of local repository that is used as source of objects, only objects that are absent in this repository are
+     *         fetched from remote. Cloned repository doesn't depend on the reference repository. Ignored if there is no such
+     *         repository
+     */
+    String getReference();
+
+    void setReference(String reference);
+
+    CloneRequest withReference(String reference);
+
+    /** @return <code>true</code> if files should not be checked out after clone */
+    boolean isNoCheckout();
+
+    void setNoCheckout(boolean noCheckout);
+
+    CloneRequest withNoCheckout(boolean noCheckout);
 }
\ No newline at end of file
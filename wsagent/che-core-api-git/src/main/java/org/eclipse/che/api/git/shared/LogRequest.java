@@ -27,6 +27,20 @@ public interface LogRequest extends GitRequest {
     void setFileFilter(List<String> fileFilter);
 
     LogRequest withFileFilter(List<String> fileFilter);
+
+    /** Number of the newest revisions to skip, e.g. revisions that are already shown on previous pages. */
+    int getSkip();
+
+    void setSkip(int skip);
+
+    LogRequest withSkip(int skip);
+
+    /** Max number of revisions in response. Zero or negative value means that number of revisions is not limited. */
+    int getMaxCount();
+
+    void setMaxCount(int maxCount);
+
+    LogRequest withMaxCount(int maxCount);
     
     /** @return revision range since */
     String getRevisionRangeSince();
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.core.ErrorCodes;
+import org.eclipse.che.api.core.model.project.SourceStorage;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.rest.shared.dto.ExtendedError;
+import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.api.git.shared.Branch;
+import org.eclipse.che.api.git.shared.CheckoutRequest;
+import org.eclipse.che.api.git.shared.CloneRequest;
+import org.eclipse.che.api.project.server.FolderEntry;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link GitProjectImporter}.
+ *
+ * @author andrew00x
+ */
+public class GitProjectImporterTest {
+    private static final String LOCATION = "https://github.com/eclipse/che.git";
+
+    private File               referenceDir;
+    private File               projectDir;
+    private GitConnection      gitConnection;
+    private FolderEntry        baseFolder;
+    private GitProjectImporter importer;
+
+    @Before
+    public void setUp() throws Exception {
+        referenceDir = Files.createTempDirectory("reference").toFile();
+        projectDir = Files.createTempDirectory("project").toFile();
+
+        final GitConnectionFactory gitConnectionFactory = mock(GitConnectionFactory.class);
+        gitConnection = mock(GitConnection.class);
+        final AtomicReference<File> workingDir = new AtomicReference<>();
+        when(gitConnectionFactory.getConnection(any(File.class), any(LineConsumerFactory.class))).then(invocation -> {
+            workingDir.set((File)invocation.getArguments()[0]);
+            return gitConnection;
+        });
+        when(gitConnection.getWorkingDir()).then(invocation -> workingDir.get());
+        when(gitConnection.getConfig()).thenReturn(mock(Config.class));
+        final Branch branch = mock(Branch.class);
+        when(branch.getName()).thenReturn("refs/remotes/origin/feature");
+        when(branch.getDisplayName()).thenReturn("feature");
+        when(gitConnection.branchList(any())).thenReturn(singletonList(branch));
+
+        final VirtualFile virtualFile = mock(VirtualFile.class);
+        when(virtualFile.toIoFile()).thenReturn(projectDir);
+        baseFolder = mock(FolderEntry.class);
+        when(baseFolder.getVirtualFile()).thenReturn(virtualFile);
+        when(baseFolder.getName()).thenReturn("che");
+        when(baseFolder.getChildren()).thenReturn(Collections.emptyList());
+
+        importer = new GitProjectImporter(gitConnectionFactory, mock(EventService.class));
+    }
+
+    @After
+    public void tearDown() {
+        IoUtil.deleteRecursive(referenceDir);
+        IoUtil.deleteRecursive(projectDir);
+    }
+
+    @Test
+    public void findsReferenceForHttpsUrl() throws Exception {
+        final File reference = createReference("github.com/eclipse/che.git");
+        importer.setReferenceDir(referenceDir.getAbsolutePath());
+
+        assertEquals(importer.findReference("https://github.com/eclipse/che.git"), reference.getAbsolutePath());
+        assertEquals(importer.findReference("https://user@github.com/eclipse/che"), reference.getAbsolutePath());
+        assertEquals(importer.findReference("https://github.com:443/eclipse/che.git"), reference.getAbsolutePath());
+        assertEquals(importer.findReference("https://github.com/eclipse/che/"), reference.getAbsolutePath());
+        assertEquals(importer.findReference("https://github.com/eclipse/che.git/"), reference.getAbsolutePath());
+    }
+
+    @Test
+    public void findsReferenceForSshUrl() throws Exception {
+        final File reference = createReference("github.com/eclipse/che.git");
+        importer.setReferenceDir(referenceDir.getAbsolutePath());
+
+        assertEquals(importer.findReference("ssh://git@github.com/eclipse/che.git"), reference.getAbsolutePath());
+        assertEquals(importer.findReference("ssh://git@github.com:22/eclipse/che.git"), reference.getAbsolutePath());
+        assertEquals(importer.findReference("git@github.com:eclipse/che.git"), reference.getAbsolutePath());
+        assertEquals(importer.findReference("github.com:eclipse/che"), reference.getAbsolutePath());
+        assertEquals(importer.findReference("git@github.com:/eclipse/che.git"), reference.getAbsolutePath());
+    }
+
+    @Test
+    public void doesNotTreatLeadingDigitsOfScpLikePathAsPort() throws Exception {
+        final File reference = createReference("example.com/2016/che.git");
+        importer.setReferenceDir(referenceDir.getAbsolutePath());
+
+        assertEquals(importer.findReference("git@example.com:2016/che.git"), reference.getAbsolutePath());
+    }
+
+    @Test
+    public void doesNotFindReferenceOutsideOfReferenceDirectory() throws Exception {
+        createReference("che.git");
+        importer.setReferenceDir(new File(referenceDir, "github.com").getAbsolutePath());
+
+        assertNull(importer.findReference("https://github.com/../che.git"));
+        assertNull(importer.findReference("git@github.com:../che.git"));
+        assertNull(importer.findReference("file://" + referenceDir.getAbsolutePath() + "/che.git"));
+    }
+
+    @Test
+    public void doesNotFindReferenceWhenThereIsNoCopyOfRepository() throws Exception {
+        importer.setReferenceDir(referenceDir.getAbsolutePath());
+
+        assertNull(importer.findReference("https://github.com/eclipse/che.git"));
+    }
+
+    @Test
+    public void clonesOnlyBranchWithDepth() throws Exception {
+        final CloneRequest clone = importSources(ImmutableMap.of("depth", "1", "branch", "feature"));
+
+        assertEquals(clone.getDepth(), 1);
+        assertEquals(clone.getBranch(), "feature");
+    }
+
+    @Test
+    public void clonesAllBranchesWithoutDepthSoMissingBranchFailsOnCheckout() throws Exception {
+        doThrow(new GitException("error: pathspec 'feature' did not match any file(s) known to git."))
+                .when(gitConnection).checkout(any(CheckoutRequest.class));
+
+        try {
+            importSources(ImmutableMap.of("branch", "feature"));
+            fail("GitException is expected");
+        } catch (GitException e) {
+            assertEquals(((ExtendedError)e.getServiceError()).getErrorCode(), ErrorCodes.FAILED_CHECKOUT);
+        }
+
+        final ArgumentCaptor<CloneRequest> clone = ArgumentCaptor.forClass(CloneRequest.class);
+        verify(gitConnection).clone(clone.capture());
+        assertEquals(clone.getValue().getDepth(), 0);
+        assertNull(clone.getValue().getBranch());
+    }
+
+    @Test
+    public void reportsFailedCheckoutWhenShallowCloneDoesNotFindBranch() throws Exception {
+        doThrow(new GitException("warning: Could not find remote branch feature to clone.\n" +
+                                 "fatal: Remote branch feature not found in upstream origin"))
+                .when(gitConnection).clone(any(CloneRequest.class));
+
+        try {
+            importSources(ImmutableMap.of("depth", "1", "branch", "feature"));
+            fail("GitException is expected");
+        } catch (GitException e) {
+            assertEquals(((ExtendedError)e.getServiceError()).getErrorCode(), ErrorCodes.FAILED_CHECKOUT);
+        }
+        verify(gitConnection).clone(any(CloneRequest.class));
+    }
+
+    @Test
+    public void ignoresDepthWhenCommitIsCheckedOut() throws Exception {
+        final CloneRequest clone = importSources(ImmutableMap.of("depth", "1", "branch", "feature", "commitId", "4ea3c7f"));
+
+        assertEquals(clone.getDepth(), 0);
+        assertNull(clone.getBranch());
+        final ArgumentCaptor<CheckoutRequest> checkout = ArgumentCaptor.forClass(CheckoutRequest.class);
+        verify(gitConnection).checkout(checkout.capture());
+        assertEquals(checkout.getValue().getStartPoint(), "4ea3c7f");
+    }
+
+    @Test
+    public void ignoresDepthWhenBranchIsCreatedFromStartPoint() throws Exception {
+        final CloneRequest clone = importSources(ImmutableMap.of("depth", "1", "branch", "feature", "startPoint", "4ea3c7f"));
+
+        assertEquals(clone.getDepth(), 0);
+        assertNull(clone.getBranch());
+    }
+
+    @Test
+    public void clonesWithDepthFilterAndReferenceWhenDirectoryIsKept() throws Exception {
+        final File reference = createReference("github.com/eclipse/che.git");
+        importer.setReferenceDir(referenceDir.getAbsolutePath());
+
+        final CloneRequest clone = importSources(ImmutableMap.of("depth", "1",
+                                                                 "branch", "feature",
+                                                                 "filter", "blob:none",
+                                                                 "keepDirectory", "core"));
+
+        assertEquals(clone.getDepth(), 1);
+        assertEquals(clone.getBranch(), "feature");
+        assertEquals(clone.getFilter(), "blob:none");
+        assertEquals(clone.getReference(), reference.getAbsolutePath());
+        assertTrue(clone.isNoCheckout());
+        // content of temporary folder is copied to the project folder
+        final File sparseCheckout = new File(projectDir, ".git/info/sparse-checkout");
+        assertEquals(Files.readAllLines(sparseCheckout.toPath()), singletonList("/core"));
+    }
+
+    @Test
+    public void clonesOnlyBranchWhenDirectoryIsKept() throws Exception {
+        final CloneRequest clone = importSources(ImmutableMap.of("branch", "feature", "keepDirectory", "core"));
+
+        assertEquals(clone.getDepth(), 0);
+        assertEquals(clone.getBranch(), "feature");
+        assertTrue(clone.isSingleBranch());
+    }
+
+    @Test
+    public void clonesOnlyBranchWhenDirectoriesAreCheckedOut() throws Exception {
+        final CloneRequest clone = importSources(ImmutableMap.of("branch", "feature", "sparseCheckout", "core, plugins"));
+
+        assertEquals(clone.getDepth(), 0);
+        assertEquals(clone.getBranch(), "feature");
+        assertTrue(clone.isSingleBranch());
+        assertTrue(clone.isNoCheckout());
+    }
+
+    @Test
+    public void clonesAllBranchesWhenDirectoriesAreCheckedOutForPullRequest() throws Exception {
+        final CloneRequest clone = importSources(ImmutableMap.of("branch", "feature",
+                                                                 "sparseCheckout", "core",
+                                                                 "remoteOriginFetch", "+refs/pull/1/head:refs/remotes/origin/pr-1"));
+
+        assertNull(clone.getBranch());
+        assertFalse(clone.isSingleBranch());
+    }
+
+    @Test
+    public void retriesCloneAfterTransientFailure() throws Exception {
+        doThrow(new GitException("error: RPC failed; curl 56 GnuTLS recv error (-54)\nfatal: early EOF"))
+                .doNothing()
+                .when(gitConnection).clone(any(CloneRequest.class));
+
+        importSources(Collections.emptyMap());
+
+        verify(gitConnection, times(2)).clone(any(CloneRequest.class));
+    }
+
+    @Test
+    public void doesNotRetryCloneWhenRepositoryDoesNotExist() throws Exception {
+        doThrow(new GitException("remote: Repository not found.\nfatal: repository 'https://github.com/eclipse/none.git/' not found"))
+                .when(gitConnection).clone(any(CloneRequest.class));
+
+        try {
+            importSources(Collections.emptyMap());
+            fail("GitException is expected");
+        } catch (GitException expected) {
+        }
+        verify(gitConnection).clone(any(CloneRequest.class));
+    }
+
+    @Test
+    public void detectsTransientFailures() {
+        assertTrue(GitProjectImporter.isTransientFailure(new GitException("fatal: The remote end hung up unexpectedly")));
+        assertTrue(GitProjectImporter.isTransientFailure(new GitException("fatal: unable to access 'https://github.com/eclipse/che.git/': " +
+                                                                          "Failed to connect to github.com port 443: Connection timed out")));
+        assertFalse(GitProjectImporter.isTransientFailure(new GitException("fatal: Authentication failed for " + LOCATION)));
+        assertFalse(GitProjectImporter.isTransientFailure(new GitException((String)null)));
+    }
+
+    /** Imports sources with the given parameters and returns request of clone. */
+    private CloneRequest importSources(Map<String, String> parameters) throws Exception {
+        final SourceStorage storage = mock(SourceStorage.class);
+        when(storage.getLocation()).thenReturn(LOCATION);
+        when(storage.getParameters()).thenReturn(parameters);
+
+        importer.importSources(baseFolder, storage);
+
+        final ArgumentCaptor<CloneRequest> clone = ArgumentCaptor.forClass(CloneRequest.class);
+        verify(gitConnection, atLeastOnce()).clone(clone.capture());
+        return clone.getValue();
+    }
+
+    private File createReference(String name) {
+        final File reference = new File(referenceDir, name);
+        assertTrue(reference.mkdirs());
+        return reference;
+    }
+}
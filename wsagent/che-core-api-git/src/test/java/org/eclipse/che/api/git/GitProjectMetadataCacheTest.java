@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.api.git.GitProjectMetadataCache.GitProjectMetadata;
+import org.eclipse.che.api.git.shared.Remote;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherEventType;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link GitProjectMetadataCache}.
+ *
+ * @author andrew00x
+ */
+public class GitProjectMetadataCacheTest {
+    private static final String ROOT    = new File("/projects").getAbsolutePath();
+    private static final String PROJECT = new File(ROOT, "project").getAbsolutePath();
+
+    private GitConnectionFactory            gitConnectionFactory;
+    private GitConnection                   gitConnection;
+    private FileWatcherNotificationListener watcherListener;
+    private GitProjectMetadataCache         cache;
+
+    @Before
+    public void setUp() throws Exception {
+        gitConnectionFactory = mock(GitConnectionFactory.class);
+        gitConnection = mock(GitConnection.class);
+        when(gitConnectionFactory.getConnection(any(File.class), any(LineConsumerFactory.class))).thenReturn(gitConnection);
+        when(gitConnection.isInsideWorkTree()).thenReturn(true);
+        final Status status = mock(Status.class);
+        when(status.getBranchName()).thenReturn("master");
+        when(gitConnection.status(StatusFormat.LONG)).thenReturn(status);
+        final Remote remote = mock(Remote.class);
+        when(remote.getUrl()).thenReturn("https://github.com/eclipse/che.git");
+        when(gitConnection.remoteList(any())).thenReturn(singletonList(remote));
+
+        final FileWatcherNotificationHandler notificationHandler = mock(FileWatcherNotificationHandler.class);
+        cache = new GitProjectMetadataCache(gitConnectionFactory, notificationHandler);
+        final ArgumentCaptor<FileWatcherNotificationListener> listenerCaptor =
+                ArgumentCaptor.forClass(FileWatcherNotificationListener.class);
+        verify(notificationHandler).addNotificationListener(listenerCaptor.capture());
+        watcherListener = listenerCaptor.getValue();
+    }
+
+    @Test
+    public void loadsAttributesOnceForRepeatedReads() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            final GitProjectMetadata metadata = cache.get(PROJECT);
+
+            assertTrue(metadata.isRepository());
+            assertEquals("master", metadata.getBranchName());
+            assertEquals(singletonList("https://github.com/eclipse/che.git"), metadata.getRemoteUrls());
+        }
+        verify(gitConnectionFactory, times(1)).getConnection(any(File.class), any(LineConsumerFactory.class));
+    }
+
+    @Test
+    public void cachesFolderThatIsNotRepository() throws Exception {
+        when(gitConnection.isInsideWorkTree()).thenReturn(false);
+
+        assertFalse(cache.get(PROJECT).isRepository());
+        assertFalse(cache.get(PROJECT).isRepository());
+
+        verify(gitConnectionFactory, times(1)).getConnection(any(File.class), any(LineConsumerFactory.class));
+        verify(gitConnection, never()).status(any());
+    }
+
+    @Test
+    public void reloadsAttributesAfterInvalidation() throws Exception {
+        cache.get(PROJECT);
+
+        cache.invalidate(PROJECT);
+        cache.get(PROJECT);
+
+        verify(gitConnectionFactory, times(2)).getConnection(any(File.class), any(LineConsumerFactory.class));
+    }
+
+    @Test
+    public void invalidatesProjectsInsideRepository() throws Exception {
+        final String module = new File(PROJECT, "module").getAbsolutePath();
+        cache.get(PROJECT);
+        cache.get(module);
+
+        cache.invalidate(PROJECT);
+        cache.get(PROJECT);
+        cache.get(module);
+
+        verify(gitConnectionFactory, times(4)).getConnection(any(File.class), any(LineConsumerFactory.class));
+    }
+
+    @Test
+    public void doesNotCacheAttributesOfProjectInsideRepositoryWhenRepositoryIsChangedWhileAttributesAreLoaded() throws Exception {
+        final String module = new File(PROJECT, "module").getAbsolutePath();
+        when(gitConnection.isInsideWorkTree()).thenAnswer(invocation -> {
+            cache.invalidate(PROJECT);
+            return true;
+        }).thenReturn(true);
+
+        cache.get(module);
+        cache.get(module);
+
+        verify(gitConnectionFactory, times(2)).getConnection(any(File.class), any(LineConsumerFactory.class));
+    }
+
+    @Test
+    public void invalidatesAttributesWhenHeadOfRepositoryIsChanged() throws Exception {
+        cache.get(PROJECT);
+        final VirtualFile head = virtualFile("/project/.git/HEAD");
+
+        assertTrue(watcherListener.shouldBeNotifiedFor(head));
+        watcherListener.onFileWatcherEvent(head, FileWatcherEventType.MODIFIED);
+        cache.get(PROJECT);
+
+        verify(gitConnectionFactory, times(2)).getConnection(any(File.class), any(LineConsumerFactory.class));
+    }
+
+    @Test
+    public void invalidatesAttributesWhenRefOrConfigOfRepositoryIsChanged() throws Exception {
+        assertTrue(watcherListener.shouldBeNotifiedFor(virtualFile("/project/.git/refs/heads/master")));
+        assertTrue(watcherListener.shouldBeNotifiedFor(virtualFile("/project/.git/config")));
+        assertTrue(watcherListener.shouldBeNotifiedFor(virtualFile("/project/.git")));
+    }
+
+    @Test
+    public void ignoresChangesOfOtherFiles() throws Exception {
+        assertFalse(watcherListener.shouldBeNotifiedFor(virtualFile("/project/src/Main.java")));
+        assertFalse(watcherListener.shouldBeNotifiedFor(virtualFile("/project/.git/index")));
+        assertFalse(watcherListener.shouldBeNotifiedFor(virtualFile("/project/.git/objects/ab/cdef")));
+    }
+
+    @Test(expected = GitException.class)
+    public void throwsGitExceptionWhenAttributesCanNotBeLoaded() throws Exception {
+        when(gitConnection.remoteList(any())).thenThrow(new GitException("failed"));
+
+        cache.get(PROJECT);
+    }
+
+    private static VirtualFile virtualFile(String path) {
+        final VirtualFile virtualFile = mock(VirtualFile.class);
+        when(virtualFile.getPath()).thenReturn(Path.of(path));
+        when(virtualFile.toIoFile()).thenReturn(new File(ROOT, path.substring(1)));
+        return virtualFile;
+    }
+}
@@ -339,6 +339,26 @@ public class DiffTest {
         diffPage.writeTo(System.out);
     }
 
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testDiffWithInvalidCommitDoesNotContainGitErrors(GitConnectionFactory connectionFactory) throws GitException, IOException {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        makeCommitInMaster(connection);
+
+        //when
+        List<String> diff = readDiff(newDto(DiffRequest.class)
+                                             .withFileFilter(null)
+                                             .withType(DiffType.RAW)
+                                             .withNoRenames(false)
+                                             .withRenameLimit(0)
+                                             .withCommitA("invalid")
+                                             .withCommitB("HEAD"),
+                                     connection);
+
+        //then
+        assertEquals(diff.size(), 0);
+    }
+
     private List<String> readDiff(DiffRequest request, GitConnection connection) throws GitException, IOException {
         DiffPage diffPage = connection.diff(request);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
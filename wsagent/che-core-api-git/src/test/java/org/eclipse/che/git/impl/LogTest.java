@@ -114,4 +114,23 @@ public class LogTest {
         assertEquals(1, newFileCommitCount);
         assertEquals(4, allFilesCommitCount);
     }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = GitConnectionFactoryProvider.class)
+    public void testLogPage(GitConnectionFactory connectionFactory) throws GitException, IOException {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        for (int i = 1; i <= 5; i++) {
+            addFile(connection, "README.txt", "changes " + i);
+            connection.add(newDto(AddRequest.class).withFilepattern(ImmutableList.of("README.txt")));
+            connection.commit(newDto(CommitRequest.class).withMessage("Commit " + i));
+        }
+
+        //when
+        List<Revision> commits = connection.log(newDto(LogRequest.class).withSkip(1).withMaxCount(2)).getCommits();
+
+        //then
+        assertEquals(2, commits.size());
+        assertEquals("Commit 4", commits.get(0).getMessage());
+        assertEquals("Commit 3", commits.get(1).getMessage());
+    }
 }
@@ -271,4 +271,89 @@ public class StatusTest {
         assertTrue(status.getUntracked().isEmpty());
         assertTrue(status.getUntrackedFolders().isEmpty());
     }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testRenamed(GitConnectionFactory connectionFactory) throws Exception {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        addFile(connection, "a", "a content");
+        connection.add(newDto(AddRequest.class).withFilepattern(asList("a")));
+        connection.commit(newDto(CommitRequest.class).withMessage("add test file"));
+        //rename "a" to "b"
+        MoveRequest moveRequest = newDto(MoveRequest.class);
+        moveRequest.setSource("a");
+        moveRequest.setTarget("b");
+        connection.mv(moveRequest);
+        //when
+        final Status status = connection.status(StatusFormat.SHORT);
+        //then
+        assertEquals(status.getAdded(), asList("b"));
+        assertEquals(status.getRemoved(), asList("a"));
+        assertTrue(status.getChanged().isEmpty());
+        assertTrue(status.getConflicting().isEmpty());
+        assertTrue(status.getMissing().isEmpty());
+        assertTrue(status.getModified().isEmpty());
+        assertTrue(status.getUntracked().isEmpty());
+        assertTrue(status.getUntrackedFolders().isEmpty());
+    }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testConflictingWhenFileIsAddedInBothBranches(GitConnectionFactory connectionFactory) throws Exception {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        addFile(connection, "a", "a content");
+        connection.add(newDto(AddRequest.class).withFilepattern(asList("a")));
+        connection.commit(newDto(CommitRequest.class).withMessage("add test file"));
+        //add "b" in other branch
+        connection.checkout(newDto(CheckoutRequest.class).withCreateNew(true).withName("new_branch"));
+        addFile(connection, "b", "new_branch b content");
+        connection.add(newDto(AddRequest.class).withFilepattern(asList("b")));
+        connection.commit(newDto(CommitRequest.class).withMessage("b added in new_branch"));
+        //add "b" in master
+        connection.checkout(newDto(CheckoutRequest.class).withName("master"));
+        addFile(connection, "b", "master b content");
+        connection.add(newDto(AddRequest.class).withFilepattern(asList("b")));
+        connection.commit(newDto(CommitRequest.class).withMessage("b added in master"));
+        //merge with "new_branch" to get conflict
+        connection.merge(newDto(MergeRequest.class).withCommit("new_branch"));
+        //when
+        final Status status = connection.status(StatusFormat.SHORT);
+        //then
+        assertEquals(status.getConflicting(), asList("b"));
+        assertTrue(status.getAdded().isEmpty());
+        assertTrue(status.getModified().isEmpty());
+        assertTrue(status.getUntracked().isEmpty());
+    }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testUntrackedFolderInsideTrackedFolder(GitConnectionFactory connectionFactory) throws Exception {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        addFile(connection.getWorkingDir().toPath().resolve("src"), "a", "a content");
+        connection.add(newDto(AddRequest.class).withFilepattern(asList("src")));
+        connection.commit(newDto(CommitRequest.class).withMessage("add test file"));
+        addFile(connection.getWorkingDir().toPath().resolve("src").resolve("new directory"), "b", "b content");
+        //when
+        final Status status = connection.status(StatusFormat.SHORT);
+        //then
+        assertEquals(status.getUntrackedFolders(), asList("src/new directory"));
+        assertTrue(status.getUntracked().isEmpty());
+        assertTrue(status.getAdded().isEmpty());
+    }
+
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = org.eclipse.che.git.impl.GitConnectionFactoryProvider.class)
+    public void testPathsWithNewLineAndCarriageReturn(GitConnectionFactory connectionFactory) throws Exception {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        addFile(connection, "new\nline", "content");
+        addFile(connection, "carriage\rreturn", "content");
+        //when
+        final Status untrackedStatus = connection.status(StatusFormat.SHORT);
+        connection.add(newDto(AddRequest.class).withFilepattern(asList(".")));
+        final Status addedStatus = connection.status(StatusFormat.SHORT);
+        //then
+        assertEquals(untrackedStatus.getUntracked(), asList("carriage\rreturn", "new\nline"));
+        assertEquals(addedStatus.getAdded(), asList("carriage\rreturn", "new\nline"));
+        assertTrue(addedStatus.getUntracked().isEmpty());
+    }
 }
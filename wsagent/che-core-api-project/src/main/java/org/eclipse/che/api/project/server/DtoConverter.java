@@ -21,7 +21,9 @@ import org.eclipse.che.api.project.shared.dto.AttributeDto;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.ProjectImporterDescriptor;
 import org.eclipse.che.api.project.shared.dto.ProjectTypeDto;
+import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
 import org.eclipse.che.api.project.shared.dto.ValueDto;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectProblemDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
@@ -102,6 +104,15 @@ public class DtoConverter {
                                           .withLinks(generateFileLinks(file, workspace, uriBuilder));
     }
 
+    public static SearchOccurrenceDto toSearchOccurrenceDto(SearchOccurrence occurrence) {
+        return newDto(SearchOccurrenceDto.class).withPhrase(occurrence.getPhrase())
+                                                .withLineNumber(occurrence.getLineNumber())
+                                                .withStartOffset(occurrence.getStartOffset())
+                                                .withEndOffset(occurrence.getEndOffset())
+                                                .withLineContent(occurrence.getLineContent())
+                                                .withLineStartOffset(occurrence.getLineStartOffset());
+    }
+
     public static ItemReference toItemReference(FolderEntry folder, String workspace, UriBuilder uriBuilder) {
         return newDto(ItemReference.class).withName(folder.getName())
                                           .withPath(folder.getPath().toString())
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.LocalVirtualFile;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes content of file, or single range of bytes of it, to the response. Content of files of local virtual file system is
+ * transferred from file channel directly to the response without copying it to the spool file and through the heap. Conditional
+ * requests are evaluated against modification date and entity tag of file before content is read.
+ *
+ * @author andrew00x
+ */
+class FileContentOutput implements StreamingOutput {
+    static final String RANGE         = "Range";
+    static final String ACCEPT_RANGES = "Accept-Ranges";
+    static final String CONTENT_RANGE = "Content-Range";
+
+    private static final Pattern BYTE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    /**
+     * Creates response for content of file. Response contains single range of bytes of content if request has {@code Range}
+     * header with single satisfiable range and whole content otherwise. Multiple ranges and malformed {@code Range} headers are
+     * ignored. Response is tagged with entity tag which is built from modification date and length of file, so conditional
+     * requests, e.g. with {@code If-None-Match} header, are answered with 304 (Not Modified) response without reading content.
+     *
+     * @param file
+     *         file
+     * @param range
+     *         value of {@code Range} header of request, may be {@code null}
+     * @param request
+     *         request which preconditions are evaluated
+     */
+    static Response.ResponseBuilder contentResponse(VirtualFile file, String range, Request request) throws ServerException {
+        final long length = file.getLength();
+        final long lastModified = file.getLastModificationDate();
+        final EntityTag entityTag = new EntityTag(Long.toHexString(lastModified) + '-' + Long.toHexString(length));
+        final Date lastModifiedDate = new Date(lastModified);
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(lastModifiedDate, entityTag);
+        if (notModified != null) {
+            return notModified.tag(entityTag).lastModified(lastModifiedDate);
+        }
+        final Response.ResponseBuilder builder;
+        long offset = 0;
+        long count = length;
+        final long[] byteRange = range == null ? null : parseRange(range.trim(), length);
+        if (byteRange == null) {
+            builder = Response.ok();
+        } else if (byteRange.length == 0) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                           .header(CONTENT_RANGE, "bytes */" + length);
+        } else {
+            offset = byteRange[0];
+            count = byteRange[1] - byteRange[0] + 1;
+            builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                              .header(CONTENT_RANGE, "bytes " + byteRange[0] + '-' + byteRange[1] + '/' + length);
+        }
+        return builder.entity(new FileContentOutput(file, offset, count))
+                      .tag(entityTag)
+                      .lastModified(lastModifiedDate)
+                      .header(ACCEPT_RANGES, "bytes")
+                      .header(HttpHeaders.CONTENT_LENGTH, Long.toString(count));
+    }
+
+    /**
+     * Parses single byte range. Returns first and last positions of range, empty array if range is not satisfiable or {@code null}
+     * if range should be ignored.
+     */
+    private static long[] parseRange(String range, long length) {
+        final Matcher matcher = BYTE_RANGE.matcher(range);
+        if (!matcher.matches()) {
+            return null;
+        }
+        final String first = matcher.group(1);
+        final String last = matcher.group(2);
+        try {
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                // Suffix range, e.g. bytes=-500 means last 500 bytes
+                final long suffixLength = Long.parseLong(last);
+                if (suffixLength == 0 || length == 0) {
+                    return new long[0];
+                }
+                return new long[]{Math.max(0, length - suffixLength), length - 1};
+            }
+            final long firstPosition = Long.parseLong(first);
+            long lastPosition = length - 1;
+            if (!last.isEmpty()) {
+                final long requestedLastPosition = Long.parseLong(last);
+                if (requestedLastPosition < firstPosition) {
+                    return null;
+                }
+                lastPosition = Math.min(requestedLastPosition, lastPosition);
+            }
+            if (firstPosition >= length) {
+                return new long[0];
+            }
+            return new long[]{firstPosition, lastPosition};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final VirtualFile file;
+    private final long        offset;
+    private final long        count;
+
+    private FileContentOutput(VirtualFile file, long offset, long count) {
+        this.file = file;
+        this.offset = offset;
+        this.count = count;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        try {
+            if (file instanceof LocalVirtualFile) {
+                try (FileChannel channel = ((LocalVirtualFile)file).openContentChannel()) {
+                    final WritableByteChannel target = Channels.newChannel(output);
+                    final long end = offset + count;
+                    long position = offset;
+                    while (position < end) {
+                        final long transferred = channel.transferTo(position, end - position, target);
+                        if (transferred <= 0) {
+                            // File was truncated after response was created
+                            break;
+                        }
+                        position += transferred;
+                    }
+                }
+            } else {
+                try (InputStream content = file.getContent()) {
+                    ByteStreams.skipFully(content, offset);
+                    ByteStreams.copy(ByteStreams.limit(content, count), output);
+                }
+            }
+        } catch (ServerException | ForbiddenException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
-
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -46,6 +44,7 @@ import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.api.vfs.search.impl.AbstractLuceneSearcherProvider;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,8 +59,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static java.util.stream.Collectors.toList;
 
 /**
  * Facade for all project related operations.
@@ -80,7 +81,7 @@ public final class ProjectManager {
     private final ProjectImporterRegistry        importers;
     private final FileTreeWatcher                fileWatcher;
     private final FileWatcherNotificationHandler fileWatchNotifier;
-    private final ExecutorService                executor;
+    private final ForkJoinPool                   executor;
 
     @Inject
     public ProjectManager(VirtualFileSystemProvider vfsProvider,
@@ -99,9 +100,33 @@ public final class ProjectManager {
         this.importers = importers;
         this.fileWatchNotifier = fileWatcherNotificationHandler;
         this.fileWatcher = fileTreeWatcher;
-        executor = Executors.newFixedThreadPool(1 + Runtime.getRuntime().availableProcessors(),
-                                                new ThreadFactoryBuilder().setNameFormat("ProjectService-IndexingThread-")
-                                                                          .setDaemon(true).build());
+        executor = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ProjectService-IndexingThread-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Starts initial indexing of projects in background. Each project is indexed in parallel with others on all available cores.
+     * Progress of indexing is published with {@link EventService}.
+     */
+    @PostConstruct
+    void initSearcher() {
+        final SearcherProvider provider = vfs.getSearcherProvider();
+        if (provider instanceof AbstractLuceneSearcherProvider) {
+            final List<Path> projectRoots = projectRegistry.getProjects()
+                                                           .stream()
+                                                           .filter(project -> project.getBaseFolder() != null)
+                                                           .map(project -> Path.of(project.getPath()))
+                                                           .filter(path -> path.length() == 1)
+                                                           .collect(toList());
+            try {
+                ((AbstractLuceneSearcherProvider)provider).getSearcher(vfs, executor, projectRoots, eventService);
+            } catch (ServerException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
     }
 
     @PostConstruct
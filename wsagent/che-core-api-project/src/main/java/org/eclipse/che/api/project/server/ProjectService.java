@@ -37,6 +37,8 @@ import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
+import org.eclipse.che.api.project.shared.dto.SearchItemReference;
+import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.vfs.VirtualFile;
@@ -59,14 +61,17 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
@@ -74,8 +79,8 @@ import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -446,9 +451,20 @@ public class ProjectService extends Service {
     public Response getFile(@ApiParam(value = "Workspace ID", required = true)
                             @PathParam("ws-id") String workspace,
                             @ApiParam(value = "Path to a file", required = true)
-                            @PathParam("path") String path) throws IOException, NotFoundException, ForbiddenException, ServerException {
+                            @PathParam("path") String path,
+                            @ApiParam(value = "Single range of bytes of file content")
+                            @HeaderParam(FileContentOutput.RANGE) String range,
+                            @Context Request request) throws IOException,
+                                                             NotFoundException,
+                                                             ForbiddenException,
+                                                             ServerException {
         final FileEntry file = projectManager.asFile(path);
-        return Response.ok().entity(file.getInputStream()).type(TIKA.detect(file.getName())).build();
+
+        if (file == null) {
+            throw new NotFoundException("File not found for " + path);
+        }
+
+        return FileContentOutput.contentResponse(file.getVirtualFile(), range, request).type(TIKA.detect(file.getName())).build();
     }
 
     @PUT
@@ -713,7 +729,12 @@ public class ProjectService extends Service {
     public Response exportFile(@ApiParam(value = "Workspace ID", required = true)
                                @PathParam("ws-id") String workspace,
                                @ApiParam(value = "Path to resource to be imported")
-                               @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
+                               @PathParam("path") String path,
+                               @ApiParam(value = "Single range of bytes of file content")
+                               @HeaderParam(FileContentOutput.RANGE) String range,
+                               @Context Request request) throws NotFoundException,
+                                                                ForbiddenException,
+                                                                ServerException {
 
         final FileEntry file = projectManager.asFile(path);
 
@@ -723,11 +744,10 @@ public class ProjectService extends Service {
 
         final VirtualFile virtualFile = file.getVirtualFile();
 
-        return Response.ok(virtualFile.getContent(), TIKA.detect(virtualFile.getName()))
-                       .lastModified(new Date(virtualFile.getLastModificationDate()))
-                       .header(HttpHeaders.CONTENT_LENGTH, Long.toString(virtualFile.getLength()))
-                       .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + virtualFile.getName() + '"')
-                       .build();
+        return FileContentOutput.contentResponse(virtualFile, range, request)
+                                .type(TIKA.detect(virtualFile.getName()))
+                                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + virtualFile.getName() + '"')
+                                .build();
     }
 
     @GET
@@ -796,6 +816,45 @@ public class ProjectService extends Service {
                          .withChildren(getTree(folder, workspace, depth, includeFiles, uriBuilder));
     }
 
+    @GET
+    @Path("/streamtree/{parent:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get project tree as stream",
+            notes = "Get project tree. Tree is written to the response while walking folders, so it is never built in memory. Each " +
+                    "folder gets tag of its subtree, children of folders which tags are sent by client in query parameters are " +
+                    "not included in tree",
+            response = TreeElement.class)
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public Response getTreeStream(@ApiParam(value = "Workspace ID", required = true)
+                                  @PathParam("ws-id") String workspace,
+                                  @ApiParam(value = "Path to resource. Can be project or its folders", required = true)
+                                  @PathParam("parent") String path,
+                                  @ApiParam(value = "Tree depth. This parameter can be dropped. If not specified ?depth=1 is used by default")
+                                  @DefaultValue("1") @QueryParam("depth") int depth,
+                                  @ApiParam(value = "include children files (in addition to children folders). This parameter can be " +
+                                                    "dropped. If not specified ?includeFiles=false is used by default")
+                                  @DefaultValue("false") @QueryParam("includeFiles") boolean includeFiles,
+                                  @ApiParam(value = "Maximum children items of each folder. If this parameter is dropped, there are no limits")
+                                  @DefaultValue("-1") @QueryParam("maxItems") int maxItems,
+                                  @ApiParam(value = "Tags of folders received with previous tree")
+                                  @QueryParam("etag") List<String> etags) throws NotFoundException,
+                                                                                 ForbiddenException,
+                                                                                 ServerException {
+        final FolderEntry folder = projectManager.asFolder(path);
+
+        if (folder == null) {
+            throw new NotFoundException("Folder not found for " + path);
+        }
+
+        final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+        return Response.ok(new ProjectTreeWriter(folder, workspace, depth, includeFiles, maxItems, new HashSet<>(etags), uriBuilder),
+                           MediaType.APPLICATION_JSON_TYPE)
+                       .build();
+    }
+
     @GET
     @Path("/item/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -902,6 +961,78 @@ public class ProjectService extends Service {
         return items;
     }
 
+    @GET
+    @Path("/searchpage/{path:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Search for resources with paging by cursor",
+            notes = "Search for resources applying a number of search filters as query parameters. Result contains cursor for " +
+                    "retrieving next page and optionally occurrences of searched text in found files",
+            response = SearchResultDto.class)
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public SearchResultDto searchPage(@ApiParam(value = "Workspace ID", required = true)
+                                      @PathParam("ws-id") String workspace,
+                                      @ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                                      @PathParam("path") String path,
+                                      @ApiParam(value = "Resource name")
+                                      @QueryParam("name") String name,
+                                      @ApiParam(value = "Search keywords")
+                                      @QueryParam("text") String text,
+                                      @ApiParam(value = "Substring or regular expression that content of resource must contain")
+                                      @QueryParam("pattern") String pattern,
+                                      @ApiParam(value = "Treat pattern as regular expression")
+                                      @QueryParam("regex") boolean regex,
+                                      @ApiParam(value = "Maximum items in page")
+                                      @QueryParam("maxItems") @DefaultValue("100") int maxItems,
+                                      @ApiParam(value = "Cursor of page returned with previous page")
+                                      @QueryParam("cursor") String cursor,
+                                      @ApiParam(value = "Include occurrences of searched text in found files")
+                                      @QueryParam("occurrences") boolean includeOccurrences) throws NotFoundException,
+                                                                                                    ForbiddenException,
+                                                                                                    ServerException {
+        final SearchResultDto page = DtoFactory.newDto(SearchResultDto.class);
+        final Searcher searcher;
+        try {
+            searcher = projectManager.getSearcher();
+        } catch (NotFoundException e) {
+            LOG.warn(e.getLocalizedMessage());
+            return page;
+        }
+
+        final QueryExpression expr = new QueryExpression()
+                .setPath(path.startsWith("/") ? path : ('/' + path))
+                .setName(name)
+                .setText(text)
+                .setPattern(pattern)
+                .setRegex(regex)
+                .setMaxItems(maxItems)
+                .setPageCursor(cursor)
+                .setIncludePositions(includeOccurrences);
+
+        final SearchResult result = searcher.search(expr);
+
+        final List<SearchItemReference> items = new ArrayList<>(result.getResults().size());
+        final FolderEntry root = projectManager.getProjectsRoot();
+        final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
+        for (SearchResultEntry entry : result.getResults()) {
+            final VirtualFileEntry child = root.getChild(entry.getFilePath());
+            if (child != null && child.isFile()) {
+                items.add(DtoFactory.newDto(SearchItemReference.class)
+                                    .withItemReference(DtoConverter.toItemReference((FileEntry)child, workspace, uriBuilder.clone()))
+                                    .withOccurrences(entry.getOccurrences()
+                                                          .stream()
+                                                          .map(DtoConverter::toSearchOccurrenceDto)
+                                                          .collect(Collectors.toList())));
+            }
+        }
+
+        return page.withItemReferences(items)
+                   .withTotalHits(result.getTotalHits())
+                   .withNextPageCursor(result.getNextPageCursor().orNull());
+    }
+
     private void logProjectCreatedEvent(@NotNull String projectName, @NotNull String projectType) {
         LOG.info("EVENT#project-created# PROJECT#{}# TYPE#{}# WS#{}# USER#{}# PAAS#default#",
                  projectName,
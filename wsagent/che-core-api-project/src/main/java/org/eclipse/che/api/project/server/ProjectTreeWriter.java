@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.ItemReference;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriBuilder;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes tree of folder as JSON directly to the response, so tree of DTOs is never built in memory. Written JSON has the same
+ * structure as {@link org.eclipse.che.api.project.shared.dto.TreeElement}.
+ * <p>
+ * Each folder which children are included in tree gets tag of the whole subtree that is written for it. Tag covers children of
+ * folder, tags of its child folders, depth and limit of items, so it is changed when any item down to the depth limit is added,
+ * removed or modified. If client sends tag which it got with previous tree, and subtree of folder isn't changed since that,
+ * children of folder are not written, folder is marked as not modified instead.
+ * <p>
+ * Tree is read in constructor, in one pass which lists children of each folder once and counts tags. Reading fails before
+ * response is committed, so client gets error response instead of broken JSON. Only tags and entries of children which are
+ * written are kept in memory until tree is written.
+ *
+ * @author andrew00x
+ */
+class ProjectTreeWriter implements StreamingOutput {
+    private static final Gson GSON = new Gson();
+
+    private final FolderEntry folder;
+    private final String      workspace;
+    private final boolean     includeFiles;
+    private final int         maxItems;
+    private final Set<String> knownEtags;
+    private final UriBuilder  uriBuilder;
+    private final FolderTree  tree;
+
+    /**
+     * @param folder
+     *         root folder of tree
+     * @param workspace
+     *         workspace id
+     * @param depth
+     *         depth of tree
+     * @param includeFiles
+     *         include files in tree, otherwise tree contains folders only
+     * @param maxItems
+     *         max number of children that are written for each folder, zero or negative value means no limit
+     * @param knownEtags
+     *         tags of folders which client already has
+     * @param uriBuilder
+     *         builder for links of items
+     * @throws ServerException
+     *         if tree can't be read
+     */
+    ProjectTreeWriter(FolderEntry folder,
+                      String workspace,
+                      int depth,
+                      boolean includeFiles,
+                      int maxItems,
+                      Set<String> knownEtags,
+                      UriBuilder uriBuilder) throws ServerException {
+        this.folder = folder;
+        this.workspace = workspace;
+        this.includeFiles = includeFiles;
+        this.maxItems = maxItems;
+        this.knownEtags = knownEtags;
+        this.uriBuilder = uriBuilder;
+        tree = depth == 0 ? null : readTree(folder, depth);
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        final JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(output, UTF_8)));
+        try {
+            writeFolder(writer, folder, tree);
+        } catch (ServerException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        writer.flush();
+    }
+
+    private void writeFolder(JsonWriter writer, FolderEntry folder, FolderTree tree) throws IOException, ServerException {
+        writer.beginObject();
+        writeNode(writer, DtoConverter.toItemReference(folder, workspace, uriBuilder.clone()));
+        if (tree != null) {
+            writer.name("etag").value(tree.etag);
+            if (tree.children == null) {
+                writer.name("notModified").value(true);
+            } else {
+                writer.name("truncated").value(tree.truncated);
+                writer.name("children").beginArray();
+                for (int i = 0; i < tree.children.size(); i++) {
+                    final VirtualFileEntry child = tree.children.get(i);
+                    if (child.isFolder()) {
+                        writeFolder(writer, (FolderEntry)child, tree.subTrees[i]);
+                    } else {
+                        writer.beginObject();
+                        writeNode(writer, DtoConverter.toItemReference((FileEntry)child, workspace, uriBuilder.clone()));
+                        writer.endObject();
+                    }
+                }
+                writer.endArray();
+            }
+        }
+        writer.endObject();
+    }
+
+    private void writeNode(JsonWriter writer, ItemReference node) throws IOException {
+        writer.name("node");
+        GSON.toJson(DtoFactory.getInstance().toJsonElement(node), writer);
+    }
+
+    private List<? extends VirtualFileEntry> getChildren(FolderEntry folder) throws ServerException {
+        return includeFiles ? folder.getChildFoldersFiles() : folder.getChildFolders();
+    }
+
+    /**
+     * Reads children of folder and of its child folders down to the depth limit and counts their tags. Tag of folder is counted
+     * from path of folder, parameters of tree, names, types, modification dates and lengths of written children and from tags of
+     * written child folders.
+     */
+    private FolderTree readTree(FolderEntry folder, int depth) throws ServerException {
+        final List<? extends VirtualFileEntry> children = getChildren(folder);
+        final int limit = maxItems > 0 ? Math.min(maxItems, children.size()) : children.size();
+        final FolderTree[] subTrees = new FolderTree[limit];
+        final Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(folder.getPath().toString(), UTF_8)
+              .putInt(depth)
+              .putInt(maxItems)
+              .putBoolean(includeFiles)
+              .putInt(children.size());
+        for (int i = 0; i < limit; i++) {
+            final VirtualFileEntry child = children.get(i);
+            hasher.putString(child.getName(), UTF_8)
+                  .putBoolean(child.isFile())
+                  .putLong(child.getModified());
+            if (child.isFile()) {
+                hasher.putLong(child.getVirtualFile().getLength());
+            } else if (depth - 1 != 0) {
+                subTrees[i] = readTree((FolderEntry)child, depth - 1);
+                hasher.putString(subTrees[i].etag, UTF_8);
+            }
+        }
+        final String etag = hasher.hash().toString();
+        if (knownEtags.contains(etag)) {
+            // Client already has subtree of folder, don't keep it
+            return new FolderTree(etag, null, null, false);
+        }
+        return new FolderTree(etag, new ArrayList<>(children.subList(0, limit)), subTrees, limit < children.size());
+    }
+
+    /** Tag of folder and children of folder which are written. */
+    private static class FolderTree {
+        final String                 etag;
+        /** Written children or {@code null} if client already has them. */
+        final List<VirtualFileEntry> children;
+        /** Trees of child folders at the same positions as folders in {@link #children}, {@code null} at depth limit. */
+        final FolderTree[]           subTrees;
+        final boolean                truncated;
+
+        FolderTree(String etag, List<VirtualFileEntry> children, FolderTree[] subTrees, boolean truncated) {
+            this.etag = etag;
+            this.children = children;
+            this.subTrees = subTrees;
+            this.truncated = truncated;
+        }
+    }
+}
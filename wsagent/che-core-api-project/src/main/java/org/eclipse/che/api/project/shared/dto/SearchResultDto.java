@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Page of search result.
+ *
+ * @author andrew00x
+ */
+@DTO
+public interface SearchResultDto {
+    List<SearchItemReference> getItemReferences();
+
+    void setItemReferences(List<SearchItemReference> itemReferences);
+
+    SearchResultDto withItemReferences(List<SearchItemReference> itemReferences);
+
+    /** Total number of files that match search criteria. */
+    int getTotalHits();
+
+    void setTotalHits(int totalHits);
+
+    SearchResultDto withTotalHits(int totalHits);
+
+    /** Opaque token for retrieving next page or {@code null} if this page is the last one. */
+    @Nullable
+    String getNextPageCursor();
+
+    void setNextPageCursor(String nextPageCursor);
+
+    SearchResultDto withNextPageCursor(String nextPageCursor);
+}
@@ -30,4 +30,29 @@ public interface TreeElement {
     void setChildren(List<TreeElement> children);
 
     TreeElement withChildren(List<TreeElement> children);
+
+    /**
+     * Tag of subtree of folder. Tag is changed when any item of subtree down to the depth limit is added, removed or modified, or
+     * when depth or limit of items is changed. Tag is not set for files and for folders which children are not included in tree
+     * because of depth limit.
+     */
+    String getEtag();
+
+    void setEtag(String etag);
+
+    TreeElement withEtag(String etag);
+
+    /** Children of folder are not included in tree because subtree isn't changed since client got it with the same tag. */
+    boolean isNotModified();
+
+    void setNotModified(boolean notModified);
+
+    TreeElement withNotModified(boolean notModified);
+
+    /** Only part of children of folder are included in tree because of limit of items per folder. */
+    boolean isTruncated();
+
+    void setTruncated(boolean truncated);
+
+    TreeElement withTruncated(boolean truncated);
 }
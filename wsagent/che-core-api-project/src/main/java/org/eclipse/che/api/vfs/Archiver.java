@@ -13,17 +13,27 @@ package org.eclipse.che.api.vfs;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.util.BackgroundInputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 /** Archiver for compressing and extracting content of folder. */
 public abstract class Archiver {
-    protected final VirtualFile folder;
+    protected final VirtualFile     folder;
+    /** Executor for background tasks of archiver, e.g. parallel compression. If {@code null} all work is done in caller thread. */
+    protected final ExecutorService executor;
 
     protected Archiver(VirtualFile folder) {
+        this(folder, null);
+    }
+
+    protected Archiver(VirtualFile folder, ExecutorService executor) {
         this.folder = folder;
+        this.executor = executor;
     }
 
     /**
@@ -56,4 +66,16 @@ public abstract class Archiver {
      */
     public abstract void extract(InputStream compressedInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException;
+
+    /** Reads ahead {@code input} in background task if executor is set and has free thread, otherwise returns {@code input}. */
+    protected InputStream readAhead(InputStream input) {
+        if (executor != null) {
+            try {
+                return BackgroundInputStream.readAhead(input, executor);
+            } catch (RejectedExecutionException ignored) {
+                // All threads are busy, archive is read in caller thread
+            }
+        }
+        return input;
+    }
 }
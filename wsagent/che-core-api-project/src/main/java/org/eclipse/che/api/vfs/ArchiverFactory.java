@@ -10,15 +10,58 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 public class ArchiverFactory {
+    /** Max number of threads of shared pool. Each archive that is being streamed to client holds one thread while it is written. */
+    private static final int             MAX_SHARED_THREADS = 4 * Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService SHARED_EXECUTOR    =
+            new ThreadPoolExecutor(0, MAX_SHARED_THREADS, 60, SECONDS,
+                                   new SynchronousQueue<>(),
+                                   new ThreadFactoryBuilder().setNameFormat("ArchiverFactory-%d")
+                                                             .setDaemon(true)
+                                                             .build());
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates factory of archivers which use shared bounded pool of daemon threads for background tasks. Idle threads are terminated
+     * after a minute, so pool doesn't need to be shut down.
+     */
+    public ArchiverFactory() {
+        this(SHARED_EXECUTOR);
+    }
+
+    /**
+     * @param executor
+     *         executor for background tasks of archivers, e.g. parallel compression, or {@code null} if archivers should do all
+     *         work in caller thread. Executor must not queue tasks since some tasks block waiting for I/O, it should reject task
+     *         when all threads are busy. Rejected tasks are done in caller thread. Number of compression tasks that are run
+     *         concurrently is limited by archiver itself.
+     */
+    public ArchiverFactory(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /** Returns executor for background tasks of archivers or {@code null} if archivers do all work in caller thread. */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
     public Archiver createArchiver(VirtualFile folder, String archiveType) {
         if (archiveType == null) {
             throw new IllegalArgumentException("Archive type might not be null");
         }
         if ("zip".equals(archiveType.toLowerCase())) {
-            return new ZipArchiver(folder);
+            return new ZipArchiver(folder, executor);
         } else if ("tar".equals(archiveType.toLowerCase())) {
-            return new TarArchiver(folder);
+            return new TarArchiver(folder, executor);
         }
         throw new IllegalArgumentException(String.format("Unsupported archive type %s", archiveType));
     }
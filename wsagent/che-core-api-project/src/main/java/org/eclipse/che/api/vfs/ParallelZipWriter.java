@@ -0,0 +1,488 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes ZIP archive to stream in one pass and compresses content of files in parallel, in the way pigz does it.
+ * <ul>
+ * <li>Small files are read and compressed by tasks of executor, one task per file.</li>
+ * <li>Big files are read sequentially by caller and split in blocks. Each block is compressed by separate task with the last 32K of
+ * previous block as dictionary, so compression ratio is almost the same as if file were compressed as a whole. All blocks but the last
+ * one are finished with sync flush, so compressed blocks may be just concatenated.</li>
+ * </ul>
+ * Compressed data is written in original order. Number of blocks that are compressed but not written yet is limited, so memory usage
+ * doesn't depend on size of archive. CRC and sizes of files are written in data descriptors after content. ZIP64 extensions are used
+ * only for sizes, offsets and number of entries that don't fit in ZIP format. Sizes of file aren't known when its local header is
+ * written, so local header of file which length is not less than 4 GiB has ZIP64 extra field and data descriptor of such file has
+ * 8 bytes sizes as ZIP specification requires.
+ *
+ * @author andrew00x
+ */
+class ParallelZipWriter implements Closeable {
+    static final int BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int  LOCAL_HEADER_SIGNATURE       = 0x04034b50;
+    private static final int  DATA_DESCRIPTOR_SIGNATURE    = 0x08074b50;
+    private static final int  CENTRAL_HEADER_SIGNATURE     = 0x02014b50;
+    private static final int  ZIP64_END_SIGNATURE          = 0x06064b50;
+    private static final int  ZIP64_END_LOCATOR_SIGNATURE  = 0x07064b50;
+    private static final int  END_SIGNATURE                = 0x06054b50;
+    private static final int  VERSION                      = 20;
+    private static final int  VERSION_ZIP64                = 45;
+    private static final int  FLAG_DATA_DESCRIPTOR         = 0x0008;
+    private static final int  FLAG_UTF8                    = 0x0800;
+    private static final int  METHOD_STORED                = 0;
+    private static final int  METHOD_DEFLATED              = 8;
+    private static final int  ZIP64_EXTRA_TAG              = 0x0001;
+    private static final int  DIRECTORY_ATTRIBUTE          = 0x10;
+    private static final long ZIP64_MAGIC                  = 0xFFFFFFFFL;
+    private static final int  ZIP64_MAGIC_COUNT            = 0xFFFF;
+    /** DOS time that is used for dates before 1980. */
+    private static final int  DOS_TIME_BEFORE_1980         = (1 << 21) | (1 << 16);
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final OutputStream    output;
+    private final ExecutorService executor;
+    private final int             maxPendingBlocks;
+    private final Deque<Block>    pending;
+    private final List<Entry>     entries;
+
+    private long    written;
+    private boolean finished;
+
+    /**
+     * @param output
+     *         output for archive
+     * @param executor
+     *         executor for compression tasks, if {@code null} or if it rejects task content is compressed in caller thread
+     * @param parallelism
+     *         max number of blocks that are compressed concurrently
+     */
+    ParallelZipWriter(OutputStream output, ExecutorService executor, int parallelism) {
+        this.output = new BufferedOutputStream(output, 64 * 1024);
+        this.executor = executor;
+        this.maxPendingBlocks = Math.max(1, parallelism * 2);
+        pending = new ArrayDeque<>();
+        entries = new ArrayList<>();
+    }
+
+    /** Adds entry of folder. Name of entry must end with '/'. */
+    void putFolder(String name) throws IOException {
+        enqueue(new Block(new Entry(name, 0, false, false), true, true, submit(() -> new Deflated(EMPTY, 0, 0))));
+    }
+
+    /**
+     * Adds entry of file.
+     *
+     * @param name
+     *         name of entry
+     * @param lastModified
+     *         modification time of file
+     * @param length
+     *         expected length of file, it is used to decide whether file is compressed as a whole or split in blocks and whether
+     *         ZIP64 format is used for entry
+     * @param content
+     *         opens content of file, content might be opened in other thread
+     */
+    void putFile(String name, long lastModified, long length, Callable<InputStream> content) throws IOException {
+        final Entry entry = new Entry(name, lastModified, true, length >= ZIP64_MAGIC);
+        if (length <= BLOCK_SIZE) {
+            enqueue(new Block(entry, true, true, submit(() -> deflateFile(content))));
+            return;
+        }
+        final CRC32 crc = new CRC32();
+        try (InputStream in = open(content)) {
+            byte[] block = readBlock(in);
+            byte[] dictionary = null;
+            boolean first = true;
+            while (true) {
+                final byte[] next = block.length == BLOCK_SIZE ? readBlock(in) : EMPTY;
+                final boolean last = next.length == 0;
+                crc.update(block);
+                if (last) {
+                    entry.crc = crc.getValue();
+                }
+                final byte[] input = block;
+                final byte[] blockDictionary = dictionary;
+                enqueue(new Block(entry, first, last, submit(() -> deflate(input, blockDictionary, last))));
+                if (last) {
+                    break;
+                }
+                dictionary = Arrays.copyOfRange(block, block.length - DICTIONARY_SIZE, block.length);
+                block = next;
+                first = false;
+            }
+        }
+    }
+
+    /** Writes all pending data and central directory of archive. Underlying output isn't closed. */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        final long centralDirectoryOffset = written;
+        for (Entry entry : entries) {
+            writeCentralHeader(entry);
+        }
+        final long centralDirectorySize = written - centralDirectoryOffset;
+        writeEnd(centralDirectoryOffset, centralDirectorySize);
+        output.flush();
+        finished = true;
+    }
+
+    /** Closes underlying output. Archive isn't finished if {@link #finish()} wasn't called before. */
+    @Override
+    public void close() throws IOException {
+        for (Block block : pending) {
+            block.deflated.cancel(true);
+        }
+        pending.clear();
+        output.close();
+    }
+
+    private Future<Deflated> submit(Callable<Deflated> task) {
+        if (executor != null) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException ignored) {
+                // All threads are busy, compress in caller thread
+            }
+        }
+        final FutureTask<Deflated> future = new FutureTask<>(task);
+        future.run();
+        return future;
+    }
+
+    private void enqueue(Block block) throws IOException {
+        pending.addLast(block);
+        while (pending.size() > maxPendingBlocks) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        final Block block = pending.removeFirst();
+        final Deflated deflated = await(block.deflated);
+        final Entry entry = block.entry;
+        if (block.first) {
+            entry.offset = written;
+            writeLocalHeader(entry);
+        }
+        writeBytes(deflated.data);
+        entry.compressedSize += deflated.data.length;
+        entry.size += deflated.rawLength;
+        if (deflated.crc >= 0) {
+            entry.crc = deflated.crc;
+        }
+        if (block.last) {
+            if (entry.file) {
+                writeDataDescriptor(entry);
+            }
+            entries.add(entry);
+        }
+    }
+
+    private void writeLocalHeader(Entry entry) throws IOException {
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(entry.zip64 ? VERSION_ZIP64 : VERSION);
+        writeShort(entry.flags());
+        writeShort(entry.method());
+        writeInt(entry.dosTime);
+        writeInt(0); // crc, compressed and uncompressed sizes are in data descriptor or zero for folders
+        writeInt(entry.zip64 ? ZIP64_MAGIC : 0);
+        writeInt(entry.zip64 ? ZIP64_MAGIC : 0);
+        writeShort(entry.name.length);
+        writeShort(entry.zip64 ? 20 : 0);
+        writeBytes(entry.name);
+        if (entry.zip64) {
+            writeShort(ZIP64_EXTRA_TAG);
+            writeShort(16);
+            writeLong(0); // uncompressed and compressed sizes are in data descriptor
+            writeLong(0);
+        }
+    }
+
+    private void writeDataDescriptor(Entry entry) throws IOException {
+        writeInt(DATA_DESCRIPTOR_SIGNATURE);
+        writeInt(entry.crc);
+        if (entry.zip64 || entry.compressedSize >= ZIP64_MAGIC || entry.size >= ZIP64_MAGIC) {
+            writeLong(entry.compressedSize);
+            writeLong(entry.size);
+        } else {
+            writeInt(entry.compressedSize);
+            writeInt(entry.size);
+        }
+    }
+
+    private void writeCentralHeader(Entry entry) throws IOException {
+        final boolean zip64Size = entry.size >= ZIP64_MAGIC;
+        final boolean zip64CompressedSize = entry.compressedSize >= ZIP64_MAGIC;
+        final boolean zip64Offset = entry.offset >= ZIP64_MAGIC;
+        final int zip64DataLength = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8 : 0);
+        final int version = zip64DataLength > 0 || entry.zip64 ? VERSION_ZIP64 : VERSION;
+        writeInt(CENTRAL_HEADER_SIGNATURE);
+        writeShort(version); // made by
+        writeShort(version); // needed to extract
+        writeShort(entry.flags());
+        writeShort(entry.method());
+        writeInt(entry.dosTime);
+        writeInt(entry.crc);
+        writeInt(zip64CompressedSize ? ZIP64_MAGIC : entry.compressedSize);
+        writeInt(zip64Size ? ZIP64_MAGIC : entry.size);
+        writeShort(entry.name.length);
+        writeShort(zip64DataLength > 0 ? zip64DataLength + 4 : 0);
+        writeShort(0); // comment length
+        writeShort(0); // disk number
+        writeShort(0); // internal attributes
+        writeInt(entry.file ? 0 : DIRECTORY_ATTRIBUTE);
+        writeInt(zip64Offset ? ZIP64_MAGIC : entry.offset);
+        writeBytes(entry.name);
+        if (zip64DataLength > 0) {
+            writeShort(ZIP64_EXTRA_TAG);
+            writeShort(zip64DataLength);
+            if (zip64Size) {
+                writeLong(entry.size);
+            }
+            if (zip64CompressedSize) {
+                writeLong(entry.compressedSize);
+            }
+            if (zip64Offset) {
+                writeLong(entry.offset);
+            }
+        }
+    }
+
+    private void writeEnd(long centralDirectoryOffset, long centralDirectorySize) throws IOException {
+        final int count = entries.size();
+        if (count >= ZIP64_MAGIC_COUNT || centralDirectoryOffset >= ZIP64_MAGIC || centralDirectorySize >= ZIP64_MAGIC) {
+            final long zip64EndOffset = written;
+            writeInt(ZIP64_END_SIGNATURE);
+            writeLong(44); // size of remaining record
+            writeShort(VERSION_ZIP64);
+            writeShort(VERSION_ZIP64);
+            writeInt(0); // number of this disk
+            writeInt(0); // disk where central directory starts
+            writeLong(count);
+            writeLong(count);
+            writeLong(centralDirectorySize);
+            writeLong(centralDirectoryOffset);
+
+            writeInt(ZIP64_END_LOCATOR_SIGNATURE);
+            writeInt(0);
+            writeLong(zip64EndOffset);
+            writeInt(1); // total number of disks
+        }
+        writeInt(END_SIGNATURE);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeInt(Math.min(centralDirectorySize, ZIP64_MAGIC));
+        writeInt(Math.min(centralDirectoryOffset, ZIP64_MAGIC));
+        writeShort(0); // comment length
+    }
+
+    private void writeShort(int value) throws IOException {
+        output.write(value & 0xFF);
+        output.write((value >>> 8) & 0xFF);
+        written += 2;
+    }
+
+    private void writeInt(long value) throws IOException {
+        writeShort((int)(value & 0xFFFF));
+        writeShort((int)((value >>> 16) & 0xFFFF));
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt(value & ZIP64_MAGIC);
+        writeInt(value >>> 32);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        output.write(bytes);
+        written += bytes.length;
+    }
+
+    private static Deflated deflateFile(Callable<InputStream> content) throws IOException {
+        final byte[] data;
+        try (InputStream in = open(content)) {
+            data = ByteStreams.toByteArray(in);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        return deflate(data, null, true).withCrc(crc.getValue());
+    }
+
+    private static Deflated deflate(byte[] input, byte[] dictionary, boolean last) {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(input);
+            final ByteArrayOutputStream deflated = new ByteArrayOutputStream(input.length / 2 + 64);
+            final byte[] buffer = new byte[8192];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflated.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    deflated.write(buffer, 0, n);
+                } while (n == buffer.length);
+            }
+            return new Deflated(deflated.toByteArray(), input.length, -1);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] readBlock(InputStream in) throws IOException {
+        final byte[] block = new byte[BLOCK_SIZE];
+        final int n = ByteStreams.read(in, block, 0, BLOCK_SIZE);
+        return n == BLOCK_SIZE ? block : Arrays.copyOf(block, n);
+    }
+
+    private static InputStream open(Callable<InputStream> content) throws IOException {
+        try {
+            return content.call();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static Deflated await(Future<Deflated> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private static int toDosTime(long time) {
+        final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        final int year = dateTime.getYear() - 1980;
+        if (year < 0) {
+            return DOS_TIME_BEFORE_1980;
+        }
+        return Math.min(year, 127) << 25
+               | dateTime.getMonthValue() << 21
+               | dateTime.getDayOfMonth() << 16
+               | dateTime.getHour() << 11
+               | dateTime.getMinute() << 5
+               | dateTime.getSecond() >> 1;
+    }
+
+    private static class Entry {
+        final byte[]  name;
+        final int     dosTime;
+        final boolean file;
+        /** Whether local header of entry has ZIP64 extra field. */
+        final boolean zip64;
+
+        long offset;
+        long crc;
+        long size;
+        long compressedSize;
+
+        Entry(String name, long lastModified, boolean file, boolean zip64) {
+            this.name = name.getBytes(UTF_8);
+            this.dosTime = toDosTime(lastModified);
+            this.file = file;
+            this.zip64 = zip64;
+        }
+
+        int flags() {
+            return file ? FLAG_UTF8 | FLAG_DATA_DESCRIPTOR : FLAG_UTF8;
+        }
+
+        int method() {
+            return file ? METHOD_DEFLATED : METHOD_STORED;
+        }
+    }
+
+    private static class Block {
+        final Entry            entry;
+        final boolean          first;
+        final boolean          last;
+        final Future<Deflated> deflated;
+
+        Block(Entry entry, boolean first, boolean last, Future<Deflated> deflated) {
+            this.entry = entry;
+            this.first = first;
+            this.last = last;
+            this.deflated = deflated;
+        }
+    }
+
+    private static class Deflated {
+        final byte[] data;
+        final long   rawLength;
+        /** CRC of whole file if it is compressed in one block, -1 otherwise. */
+        final long   crc;
+
+        Deflated(byte[] data, long rawLength, long crc) {
+            this.data = data;
+            this.rawLength = rawLength;
+            this.crc = crc;
+        }
+
+        Deflated withCrc(long crc) {
+            return new Deflated(data, rawLength, crc);
+        }
+    }
+}
@@ -10,6 +10,17 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Advisory file locks. It does not prevent access to the file from other programs.
  * <p/>
@@ -30,15 +41,55 @@ package org.eclipse.che.api.vfs;
  *         }
  *      }
  * </pre>
+ * Lock of path conflicts with locks of its ancestors and descendants. Conflicts are resolved with intention locks: before lock
+ * path thread puts intention lock on each ancestor of the path, from root to parent. So conflicts are detected by looking at
+ * path and its ancestors only and independent subtrees never contend with each other. Intention locks don't conflict with
+ * each other, while nobody holds or waits for not intention lock of path they are counted with atomic counter, without
+ * locking of path node. So root and other common ancestors are not points of contention. Each path has own wait queue,
+ * thread that releases lock wakes up only threads that wait for the same path.
+ * <p/>
+ * Locks are reentrant. Thread that holds any lock of path gets any lock of the same path again without waiting, even exclusive
+ * lock while other threads hold not exclusive locks of the path. Callers rely on it to update file they are reading.
+ * <p/>
+ * Thread that holds not exclusive lock of path and requests exclusive lock of its descendant waits while other threads hold not
+ * exclusive locks of the path, descendant is changed only when nobody else reads the whole path. If other thread already waits
+ * in the same way for lock that current thread holds, then threads would wait for each other until timeout, so lock of current
+ * thread fails immediately.
  *
  * @author andrew00x>
  */
 public final class PathLockFactory {
     private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+
+    /** Intention to lock descendant not exclusively. */
+    private static final int INTENTION_SHARED    = 0;
+    /** Intention to lock descendant exclusively. */
+    private static final int INTENTION_EXCLUSIVE = 1;
+    private static final int SHARED              = 2;
+    private static final int EXCLUSIVE           = 3;
+    private static final int MODES               = 4;
+
+    /** Layout of state of node: number of shared intentions, number of exclusive intentions and flag of slow mode. */
+    private static final int  INTENTION_BITS = 31;
+    private static final long INTENTION_MASK = (1L << INTENTION_BITS) - 1;
+    private static final long SLOW           = 1L << (2 * INTENTION_BITS);
+
+    /** Compatibility of lock modes, i.e. COMPATIBLE[requested][held]. */
+    private static final boolean[][] COMPATIBLE = {
+            {true, true, true, false},
+            {true, true, false, false},
+            {true, false, true, false},
+            {false, false, false, false}
+    };
+
     /** Max number of threads allowed to access file. */
-    private final int maxThreads;
-    // Tail of the "lock table".
-    private final Node tail = new Node(null, 0, null);
+    private final int                     maxThreads;
+    /** Nodes of paths which are locked or have locked descendants. Node is removed when nobody uses it. */
+    private final ConcurrentMap<Path, Node> nodes;
+    /** Node of root is used by every lock, so it is never removed. */
+    private final Node                      root;
+    /** Intention locks held by current thread. */
+    private final ThreadLocal<Intentions>   intentions;
 
     /**
      * @param maxThreads
@@ -50,145 +101,401 @@ public final class PathLockFactory {
             throw new IllegalArgumentException();
         }
         this.maxThreads = maxThreads;
+        nodes = new ConcurrentHashMap<>();
+        root = new Node();
+        intentions = ThreadLocal.withInitial(Intentions::new);
     }
 
     public PathLock getLock(Path path, boolean exclusive) {
-        return new PathLock(path, exclusive ? maxThreads : 1);
+        return new PathLock(path, exclusive);
     }
 
-    private synchronized void acquire(Path path, int permits) {
-        while (!tryAcquire(path, permits)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
+    /**
+     * Acquires lock of path.
+     *
+     * @param timeoutNanos
+     *         max time to wait for lock, negative value means wait without timeout
+     */
+    private void acquire(Path path, boolean exclusive, long timeoutNanos) {
+        final long endTime = timeoutNanos < 0 ? -1 : System.nanoTime() + timeoutNanos;
+        final Path[] hierarchy = hierarchy(path);
+        final int intentionMode = exclusive ? INTENTION_EXCLUSIVE : INTENTION_SHARED;
+        final int lastIndex = hierarchy.length - 1;
+        int locked = 0;
+        try {
+            for (; locked <= lastIndex; locked++) {
+                lockNode(hierarchy[locked], locked == lastIndex ? (exclusive ? EXCLUSIVE : SHARED) : intentionMode, endTime, path);
+            }
+        } finally {
+            if (locked <= lastIndex) {
+                // Timeout or interruption, release intention locks of ancestors
+                for (int i = locked - 1; i >= 0; i--) {
+                    unlockNode(hierarchy[i], intentionMode);
+                }
+            }
+        }
+    }
+
+    private void release(Path path, boolean exclusive) {
+        final Path[] hierarchy = hierarchy(path);
+        final int lastIndex = hierarchy.length - 1;
+        if (!unlockNode(hierarchy[lastIndex], exclusive ? EXCLUSIVE : SHARED)) {
+            // Current thread doesn't hold such lock
+            return;
+        }
+        final int intentionMode = exclusive ? INTENTION_EXCLUSIVE : INTENTION_SHARED;
+        for (int i = lastIndex - 1; i >= 0; i--) {
+            unlockNode(hierarchy[i], intentionMode);
+        }
+    }
+
+    private void lockNode(Path nodePath, int mode, long endTime, Path lockedPath) {
+        final Node node = reference(nodePath);
+        boolean locked = false;
+        try {
+            node.lock(mode, endTime, lockedPath);
+            locked = true;
+        } finally {
+            if (!locked) {
+                dereference(nodePath, node);
             }
         }
     }
 
-    private synchronized void acquire(Path path, int permits, long timeoutMilliseconds) {
-        final long endTime = System.currentTimeMillis() + timeoutMilliseconds;
-        long waitTime = timeoutMilliseconds;
-        while (!tryAcquire(path, permits)) {
+    private boolean unlockNode(Path nodePath, int mode) {
+        final Node node = nodePath.isRoot() ? root : nodes.get(nodePath);
+        if (node == null || !node.unlock(mode)) {
+            return false;
+        }
+        dereference(nodePath, node);
+        return true;
+    }
+
+    /** Gets node of path and increments number of its references. Creates new node if there is no live node for path. */
+    private Node reference(Path nodePath) {
+        if (nodePath.isRoot()) {
+            return root;
+        }
+        while (true) {
+            final Node node = nodes.get(nodePath);
+            if (node != null) {
+                if (node.tryReference()) {
+                    return node;
+                }
+                // Node is being removed, help to remove it and try again
+                nodes.remove(nodePath, node);
+            } else {
+                final Node newNode = new Node();
+                if (nodes.putIfAbsent(nodePath, newNode) == null) {
+                    return newNode;
+                }
+            }
+        }
+    }
+
+    private void dereference(Path nodePath, Node node) {
+        if (node != root && node.references.decrementAndGet() == 0) {
+            nodes.remove(nodePath, node);
+        }
+    }
+
+    /** Returns path and all its ancestors starting from root. */
+    private static Path[] hierarchy(Path path) {
+        final Path[] hierarchy = new Path[path.length() + 1];
+        Path current = path;
+        for (int i = hierarchy.length - 1; i >= 0; i--) {
+            hierarchy[i] = current;
+            current = current.getParent();
+        }
+        return hierarchy;
+    }
+
+    public void checkClean() {
+        assert nodes.isEmpty() && root.state.get() == 0 && root.owners.isEmpty();
+    }
+
+   /* =============================================== */
+
+    /**
+     * State of locks of single path. Not intention locks and all locks while node is in slow mode are taken under lock of node.
+     * Node is in slow mode while any thread holds or waits for not intention lock of this node.
+     */
+    private final class Node {
+        final ReentrantLock      lock     = new ReentrantLock();
+        final Condition          released = lock.newCondition();
+        /** Number of held not intention locks of each mode, intention locks are counted in {@link #state}. */
+        final int[]              holds    = new int[MODES];
+        /** Number of held not intention locks of each mode per thread. */
+        final Map<Thread, int[]> owners   = new HashMap<>();
+        /** Threads that hold any lock of this node and wait for another lock of this node, mapped to their locks. */
+        final Map<Thread, Wait>  waits    = new HashMap<>();
+        /** Numbers of shared and exclusive intention locks, and {@link #SLOW} flag. */
+        final AtomicLong         state    = new AtomicLong();
+        /** Number of threads that hold not exclusive lock. */
+        int sharedOwners;
+        /** Number of threads that hold or wait for not intention lock. */
+        int lockers;
+        /** Number of threads that hold or wait for lock of this node. Node that has no references is removed and never reused. */
+        final AtomicInteger references = new AtomicInteger(1);
+
+        boolean tryReference() {
+            int current;
+            while ((current = references.get()) > 0) {
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void lock(int mode, long endTime, Path lockedPath) {
+            final boolean intention = mode < SHARED;
+            if (intention && tryLockIntention(mode)) {
+                intentions.get().add(this, mode);
+                return;
+            }
+            final Thread current = Thread.currentThread();
+            lock.lock();
             try {
-                wait(waitTime);
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
-            }
-            long now = System.currentTimeMillis();
-            if (now >= endTime) {
-                throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
-            }
-            waitTime = endTime - now;
-        }
-    }
-
-    private synchronized void release(Path path, int permits) {
-        Node node = tail;
-        while (node != null) {
-            Node prev = node.prev;
-            if (prev == null) {
-                break;
-            }
-            if (prev.path.equals(path)) {
-                if (prev.threadDeep == 1) {
-                    // If last recursive lock.
-                    prev.permits += permits;
-                    if (prev.permits >= maxThreads) {
-                        // remove
-                        node.prev = prev.prev;
-                        prev.prev = null;
+                if (!intention && lockers++ == 0) {
+                    state.addAndGet(SLOW);
+                }
+                boolean locked = false;
+                try {
+                    int[] own = owners.get(current);
+                    while (!canLock(mode, own)) {
+                        final int[] held = held(own);
+                        if (held != null) {
+                            checkMutualWait(current, mode, held, lockedPath);
+                        }
+                        try {
+                            if (endTime < 0) {
+                                released.await();
+                            } else {
+                                final long waitTime = endTime - System.nanoTime();
+                                if (waitTime <= 0) {
+                                    throw new RuntimeException(String.format("Get lock timeout for '%s'. ", lockedPath));
+                                }
+                                released.awaitNanos(waitTime);
+                            }
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    if (intention) {
+                        state.addAndGet(unit(mode));
+                        intentions.get().add(this, mode);
+                    } else {
+                        if (own == null) {
+                            own = new int[MODES];
+                            owners.put(current, own);
+                        }
+                        if (own[mode] >= MAX_RECURSIVE_LOCKS) {
+                            throw new Error("Max number of recursive locks exceeded. ");
+                        }
+                        if (mode == SHARED && own[SHARED] == 0) {
+                            sharedOwners++;
+                        }
+                        own[mode]++;
+                        holds[mode]++;
+                    }
+                    locked = true;
+                } finally {
+                    waits.remove(current);
+                    if (!locked && !intention) {
+                        leaveSlowMode();
                     }
-                } else {
-                    --prev.threadDeep;
                 }
+            } finally {
+                lock.unlock();
             }
-            node = node.prev;
         }
-        notifyAll();
-        //System.err.printf(">>>>> release: %s : %d%n", path, permits);
-    }
 
-    private boolean tryAcquire(Path path, int permits) {
-        //System.err.printf(">>>>> acquire: %s : %d%n", path, permits);
-        Node node = tail.prev;
-        final Thread current = Thread.currentThread();
-        while (node != null) {
-            if (node.path.equals(path)) {
-                if (node.threadId == current.getId()) {
-                    // Current thread already has direct lock for this path
-                    if (node.threadDeep > MAX_RECURSIVE_LOCKS) {
-                        throw new Error("Max number of recursive locks exceeded. ");
+        /** Returns {@code false} if current thread doesn't hold lock of specified mode. */
+        boolean unlock(int mode) {
+            if (mode < SHARED) {
+                if (!intentions.get().remove(this, mode)) {
+                    return false;
+                }
+                if ((state.addAndGet(-unit(mode)) & SLOW) != 0) {
+                    // Somebody may wait for release of intention lock
+                    lock.lock();
+                    try {
+                        released.signalAll();
+                    } finally {
+                        lock.unlock();
                     }
-                    ++node.threadDeep;
-                    return true;
                 }
-                if (node.permits > permits) {
-                    // Lock already exists and current thread is not owner of this lock,
-                    // but lock is not exclusive and we can "share" it for other thread.
-                    node.permits -= permits; // decrement number of allowed concurrent threads
+                return true;
+            }
+            final Thread current = Thread.currentThread();
+            lock.lock();
+            try {
+                final int[] own = owners.get(current);
+                if (own == null || own[mode] == 0) {
+                    return false;
+                }
+                own[mode]--;
+                holds[mode]--;
+                if (mode == SHARED && own[SHARED] == 0) {
+                    sharedOwners--;
+                }
+                if (isEmpty(own)) {
+                    owners.remove(current);
+                }
+                leaveSlowMode();
+                released.signalAll();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Takes intention lock without locking of node if node is not in slow mode. */
+        private boolean tryLockIntention(int mode) {
+            long current;
+            while (((current = state.get()) & SLOW) == 0) {
+                if (state.compareAndSet(current, current + unit(mode))) {
                     return true;
                 }
-                // Lock is exclusive or max number of allowed concurrent thread is reached.
-                return false;
-            } else if ((node.path.isChild(path) || path.isChild(node.path)) && node.permits <= permits) {
-                // Found some path which already has lock that prevents us to get required permits.
-                // There is two possibilities:
-                // 1. Parent of the path we try to lock already locked
-                // 2. Child of the path we try to lock already locked
-                // Need to check is such lock obtained by current thread or not.
-                // If such lock obtained by other thread stop here immediately there is no reasons to continue.
-                if (node.threadId != current.getId()) {
+            }
+            return false;
+        }
+
+        private void leaveSlowMode() {
+            if (--lockers == 0) {
+                state.addAndGet(-SLOW);
+            }
+        }
+
+        /** Returns numbers of all locks of this node held by current thread or {@code null} if current thread holds no lock. */
+        private int[] held(int[] own) {
+            final Intentions ownIntentions = intentions.get();
+            final int[] held = own == null ? new int[MODES] : own.clone();
+            held[INTENTION_SHARED] = ownIntentions.count(this, INTENTION_SHARED);
+            held[INTENTION_EXCLUSIVE] = ownIntentions.count(this, INTENTION_EXCLUSIVE);
+            return own == null && held[INTENTION_SHARED] == 0 && held[INTENTION_EXCLUSIVE] == 0 ? null : held;
+        }
+
+        /**
+         * Fails if current thread, which holds lock of this node, is going to wait for other thread that holds lock of this node
+         * and waits for current thread.
+         */
+        private void checkMutualWait(Thread current, int mode, int[] held, Path lockedPath) {
+            for (Map.Entry<Thread, Wait> entry : waits.entrySet()) {
+                final Wait other = entry.getValue();
+                if (entry.getKey() != current && conflicts(mode, other.held) && conflicts(other.mode, held)) {
+                    throw new RuntimeException(String.format("Unable to lock '%s', other thread holds lock of the same path and " +
+                                                             "waits for lock that current thread holds. ", lockedPath));
+                }
+            }
+            waits.put(current, new Wait(mode, held));
+        }
+
+        private boolean canLock(int mode, int[] own) {
+            if (own != null && (own[EXCLUSIVE] > 0 || (mode >= SHARED && own[SHARED] > 0))) {
+                // Current thread already has exclusive lock, nobody else has any lock of this node, or re-locks path
+                return true;
+            }
+            final long current = state.get();
+            for (int held = 0; held < MODES; held++) {
+                final int heldByOthers;
+                if (held < SHARED) {
+                    final int all = (int)((current >>> (held * INTENTION_BITS)) & INTENTION_MASK);
+                    heldByOthers = all == 0 ? 0 : all - intentions.get().count(this, held);
+                } else {
+                    heldByOthers = holds[held] - (own == null ? 0 : own[held]);
+                }
+                if (heldByOthers > 0 && !COMPATIBLE[mode][held]) {
                     return false;
                 }
             }
-            node = node.prev;
+            return mode != SHARED || (own != null && own[SHARED] > 0) || sharedOwners < maxThreads;
+        }
+
+        private boolean isEmpty(int[] own) {
+            for (int count : own) {
+                if (count > 0) {
+                    return false;
+                }
+            }
+            return true;
         }
-        // If we are here there is no lock for path yet.
-        tail.prev = new Node(path, maxThreads - permits, tail.prev);
-        return true;
     }
 
-    public synchronized void checkClean() {
-        assert tail.prev == null;
+    private static long unit(int intentionMode) {
+        return 1L << (intentionMode * INTENTION_BITS);
     }
 
-   /* =============================================== */
+    /** Returns {@code true} if lock of specified mode conflicts with any of held locks. */
+    private static boolean conflicts(int mode, int[] held) {
+        for (int i = 0; i < MODES; i++) {
+            if (held[i] > 0 && !COMPATIBLE[mode][i]) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-    private static class Node {
-        final Path path;
-        final long threadId = Thread.currentThread().getId();
-        int  permits;
-        int  threadDeep;
-        Node prev;
+    /**
+     * Intention locks held by one thread. Locks are usually released in reverse order, so they are kept in stack and released
+     * lock is looked up from the top of stack.
+     */
+    private static final class Intentions {
+        Node[] nodes = new Node[16];
+        int[]  modes = new int[16];
+        int    size;
 
-        Node(Path path, int permits, Node prev) {
-            this.path = path;
-            this.permits = permits;
-            this.prev = prev;
-            threadDeep = 1;
+        void add(Node node, int mode) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                modes = Arrays.copyOf(modes, size * 2);
+            }
+            nodes[size] = node;
+            modes[size++] = mode;
+        }
+
+        boolean remove(Node node, int mode) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (nodes[i] == node && modes[i] == mode) {
+                    System.arraycopy(nodes, i + 1, nodes, i, size - i - 1);
+                    System.arraycopy(modes, i + 1, modes, i, size - i - 1);
+                    nodes[--size] = null;
+                    return true;
+                }
+            }
+            return false;
         }
 
-        @Override
-        public String toString() {
-            return "Node{" +
-                   "path=" + path +
-                   ", threadId=" + threadId +
-                   ", permits=" + permits +
-                   ", prev=" + prev +
-                   '}';
+        int count(Node node, int mode) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node && modes[i] == mode) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /** Lock that thread waits for and locks that it holds. */
+    private static final class Wait {
+        final int   mode;
+        final int[] held;
+
+        Wait(int mode, int[] held) {
+            this.mode = mode;
+            this.held = held;
         }
     }
 
     public final class PathLock {
-        private final Path path;
-        private final int  permits;
+        private final Path    path;
+        private final boolean exclusive;
 
-        private PathLock(Path path, int permits) {
+        private PathLock(Path path, boolean exclusive) {
             this.path = path;
-            this.permits = permits;
+            this.exclusive = exclusive;
         }
 
         /**
@@ -197,7 +504,7 @@ public final class PathLockFactory {
          * @return this PathLock instance
          */
         public PathLock acquire() {
-            PathLockFactory.this.acquire(path, permits);
+            PathLockFactory.this.acquire(path, exclusive, -1);
             return this;
         }
 
@@ -212,18 +519,18 @@ public final class PathLockFactory {
          *         if waiting timeout reached
          */
         public PathLock acquire(long timeoutMilliseconds) {
-            PathLockFactory.this.acquire(path, permits, timeoutMilliseconds);
+            PathLockFactory.this.acquire(path, exclusive, TimeUnit.MILLISECONDS.toNanos(Math.max(timeoutMilliseconds, 0)));
             return this;
         }
 
         /** Release file permit. */
         public void release() {
-            PathLockFactory.this.release(path, permits);
+            PathLockFactory.this.release(path, exclusive);
         }
 
         /** Returns <code>true</code> if this lock is exclusive and <code>false</code> otherwise. */
         public boolean isExclusive() {
-            return permits == PathLockFactory.this.maxThreads;
+            return exclusive;
         }
     }
 }
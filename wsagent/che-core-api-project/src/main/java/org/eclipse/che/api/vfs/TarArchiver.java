@@ -23,12 +23,21 @@ import org.eclipse.che.api.vfs.util.NotClosableInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
 
+/**
+ * Archiver for TAR format. Archive that is extracted is read ahead in background task, if executor is set, so reading of archive is
+ * overlapped with writing of extracted files.
+ */
 public class TarArchiver extends Archiver {
     public TarArchiver(VirtualFile folder) {
         super(folder);
     }
 
+    public TarArchiver(VirtualFile folder, ExecutorService executor) {
+        super(folder, executor);
+    }
+
     @Override
     public void compress(OutputStream tarOutput) throws IOException, ServerException {
         compress(tarOutput, VirtualFileFilter.ACCEPT_ALL);
@@ -89,7 +98,7 @@ public class TarArchiver extends Archiver {
     @Override
     public void extract(InputStream tarInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
-        try (TarArchiveInputStream tarInputStream = new TarArchiveInputStream(tarInput)) {
+        try (TarArchiveInputStream tarInputStream = new TarArchiveInputStream(readAhead(tarInput))) {
             InputStream notClosableInputStream = new NotClosableInputStream(tarInputStream);
             TarArchiveEntry tarEntry;
             while ((tarEntry = tarInputStream.getNextTarEntry()) != null) {
@@ -10,8 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
-import com.google.common.io.ByteStreams;
-
+import org.apache.commons.io.input.CountingInputStream;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
@@ -21,15 +20,23 @@ import org.eclipse.che.api.vfs.util.ZipContent;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
+/**
+ * Archiver for ZIP format. Content of files is compressed in parallel by tasks of executor, if it is set, see {@link ParallelZipWriter}.
+ * Archive that is extracted is read ahead in background task, so reading of archive is overlapped with writing of extracted files.
+ */
 public class ZipArchiver extends Archiver {
     public ZipArchiver(VirtualFile folder) {
         super(folder);
     }
 
+    public ZipArchiver(VirtualFile folder, ExecutorService executor) {
+        super(folder, executor);
+    }
+
     @Override
     public void compress(OutputStream zipOutput) throws IOException, ServerException {
         compress(zipOutput, VirtualFileFilter.ACCEPT_ALL);
@@ -37,13 +44,13 @@ public class ZipArchiver extends Archiver {
 
     @Override
     public void compress(OutputStream zipOutput, VirtualFileFilter filter) throws IOException, ServerException {
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipOutput)) {
+        try (ParallelZipWriter zipWriter = new ParallelZipWriter(zipOutput, executor, Runtime.getRuntime().availableProcessors())) {
             folder.accept(new VirtualFileVisitor() {
                 @Override
                 public void visit(VirtualFile visitedVirtualFile) throws ServerException {
                     if (filter.accept(visitedVirtualFile)) {
                         if (!visitedVirtualFile.equals(folder)) {
-                            addZipEntry(visitedVirtualFile, zipOutputStream);
+                            addZipEntry(visitedVirtualFile, zipWriter);
                         }
                         if (visitedVirtualFile.isFolder()) {
                             for (VirtualFile child : visitedVirtualFile.getChildren()) {
@@ -53,6 +60,7 @@ public class ZipArchiver extends Archiver {
                     }
                 }
             });
+            zipWriter.finish();
         }
     }
 
@@ -64,22 +72,20 @@ public class ZipArchiver extends Archiver {
         return zipPath.toString();
     }
 
-    private void addZipEntry(VirtualFile virtualFile, ZipOutputStream zipOutputStream) throws ServerException {
+    private void addZipEntry(VirtualFile virtualFile, ParallelZipWriter zipWriter) throws ServerException {
         try {
-            ZipEntry zipEntry = new ZipEntry(getZipEntryName(virtualFile));
-            zipOutputStream.putNextEntry(zipEntry);
             if (virtualFile.isFolder()) {
-                zipEntry.setTime(0);
+                zipWriter.putFolder(getZipEntryName(virtualFile));
             } else {
-                try (InputStream content = virtualFile.getContent()) {
-                    ByteStreams.copy(content, zipOutputStream);
-                }
-                zipEntry.setTime(virtualFile.getLastModificationDate());
+                zipWriter.putFile(getZipEntryName(virtualFile),
+                                  virtualFile.getLastModificationDate(),
+                                  virtualFile.getLength(),
+                                  virtualFile::getContent);
             }
-            zipOutputStream.closeEntry();
-        } catch (ForbiddenException e) {
-            throw new ServerException(e.getServiceError());
         } catch (IOException e) {
+            if (e.getCause() instanceof ForbiddenException) {
+                throw new ServerException(((ForbiddenException)e.getCause()).getServiceError());
+            }
             throw new ServerException(e.getMessage(), e);
         }
     }
@@ -87,8 +93,10 @@ public class ZipArchiver extends Archiver {
     @Override
     public void extract(InputStream zipInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
-        try (ZipInputStream zip = new ZipInputStream(ZipContent.of(zipInput).getContent())) {
-            InputStream notClosableInputStream = new NotClosableInputStream(zip);
+        final CountingInputStream compressedDataCounter = new CountingInputStream(readAhead(zipInput));
+        try (ZipInputStream zip = new ZipInputStream(compressedDataCounter)) {
+            InputStream notClosableInputStream =
+                    new NotClosableInputStream(ZipContent.checkingCompressionRatio(zip, compressedDataCounter));
             ZipEntry zipEntry;
             while ((zipEntry = zip.getNextEntry()) != null) {
                 VirtualFile extractFolder = folder;
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import java.util.Objects;
+
+/**
+ * Hash sum of content of file together with length and last modification time of file at the moment when hash sum was counted.
+ * Hash sum is valid while length and modification time of file are unchanged.
+ *
+ * @author andrew00x
+ */
+public class FileHashSum {
+    private final long   length;
+    private final long   lastModified;
+    private final String hash;
+
+    public FileHashSum(long length, long lastModified, String hash) {
+        this.length = length;
+        this.lastModified = lastModified;
+        this.hash = hash;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /** Hash sum represented as HEX string. */
+    public String getHash() {
+        return hash;
+    }
+
+    /** Checks whether this hash sum is still valid for file with specified length and modification time. */
+    public boolean isValidFor(long length, long lastModified) {
+        return this.length == length && this.lastModified == lastModified;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FileHashSum)) {
+            return false;
+        }
+        FileHashSum other = (FileHashSum)o;
+        return length == other.length && lastModified == other.lastModified && hash.equals(other.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(length, lastModified, hash);
+    }
+
+    @Override
+    public String toString() {
+        return "FileHashSum{" +
+               "length=" + length +
+               ", lastModified=" + lastModified +
+               ", hash='" + hash + '\'' +
+               '}';
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
+
+/**
+ * Serializer for hash sums of files of single folder. Hash sums are mapped to names of files.
+ *
+ * @author andrew00x
+ * @see FileHashSum
+ */
+public class FileHashSumsSerializer implements DataSerializer<Map<String, FileHashSum>> {
+    @Override
+    public void write(DataOutput output, Map<String, FileHashSum> hashSums) throws IOException {
+        output.writeInt(hashSums.size());
+        for (Map.Entry<String, FileHashSum> entry : hashSums.entrySet()) {
+            final FileHashSum hashSum = entry.getValue();
+            output.writeUTF(entry.getKey());
+            output.writeLong(hashSum.getLength());
+            output.writeLong(hashSum.getLastModified());
+            output.writeUTF(hashSum.getHash());
+        }
+    }
+
+    @Override
+    public Map<String, FileHashSum> read(DataInput input) throws IOException {
+        final int recordsNum = input.readInt();
+        final Map<String, FileHashSum> hashSums = newHashMapWithExpectedSize(recordsNum);
+        for (int i = 0; i < recordsNum; i++) {
+            final String name = input.readUTF();
+            final long length = input.readLong();
+            final long lastModified = input.readLong();
+            final String hash = input.readUTF();
+            hashSums.put(name, new FileHashSum(length, lastModified, hash));
+        }
+        return hashSums;
+    }
+}
@@ -25,6 +25,8 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
@@ -33,11 +35,13 @@ import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -45,32 +49,72 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
-import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.google.common.collect.Sets.newHashSet;
 import static java.nio.file.FileVisitResult.CONTINUE;
-import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.vfs.impl.file.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.vfs.impl.file.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.vfs.impl.file.FileWatcherEventType.MODIFIED;
 
+/**
+ * Watches file tree and notifies {@link FileWatcherNotificationHandler} about created, modified and deleted files and directories.
+ * <p>
+ * Native events are used to find out which paths are changed. Changes of each path are debounced: path is checked once it isn't
+ * changed during {@link #DEBOUNCE_MS}, or after {@link #MAX_DELAY_MS} if it is changed all the time. Check compares current state of
+ * path with the last known one, so series of changes is collapsed to net result, e.g. file that is created, modified and deleted
+ * within the same window doesn't produce any notification.
+ * <p>
+ * When directory is deleted, notification is sent for the directory itself and for every known entry of its subtree, each entry
+ * is reported once and each directory is reported before its entries. Notifications about entries of deleted directory are sent
+ * even if native watch service reports only deletion of the directory itself.
+ * <p>
+ * Number of paths with pending changes is bounded. When limit is reached or watch service reports overflow changes are collapsed to
+ * rescan of their directories. Directories that can't be registered in watch service, e.g. because limit of native watches is
+ * reached, are scanned periodically and changes are detected by last modification time of their entries.
+ * <p>
+ * Known state of directories is bounded too. When number of known entries reaches {@link #MAX_TRACKED_ITEMS} entries of
+ * directories that are watched after that are not tracked. Changes of such entries are reported by kind of the first native event
+ * of debounce window, e.g. path that is created and then modified is reported as created, and path that is created and then
+ * removed isn't reported. Overflow of events of not tracked directory is reported only for its new sub-directories.
+ */
 @Singleton
 public class FileTreeWatcher {
     private static final Logger LOG = LoggerFactory.getLogger(FileTreeWatcher.class);
 
-    private static final long EVENT_PROCESS_TIMEOUT_SEC = 2;
+    /** Path is checked when it isn't changed during this time. */
+    private static final long DEBOUNCE_MS         = 500;
+    /** Max delay of notification about path that is changed continuously. */
+    private static final long MAX_DELAY_MS        = 3000;
+    /** Period of scanning of directories that are not registered in watch service. */
+    private static final long POLLING_PERIOD_MS   = 5000;
+    /** Max number of paths with pending changes, when limit is reached changes of new paths are collapsed to rescan of directory. */
+    private static final int  MAX_PENDING_CHANGES = 10000;
+    /** Max number of tracked entries of directories, about 100 bytes of memory per entry. */
+    private static final int  MAX_TRACKED_ITEMS   = 500000;
 
     private final File                           watchRoot;
     private final Path                           watchRootPath;
     private final Map<Path, WatchedDirectory>    watchedDirectories;
+    private final Map<Path, PendingChange>       pendingChanges;
+    private final Map<Path, PendingChange>       pendingRescans;
     private final List<PathMatcher>              excludePatterns;
     private final FileWatcherNotificationHandler fileWatcherNotificationHandler;
     private final ExecutorService                executor;
     private final AtomicBoolean                  running;
+    private final int                            maxNativeWatches;
+    private final int                            maxTrackedItems;
+    private       int                            nativeWatches;
+    private       boolean                        nativeWatchesExhausted;
+    private       int                            trackedItems;
+    private       boolean                        trackedItemsExhausted;
+    private       long                           lastPollingTime;
     private       WatchService                   watchService;
     private       WatchEvent.Modifier[]          watchEventModifiers;
 
@@ -78,16 +122,41 @@ public class FileTreeWatcher {
     public FileTreeWatcher(@Named("che.user.workspaces.storage") File watchRoot,
                            @Named("vfs.index_filter_matcher") Set<PathMatcher> excludePatterns,
                            FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this(watchRoot, excludePatterns, fileWatcherNotificationHandler, Integer.MAX_VALUE);
+    }
+
+    FileTreeWatcher(File watchRoot,
+                    Set<PathMatcher> excludePatterns,
+                    FileWatcherNotificationHandler fileWatcherNotificationHandler,
+                    int maxNativeWatches) {
+        this(watchRoot, excludePatterns, fileWatcherNotificationHandler, maxNativeWatches, MAX_TRACKED_ITEMS);
+    }
+
+    /**
+     * @param maxNativeWatches
+     *         max number of directories that are registered in watch service, other directories are scanned periodically
+     * @param maxTrackedItems
+     *         max number of entries of directories which state is kept, entries of other directories are not tracked
+     */
+    FileTreeWatcher(File watchRoot,
+                    Set<PathMatcher> excludePatterns,
+                    FileWatcherNotificationHandler fileWatcherNotificationHandler,
+                    int maxNativeWatches,
+                    int maxTrackedItems) {
         watchEventModifiers = new WatchEvent.Modifier[0];
         this.watchRoot = toCanonicalFile(watchRoot);
         this.watchRootPath = this.watchRoot.toPath();
-        this.excludePatterns = newArrayList(excludePatterns);
+        this.excludePatterns = new CopyOnWriteArrayList<>(excludePatterns);
         this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.maxNativeWatches = maxNativeWatches;
+        this.maxTrackedItems = maxTrackedItems;
 
         ThreadFactory threadFactory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("FileTreeWatcher-%d").build();
         executor = Executors.newSingleThreadExecutor(threadFactory);
         running = new AtomicBoolean();
         watchedDirectories = newHashMap();
+        pendingChanges = new LinkedHashMap<>();
+        pendingRescans = new LinkedHashMap<>();
     }
 
     private static File toCanonicalFile(File file) {
@@ -104,7 +173,8 @@ public class FileTreeWatcher {
             watchEventModifiers = new WatchEvent.Modifier[]{createSensitivityWatchEventModifier()};
         }
         running.set(true);
-        walkTreeAndSetupWatches(watchRootPath);
+        walkTreeAndSetupWatches(watchRootPath, false);
+        lastPollingTime = System.currentTimeMillis();
         executor.execute(new WatchEventTask());
         fileWatcherNotificationHandler.started(watchRoot);
     }
@@ -126,11 +196,21 @@ public class FileTreeWatcher {
 
     public void shutdown() {
         boolean interrupted = false;
+        running.set(false);
+        try {
+            // Wakes up thread that is waiting for events
+            watchService.close();
+        } catch (IOException e) {
+            LOG.warn(e.getMessage());
+        }
         executor.shutdown();
+        boolean terminated = false;
         try {
-            if (!executor.awaitTermination(3, SECONDS)) {
+            terminated = executor.awaitTermination(3, SECONDS);
+            if (!terminated) {
                 executor.shutdownNow();
-                if (!executor.awaitTermination(3, SECONDS)) {
+                terminated = executor.awaitTermination(3, SECONDS);
+                if (!terminated) {
                     LOG.warn("Unable terminate Executor");
                 }
             }
@@ -139,16 +219,12 @@ public class FileTreeWatcher {
             executor.shutdownNow();
         }
 
-        try {
-            walkTreeAndRemoveWatches(watchRootPath);
-        } catch (IOException e) {
-            LOG.warn(e.getMessage());
-        }
-
-        try {
-            watchService.close();
-        } catch (IOException e) {
-            LOG.warn(e.getMessage());
+        if (terminated) {
+            // State is accessed by thread of executor only, so it may be cleared when thread is stopped
+            watchedDirectories.clear();
+            pendingChanges.clear();
+            pendingRescans.clear();
+            trackedItems = 0;
         }
 
         if (interrupted) {
@@ -164,16 +240,56 @@ public class FileTreeWatcher {
         this.excludePatterns.remove(exclude);
     }
 
-    private void walkTreeAndSetupWatches(Path root) throws IOException {
+    /**
+     * Registers all directories of tree in watch service. Directory is registered before reading its entries, so entry that is created
+     * after reading isn't missed.
+     *
+     * @param fireCreatedEvents
+     *         if {@code true} then notify about every entry of tree, except root of tree
+     */
+    private void walkTreeAndSetupWatches(Path root, boolean fireCreatedEvents) throws IOException {
         Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                Path relativePath = watchRootPath.relativize(dir);
-                if (shouldNotify(relativePath)) {
-                    setupDirectoryWatcher(dir);
+                if (shouldNotify(watchRootPath.relativize(dir)) && !watchedDirectories.containsKey(dir)) {
+                    final WatchedDirectory watchedDirectory;
+                    try {
+                        watchedDirectory = setupDirectoryWatcher(dir);
+                    } catch (NoSuchFileException | NotDirectoryException e) {
+                        // Directory is removed or replaced while walking the tree, event about it is processed separately
+                        return SKIP_SUBTREE;
+                    }
+                    if (watchedDirectory == null) {
+                        // Neither native watches nor tracked entries are available, sub-directories can't be watched as well
+                        return SKIP_SUBTREE;
+                    }
+                    if (fireCreatedEvents) {
+                        if (watchedDirectory.isTracked()) {
+                            for (DirectoryItem item : watchedDirectory.getItems()) {
+                                fireWatchEvent(CREATED, dir.resolve(item.getName()), item.isDirectory());
+                            }
+                        } else {
+                            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                                for (Path entry : entries) {
+                                    final BasicFileAttributes entryAttrs = readAttributes(entry);
+                                    if (entryAttrs != null) {
+                                        fireWatchEvent(CREATED, entry, entryAttrs.isDirectory());
+                                    }
+                                }
+                            } catch (NoSuchFileException | NotDirectoryException e) {
+                                return SKIP_SUBTREE;
+                            }
+                        }
+                    }
                 }
                 return CONTINUE;
             }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                // File might be removed while walking the tree
+                return CONTINUE;
+            }
         });
     }
 
@@ -186,78 +302,113 @@ public class FileTreeWatcher {
         return true;
     }
 
-    private void walkTreeAndRemoveWatches(Path root) throws IOException {
-        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                cancelDirectoryWatcher(dir);
-                return CONTINUE;
+    /**
+     * Returns state of newly watched directory or {@code null} if directory can't be watched, i.e. it can't be registered in watch
+     * service and its entries can't be tracked for periodical scanning.
+     */
+    private WatchedDirectory setupDirectoryWatcher(Path directory) throws IOException {
+        final WatchKey watchKey = registerDirectory(directory);
+        final boolean tracked = trackedItems < maxTrackedItems;
+        if (!tracked && !trackedItemsExhausted) {
+            trackedItemsExhausted = true;
+            LOG.warn("Number of tracked files reached {}, changes of files of directory {} and directories that are watched after it " +
+                     "are reported without comparing with previous state of files", maxTrackedItems, directory);
+        }
+        if (watchKey == null && !tracked) {
+            LOG.warn("Unable watch directory {}, neither native watches nor tracked files are available", directory);
+            return null;
+        }
+        final WatchedDirectory watchedDirectory = new WatchedDirectory(directory, watchKey, tracked);
+        if (tracked) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    final BasicFileAttributes attrs = readAttributes(entry);
+                    if (attrs != null) {
+                        addItem(watchedDirectory, new DirectoryItem(entry.getFileName().toString(),
+                                                                    attrs.isDirectory(),
+                                                                    attrs.lastModifiedTime().toMillis()));
+                    }
+                }
+            } catch (IOException e) {
+                cancel(watchedDirectory);
+                throw e;
             }
-        });
+        }
+        watchedDirectories.put(directory, watchedDirectory);
+        return watchedDirectory;
     }
 
-    private void walkTreeAndFireCreatedEvents(Path root) throws IOException {
-        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                if (!dir.equals(root)) {
-                    fireWatchEvent(CREATED, dir, true);
-                }
-                return CONTINUE;
-            }
+    private void addItem(WatchedDirectory directory, DirectoryItem item) {
+        if (directory.addItem(item)) {
+            trackedItems++;
+        }
+    }
 
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                fireWatchEvent(CREATED, file, false);
-                return CONTINUE;
-            }
-        });
+    private void removeItem(WatchedDirectory directory, String name) {
+        if (directory.removeItem(name)) {
+            trackedItems--;
+        }
     }
 
-    private void setupDirectoryWatcher(Path directory) throws IOException {
-        if (watchedDirectories.get(directory) == null) {
-            WatchKey watchKey = directory.register(watchService,
-                                                   new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
-                                                   watchEventModifiers);
-            WatchedDirectory watchedDirectory = new WatchedDirectory(directory, watchKey);
-            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
-                for (Path entry : entries) {
-                    watchedDirectory
-                            .addItem(new DirectoryItem(entry.getFileName(), Files.isDirectory(entry), getLastModifiedInMillis(entry)));
+    private void cancel(WatchedDirectory watchedDirectory) {
+        trackedItems -= watchedDirectory.getItems().size();
+        if (watchedDirectory.cancel()) {
+            nativeWatches--;
+        }
+    }
+
+    /** Registers directory in watch service. Returns {@code null} if directory can't be registered and should be scanned periodically. */
+    private WatchKey registerDirectory(Path directory) throws IOException {
+        if (nativeWatches < maxNativeWatches) {
+            try {
+                final WatchKey watchKey = directory.register(watchService,
+                                                             new WatchEvent.Kind[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY, OVERFLOW},
+                                                             watchEventModifiers);
+                nativeWatches++;
+                return watchKey;
+            } catch (NoSuchFileException | NotDirectoryException e) {
+                throw e;
+            } catch (IOException e) {
+                // Most likely limit of watches of kernel is reached, e.g. fs.inotify.max_user_watches on Linux
+                if (!nativeWatchesExhausted) {
+                    LOG.warn("Unable watch directory {}, directories that are not watched are scanned periodically. {}",
+                             directory, e.getMessage());
                 }
             }
-            watchedDirectories.put(directory, watchedDirectory);
         }
+        nativeWatchesExhausted = true;
+        return null;
     }
 
-    private void cancelDirectoryWatcher(Path path) {
-        WatchedDirectory watchedDirectory = watchedDirectories.remove(path);
+    private void cancelDirectoryWatcher(Path directory) {
+        final WatchedDirectory watchedDirectory = watchedDirectories.remove(directory);
         if (watchedDirectory != null) {
-            watchedDirectory.getWatchKey().cancel();
+            cancel(watchedDirectory);
         }
     }
 
     private class WatchEventTask implements Runnable {
-        final Set<PendingEvent> pendingEvents = newLinkedHashSet();
-
         @Override
         public void run() {
             while (running.get()) {
                 try {
                     WatchKey watchKey;
-                    if (pendingEvents.isEmpty()) {
+                    if (pendingChanges.isEmpty() && pendingRescans.isEmpty() && !nativeWatchesExhausted) {
                         watchKey = watchService.take();
                     } else {
-                        watchKey = watchService.poll(EVENT_PROCESS_TIMEOUT_SEC, SECONDS);
-                        if (watchKey == null) {
-                            processPendingEvents(pendingEvents);
-                            pendingEvents.clear();
-                        }
+                        watchKey = watchService.poll(DEBOUNCE_MS / 4, MILLISECONDS);
+                    }
+                    long now = System.currentTimeMillis();
+                    // Drain all available keys before processing of changes
+                    while (watchKey != null) {
+                        collectEvents(watchKey, now);
+                        watchKey = watchService.poll();
                     }
-                    if (watchKey != null) {
-                        pendingEvents.add(new PendingEvent((Path)watchKey.watchable()));
-                        watchKey.pollEvents();
-                        watchKey.reset();
+                    now = System.currentTimeMillis();
+                    processPendingChanges(now);
+                    if (nativeWatchesExhausted && now - lastPollingTime >= POLLING_PERIOD_MS) {
+                        scanNotWatchedDirectories();
+                        lastPollingTime = now;
                     }
                 } catch (InterruptedException | ClosedWatchServiceException e) {
                     running.set(false);
@@ -269,149 +420,301 @@ public class FileTreeWatcher {
         }
     }
 
-    private void processPendingEvents(Collection<PendingEvent> pendingEvents) throws IOException {
-        for (PendingEvent pendingEvent : pendingEvents) {
-            Path eventDirectoryPath = pendingEvent.getPath();
-            WatchedDirectory watchedDirectory = watchedDirectories.get(eventDirectoryPath);
-            if (Files.exists(eventDirectoryPath)) {
-                final int hitCounter = watchedDirectory.incrementHitCounter();
-                try (DirectoryStream<Path> entries = Files.newDirectoryStream(eventDirectoryPath)) {
-                    for (Path fsItem : entries) {
-                        DirectoryItem directoryItem = watchedDirectory.getItem(fsItem.getFileName());
-                        if (directoryItem == null) {
-                            try {
-                                boolean directory = Files.isDirectory(fsItem);
-                                directoryItem = new DirectoryItem(fsItem.getFileName(), directory, getLastModifiedInMillis(fsItem));
-                                watchedDirectory.addItem(directoryItem);
-                                fireWatchEvent(CREATED, fsItem, directoryItem.isDirectory());
-                                if (directory) {
-                                    walkTreeAndFireCreatedEvents(fsItem);
-                                    setupDirectoryWatcher(fsItem);
-                                }
-                            } catch (IOException ignored) {
-                            }
-                        } else {
-                            long lastModified;
-                            try {
-                                lastModified = getLastModifiedInMillis(fsItem);
-                            } catch (IOException ignored) {
-                                continue;
-                            }
-                            if (lastModified != directoryItem.getLastModified() && Files.isRegularFile(fsItem)) {
-                                fireWatchEvent(MODIFIED, fsItem, false);
-                            }
-                            directoryItem.touch(lastModified);
-                            directoryItem.updateHitCounter(hitCounter);
-                        }
-                    }
+    private void collectEvents(WatchKey watchKey, long now) {
+        final Path directory = (Path)watchKey.watchable();
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                addPendingRescan(directory, now);
+            } else {
+                addPendingChange(directory.resolve((Path)event.context()), event.kind(), now);
+            }
+        }
+        if (!watchKey.reset()) {
+            // Directory is removed or isn't accessible anymore
+            addPendingChange(directory, ENTRY_DELETE, now);
+        }
+    }
+
+    private void addPendingChange(Path path, WatchEvent.Kind<?> kind, long now) {
+        final PendingChange pendingChange = pendingChanges.get(path);
+        if (pendingChange != null) {
+            pendingChange.touch(now);
+        } else if (pendingChanges.size() < MAX_PENDING_CHANGES) {
+            pendingChanges.put(path, new PendingChange(kind, now));
+        } else {
+            addPendingRescan(path.getParent(), now);
+        }
+    }
+
+    private void addPendingRescan(Path directory, long now) {
+        final PendingChange pendingRescan = pendingRescans.get(directory);
+        if (pendingRescan == null) {
+            pendingRescans.put(directory, new PendingChange(OVERFLOW, now));
+        } else {
+            pendingRescan.touch(now);
+        }
+    }
+
+    private void processPendingChanges(long now) throws IOException {
+        for (Map.Entry<Path, PendingChange> rescan : removeReady(pendingRescans, now)) {
+            rescanDirectory(rescan.getKey());
+        }
+        for (Map.Entry<Path, PendingChange> change : removeReady(pendingChanges, now)) {
+            processChange(change.getKey(), change.getValue().firstEventKind);
+        }
+    }
+
+    private List<Map.Entry<Path, PendingChange>> removeReady(Map<Path, PendingChange> pending, long now) {
+        final List<Map.Entry<Path, PendingChange>> ready = newArrayList();
+        for (Iterator<Map.Entry<Path, PendingChange>> iterator = pending.entrySet().iterator(); iterator.hasNext(); ) {
+            final Map.Entry<Path, PendingChange> entry = iterator.next();
+            if (entry.getValue().isReady(now)) {
+                ready.add(entry);
+                iterator.remove();
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * Compares current state of path with the last known state and notifies about difference.
+     *
+     * @param eventKind
+     *         kind of the first native event about path or {@code null} if there is no such event, e.g. when directory is
+     *         rescanned. It is used when parent directory isn't tracked
+     */
+    private void processChange(Path path, WatchEvent.Kind<?> eventKind) throws IOException {
+        final Path parent = path.getParent();
+        final WatchedDirectory parentDirectory = parent == null ? null : watchedDirectories.get(parent);
+        if (parentDirectory != null && !parentDirectory.isTracked()) {
+            processNotTrackedChange(path, eventKind);
+            return;
+        }
+        final String name = path.getFileName() == null ? null : path.getFileName().toString();
+        final DirectoryItem item = parentDirectory == null ? null : parentDirectory.getItem(name);
+        final BasicFileAttributes attrs = readAttributes(path);
+        if (item == null) {
+            if (attrs == null) {
+                // Created and removed within the same window or directory which parent isn't watched is removed
+                cancelWatchesAndFireDeletedEvents(path);
+            } else if (parentDirectory != null) {
+                addItem(parentDirectory, new DirectoryItem(name, attrs.isDirectory(), attrs.lastModifiedTime().toMillis()));
+                fireWatchEvent(CREATED, path, attrs.isDirectory());
+                if (attrs.isDirectory()) {
+                    walkTreeAndSetupWatches(path, true);
                 }
+            }
+        } else if (attrs == null || attrs.isDirectory() != item.isDirectory()) {
+            removeItem(parentDirectory, name);
+            fireWatchEvent(DELETED, path, item.isDirectory());
+            if (item.isDirectory()) {
+                cancelWatchesAndFireDeletedEvents(path);
+            }
+            if (attrs != null) {
+                // Replaced with item of other type
+                processChange(path, eventKind);
+            }
+        } else {
+            final long lastModified = attrs.lastModifiedTime().toMillis();
+            if (lastModified != item.getLastModified() && attrs.isRegularFile()) {
+                fireWatchEvent(MODIFIED, path, false);
+            }
+            item.touch(lastModified);
+        }
+    }
 
-                for (Iterator<DirectoryItem> iterator = watchedDirectory.getItems().iterator(); iterator.hasNext(); ) {
-                    DirectoryItem directoryItem = iterator.next();
-                    if (hitCounter != directoryItem.getHitCount()) {
-                        iterator.remove();
-                        fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
+    /** Notifies about change of entry of directory which entries are not tracked, by kind of the first native event. */
+    private void processNotTrackedChange(Path path, WatchEvent.Kind<?> eventKind) throws IOException {
+        final BasicFileAttributes attrs = readAttributes(path);
+        final boolean watchedDirectory = watchedDirectories.containsKey(path);
+        if (attrs == null) {
+            if (eventKind != ENTRY_CREATE || watchedDirectory) {
+                fireWatchEvent(DELETED, path, watchedDirectory);
+                cancelWatchesAndFireDeletedEvents(path);
+            }
+        } else if (eventKind == ENTRY_DELETE) {
+            // Removed and created again
+            fireWatchEvent(DELETED, path, watchedDirectory);
+            cancelWatchesAndFireDeletedEvents(path);
+            fireCreatedEventAndSetupWatches(path, attrs);
+        } else if ((eventKind == ENTRY_CREATE || attrs.isDirectory()) && !watchedDirectory) {
+            // Directory that is already watched is reported when its parent is set up
+            fireCreatedEventAndSetupWatches(path, attrs);
+        } else if (eventKind == ENTRY_MODIFY && attrs.isRegularFile()) {
+            fireWatchEvent(MODIFIED, path, false);
+        }
+    }
+
+    private void fireCreatedEventAndSetupWatches(Path path, BasicFileAttributes attrs) throws IOException {
+        fireWatchEvent(CREATED, path, attrs.isDirectory());
+        if (attrs.isDirectory()) {
+            walkTreeAndSetupWatches(path, true);
+        }
+    }
+
+    /** Stops watching of removed directory and its sub-directories and notifies about removing of all their known entries. */
+    private void cancelWatchesAndFireDeletedEvents(Path directory) {
+        final WatchedDirectory watchedDirectory = watchedDirectories.get(directory);
+        if (watchedDirectory != null) {
+            cancelDirectoryWatcher(directory);
+            for (DirectoryItem item : watchedDirectory.getItems()) {
+                final Path itemPath = directory.resolve(item.getName());
+                fireWatchEvent(DELETED, itemPath, item.isDirectory());
+                if (item.isDirectory()) {
+                    cancelWatchesAndFireDeletedEvents(itemPath);
+                }
+            }
+            if (!watchedDirectory.isTracked()) {
+                // Only watched sub-directories of not tracked directory are known
+                final List<Path> subDirectories = newArrayList();
+                for (Path watched : watchedDirectories.keySet()) {
+                    if (directory.equals(watched.getParent())) {
+                        subDirectories.add(watched);
                     }
                 }
-            } else {
-                for (DirectoryItem directoryItem : watchedDirectory.getItems()) {
-                    fireWatchEvent(DELETED, eventDirectoryPath.resolve(directoryItem.getName()), directoryItem.isDirectory());
+                for (Path subDirectory : subDirectories) {
+                    fireWatchEvent(DELETED, subDirectory, true);
+                    cancelWatchesAndFireDeletedEvents(subDirectory);
                 }
-                watchedDirectories.remove(eventDirectoryPath);
             }
         }
     }
 
-    private void fireWatchEvent(FileWatcherEventType eventType, Path eventPath, boolean isDirectory) {
-        Path relativePath = watchRootPath.relativize(eventPath);
-        if (shouldNotify(relativePath)) {
-            fileWatcherNotificationHandler.handleFileWatcherEvent(eventType, watchRoot, relativePath.toString(), isDirectory);
+    /** Checks every known and existed entry of directory. Used when separate events are lost or not available. */
+    private void rescanDirectory(Path directory) throws IOException {
+        final WatchedDirectory watchedDirectory = watchedDirectories.get(directory);
+        if (watchedDirectory == null) {
+            processChange(directory, null);
+            return;
+        }
+        final Set<String> names = watchedDirectory.getItemNames();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                names.add(entry.getFileName().toString());
+            }
+        } catch (NoSuchFileException e) {
+            processChange(directory, null);
+            return;
+        }
+        for (String name : names) {
+            processChange(directory.resolve(name), null);
         }
     }
 
-    private long getLastModifiedInMillis(Path path) throws IOException {
-        return getLastModifiedTime(path, NOFOLLOW_LINKS).toMillis();
+    private void scanNotWatchedDirectories() throws IOException {
+        final List<Path> notWatched = newArrayList();
+        for (WatchedDirectory watchedDirectory : watchedDirectories.values()) {
+            if (!watchedDirectory.isWatchedNatively() && watchedDirectory.isTracked()) {
+                notWatched.add(watchedDirectory.getPath());
+            }
+        }
+        for (Path directory : notWatched) {
+            rescanDirectory(directory);
+        }
     }
 
-    static class PendingEvent {
-        final Path path;
+    private BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
-        PendingEvent(Path path) {
-            this.path = path;
+    private void fireWatchEvent(FileWatcherEventType eventType, Path eventPath, boolean isDirectory) {
+        Path relativePath = watchRootPath.relativize(eventPath);
+        if (shouldNotify(relativePath)) {
+            fileWatcherNotificationHandler.handleFileWatcherEvent(eventType, watchRoot, relativePath.toString(), isDirectory);
         }
+    }
 
-        Path getPath() {
-            return path;
+    static class PendingChange {
+        final WatchEvent.Kind<?> firstEventKind;
+        final long               firstEventTime;
+        long lastEventTime;
+
+        PendingChange(WatchEvent.Kind<?> eventKind, long eventTime) {
+            this.firstEventKind = eventKind;
+            this.firstEventTime = eventTime;
+            this.lastEventTime = eventTime;
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o instanceof PendingEvent) {
-                PendingEvent other = (PendingEvent)o;
-                return Objects.equals(path, other.path);
-            }
-            return false;
+        void touch(long eventTime) {
+            this.lastEventTime = eventTime;
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hashCode(path);
+        boolean isReady(long now) {
+            return now - lastEventTime >= DEBOUNCE_MS || now - firstEventTime >= MAX_DELAY_MS;
         }
     }
 
     static class WatchedDirectory {
-        final Path                path;
-        final WatchKey            watchKey;
-        final List<DirectoryItem> items;
-        int hitCounter;
-
-        WatchedDirectory(Path path, WatchKey watchKey) {
+        final Path                       path;
+        final WatchKey                   watchKey;
+        final Map<String, DirectoryItem> items;
+
+        /**
+         * @param tracked
+         *         if {@code false} then entries of directory are not kept
+         */
+        WatchedDirectory(Path path, WatchKey watchKey, boolean tracked) {
             this.path = path;
             this.watchKey = watchKey;
-            items = newArrayList();
+            items = tracked ? newHashMap() : null;
+        }
+
+        /** Returns {@code false} if entries of directory are not kept and their changes can't be compared with previous state. */
+        boolean isTracked() {
+            return items != null;
         }
 
-        WatchKey getWatchKey() {
-            return watchKey;
+        /** Returns {@code false} if directory is scanned periodically instead of being registered in watch service. */
+        boolean isWatchedNatively() {
+            return watchKey != null;
+        }
+
+        /** Cancels registration in watch service. Returns {@code true} if directory was registered. */
+        boolean cancel() {
+            if (watchKey != null) {
+                watchKey.cancel();
+                return true;
+            }
+            return false;
         }
 
         Path getPath() {
             return path;
         }
 
-        DirectoryItem getItem(Path name) {
-            for (DirectoryItem item : items) {
-                if (item.getName().equals(name)) {
-                    return item;
-                }
-            }
-            return null;
+        DirectoryItem getItem(String name) {
+            return items == null ? null : items.get(name);
+        }
+
+        /** Returns {@code true} if item is new. */
+        boolean addItem(DirectoryItem item) {
+            return items.put(item.getName(), item) == null;
         }
 
-        void addItem(DirectoryItem item) {
-            item.updateHitCounter(this.hitCounter);
-            items.add(item);
+        /** Returns {@code true} if item is removed. */
+        boolean removeItem(String name) {
+            return items.remove(name) != null;
         }
 
-        List<DirectoryItem> getItems() {
-            return items;
+        Collection<DirectoryItem> getItems() {
+            return items == null ? Collections.emptyList() : items.values();
         }
 
-        int incrementHitCounter() {
-            return ++hitCounter;
+        Set<String> getItemNames() {
+            return items == null ? newHashSet() : newHashSet(items.keySet());
         }
     }
 
     static class DirectoryItem {
-        final Path    name;
+        final String  name;
         final boolean directory;
         long lastModified;
-        int  hitCounter;
 
-        DirectoryItem(Path name, boolean directory, long lastModified) {
+        DirectoryItem(String name, boolean directory, long lastModified) {
             this.name = name;
             this.directory = directory;
             this.lastModified = lastModified;
@@ -421,7 +724,7 @@ public class FileTreeWatcher {
             return lastModified;
         }
 
-        Path getName() {
+        String getName() {
             return name;
         }
 
@@ -432,13 +735,5 @@ public class FileTreeWatcher {
         void touch(long lastModified) {
             this.lastModified = lastModified;
         }
-
-        int getHitCount() {
-            return hitCounter;
-        }
-
-        void updateHitCounter(int hitCounter) {
-            this.hitCounter = hitCounter;
-        }
     }
 }
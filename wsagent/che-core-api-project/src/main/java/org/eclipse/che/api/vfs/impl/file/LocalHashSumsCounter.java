@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.commons.lang.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.hash.Funnels.asOutputStream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.emptyMap;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Counts hash sums of files of {@link LocalVirtualFileSystem}. Hash sums of files of each folder are stored in one file, together
+ * with length and modification time of each file. Files of all folders are kept in single directory for hash sums inside the
+ * service directory of root of file system, name of file is hash of path of folder. Stored hash sum is reused while length and
+ * modification time of file are unchanged, so repeated counting over unchanged tree doesn't read content of files at all. Hash
+ * sums of new and modified files are counted in parallel. Symbolic links to folders are not followed.
+ *
+ * @author andrew00x
+ */
+class LocalHashSumsCounter {
+    private static final Logger LOG = LoggerFactory.getLogger(LocalHashSumsCounter.class);
+
+    private final String          vfsServiceDirName;
+    private final File            hashesDir;
+    private final String          hashFunctionName;
+    private final HashFunction    hashFunction;
+    private final PathLockFactory pathLockFactory;
+    private final long            lockTimeout;
+    private final ExecutorService executor;
+
+    private final FileHashSumsSerializer                serializer;
+    /** Recently used hash sums of folders, avoids reading the service files of folders which are counted over and over. */
+    private final Cache<Path, Map<String, FileHashSum>> hashSumsCache;
+
+    /**
+     * @param vfsServiceDirName
+     *         name of service directory of virtual file system, this directory is skipped
+     * @param hashesDir
+     *         directory for hash sums of all folders
+     * @param hashFunctionName
+     *         name of hash function, used as name of file for hash sums, so different functions never share stored hash sums
+     * @param hashFunction
+     *         hash function
+     * @param pathLockFactory
+     *         locks which protect content of file while it is read
+     * @param lockTimeout
+     *         max time in milliseconds to wait for lock of file
+     * @param executor
+     *         executor for counting hash sums
+     */
+    LocalHashSumsCounter(String vfsServiceDirName,
+                         File hashesDir,
+                         String hashFunctionName,
+                         HashFunction hashFunction,
+                         PathLockFactory pathLockFactory,
+                         long lockTimeout,
+                         ExecutorService executor) {
+        this.vfsServiceDirName = vfsServiceDirName;
+        this.hashesDir = hashesDir;
+        this.hashFunctionName = hashFunctionName;
+        this.hashFunction = hashFunction;
+        this.pathLockFactory = pathLockFactory;
+        this.lockTimeout = lockTimeout;
+        this.executor = executor;
+        serializer = new FileHashSumsSerializer();
+        hashSumsCache = CacheBuilder.newBuilder()
+                                    .concurrencyLevel(8)
+                                    .maximumSize(256)
+                                    .expireAfterAccess(10, MINUTES)
+                                    .build();
+    }
+
+    /**
+     * Counts hash sums of all files in folder and its sub-folders. Each {@code Pair} contains following structure:
+     * <pre>
+     *     Pair&lt;String,String&gt; pair = ...
+     *     pair.first // hash-sum of file represented as HEX String
+     *     pair.second // Path of file that is relative to folder
+     * </pre>
+     */
+    List<Pair<String, String>> countHashSums(LocalVirtualFile folder) throws ServerException {
+        final List<FolderHashSums> folders = new ArrayList<>();
+        final List<Future<?>> tasks = new ArrayList<>();
+        try {
+            collect(folder.toIoFile(), folder.getPath(), "", folders, tasks);
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException(e);
+        } catch (ExecutionException e) {
+            throw new ServerException(e.getCause());
+        } finally {
+            for (Future<?> task : tasks) {
+                task.cancel(false);
+            }
+        }
+
+        final List<Pair<String, String>> hashSums = new ArrayList<>();
+        for (FolderHashSums folderHashSums : folders) {
+            final Map<String, FileHashSum> counted = new LinkedHashMap<>();
+            for (Map.Entry<String, FileHashSum> entry : folderHashSums.stored.entrySet()) {
+                counted.put(entry.getKey(), entry.getValue());
+            }
+            for (Map.Entry<String, Future<FileHashSum>> entry : folderHashSums.counting.entrySet()) {
+                counted.put(entry.getKey(), getDone(entry.getValue()));
+            }
+            for (Map.Entry<String, FileHashSum> entry : counted.entrySet()) {
+                hashSums.add(Pair.of(entry.getValue().getHash(), folderHashSums.relativePath + entry.getKey()));
+            }
+            if (!folderHashSums.counting.isEmpty() || folderHashSums.hasOutdated) {
+                storeHashSums(folderHashSums.path, counted);
+            }
+        }
+        return hashSums;
+    }
+
+    private void collect(File ioFolder, Path folderPath, String relativePath, List<FolderHashSums> folders, List<Future<?>> tasks) {
+        final File[] children = ioFolder.listFiles();
+        if (children == null) {
+            return;
+        }
+        final Map<String, FileHashSum> stored = readHashSums(folderPath);
+        final FolderHashSums folderHashSums = new FolderHashSums(folderPath, relativePath);
+        folders.add(folderHashSums);
+        final List<File> subFolders = new ArrayList<>();
+        for (File child : children) {
+            final String name = child.getName();
+            if (child.isDirectory()) {
+                // Don't follow links, link to parent folder makes cycle
+                if (!(vfsServiceDirName.equals(name) || java.nio.file.Files.isSymbolicLink(child.toPath()))) {
+                    subFolders.add(child);
+                }
+            } else if (child.isFile()) {
+                final FileHashSum hashSum = stored.get(name);
+                if (hashSum != null && hashSum.isValidFor(child.length(), child.lastModified())) {
+                    folderHashSums.stored.put(name, hashSum);
+                } else {
+                    final Path filePath = folderPath.newPath(name);
+                    final Future<FileHashSum> task = executor.submit(() -> countHashSum(child, filePath));
+                    folderHashSums.counting.put(name, task);
+                    tasks.add(task);
+                }
+            }
+        }
+        folderHashSums.hasOutdated = folderHashSums.stored.size() < stored.size();
+        for (File subFolder : subFolders) {
+            final String name = subFolder.getName();
+            collect(subFolder, folderPath.newPath(name), relativePath + name + '/', folders, tasks);
+        }
+    }
+
+    private FileHashSum countHashSum(File file, Path path) throws IOException {
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire(lockTimeout);
+        try {
+            final long length = file.length();
+            final long lastModified = file.lastModified();
+            final Hasher hasher = hashFunction.newHasher();
+            try (InputStream in = new FileInputStream(file)) {
+                ByteStreams.copy(in, asOutputStream(hasher));
+            }
+            return new FileHashSum(length, lastModified, hasher.hash().toString());
+        } finally {
+            lock.release();
+        }
+    }
+
+    private Map<String, FileHashSum> readHashSums(Path folderPath) {
+        final Map<String, FileHashSum> cached = hashSumsCache.getIfPresent(folderPath);
+        if (cached != null) {
+            return cached;
+        }
+        final File hashSumsFile = getHashSumsIoFile(folderPath);
+        if (!hashSumsFile.exists()) {
+            return emptyMap();
+        }
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(hashSumsFile)))) {
+            final Map<String, FileHashSum> hashSums = ImmutableMap.copyOf(serializer.read(dis));
+            hashSumsCache.put(folderPath, hashSums);
+            return hashSums;
+        } catch (IOException e) {
+            // Stored hash sums are just optimization, count all hash sums again.
+            LOG.warn("Unable read hash sums from '{}'. {}", hashSumsFile, e.getMessage());
+            return emptyMap();
+        }
+    }
+
+    private void storeHashSums(Path folderPath, Map<String, FileHashSum> hashSums) {
+        final File hashSumsFile = getHashSumsIoFile(folderPath);
+        final File hashSumsDir = hashSumsFile.getParentFile();
+        if (!(hashSumsDir.isDirectory() || hashSumsDir.mkdirs())) {
+            LOG.warn("Unable create directory '{}' for hash sums", hashSumsDir);
+            return;
+        }
+        File tempFile = null;
+        try {
+            // Write to temporary file and then replace existed one, concurrent readers never see partially written file.
+            tempFile = File.createTempFile(hashFunctionName, null, hashSumsDir);
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                serializer.write(dos, hashSums);
+            }
+            java.nio.file.Files.move(tempFile.toPath(), hashSumsFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+            hashSumsCache.put(folderPath, ImmutableMap.copyOf(hashSums));
+        } catch (IOException e) {
+            LOG.warn("Unable store hash sums to '{}'. {}", hashSumsFile, e.getMessage());
+            if (tempFile != null && tempFile.exists() && !tempFile.delete()) {
+                LOG.warn("Unable delete temporary file '{}'", tempFile);
+            }
+        }
+    }
+
+    private File getHashSumsIoFile(Path folderPath) {
+        return new File(new File(hashesDir, hashFunctionName), Hashing.md5().hashString(folderPath.toString(), UTF_8).toString());
+    }
+
+    private static FileHashSum getDone(Future<FileHashSum> task) throws ServerException {
+        try {
+            return task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // Should not happen, all tasks are completed at this point
+            throw new ServerException(e);
+        }
+    }
+
+    private static class FolderHashSums {
+        final Path                             path;
+        final String                           relativePath;
+        final Map<String, FileHashSum>         stored;
+        final Map<String, Future<FileHashSum>> counting;
+        boolean hasOutdated;
+
+        FolderHashSums(Path path, String relativePath) {
+            this.path = path;
+            this.relativePath = relativePath;
+            stored = new LinkedHashMap<>();
+            counting = new LinkedHashMap<>();
+        }
+    }
+}
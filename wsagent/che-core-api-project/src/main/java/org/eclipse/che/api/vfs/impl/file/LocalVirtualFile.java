@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -107,6 +108,21 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.getContent(this);
     }
 
+    /**
+     * Opens channel for reading content of this file. Unlike {@link #getContent()} content is never copied, so channel is preferable
+     * way to transfer content of large files, e.g. with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+     * Caller is responsible for closing channel. Channel is opened while file is not being updated through virtual file system, but
+     * lock of file isn't held while content is read from channel.
+     *
+     * @throws ForbiddenException
+     *         if this item isn't a file
+     * @throws ServerException
+     *         if other error occurs
+     */
+    public FileChannel openContentChannel() throws ForbiddenException, ServerException {
+        return fileSystem.openContentChannel(this);
+    }
+
     @Override
     public byte[] getContentAsBytes() throws ForbiddenException, ServerException {
         if (getLength() > MAX_BUFFER_SIZE) {
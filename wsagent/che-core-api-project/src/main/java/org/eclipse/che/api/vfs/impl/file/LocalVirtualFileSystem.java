@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -25,7 +26,6 @@ import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
-import org.eclipse.che.api.vfs.HashSumsCounter;
 import org.eclipse.che.api.vfs.LockedFileFinder;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.PathLockFactory;
@@ -34,6 +34,7 @@ import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.api.vfs.util.BackgroundInputStream;
 import org.eclipse.che.api.vfs.util.DeleteOnCloseFileInputStream;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
@@ -52,11 +53,17 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
@@ -66,6 +73,7 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
@@ -88,6 +96,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private static final FileLock NO_LOCK                = new FileLock("no_lock", 0);
     private static final String   FILE_PROPERTIES_DIR    = VFS_SERVICE_DIR + File.separatorChar + "props";
     private static final String   PROPERTIES_FILE_SUFFIX = "_props";
+    private static final String   FILE_HASHES_DIR        = VFS_SERVICE_DIR + File.separatorChar + "hashes";
 
     private static final FilenameFilter DOT_VFS_DIR_FILTER = (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
 
@@ -136,6 +145,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private final FileMetadataSerializer                  metadataSerializer;
     private final LoadingCache<Path, Map<String, String>> metadataCache;
 
+    private final ExecutorService      hashSumsExecutor;
+    private final LocalHashSumsCounter md5SumsCounter;
+
     @SuppressWarnings("unchecked")
     public LocalVirtualFileSystem(File ioRoot,
                                   ArchiverFactory archiverFactory,
@@ -162,6 +174,22 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                                     .maximumSize(256)
                                     .expireAfterAccess(10, MINUTES)
                                     .build(new FilePropertiesCacheLoader());
+
+        final int hashSumsThreads = Runtime.getRuntime().availableProcessors();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(hashSumsThreads, hashSumsThreads, 60, SECONDS,
+                                                                   new LinkedBlockingQueue<>(),
+                                                                   new ThreadFactoryBuilder().setNameFormat("LocalVirtualFileSystem-HashSums-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+        executor.allowCoreThreadTimeOut(true);
+        hashSumsExecutor = executor;
+        md5SumsCounter = new LocalHashSumsCounter(VFS_SERVICE_DIR,
+                                                  new File(ioRoot, FILE_HASHES_DIR),
+                                                  "md5",
+                                                  Hashing.md5(),
+                                                  pathLockFactory,
+                                                  WAIT_FOR_FILE_LOCK_TIMEOUT,
+                                                  hashSumsExecutor);
     }
 
     @Override
@@ -177,6 +205,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     @Override
     public void close() throws ServerException {
         cleanUpCaches();
+        hashSumsExecutor.shutdownNow();
         if (searcherProvider != null) {
             Searcher searcher = searcherProvider.getSearcher(this, false);
             if (searcher != null) {
@@ -518,6 +547,24 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    FileChannel openContentChannel(LocalVirtualFile virtualFile) throws ForbiddenException, ServerException {
+        if (virtualFile.isFile()) {
+            final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+            try {
+                return FileChannel.open(virtualFile.toIoFile().toPath(), StandardOpenOption.READ);
+            } catch (IOException e) {
+                String errorMessage = String.format("Unable get content of '%s'", virtualFile.getPath());
+                LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                throw new ServerException(errorMessage);
+            } finally {
+                lock.release();
+            }
+        } else {
+            throw new ForbiddenException(String.format("Unable get content. Item '%s' is not a file", virtualFile.getPath()));
+        }
+    }
+
+
     void updateContent(LocalVirtualFile virtualFile, InputStream content, String lockToken)
             throws ForbiddenException, ServerException {
         if (virtualFile.isFile()) {
@@ -601,7 +648,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ServerException("VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
 
         if (folder.isFolder()) {
-            return compress(archiverFactory.createArchiver(folder, "zip"));
+            return compress(folder, archiverFactory.createArchiver(folder, "zip"));
         } else {
             throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", folder.getPath()));
         }
@@ -627,7 +674,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ServerException("VFS: Could not create tar archiver. Archiver Factory is not properly configured (is null)");
 
         if (folder.isFolder()) {
-            return compress(archiverFactory.createArchiver(folder, "tar"));
+            return compress(folder, archiverFactory.createArchiver(folder, "tar"));
         } else {
             throw new ForbiddenException(String.format("Unable export to tar archive. Item '%s' is not a folder", folder.getPath()));
         }
@@ -646,20 +693,57 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
-    private InputStream compress(Archiver archiver) throws ForbiddenException, ServerException {
+    /**
+     * Archive isn't stored in temporary file but written by background task while returned stream is read, so client starts to
+     * get archive immediately and memory and disk usage don't depend on size of archive. Failure that happens before the first
+     * chunk of archive is produced is thrown from this method, e.g. ForbiddenException is still reported as 403. Failure that
+     * happens later is thrown from the returned stream, so the response is aborted and client doesn't get truncated archive as
+     * complete one. If archiver factory has no free thread archive is written to temporary file in caller thread.
+     */
+    private InputStream compress(LocalVirtualFile folder, Archiver archiver) throws ForbiddenException, ServerException {
+        // Wait for modifications of files in folder that are in progress, so they don't fail archive after it is started.
+        pathLockFactory.getLock(folder.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT).release();
+        final ExecutorService executor = archiverFactory.getExecutor();
+        if (executor != null) {
+            try {
+                return BackgroundInputStream.writtenBy(output -> archiver.compress(output, dotGitFilter()), executor);
+            } catch (RejectedExecutionException ignored) {
+                // All threads are busy, write archive in caller thread
+            } catch (IOException e) {
+                throw toServiceException(e);
+            }
+        }
         File archive = null;
         try {
             archive = File.createTempFile("export", ".arc");
-            try (FileOutputStream fileOut = new FileOutputStream(archive)) {
-                archiver.compress(fileOut, dotGitFilter());
+            try (FileOutputStream archiveOutput = new FileOutputStream(archive)) {
+                archiver.compress(archiveOutput, dotGitFilter());
             }
             return new DeleteOnCloseFileInputStream(archive);
         } catch (IOException e) {
             if (archive != null) {
                 FileCleaner.addFile(archive);
             }
-            throw new ServerException(e.getMessage(), e);
+            throw toServiceException(e);
+        } catch (ServerException e) {
+            if (archive != null) {
+                FileCleaner.addFile(archive);
+            }
+            throw e;
+        }
+    }
+
+    /** Rethrows ForbiddenException or ServerException which is the cause of failure of archiver, other failures become ServerException. */
+    private ServerException toServiceException(IOException e) throws ForbiddenException {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ForbiddenException) {
+                throw (ForbiddenException)cause;
+            }
+            if (cause instanceof ServerException) {
+                return (ServerException)cause;
+            }
         }
+        return new ServerException(e.getMessage(), e);
     }
 
     private void extract(Archiver archiver, InputStream compressed, boolean overwrite, int stripNumber)
@@ -908,7 +992,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         if (virtualFile.isFile()) {
             return emptyList();
         }
-        return new HashSumsCounter(virtualFile, Hashing.md5()).countHashSums();
+        return md5SumsCounter.countHashSums(virtualFile);
     }
 
 
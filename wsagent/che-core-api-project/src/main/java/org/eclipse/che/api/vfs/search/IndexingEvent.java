@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+
+/**
+ * Published by Searcher to report progress of initial indexing of virtual filesystem.
+ *
+ * @author andrew00x
+ */
+@EventOrigin("search")
+public class IndexingEvent {
+
+    public enum EventType {
+        /** Initial indexing is started. */
+        STARTED("started"),
+        /** Indexing of one of subtrees, e.g. project, is done. */
+        SUBTREE_INDEXED("subtree_indexed"),
+        /** Initial indexing is done. */
+        FINISHED("finished");
+
+        private final String value;
+
+        EventType(String value) {
+            this.value = value;
+        }
+
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private EventType type;
+    private String    path;
+    private int       completedSubtrees;
+    private int       totalSubtrees;
+    private int       checkedFiles;
+    private int       indexedFiles;
+    private long      elapsedTimeMillis;
+
+    public IndexingEvent(EventType type,
+                         String path,
+                         int completedSubtrees,
+                         int totalSubtrees,
+                         int checkedFiles,
+                         int indexedFiles,
+                         long elapsedTimeMillis) {
+        this.type = type;
+        this.path = path;
+        this.completedSubtrees = completedSubtrees;
+        this.totalSubtrees = totalSubtrees;
+        this.checkedFiles = checkedFiles;
+        this.indexedFiles = indexedFiles;
+        this.elapsedTimeMillis = elapsedTimeMillis;
+    }
+
+    public IndexingEvent() {
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public void setType(EventType type) {
+        this.type = type;
+    }
+
+    /** Path of indexed subtree for {@link EventType#SUBTREE_INDEXED} event and path of root of filesystem for other events. */
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getCompletedSubtrees() {
+        return completedSubtrees;
+    }
+
+    public void setCompletedSubtrees(int completedSubtrees) {
+        this.completedSubtrees = completedSubtrees;
+    }
+
+    public int getTotalSubtrees() {
+        return totalSubtrees;
+    }
+
+    public void setTotalSubtrees(int totalSubtrees) {
+        this.totalSubtrees = totalSubtrees;
+    }
+
+    /** Number of files that were compared with the index. */
+    public int getCheckedFiles() {
+        return checkedFiles;
+    }
+
+    public void setCheckedFiles(int checkedFiles) {
+        this.checkedFiles = checkedFiles;
+    }
+
+    /** Number of files that were added to index or reindexed because they were changed. */
+    public int getIndexedFiles() {
+        return indexedFiles;
+    }
+
+    public void setIndexedFiles(int indexedFiles) {
+        this.indexedFiles = indexedFiles;
+    }
+
+    public long getElapsedTimeMillis() {
+        return elapsedTimeMillis;
+    }
+
+    public void setElapsedTimeMillis(long elapsedTimeMillis) {
+        this.elapsedTimeMillis = elapsedTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexingEvent{" +
+               "type=" + type +
+               ", path='" + path + '\'' +
+               ", completedSubtrees=" + completedSubtrees +
+               ", totalSubtrees=" + totalSubtrees +
+               ", checkedFiles=" + checkedFiles +
+               ", indexedFiles=" + indexedFiles +
+               ", elapsedTimeMillis=" + elapsedTimeMillis +
+               '}';
+    }
+}
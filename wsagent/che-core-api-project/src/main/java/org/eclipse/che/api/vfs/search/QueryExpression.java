@@ -12,11 +12,15 @@ package org.eclipse.che.api.vfs.search;
 
 /** Container for parameters of query that executed by Searcher.*/
 public class QueryExpression {
-    private String name;
-    private String path;
-    private String text;
-    private int    skipCount;
-    private int    maxItems;
+    private String  name;
+    private String  path;
+    private String  text;
+    private String  pattern;
+    private boolean regex;
+    private int     skipCount;
+    private int     maxItems;
+    private String  pageCursor;
+    private boolean includePositions;
 
     /** Optional file path parameter. Only file with the specified path or children are included in result. */
     public String getPath() {
@@ -48,6 +52,30 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Substring or regular expression, if {@link #isRegex()} is {@code true}, that content of file must contain. Unlike {@link #getText()}
+     * pattern isn't split to words, e.g. {@code foo.bar(} finds exactly this sequence of characters. Match is case sensitive and
+     * can't span few lines.
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    public QueryExpression setPattern(String pattern) {
+        this.pattern = pattern;
+        return this;
+    }
+
+    /** If {@code true} then {@link #getPattern()} is regular expression in syntax of {@link java.util.regex.Pattern}. */
+    public boolean isRegex() {
+        return regex;
+    }
+
+    public QueryExpression setRegex(boolean regex) {
+        this.regex = regex;
+        return this;
+    }
+
     /** Number of items in search result that should be skipped. This parameter used for paging through large set of search result. */
     public int getSkipCount() {
         return skipCount;
@@ -68,14 +96,43 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Opaque token returned by previous search with {@link SearchResult#getNextPageCursor()}. If set, search continues right after
+     * the last item of previous page and {@link #getSkipCount()} is ignored. Cost of retrieving page with cursor doesn't depend on
+     * how deep the page is. Pages retrieved with cursor reflect state of index at the moment of the first search. Cursor expires
+     * some time after index is changed, then search fails and must be started from the first page.
+     */
+    public String getPageCursor() {
+        return pageCursor;
+    }
+
+    public QueryExpression setPageCursor(String pageCursor) {
+        this.pageCursor = pageCursor;
+        return this;
+    }
+
+    /** If {@code true} then search result includes occurrences of searched text in matched files. */
+    public boolean isIncludePositions() {
+        return includePositions;
+    }
+
+    public QueryExpression setIncludePositions(boolean includePositions) {
+        this.includePositions = includePositions;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
                "text='" + text + '\'' +
+               ", pattern='" + pattern + '\'' +
+               ", regex=" + regex +
                ", name='" + name + '\'' +
                ", path='" + path + '\'' +
                ", skipCount=" + skipCount +
                ", maxItems=" + maxItems +
+               ", pageCursor='" + pageCursor + '\'' +
+               ", includePositions=" + includePositions +
                '}';
     }
 }
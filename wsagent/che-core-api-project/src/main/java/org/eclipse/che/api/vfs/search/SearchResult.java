@@ -27,15 +27,18 @@ public class SearchResult {
 
     private final List<SearchResultEntry>   results;
     private final Optional<QueryExpression> nextPageQueryExpression;
+    private final Optional<String>          nextPageCursor;
     private final int                       totalHits;
     private final long                      elapsedTimeMillis;
 
     private SearchResult(List<SearchResultEntry> results,
                          Optional<QueryExpression> nextPageQueryExpression,
+                         Optional<String> nextPageCursor,
                          int totalHits,
                          long elapsedTimeMillis) {
         this.results = results;
         this.nextPageQueryExpression = nextPageQueryExpression;
+        this.nextPageCursor = nextPageCursor;
         this.totalHits = totalHits;
         this.elapsedTimeMillis = elapsedTimeMillis;
     }
@@ -60,7 +63,10 @@ public class SearchResult {
         return results;
     }
 
-    /** Total number of files that match the search criteria. */
+    /**
+     * Total number of files that match the search criteria. If query contains {@link QueryExpression#getPattern() pattern} it is
+     * number of candidate files selected by index, i.e. upper bound, since not every candidate is checked for match.
+     */
     public int getTotalHits() {
         return totalHits;
     }
@@ -75,8 +81,14 @@ public class SearchResult {
         return nextPageQueryExpression;
     }
 
+    /** Optional opaque token for retrieving next page, see {@link QueryExpression#setPageCursor(String)}. */
+    public Optional<String> getNextPageCursor() {
+        return nextPageCursor;
+    }
+
     public static class SearchResultBuilder {
         private QueryExpression         nextPageQueryExpression;
+        private String                  nextPageCursor;
         private List<SearchResultEntry> results;
         private int                     totalHits;
         private long                    elapsedTimeMillis;
@@ -89,6 +101,11 @@ public class SearchResult {
             return this;
         }
 
+        public SearchResultBuilder withNextPageCursor(String nextPageCursor) {
+            this.nextPageCursor = nextPageCursor;
+            return this;
+        }
+
         public SearchResultBuilder withResults(List<SearchResultEntry> results) {
             this.results = results;
             return this;
@@ -114,7 +131,8 @@ public class SearchResult {
             if (results == null) {
                 results = emptyList();
             }
-            return new SearchResult(results, optionalPageNexQueryExpression, totalHits, elapsedTimeMillis);
+            return new SearchResult(results, optionalPageNexQueryExpression, Optional.fromNullable(nextPageCursor), totalHits,
+                                    elapsedTimeMillis);
         }
     }
 }
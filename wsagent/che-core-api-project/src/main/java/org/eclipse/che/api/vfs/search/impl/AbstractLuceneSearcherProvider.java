@@ -11,6 +11,8 @@
 package org.eclipse.che.api.vfs.search.impl;
 
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
@@ -20,6 +22,7 @@ import org.eclipse.che.api.vfs.search.SearcherProvider;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.collect.Lists.newArrayList;
@@ -61,6 +64,37 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
         return cachedSearcher;
     }
 
+    /**
+     * Get Searcher for specified VirtualFileSystem. If Searcher is not created yet it is created and initialized with
+     * {@link LuceneSearcher#initInParallel(ForkJoinPool, VirtualFileSystem, List, EventService)}.
+     *
+     * @param virtualFileSystem
+     *         VirtualFileSystem
+     * @param pool
+     *         pool for initial indexing tasks
+     * @param subtrees
+     *         absolute paths of top level subtrees of virtual filesystem that are indexed in separate tasks, e.g. projects
+     * @param eventService
+     *         service for publishing of progress of initial indexing
+     * @return instance of Searcher
+     * @throws ServerException
+     *         if an error occurs
+     */
+    public Searcher getSearcher(VirtualFileSystem virtualFileSystem,
+                                ForkJoinPool pool,
+                                List<Path> subtrees,
+                                EventService eventService) throws ServerException {
+        Searcher cachedSearcher = searcherReference.get();
+        if (cachedSearcher == null) {
+            LuceneSearcher searcher = createLuceneSearcher(() -> searcherReference.set(null));
+            if (searcherReference.compareAndSet(null, searcher)) {
+                searcher.initInParallel(pool, virtualFileSystem, subtrees, eventService);
+            }
+            cachedSearcher = searcherReference.get();
+        }
+        return cachedSearcher;
+    }
+
     @Override
     public Searcher getSearcher(VirtualFileSystem virtualFileSystem) throws ServerException {
         return getSearcher(virtualFileSystem, true);
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.VirtualFile;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Bounded queue of pending index changes. Changes of the same path are coalesced, only the latest change of each path is kept.
+ * Changes are drained in order of their latest occurrence, so applying them one after another gives the same index state
+ * as applying every change that was offered to the queue.
+ *
+ * @author andrew00x
+ */
+class IndexingQueue {
+    enum ChangeType {
+        /** Add file or tree to index or update file that is already indexed. */
+        ADD,
+        /** Delete single file from index. */
+        DELETE_FILE,
+        /** Delete all files under folder from index. */
+        DELETE_TREE
+    }
+
+    static final class Change {
+        private final ChangeType  type;
+        private final String      path;
+        private final VirtualFile virtualFile;
+
+        static Change add(VirtualFile virtualFile) {
+            return new Change(ChangeType.ADD, virtualFile.getPath().toString(), virtualFile);
+        }
+
+        static Change delete(String path, boolean isFile) {
+            return new Change(isFile ? ChangeType.DELETE_FILE : ChangeType.DELETE_TREE, path, null);
+        }
+
+        private Change(ChangeType type, String path, VirtualFile virtualFile) {
+            this.type = type;
+            this.path = path;
+            this.virtualFile = virtualFile;
+        }
+
+        ChangeType getType() {
+            return type;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        /**
+         * Key used for coalescing of changes. Deletion of tree uses separate key, so it is not replaced with change of file that
+         * is created with the same path later.
+         */
+        String getKey() {
+            return type == ChangeType.DELETE_TREE ? path + '/' : path;
+        }
+
+        /** Get file for {@link ChangeType#ADD} change or {@code null} for changes of other types. */
+        VirtualFile getVirtualFile() {
+            return virtualFile;
+        }
+
+        @Override
+        public String toString() {
+            return "Change{" +
+                   "type=" + type +
+                   ", path='" + path + '\'' +
+                   '}';
+        }
+    }
+
+    private final int                           capacity;
+    private final LinkedHashMap<String, Change> pending;
+
+    /**
+     * @param capacity
+     *         max number of pending changes, when queue is full new changes are rejected until queue is drained
+     */
+    IndexingQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        pending = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds change in this queue. If queue already contains change for the same path it is replaced with new one.
+     *
+     * @return {@code true} if change accepted and {@code false} if queue is full
+     */
+    synchronized boolean offer(Change change) {
+        final Change replaced = pending.remove(change.getKey());
+        if (replaced == null && pending.size() >= capacity) {
+            return false;
+        }
+        // Re-insert to move path to the end of queue. That keeps order between delete of tree and changes of its descendants.
+        pending.put(change.getKey(), change);
+        return true;
+    }
+
+    /**
+     * Adds change in this queue. If queue is full waits until changes are drained from it or until timeout expires.
+     *
+     * @return {@code true} if change accepted and {@code false} if queue is still full when timeout expires
+     * @throws InterruptedException
+     *         if thread is interrupted while waiting
+     */
+    synchronized boolean offer(Change change, long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        long timeout = timeoutMillis;
+        while (!offer(change)) {
+            if (timeout <= 0) {
+                return false;
+            }
+            wait(timeout);
+            timeout = deadline - System.currentTimeMillis();
+        }
+        return true;
+    }
+
+    /** Adds change in this queue even if queue is full. */
+    synchronized void put(Change change) {
+        pending.remove(change.getKey());
+        pending.put(change.getKey(), change);
+    }
+
+    /** Removes at most {@code maxChanges} of the oldest changes from this queue. */
+    synchronized List<Change> drain(int maxChanges) {
+        final List<Change> drained = new ArrayList<>(Math.min(maxChanges, pending.size()));
+        for (Iterator<Change> iterator = pending.values().iterator(); iterator.hasNext() && drained.size() < maxChanges; ) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        if (!drained.isEmpty()) {
+            notifyAll();
+        }
+        return drained;
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    synchronized boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    synchronized void clear() {
+        pending.clear();
+        notifyAll();
+    }
+}
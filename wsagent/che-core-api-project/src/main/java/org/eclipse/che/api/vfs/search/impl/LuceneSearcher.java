@@ -10,17 +10,27 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiFields;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -31,22 +41,31 @@ import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherLifetimeManager;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.IOUtils;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.search.IndexingEvent;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.api.vfs.search.impl.IndexingQueue.Change;
+import org.eclipse.che.commons.lang.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,28 +73,126 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.api.vfs.search.IndexingEvent.EventType.FINISHED;
+import static org.eclipse.che.api.vfs.search.IndexingEvent.EventType.STARTED;
+import static org.eclipse.che.api.vfs.search.IndexingEvent.EventType.SUBTREE_INDEXED;
 
 /**
  * Lucene based searcher.
+ * <p>
+ * Changes of files are not applied to index immediately. They are collected in bounded queue where repeated changes of the same
+ * path are coalesced. Pending changes are applied to index in batches by background thread that also refreshes searcher and
+ * commits index periodically. Search never applies changes itself. If there are changes that are not applied yet, search asks
+ * background thread to apply them and waits for that for limited time, after that it refreshes searcher and runs query against
+ * changes that are already applied to index. So caller sees own changes unless indexing of them takes longer than the wait.
+ * <p>
+ * Each indexed document keeps last modification date and length of file. On initialization only files that were changed since
+ * they were indexed last time are reindexed, that makes initialization of persistent index fast.
+ * <p>
+ * Besides words, content of file is indexed as trigrams, i.e. all sequences of three characters. Trigrams make possible search of
+ * arbitrary substrings and regular expressions: index selects files that contain all trigrams of literal parts of pattern and
+ * then selected files are scanned to check whether they really match pattern.
  *
  * @author andrew00x
  */
 public abstract class LuceneSearcher implements Searcher {
     private static final Logger LOG = LoggerFactory.getLogger(LuceneSearcher.class);
 
-    private static final int RESULT_LIMIT = 1000;
+    private static final int RESULT_LIMIT                  = 1000;
+    private static final int MAX_OCCURRENCES_PER_FILE      = 100;
+    /** Number of candidates that are read from index at once when searching by pattern. */
+    private static final int PATTERN_CANDIDATES_FRAME_SIZE = 100;
+
+    static final String TRIGRAMS_FIELD        = "trigrams";
+    static final String CONTENT_INDEXED_FIELD = "contentIndexed";
+
+    /**
+     * Version of set of fields of indexed document. Documents created with older version are reindexed on initialization of
+     * persistent index.
+     */
+    private static final int INDEX_FORMAT = 3;
+
+    private static final FieldType TRIGRAMS_FIELD_TYPE = new FieldType();
+
+    static {
+        // Only presence of trigram in file is needed, positions and frequencies make index bigger for nothing
+        TRIGRAMS_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS);
+        TRIGRAMS_FIELD_TYPE.setTokenized(true);
+        TRIGRAMS_FIELD_TYPE.setOmitNorms(true);
+        TRIGRAMS_FIELD_TYPE.freeze();
+    }
+
+    private static final BaseEncoding PAGE_CURSOR_ENCODING = BaseEncoding.base64Url().omitPadding();
+
+    /**
+     * Max number of not applied changes. When limit is reached, thread that adds new change waits for background thread to free space
+     * in queue, if background thread doesn't do it in {@link #PENDING_CHANGES_WAIT_MS} then applies one batch of changes itself.
+     */
+    private static final int  PENDING_CHANGES_LIMIT      = 10000;
+    /** Max number of changes that are applied to index writer in one go. */
+    private static final int  INDEXING_BATCH_SIZE        = 500;
+    private static final long SEARCHER_REFRESH_PERIOD_MS = 1000;
+    private static final long INDEX_COMMIT_PERIOD_MS     = 60 * 1000;
+    /** Max time that search or writing thread waits for background thread to apply pending changes. */
+    private static final long PENDING_CHANGES_WAIT_MS    = 2000;
+    private static final long INDEXING_TERMINATION_MS    = 10 * 1000;
+    /** Time that searcher which is referenced by page cursors is kept after it is replaced by newer searcher. */
+    private static final long PAGE_CURSOR_MAX_AGE_SEC    = 5 * 60;
+
+    private static final Set<String>      INDEXED_FILE_STATE_FIELDS = newHashSet("path", "modified", "length", "format");
+    private static final Pair<Long, Long> UNKNOWN_FILE_STATE        = Pair.of(-1L, -1L);
 
     private final List<VirtualFileFilter>                      indexFilters;
     private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+    private final IndexingQueue                                indexingQueue;
+    private final Lock                                         indexingLock;
+    /** Number of changes that were put in queue. */
+    private final AtomicLong                                   enqueuedChanges;
+    private final Object                                       appliedChangesMonitor;
+    private final AtomicBoolean                                indexingRequested;
+
+    private volatile IndexWriter     luceneIndexWriter;
+    private SearcherManager          searcherManager;
+    /** Keeps searchers which are referenced by page cursors, so next pages are retrieved from the same point-in-time view of index. */
+    private SearcherLifetimeManager  searcherLifetimeManager;
+    private ScheduledExecutorService indexingExecutor;
+
+    /** Filesystem that is indexed by this searcher. It is used for reading content of files when occurrences are requested. */
+    private volatile VirtualFileSystem virtualFileSystem;
 
-    private IndexWriter     luceneIndexWriter;
-    private SearcherManager searcherManager;
+    private volatile boolean refreshNeeded;
+    private volatile long    lastCommitTime;
+    /** Number of changes that were put in queue and then applied to index. Guarded by {@link #appliedChangesMonitor}. */
+    private          long    appliedChanges;
 
     private boolean closed = true;
 
@@ -96,6 +213,11 @@ public abstract class LuceneSearcher implements Searcher {
         this.closeCallback = closeCallback;
         indexFilters = new CopyOnWriteArrayList<>();
         indexFilters.add(indexFilter);
+        indexingQueue = new IndexingQueue(PENDING_CHANGES_LIMIT);
+        indexingLock = new ReentrantLock();
+        enqueuedChanges = new AtomicLong();
+        appliedChangesMonitor = new Object();
+        indexingRequested = new AtomicBoolean();
     }
 
     @Override
@@ -109,9 +231,14 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     protected Analyzer makeAnalyzer() {
-        return new Analyzer() {
+        // Fields are tokenized differently, so components must not be shared between fields
+        return new Analyzer(Analyzer.PER_FIELD_REUSE_STRATEGY) {
             @Override
             protected TokenStreamComponents createComponents(String fieldName) {
+                if (TRIGRAMS_FIELD.equals(fieldName)) {
+                    Tokenizer tokenizer = new NGramTokenizer(3, 3);
+                    return new TokenStreamComponents(tokenizer, new LowerCaseFilter(tokenizer));
+                }
                 Tokenizer tokenizer = new WhitespaceTokenizer();
                 TokenStream filter = new LowerCaseFilter(tokenizer);
                 return new TokenStreamComponents(tokenizer, filter);
@@ -122,7 +249,8 @@ public abstract class LuceneSearcher implements Searcher {
     protected abstract Directory makeDirectory() throws ServerException;
 
     /**
-     * Init lucene index. Need call this method if index directory is clean. Scan all files in virtual filesystem and add to index.
+     * Init lucene index. Scan all files in virtual filesystem and add to index files that are not indexed yet or were changed after
+     * they were indexed. Remove from index files that don't exist anymore.
      *
      * @param virtualFileSystem
      *         VirtualFileSystem
@@ -130,16 +258,18 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error occurs
      */
     public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
-        addTree(virtualFileSystem.getRoot());
+        synchronizeIndex(virtualFileSystem.getRoot());
     }
 
     public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
         if (!executor.isShutdown()) {
             executor.execute(() -> {
                 try {
-                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot());
+                    LuceneSearcher.this.synchronizeIndex(virtualFileSystem.getRoot());
                 } catch (ServerException e) {
                     LOG.error(e.getMessage());
                 }
@@ -151,6 +281,14 @@ public abstract class LuceneSearcher implements Searcher {
         try {
             luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
+            searcherLifetimeManager = new SearcherLifetimeManager();
+            lastCommitTime = System.currentTimeMillis();
+            indexingExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat(getClass().getSimpleName() + "-IndexingThread-%d").setDaemon(true).build());
+            indexingExecutor.scheduleWithFixedDelay(this::processPendingChanges,
+                                                    SEARCHER_REFRESH_PERIOD_MS,
+                                                    SEARCHER_REFRESH_PERIOD_MS,
+                                                    MILLISECONDS);
             closed = false;
         } catch (IOException e) {
             throw new ServerException(e);
@@ -159,8 +297,19 @@ public abstract class LuceneSearcher implements Searcher {
 
     public final synchronized void close() {
         if (!closed) {
+            // Changes that are not applied yet are dropped. Persistent index gets them on next initialization.
+            indexingQueue.clear();
+            indexingExecutor.shutdown();
+            try {
+                // Index writer must not be closed while background thread still uses it
+                if (!indexingExecutor.awaitTermination(INDEXING_TERMINATION_MS, MILLISECONDS)) {
+                    LOG.warn("Indexing thread of {} is not terminated in {} ms", getClass().getSimpleName(), INDEXING_TERMINATION_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
             try {
-                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                IOUtils.close(searcherLifetimeManager, getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
                 afterClose();
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
@@ -180,7 +329,7 @@ public abstract class LuceneSearcher implements Searcher {
         return closed;
     }
 
-    public synchronized IndexWriter getIndexWriter() {
+    public IndexWriter getIndexWriter() {
         return luceneIndexWriter;
     }
 
@@ -189,73 +338,243 @@ public abstract class LuceneSearcher implements Searcher {
         IndexSearcher luceneSearcher = null;
         try {
             final long startTime = System.currentTimeMillis();
-            searcherManager.maybeRefresh();
-            luceneSearcher = searcherManager.acquire();
+            final String pageCursor = query.getPageCursor();
+            final PageCursor after = pageCursor == null ? null : PageCursor.decode(pageCursor);
+            if (after == null) {
+                awaitPendingChanges();
+                // Blocking variant waits for refresh that might be started by background thread, otherwise search may get stale searcher
+                searcherManager.maybeRefreshBlocking();
+                luceneSearcher = searcherManager.acquire();
+            } else {
+                // Document ids of cursor are valid only for searcher that produced cursor
+                luceneSearcher = searcherLifetimeManager.acquire(after.searcherVersion);
+                if (luceneSearcher == null) {
+                    throw new ServerException(String.format("Page cursor '%s' is expired, search must be started from the first page",
+                                                            pageCursor));
+                }
+            }
 
-            Query luceneQuery = createLuceneQuery(query);
+            final Query textQuery = query.getText() == null ? null : parseTextQuery(query.getText());
+            final Pattern pattern = query.getPattern() == null ? null : compilePattern(query);
+            final Query luceneQuery = createLuceneQuery(query, textQuery);
+            if (pattern != null) {
+                return searchByPattern(luceneSearcher, query, luceneQuery, pattern, after, startTime);
+            }
 
-            ScoreDoc after = null;
-            final int numSkipDocs = Math.max(0, query.getSkipCount());
-            if (numSkipDocs > 0) {
-                after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+            final int numSkipDocs = after == null ? Math.max(0, query.getSkipCount()) : 0;
+            ScoreDoc afterDoc = null;
+            if (after != null) {
+                afterDoc = after.scoreDoc;
+            } else if (numSkipDocs > 0) {
+                afterDoc = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
             }
 
             final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
-            TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, numDocs);
+            // Retrieve one extra document to find out whether there is next page
+            TopDocs topDocs = luceneSearcher.searchAfter(afterDoc, luceneQuery, numDocs + 1);
             final int totalHitsNum = topDocs.totalHits;
+            final int numRetrievedDocs = Math.min(numDocs, topDocs.scoreDocs.length);
 
+            final OccurrencesFinder occurrencesFinder = query.isIncludePositions() && textQuery != null
+                                                        ? OccurrencesFinder.forQuery(textQuery, MAX_OCCURRENCES_PER_FILE)
+                                                        : null;
             List<SearchResultEntry> results = newArrayList();
-            for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+            for (int i = 0; i < numRetrievedDocs; i++) {
                 ScoreDoc scoreDoc = topDocs.scoreDocs[i];
                 String filePath = luceneSearcher.doc(scoreDoc.doc).getField("path").stringValue();
-                results.add(new SearchResultEntry(filePath));
+                results.add(occurrencesFinder == null
+                            ? new SearchResultEntry(filePath)
+                            : new SearchResultEntry(filePath, findOccurrences(filePath, occurrencesFinder)));
             }
 
             final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
 
-            boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
+            boolean hasMoreToRetrieve = topDocs.scoreDocs.length > numDocs;
             QueryExpression nextPageQueryExpression = null;
+            String nextPageCursor = null;
             if (hasMoreToRetrieve) {
-                nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+                nextPageCursor = new PageCursor(searcherLifetimeManager.record(luceneSearcher),
+                                                topDocs.scoreDocs[numRetrievedDocs - 1]).encode();
+                nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + numRetrievedDocs, nextPageCursor);
             }
 
             return SearchResult.aSearchResult()
                                .withResults(results)
                                .withTotalHits(totalHitsNum)
                                .withNextPageQueryExpression(nextPageQueryExpression)
+                               .withNextPageCursor(nextPageCursor)
                                .withElapsedTimeMillis(elapsedTimeMillis)
                                .build();
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         } finally {
-            try {
-                searcherManager.release(luceneSearcher);
-            } catch (IOException e) {
-                LOG.error(e.getMessage());
+            if (luceneSearcher != null) {
+                try {
+                    // Both managers release searcher by decrementing reference count of its reader
+                    searcherManager.release(luceneSearcher);
+                } catch (IOException e) {
+                    LOG.error(e.getMessage());
+                }
             }
         }
     }
 
-    private Query createLuceneQuery(QueryExpression query) throws ServerException {
+    private Query createLuceneQuery(QueryExpression query, Query textQuery) {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
         final String path = query.getPath();
-        final String text = query.getText();
         if (path != null) {
             luceneQuery.add(new PrefixQuery(new Term("path", path)), BooleanClause.Occur.MUST);
         }
         if (name != null) {
             luceneQuery.add(new WildcardQuery(new Term("name", name)), BooleanClause.Occur.MUST);
         }
-        if (text != null) {
-            QueryParser qParser = new QueryParser("text", makeAnalyzer());
+        if (textQuery != null) {
+            luceneQuery.add(textQuery, BooleanClause.Occur.MUST);
+        }
+        final String pattern = query.getPattern();
+        if (pattern != null) {
+            final Query trigramsQuery = query.isRegex() ? TrigramQueryPlanner.planRegex(pattern) : TrigramQueryPlanner.planLiteral(pattern);
+            // If index can't narrow candidates, all files with indexed content have to be checked
+            luceneQuery.add(trigramsQuery == null ? new TermQuery(new Term(CONTENT_INDEXED_FIELD, "true")) : trigramsQuery,
+                            BooleanClause.Occur.MUST);
+        }
+        return luceneQuery;
+    }
+
+    private static Pattern compilePattern(QueryExpression query) throws ServerException {
+        try {
+            return query.isRegex() ? Pattern.compile(query.getPattern()) : Pattern.compile(query.getPattern(), Pattern.LITERAL);
+        } catch (PatternSyntaxException e) {
+            throw new ServerException(e.getMessage());
+        }
+    }
+
+    /**
+     * Index only selects candidates that might match pattern. Content of each candidate is scanned to check whether it contains
+     * match. Candidates are read from index by frames until page is filled, so number of scanned files depends on size of page
+     * rather than on number of candidates.
+     */
+    private SearchResult searchByPattern(IndexSearcher luceneSearcher,
+                                         QueryExpression query,
+                                         Query luceneQuery,
+                                         Pattern pattern,
+                                         PageCursor pageCursor,
+                                         long startTime) throws IOException, ServerException {
+        final int numSkipDocs = pageCursor == null ? Math.max(0, query.getSkipCount()) : 0;
+        ScoreDoc after = pageCursor == null ? null : pageCursor.scoreDoc;
+        final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
+        // Single match is enough to accept file if positions are not requested
+        final OccurrencesFinder occurrencesFinder =
+                OccurrencesFinder.forPattern(pattern, query.isIncludePositions() ? MAX_OCCURRENCES_PER_FILE : 1);
+
+        final List<SearchResultEntry> results = newArrayList();
+        int totalHitsNum = 0;
+        int numSkippedDocs = 0;
+        ScoreDoc lastScoreDoc = null;
+        boolean hasMoreToRetrieve = false;
+        TopDocs topDocs;
+        do {
+            topDocs = luceneSearcher.searchAfter(after, luceneQuery, PATTERN_CANDIDATES_FRAME_SIZE);
+            totalHitsNum = topDocs.totalHits;
+            for (int i = 0; i < topDocs.scoreDocs.length && !hasMoreToRetrieve; i++) {
+                final ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                after = scoreDoc;
+                final String filePath = luceneSearcher.doc(scoreDoc.doc).getField("path").stringValue();
+                final List<SearchOccurrence> occurrences = findOccurrences(filePath, occurrencesFinder);
+                if (occurrences.isEmpty()) {
+                    continue;
+                }
+                if (numSkippedDocs < numSkipDocs) {
+                    numSkippedDocs++;
+                } else if (results.size() < numDocs) {
+                    results.add(query.isIncludePositions() ? new SearchResultEntry(filePath, occurrences) : new SearchResultEntry(filePath));
+                    lastScoreDoc = scoreDoc;
+                } else {
+                    hasMoreToRetrieve = true;
+                }
+            }
+        } while (!hasMoreToRetrieve && topDocs.scoreDocs.length == PATTERN_CANDIDATES_FRAME_SIZE);
+
+        final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
+
+        QueryExpression nextPageQueryExpression = null;
+        String nextPageCursor = null;
+        if (hasMoreToRetrieve) {
+            nextPageCursor = new PageCursor(searcherLifetimeManager.record(luceneSearcher), lastScoreDoc).encode();
+            nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + results.size(), nextPageCursor);
+        }
+
+        return SearchResult.aSearchResult()
+                           .withResults(results)
+                           .withTotalHits(totalHitsNum)
+                           .withNextPageQueryExpression(nextPageQueryExpression)
+                           .withNextPageCursor(nextPageCursor)
+                           .withElapsedTimeMillis(elapsedTimeMillis)
+                           .build();
+    }
+
+    private Query parseTextQuery(String text) throws ServerException {
+        QueryParser qParser = new QueryParser("text", makeAnalyzer());
+        try {
+            return qParser.parse(text);
+        } catch (ParseException e) {
+            throw new ServerException(e.getMessage());
+        }
+    }
+
+    /**
+     * Page cursor keeps version of searcher together with score and id of the last document of page. Lucene continues search right
+     * after this document without walking through the previous pages. Document id may become different after changes of index, so
+     * searcher is recorded in {@link SearcherLifetimeManager} and next page is retrieved with the same searcher. Searcher is kept
+     * for {@link #PAGE_CURSOR_MAX_AGE_SEC} after it is replaced by newer one, after that cursor is expired.
+     */
+    private static final class PageCursor {
+        static PageCursor decode(String pageCursor) throws ServerException {
+            byte[] bytes = null;
             try {
-                luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
-            } catch (ParseException e) {
-                throw new ServerException(e.getMessage());
+                bytes = PAGE_CURSOR_ENCODING.decode(pageCursor);
+            } catch (IllegalArgumentException ignored) {
+            }
+            if (bytes == null || bytes.length != 16) {
+                throw new ServerException(String.format("Invalid page cursor '%s'", pageCursor));
             }
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new PageCursor(buffer.getLong(), new ScoreDoc(buffer.getInt(), buffer.getFloat()));
+        }
+
+        final long     searcherVersion;
+        final ScoreDoc scoreDoc;
+
+        PageCursor(long searcherVersion, ScoreDoc scoreDoc) {
+            this.searcherVersion = searcherVersion;
+            this.scoreDoc = scoreDoc;
+        }
+
+        String encode() {
+            return PAGE_CURSOR_ENCODING.encode(ByteBuffer.allocate(16)
+                                                         .putLong(searcherVersion)
+                                                         .putInt(scoreDoc.doc)
+                                                         .putFloat(scoreDoc.score)
+                                                         .array());
         }
-        return luceneQuery;
+    }
+
+    private List<SearchOccurrence> findOccurrences(String filePath, OccurrencesFinder occurrencesFinder) {
+        final VirtualFileSystem fileSystem = virtualFileSystem;
+        if (fileSystem != null) {
+            try {
+                final VirtualFile file = fileSystem.getRoot().getChild(Path.of(filePath));
+                if (file != null && file.isFile()) {
+                    try (Reader reader = openContentReader(file)) {
+                        return occurrencesFinder.find(reader);
+                    }
+                }
+            } catch (ServerException | ForbiddenException | IOException e) {
+                LOG.warn(String.format("Unable find occurrences in file %s. %s", filePath, e.getMessage()));
+            }
+        }
+        return emptyList();
     }
 
     private ScoreDoc skipScoreDocs(IndexSearcher luceneSearcher, Query luceneQuery, int numSkipDocs) throws IOException {
@@ -279,25 +598,21 @@ public abstract class LuceneSearcher implements Searcher {
         return scoreDoc;
     }
 
-    private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount) {
+    private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount, String nextPageCursor) {
         return new QueryExpression().setText(originalQuery.getText())
+                                    .setPattern(originalQuery.getPattern())
+                                    .setRegex(originalQuery.isRegex())
                                     .setName(originalQuery.getName())
                                     .setPath(originalQuery.getPath())
                                     .setSkipCount(newSkipCount)
-                                    .setMaxItems(originalQuery.getMaxItems());
+                                    .setMaxItems(originalQuery.getMaxItems())
+                                    .setPageCursor(originalQuery.getPageCursor() == null ? null : nextPageCursor)
+                                    .setIncludePositions(originalQuery.isIncludePositions());
     }
 
     @Override
     public final void add(VirtualFile virtualFile) throws ServerException {
-        doAdd(virtualFile);
-    }
-
-    protected void doAdd(VirtualFile virtualFile) throws ServerException {
-        if (virtualFile.isFolder()) {
-            addTree(virtualFile);
-        } else {
-            addFile(virtualFile);
-        }
+        enqueue(Change.add(virtualFile));
     }
 
     protected void addTree(VirtualFile tree) throws ServerException {
@@ -322,13 +637,222 @@ public abstract class LuceneSearcher implements Searcher {
         LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
     }
 
+    /**
+     * Walks through the tree and reindexes files which last modification date or length differ from values that are stored in index.
+     * Files that are in index but don't exist in tree anymore are removed from index.
+     */
+    protected void synchronizeIndex(VirtualFile tree) throws ServerException {
+        final long start = System.currentTimeMillis();
+        final Map<String, Pair<Long, Long>> indexedFiles = readIndexedFiles();
+        final IndexingStats stats = new IndexingStats();
+        final LinkedList<VirtualFile> q = new LinkedList<>();
+        q.add(tree);
+        while (!q.isEmpty()) {
+            final VirtualFile folder = q.pop();
+            if (folder.exists()) {
+                for (VirtualFile child : folder.getChildren()) {
+                    if (child.isFolder()) {
+                        q.push(child);
+                    } else {
+                        synchronizeFile(child, indexedFiles, stats);
+                    }
+                }
+            }
+        }
+        for (String removedFile : indexedFiles.keySet()) {
+            deleteFile(removedFile);
+        }
+        final long end = System.currentTimeMillis();
+        LOG.debug("Checked {} files from {}, reindexed {} files, removed {} files, time: {} ms",
+                  stats.checkedFiles.get(), tree.getPath(), stats.indexedFiles.get(), indexedFiles.size(), (end - start));
+    }
+
+    /**
+     * Init lucene index like {@link #init(VirtualFileSystem)} does but files are indexed in parallel with specified pool. Index is
+     * ready for use when method returns, initial indexing continues in background. Sub-folders are indexed in separate tasks, so idle
+     * threads of pool steal indexing work from busy ones. Lucene writes documents from different threads to separate segments of
+     * the same index and merges them in background.
+     *
+     * @param pool
+     *         pool for indexing tasks
+     * @param virtualFileSystem
+     *         VirtualFileSystem
+     * @param subtrees
+     *         absolute paths of top level subtrees of virtual filesystem, e.g. projects. Event {@link IndexingEvent.EventType#SUBTREE_INDEXED} is
+     *         published once all files of subtree are indexed
+     * @param eventService
+     *         service for publishing of {@link IndexingEvent}s
+     * @throws ServerException
+     *         if an error occurs while opening index
+     */
+    public void initInParallel(ForkJoinPool pool,
+                               VirtualFileSystem virtualFileSystem,
+                               List<Path> subtrees,
+                               EventService eventService) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
+        doInit();
+        if (!pool.isShutdown()) {
+            pool.execute(() -> {
+                try {
+                    LuceneSearcher.this.synchronizeIndexInParallel(virtualFileSystem.getRoot(), subtrees, eventService);
+                } catch (ServerException e) {
+                    LOG.error(e.getMessage());
+                }
+            });
+        }
+    }
+
+    /** Must be called from thread of {@link ForkJoinPool}. */
+    private void synchronizeIndexInParallel(VirtualFile root, List<Path> subtrees, EventService eventService) throws ServerException {
+        final long start = System.currentTimeMillis();
+        final Map<String, Pair<Long, Long>> indexedFiles = new ConcurrentHashMap<>(readIndexedFiles());
+        final IndexingStats totalStats = new IndexingStats();
+        final AtomicInteger completedSubtrees = new AtomicInteger();
+        final String rootPath = root.getPath().toString();
+        eventService.publish(new IndexingEvent(STARTED, rootPath, 0, subtrees.size(), 0, 0, 0));
+
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(subtrees.size() + 1);
+        for (Path subtree : subtrees) {
+            final VirtualFile folder = root.getChild(subtree);
+            if (folder == null || !folder.isFolder()) {
+                completedSubtrees.incrementAndGet();
+                continue;
+            }
+            tasks.add(ForkJoinTask.adapt(() -> {
+                final IndexingStats stats = new IndexingStats();
+                new SynchronizeFolderTask(folder, indexedFiles, stats, emptySet()).invoke();
+                totalStats.add(stats);
+                eventService.publish(new IndexingEvent(SUBTREE_INDEXED,
+                                                       folder.getPath().toString(),
+                                                       completedSubtrees.incrementAndGet(),
+                                                       subtrees.size(),
+                                                       stats.checkedFiles.get(),
+                                                       stats.indexedFiles.get(),
+                                                       System.currentTimeMillis() - start));
+            }));
+        }
+        // Files and folders that are not covered by any subtree
+        tasks.add(new SynchronizeFolderTask(root, indexedFiles, totalStats, newHashSet(subtrees)));
+        ForkJoinTask.invokeAll(tasks);
+
+        for (String removedFile : indexedFiles.keySet()) {
+            deleteFile(removedFile);
+        }
+        try {
+            getIndexWriter().commit();
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        final long elapsedTimeMillis = System.currentTimeMillis() - start;
+        LOG.debug("Checked {} files from {}, reindexed {} files, removed {} files, time: {} ms",
+                  totalStats.checkedFiles.get(), rootPath, totalStats.indexedFiles.get(), indexedFiles.size(), elapsedTimeMillis);
+        eventService.publish(new IndexingEvent(FINISHED,
+                                               rootPath,
+                                               completedSubtrees.get(),
+                                               subtrees.size(),
+                                               totalStats.checkedFiles.get(),
+                                               totalStats.indexedFiles.get(),
+                                               elapsedTimeMillis));
+    }
+
+    /** Synchronizes index with files of folder and forks separate task for each sub-folder. */
+    private class SynchronizeFolderTask extends RecursiveAction {
+        private final VirtualFile                   folder;
+        private final Map<String, Pair<Long, Long>> indexedFiles;
+        private final IndexingStats                 stats;
+        private final Set<Path>                     excluded;
+
+        SynchronizeFolderTask(VirtualFile folder, Map<String, Pair<Long, Long>> indexedFiles, IndexingStats stats, Set<Path> excluded) {
+            this.folder = folder;
+            this.indexedFiles = indexedFiles;
+            this.stats = stats;
+            this.excluded = excluded;
+        }
+
+        @Override
+        protected void compute() {
+            final List<SynchronizeFolderTask> subtasks = new ArrayList<>();
+            try {
+                if (folder.exists()) {
+                    for (VirtualFile child : folder.getChildren()) {
+                        if (excluded.contains(child.getPath())) {
+                            continue;
+                        }
+                        if (child.isFolder()) {
+                            subtasks.add(new SynchronizeFolderTask(child, indexedFiles, stats, emptySet()));
+                        } else {
+                            synchronizeFile(child, indexedFiles, stats);
+                        }
+                    }
+                }
+            } catch (ServerException e) {
+                LOG.error(String.format("Unable index folder %s. %s", folder.getPath(), e.getMessage()), e);
+            }
+            invokeAll(subtasks);
+        }
+    }
+
+    private void synchronizeFile(VirtualFile file, Map<String, Pair<Long, Long>> indexedFiles, IndexingStats stats)
+            throws ServerException {
+        stats.checkedFiles.incrementAndGet();
+        final Pair<Long, Long> indexedState = indexedFiles.remove(file.getPath().toString());
+        if (!Pair.of(file.getLastModificationDate(), file.getLength()).equals(indexedState)) {
+            addFile(file);
+            stats.indexedFiles.incrementAndGet();
+        }
+    }
+
+    private static class IndexingStats {
+        final AtomicInteger checkedFiles = new AtomicInteger();
+        final AtomicInteger indexedFiles = new AtomicInteger();
+
+        void add(IndexingStats other) {
+            checkedFiles.addAndGet(other.checkedFiles.get());
+            indexedFiles.addAndGet(other.indexedFiles.get());
+        }
+    }
+
+    /**
+     * Reads paths of all indexed files together with last modification date and length of file at the moment of indexing. Files that
+     * were indexed without these values are mapped to {@link #UNKNOWN_FILE_STATE}.
+     */
+    private Map<String, Pair<Long, Long>> readIndexedFiles() throws ServerException {
+        final Map<String, Pair<Long, Long>> indexedFiles = new HashMap<>();
+        try {
+            searcherManager.maybeRefresh();
+            final IndexSearcher luceneSearcher = searcherManager.acquire();
+            try {
+                final IndexReader reader = luceneSearcher.getIndexReader();
+                final Bits liveDocs = MultiFields.getLiveDocs(reader);
+                for (int i = 0; i < reader.maxDoc(); i++) {
+                    if (liveDocs == null || liveDocs.get(i)) {
+                        final Document doc = reader.document(i, INDEXED_FILE_STATE_FIELDS);
+                        final IndexableField modified = doc.getField("modified");
+                        final IndexableField length = doc.getField("length");
+                        final IndexableField format = doc.getField("format");
+                        final boolean outdated = format == null || format.numericValue().intValue() != INDEX_FORMAT;
+                        indexedFiles.put(doc.get("path"), outdated || modified == null || length == null
+                                                          ? UNKNOWN_FILE_STATE
+                                                          : Pair.of(modified.numericValue().longValue(), length.numericValue().longValue()));
+                    }
+                }
+            } finally {
+                searcherManager.release(luceneSearcher);
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        return indexedFiles;
+    }
+
     protected void addFile(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.exists()) {
-            try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                         ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                         : null) {
-                getIndexWriter()
-                        .updateDocument(new Term("path", virtualFile.getPath().toString()), createDocument(virtualFile, fContentReader));
+            final boolean indexContent = shouldIndexContent(virtualFile);
+            try (Reader fContentReader = indexContent ? openContentReader(virtualFile) : null;
+                 Reader fTrigramsReader = indexContent ? openContentReader(virtualFile) : null) {
+                getIndexWriter().updateDocument(new Term("path", virtualFile.getPath().toString()),
+                                                createDocument(virtualFile, fContentReader, fTrigramsReader));
+                refreshNeeded = true;
             } catch (OutOfMemoryError oome) {
                 close();
                 throw oome;
@@ -342,14 +866,13 @@ public abstract class LuceneSearcher implements Searcher {
 
     @Override
     public final void delete(String path, boolean isFile) throws ServerException {
+        enqueue(Change.delete(path, isFile));
+    }
+
+    private void deleteFile(String path) throws ServerException {
         try {
-            if (isFile) {
-                Term term = new Term("path", path);
-                getIndexWriter().deleteDocuments(term);
-            } else {
-                Term term = new Term("path", path + "/");
-                getIndexWriter().deleteDocuments(new PrefixQuery(term));
-            }
+            getIndexWriter().deleteDocuments(new Term("path", path));
+            refreshNeeded = true;
         } catch (OutOfMemoryError oome) {
             close();
             throw oome;
@@ -358,33 +881,228 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
-    @Override
-    public final void update(VirtualFile virtualFile) throws ServerException {
-        doUpdate(new Term("path", virtualFile.getPath().toString()), virtualFile);
-    }
-
-    protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
-        try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                     ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                     : null) {
-            getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
+    private void deleteTree(String path) throws ServerException {
+        try {
+            getIndexWriter().deleteDocuments(new PrefixQuery(new Term("path", path + "/")));
+            refreshNeeded = true;
         } catch (OutOfMemoryError oome) {
             close();
             throw oome;
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
-        } catch (ForbiddenException e) {
-            throw new ServerException(e.getServiceError());
         }
     }
 
-    protected Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
+    @Override
+    public final void update(VirtualFile virtualFile) throws ServerException {
+        enqueue(Change.add(virtualFile));
+    }
+
+    private void enqueue(Change change) {
+        if (offer(change)) {
+            return;
+        }
+        // Queue is full, wait until background thread frees space in it. That keeps memory used by pending changes bounded.
+        requestIndexing();
+        try {
+            while (!indexingQueue.offer(change, PENDING_CHANGES_WAIT_MS)) {
+                // Background thread is too slow or stopped, apply one batch here but not the whole queue.
+                applyPendingBatch();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Don't lose change.
+            indexingQueue.put(change);
+        }
+        enqueuedChanges.incrementAndGet();
+    }
+
+    private boolean offer(Change change) {
+        if (indexingQueue.offer(change)) {
+            // Counted after change is in queue, so all counted changes are either in queue or already drained from it
+            enqueuedChanges.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /** Asks background thread to apply pending changes without waiting for the next scheduled run. */
+    private void requestIndexing() {
+        if (indexingRequested.compareAndSet(false, true)) {
+            try {
+                indexingExecutor.execute(() -> {
+                    indexingRequested.set(false);
+                    processPendingChanges();
+                });
+            } catch (RejectedExecutionException e) {
+                indexingRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Waits until changes that were put in queue before this call are applied to index by background thread or until
+     * {@link #PENDING_CHANGES_WAIT_MS} expires.
+     */
+    private void awaitPendingChanges() {
+        final long expected = enqueuedChanges.get();
+        synchronized (appliedChangesMonitor) {
+            if (appliedChanges >= expected) {
+                return;
+            }
+        }
+        requestIndexing();
+        final long deadline = System.currentTimeMillis() + PENDING_CHANGES_WAIT_MS;
+        synchronized (appliedChangesMonitor) {
+            long timeout;
+            while (appliedChanges < expected && (timeout = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    appliedChangesMonitor.wait(timeout);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Applies all pending changes to index. Lock is released after each batch, so other threads are able to apply changes too. */
+    private void applyPendingChanges() {
+        while (!applyPendingBatch()) {
+        }
+    }
+
+    /**
+     * Applies at most {@link #INDEXING_BATCH_SIZE} of pending changes to index.
+     *
+     * @return {@code true} if there are no more pending changes
+     */
+    private boolean applyPendingBatch() {
+        final long drainedChanges;
+        final boolean drainedAll;
+        indexingLock.lock();
+        try {
+            for (Change change : indexingQueue.drain(INDEXING_BATCH_SIZE)) {
+                try {
+                    applyChange(change);
+                } catch (ServerException e) {
+                    LOG.error(String.format("Unable apply change %s to index. %s", change, e.getMessage()), e);
+                }
+            }
+            // Changes counted before queue is found empty are applied, since batches are drained and applied under the same lock
+            drainedChanges = enqueuedChanges.get();
+            drainedAll = indexingQueue.isEmpty();
+        } finally {
+            indexingLock.unlock();
+        }
+        if (drainedAll) {
+            synchronized (appliedChangesMonitor) {
+                if (drainedChanges > appliedChanges) {
+                    appliedChanges = drainedChanges;
+                    appliedChangesMonitor.notifyAll();
+                }
+            }
+        }
+        return drainedAll;
+    }
+
+    private void applyChange(Change change) throws ServerException {
+        switch (change.getType()) {
+            case ADD:
+                final VirtualFile virtualFile = change.getVirtualFile();
+                if (virtualFile.isFolder()) {
+                    addFolder(virtualFile);
+                } else {
+                    addFile(virtualFile);
+                }
+                break;
+            case DELETE_FILE:
+                deleteFile(change.getPath());
+                break;
+            case DELETE_TREE:
+                deleteTree(change.getPath());
+                break;
+        }
+    }
+
+    /**
+     * Indexes files of folder and puts sub-folders back in queue. Large trees are indexed in many small batches, so searches don't
+     * wait for indexing of the whole tree. Sub-folders are put in queue even if it is full, so the whole sub-tree is never indexed in
+     * one go. Folders are small changes, so going over the limit with them doesn't hold much memory.
+     */
+    private void addFolder(VirtualFile folder) throws ServerException {
+        if (folder.exists()) {
+            for (VirtualFile child : folder.getChildren()) {
+                if (child.isFolder()) {
+                    indexingQueue.put(Change.add(child));
+                    enqueuedChanges.incrementAndGet();
+                } else {
+                    addFile(child);
+                }
+            }
+        }
+    }
+
+    private void refreshSearcher() throws IOException {
+        if (refreshNeeded) {
+            refreshNeeded = false;
+            searcherManager.maybeRefresh();
+        }
+    }
+
+    private void commitIfNeeded() throws IOException {
+        final long now = System.currentTimeMillis();
+        if (now - lastCommitTime >= INDEX_COMMIT_PERIOD_MS) {
+            final IndexWriter indexWriter = getIndexWriter();
+            if (indexWriter.hasUncommittedChanges()) {
+                indexWriter.commit();
+            }
+            lastCommitTime = now;
+        }
+    }
+
+    /** Periodic task of background indexing thread. */
+    private void processPendingChanges() {
+        try {
+            applyPendingChanges();
+            refreshSearcher();
+            commitIfNeeded();
+            searcherLifetimeManager.prune(new SearcherLifetimeManager.PruneByAge(PAGE_CURSOR_MAX_AGE_SEC));
+        } catch (IOException | RuntimeException e) {
+            // Don't let exception stop periodic task.
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    private Reader openContentReader(VirtualFile virtualFile) throws ForbiddenException, ServerException {
+        return new BufferedReader(new InputStreamReader(virtualFile.getContent()));
+    }
+
+    /**
+     * Creates document for file. Content of file is indexed twice: as words for search by text and as trigrams for search by pattern.
+     * Since reader may be consumed only once, separate reader is required for each field.
+     *
+     * @param virtualFile
+     *         file
+     * @param reader
+     *         reader of content of file or {@code null} if content should not be indexed
+     * @param trigramsReader
+     *         one more reader of content of file or {@code null} if content should not be indexed
+     */
+    protected Document createDocument(VirtualFile virtualFile, Reader reader, Reader trigramsReader) throws ServerException {
         final Document doc = new Document();
         doc.add(new StringField("path", virtualFile.getPath().toString(), Field.Store.YES));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
+        doc.add(new StoredField("modified", virtualFile.getLastModificationDate()));
+        doc.add(new StoredField("length", virtualFile.getLength()));
+        doc.add(new StoredField("format", INDEX_FORMAT));
         if (reader != null) {
             doc.add(new TextField("text", reader));
         }
+        if (trigramsReader != null) {
+            doc.add(new Field(TRIGRAMS_FIELD, trigramsReader, TRIGRAMS_FIELD_TYPE));
+            doc.add(new StringField(CONTENT_INDEXED_FIELD, "true", Field.Store.NO));
+        }
         return doc;
     }
 
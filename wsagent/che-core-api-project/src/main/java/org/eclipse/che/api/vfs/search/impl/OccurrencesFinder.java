@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds occurrences of searched text in content of file. Content is read line by line and only the first {@link #MAX_LINE_LENGTH}
+ * characters of each line are kept, so memory used for search doesn't depend on size of file. Occurrences that span few lines or
+ * are beyond the kept part of long line are not found.
+ *
+ * @author andrew00x
+ */
+abstract class OccurrencesFinder {
+    /**
+     * Creates finder of terms of text query. Line is split to tokens the same way as analyzer of {@link LuceneSearcher} does it, i.e.
+     * by whitespaces, and tokens are matched to terms ignoring case.
+     *
+     * @param textQuery
+     *         query parsed from text of {@link org.eclipse.che.api.vfs.search.QueryExpression}
+     * @param maxOccurrences
+     *         max number of occurrences that are collected from single file
+     */
+    static OccurrencesFinder forQuery(Query textQuery, int maxOccurrences) {
+        return new TermsFinder(textQuery, maxOccurrences);
+    }
+
+    /**
+     * Creates finder of matches of regular expression.
+     *
+     * @param pattern
+     *         compiled regular expression
+     * @param maxOccurrences
+     *         max number of occurrences that are collected from single file
+     */
+    static OccurrencesFinder forPattern(Pattern pattern, int maxOccurrences) {
+        return new PatternFinder(pattern, maxOccurrences);
+    }
+
+    /** Max number of characters of line that are searched for occurrences, the rest of longer line is skipped. */
+    static final int MAX_LINE_LENGTH = 10 * 1024;
+
+    final int maxOccurrences;
+
+    OccurrencesFinder(int maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    List<SearchOccurrence> find(Reader reader) throws IOException {
+        final List<SearchOccurrence> occurrences = new ArrayList<>();
+        final StringBuilder line = new StringBuilder();
+        int offset = 0;
+        int lineStartOffset = 0;
+        int lineNumber = 1;
+        int c;
+        while (occurrences.size() < maxOccurrences && (c = reader.read()) != -1) {
+            if (c == '\n') {
+                findInLine(line, lineNumber, lineStartOffset, occurrences);
+                line.setLength(0);
+                lineNumber++;
+                lineStartOffset = offset + 1;
+            } else if (line.length() < MAX_LINE_LENGTH) {
+                line.append((char)c);
+            }
+            offset++;
+        }
+        if (line.length() > 0 && occurrences.size() < maxOccurrences) {
+            findInLine(line, lineNumber, lineStartOffset, occurrences);
+        }
+        return occurrences;
+    }
+
+    abstract void findInLine(CharSequence line, int lineNumber, int lineStartOffset, List<SearchOccurrence> occurrences);
+
+    static String trimLineSeparator(CharSequence line) {
+        final int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            return line.subSequence(0, length - 1).toString();
+        }
+        return line.toString();
+    }
+
+    private static class TermsFinder extends OccurrencesFinder {
+        private static final Pattern TOKEN = Pattern.compile("\\S+");
+
+        private final List<Pattern> termPatterns;
+
+        TermsFinder(Query textQuery, int maxOccurrences) {
+            super(maxOccurrences);
+            termPatterns = new ArrayList<>();
+            collectTermPatterns(textQuery, termPatterns);
+        }
+
+        @Override
+        void findInLine(CharSequence line, int lineNumber, int lineStartOffset, List<SearchOccurrence> occurrences) {
+            String lineContent = null;
+            final Matcher tokenMatcher = TOKEN.matcher(line);
+            while (occurrences.size() < maxOccurrences && tokenMatcher.find()) {
+                final String token = tokenMatcher.group();
+                final String lowerCaseToken = token.toLowerCase(Locale.ROOT);
+                for (Pattern termPattern : termPatterns) {
+                    if (termPattern.matcher(lowerCaseToken).matches()) {
+                        if (lineContent == null) {
+                            lineContent = trimLineSeparator(line);
+                        }
+                        occurrences.add(new SearchOccurrence(token,
+                                                             lineNumber,
+                                                             lineStartOffset + tokenMatcher.start(),
+                                                             lineStartOffset + tokenMatcher.end(),
+                                                             lineContent,
+                                                             lineStartOffset));
+                        break;
+                    }
+                }
+            }
+        }
+
+        private static void collectTermPatterns(Query query, List<Pattern> patterns) {
+            if (query instanceof TermQuery) {
+                patterns.add(Pattern.compile(Pattern.quote(((TermQuery)query).getTerm().text())));
+            } else if (query instanceof PhraseQuery) {
+                for (Term term : ((PhraseQuery)query).getTerms()) {
+                    patterns.add(Pattern.compile(Pattern.quote(term.text())));
+                }
+            } else if (query instanceof PrefixQuery) {
+                patterns.add(Pattern.compile(Pattern.quote(((PrefixQuery)query).getPrefix().text()) + ".*"));
+            } else if (query instanceof WildcardQuery) {
+                patterns.add(wildcardToPattern(((WildcardQuery)query).getTerm().text()));
+            } else if (query instanceof BooleanQuery) {
+                for (BooleanClause clause : ((BooleanQuery)query).clauses()) {
+                    if (!clause.isProhibited()) {
+                        collectTermPatterns(clause.getQuery(), patterns);
+                    }
+                }
+            }
+        }
+
+        private static Pattern wildcardToPattern(String wildcard) {
+            final StringBuilder regex = new StringBuilder();
+            final StringBuilder literal = new StringBuilder();
+            for (int i = 0; i < wildcard.length(); i++) {
+                final char c = wildcard.charAt(i);
+                if (c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR) {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == WildcardQuery.WILDCARD_STRING ? ".*" : ".");
+                } else if (c == WildcardQuery.WILDCARD_ESCAPE && i + 1 < wildcard.length()) {
+                    literal.append(wildcard.charAt(++i));
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+
+    private static class PatternFinder extends OccurrencesFinder {
+        private final Pattern pattern;
+
+        PatternFinder(Pattern pattern, int maxOccurrences) {
+            super(maxOccurrences);
+            this.pattern = pattern;
+        }
+
+        @Override
+        void findInLine(CharSequence line, int lineNumber, int lineStartOffset, List<SearchOccurrence> occurrences) {
+            final String lineContent = trimLineSeparator(line);
+            final Matcher matcher = pattern.matcher(lineContent);
+            while (occurrences.size() < maxOccurrences && matcher.find()) {
+                occurrences.add(new SearchOccurrence(matcher.group(),
+                                                     lineNumber,
+                                                     lineStartOffset + matcher.start(),
+                                                     lineStartOffset + matcher.end(),
+                                                     lineContent,
+                                                     lineStartOffset));
+            }
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Converts substring or regular expression to query over trigrams of file content. Query selects files that contain every trigram
+ * of literal parts that any match of expression must contain, e.g. for expression {@code foo\.bar\(\w+\)} files must contain
+ * trigrams of {@code foo.bar(}. Query is only a filter: file that is selected by query doesn't necessarily match the expression, so
+ * candidates must be verified by scanning their content.
+ * <p>
+ * Planner is conservative, parts of expression that it doesn't understand are treated as "matches anything", so query never
+ * excludes file that matches expression. Methods return {@code null} when index can't narrow the set of candidates, e.g. expression
+ * doesn't contain literal of three or more characters or uses inline flags that change meaning of literals.
+ *
+ * @author andrew00x
+ */
+class TrigramQueryPlanner {
+    private static final int GRAM_SIZE                = 3;
+    /** Limits number of clauses generated for very long literals. A subset of trigrams is enough to narrow candidates. */
+    private static final int MAX_TRIGRAMS_PER_LITERAL = 64;
+
+    /** Creates query for files that contain {@code literal}. */
+    static Query planLiteral(String literal) {
+        return trigramsQuery(literal);
+    }
+
+    /**
+     * Creates query for files that might contain match of regular expression. Expression must be valid, i.e. accepted by
+     * {@link java.util.regex.Pattern#compile(String)}.
+     */
+    static Query planRegex(String regex) {
+        final TrigramQueryPlanner planner = new TrigramQueryPlanner(regex);
+        try {
+            final Query query = planner.parseAlternation();
+            return planner.unsupported || planner.pos < regex.length() ? null : query;
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final String regex;
+
+    private int     pos;
+    private boolean unsupported;
+
+    private TrigramQueryPlanner(String regex) {
+        this.regex = regex;
+    }
+
+    /** Parses branches separated by '|'. Returns {@code null} if any of branches matches anything. */
+    private Query parseAlternation() {
+        final List<Query> branches = new ArrayList<>();
+        boolean matchesAnything = false;
+        while (true) {
+            final Query branch = parseSequence();
+            if (branch == null) {
+                matchesAnything = true;
+            } else {
+                branches.add(branch);
+            }
+            if (pos < regex.length() && regex.charAt(pos) == '|') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (matchesAnything) {
+            return null;
+        }
+        if (branches.size() == 1) {
+            return branches.get(0);
+        }
+        final BooleanQuery query = new BooleanQuery();
+        for (Query branch : branches) {
+            query.add(branch, BooleanClause.Occur.SHOULD);
+        }
+        return query;
+    }
+
+    /** Parses sequence of atoms up to '|', ')' or end of expression. Returns {@code null} if sequence matches anything. */
+    private Query parseSequence() {
+        final List<Query> required = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        while (pos < regex.length()) {
+            final char c = regex.charAt(pos);
+            if (c == '|' || c == ')') {
+                break;
+            }
+            String atomLiteral = null;
+            Query atomQuery = null;
+            if (c == '(') {
+                atomQuery = parseGroup();
+            } else if (c == '[') {
+                skipCharacterClass();
+            } else if (c == '\\') {
+                atomLiteral = parseEscape();
+            } else if (c == '.' || c == '^' || c == '$' || c == '*' || c == '+' || c == '?' || c == '{') {
+                pos++;
+            } else {
+                final int codePoint = regex.codePointAt(pos);
+                pos += Character.charCount(codePoint);
+                atomLiteral = new String(Character.toChars(codePoint));
+            }
+
+            final int minRepeats = parseQuantifier();
+            if (minRepeats == 0) {
+                // Optional atom breaks sequence of literal characters and requires nothing
+                addRequired(required, literal);
+            } else if (atomLiteral != null) {
+                literal.append(atomLiteral);
+                if (minRepeats > 1) {
+                    // Repeated atom ends literal, next character doesn't follow it immediately in every match
+                    addRequired(required, literal);
+                }
+            } else {
+                addRequired(required, literal);
+                if (atomQuery != null) {
+                    required.add(atomQuery);
+                }
+            }
+        }
+        addRequired(required, literal);
+        if (required.isEmpty()) {
+            return null;
+        }
+        if (required.size() == 1) {
+            return required.get(0);
+        }
+        final BooleanQuery query = new BooleanQuery();
+        for (Query clause : required) {
+            query.add(clause, BooleanClause.Occur.MUST);
+        }
+        return query;
+    }
+
+    private Query parseGroup() {
+        pos++; // '('
+        if (regex.startsWith("?", pos)) {
+            if (regex.startsWith("?:", pos) || regex.startsWith("?>", pos)) {
+                pos += 2;
+            } else if (regex.startsWith("?=", pos) || regex.startsWith("?!", pos)
+                       || regex.startsWith("?<=", pos) || regex.startsWith("?<!", pos)) {
+                // Lookaround doesn't consume characters, treat it as matching anything
+                skipGroup();
+                return null;
+            } else if (regex.startsWith("?<", pos)) {
+                pos = regex.indexOf('>', pos) + 1;
+            } else {
+                // Inline flags, e.g. (?i), may change meaning of literals
+                unsupported = true;
+                skipGroup();
+                return null;
+            }
+        }
+        final Query query = parseAlternation();
+        pos++; // ')'
+        return query;
+    }
+
+    /** Skips rest of group, position must be right after opening parenthesis. */
+    private void skipGroup() {
+        int depth = 1;
+        while (depth > 0) {
+            final char c = regex.charAt(pos);
+            if (c == '\\') {
+                parseEscape();
+                continue;
+            }
+            if (c == '[') {
+                skipCharacterClass();
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+            pos++;
+        }
+    }
+
+    private void skipCharacterClass() {
+        pos++; // '['
+        if (regex.startsWith("^", pos)) {
+            pos++;
+        }
+        if (regex.startsWith("]", pos)) {
+            pos++;
+        }
+        while (true) {
+            final char c = regex.charAt(pos);
+            if (c == '\\') {
+                parseEscape();
+            } else if (c == '[') {
+                skipCharacterClass();
+            } else {
+                pos++;
+                if (c == ']') {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Parses escape sequence. Returns escaped literal or {@code null} if escape sequence matches not single literal character. */
+    private String parseEscape() {
+        pos++; // '\'
+        final char c = regex.charAt(pos++);
+        switch (c) {
+            case 'Q': {
+                final int end = regex.indexOf("\\E", pos);
+                final String quoted = end < 0 ? regex.substring(pos) : regex.substring(pos, end);
+                pos = end < 0 ? regex.length() : end + 2;
+                return quoted;
+            }
+            case 't':
+                return "\t";
+            case 'n':
+                return "\n";
+            case 'r':
+                return "\r";
+            case 'f':
+                return "\f";
+            case 'a':
+                return "\u0007";
+            case 'e':
+                return "\u001B";
+            case 'x':
+                if (regex.startsWith("{", pos)) {
+                    pos = regex.indexOf('}', pos) + 1;
+                } else {
+                    pos += 2;
+                }
+                return null;
+            case 'u':
+                pos += 4;
+                return null;
+            case 'c':
+                pos++;
+                return null;
+            case '0':
+                for (int i = 0; i < 3 && pos < regex.length() && regex.charAt(pos) >= '0' && regex.charAt(pos) <= '7'; i++) {
+                    pos++;
+                }
+                return null;
+            case 'p':
+            case 'P':
+                if (regex.startsWith("{", pos)) {
+                    pos = regex.indexOf('}', pos) + 1;
+                } else {
+                    pos++;
+                }
+                return null;
+            case 'k':
+                pos = regex.indexOf('>', pos) + 1;
+                return null;
+            default:
+                if (Character.isDigit(c)) {
+                    // Back reference
+                    while (pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+                        pos++;
+                    }
+                    return null;
+                }
+                if (Character.isLetter(c)) {
+                    // Predefined character classes and boundary matchers, e.g. \w, \s, \b
+                    return null;
+                }
+                return String.valueOf(c);
+        }
+    }
+
+    /** Parses optional quantifier and returns min number of repeats of preceding atom, or 1 if there is no quantifier. */
+    private int parseQuantifier() {
+        if (pos >= regex.length()) {
+            return 1;
+        }
+        final int min;
+        final char c = regex.charAt(pos);
+        if (c == '?' || c == '*') {
+            min = 0;
+            pos++;
+        } else if (c == '+') {
+            min = 2;
+            pos++;
+        } else if (c == '{') {
+            final int end = regex.indexOf('}', pos);
+            final String bounds = regex.substring(pos + 1, end);
+            final int comma = bounds.indexOf(',');
+            final int lower = Integer.parseInt(comma < 0 ? bounds : bounds.substring(0, comma));
+            final boolean exact = comma < 0 && lower == 1;
+            min = lower == 0 ? 0 : (exact ? 1 : 2);
+            pos = end + 1;
+        } else {
+            return 1;
+        }
+        // Reluctant or possessive quantifier
+        if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+            pos++;
+        }
+        return min;
+    }
+
+    private static void addRequired(List<Query> required, StringBuilder literal) {
+        final Query query = trigramsQuery(literal.toString());
+        if (query != null) {
+            required.add(query);
+        }
+        literal.setLength(0);
+    }
+
+    /** Query for all trigrams of literal. Trigrams are lower-cased in the same way as the analyzer of trigrams field does it. */
+    private static Query trigramsQuery(String literal) {
+        final int[] codePoints = literal.codePoints().map(Character::toLowerCase).toArray();
+        if (codePoints.length < GRAM_SIZE) {
+            return null;
+        }
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= codePoints.length && trigrams.size() < MAX_TRIGRAMS_PER_LITERAL; i++) {
+            trigrams.add(new String(codePoints, i, GRAM_SIZE));
+        }
+        if (trigrams.size() == 1) {
+            return new TermQuery(new Term(LuceneSearcher.TRIGRAMS_FIELD, trigrams.iterator().next()));
+        }
+        final BooleanQuery query = new BooleanQuery();
+        for (String trigram : trigrams) {
+            query.add(new TermQuery(new Term(LuceneSearcher.TRIGRAMS_FIELD, trigram)), BooleanClause.Occur.MUST);
+        }
+        return query;
+    }
+}
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.util;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * InputStream which content is produced by background task, e.g. archive that is written while it is read by client or content of
+ * other stream that is read ahead. Producer and consumer exchange chunks of bytes through bounded queue, so producer never gets far
+ * ahead of consumer. Failure of producer is rethrown to consumer when it reaches the end of content that was produced before
+ * failure. Closing of this stream stops producer.
+ *
+ * @author andrew00x
+ */
+public final class BackgroundInputStream extends InputStream {
+    /** Writes content of stream. */
+    public interface ContentWriter {
+        void write(OutputStream output) throws Exception;
+    }
+
+    private static final int    CHUNK_SIZE = 64 * 1024;
+    private static final int    MAX_CHUNKS = 16;
+    private static final byte[] EOF        = new byte[0];
+
+    /**
+     * Creates stream which content is written by {@code writer} in background task. Method returns when writer produces first chunk
+     * of content or finishes. If writer fails without producing any content its failure is thrown from this method.
+     */
+    public static BackgroundInputStream writtenBy(ContentWriter writer, Executor executor) throws IOException {
+        final BackgroundInputStream stream = new BackgroundInputStream();
+        executor.execute(() -> stream.produce(writer));
+        try {
+            stream.started.await();
+        } catch (InterruptedException e) {
+            stream.close();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (stream.failure != null && !stream.hasContent) {
+            stream.close();
+            throw asIOException(stream.failure);
+        }
+        return stream;
+    }
+
+    /**
+     * Creates stream which reads ahead content of {@code source} in background task, so reading of source is overlapped with
+     * processing of its content. Source is closed when it is read to the end or when this stream is closed.
+     */
+    public static BackgroundInputStream readAhead(InputStream source, Executor executor) {
+        final BackgroundInputStream stream = new BackgroundInputStream();
+        executor.execute(() -> stream.produce(output -> {
+            try (InputStream in = source) {
+                ByteStreams.copy(in, output);
+            }
+        }));
+        return stream;
+    }
+
+    private final BlockingQueue<byte[]> chunks  = new ArrayBlockingQueue<>(MAX_CHUNKS);
+    private final CountDownLatch        started = new CountDownLatch(1);
+
+    private volatile boolean   closed;
+    private volatile boolean   hasContent;
+    private volatile Throwable failure;
+
+    private byte[] chunk;
+    private int    position;
+
+    private BackgroundInputStream() {
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        final int n = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return chunk == null ? 0 : chunk.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        chunks.clear();
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (chunk == null || position == chunk.length) {
+            if (chunk == EOF) {
+                if (failure != null) {
+                    throw asIOException(failure);
+                }
+                return false;
+            }
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            position = 0;
+        }
+        return true;
+    }
+
+    private void produce(ContentWriter writer) {
+        try (ChunkOutputStream output = new ChunkOutputStream()) {
+            writer.write(output);
+        } catch (InterruptedException e) {
+            failure = e;
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            try {
+                offer(EOF);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            started.countDown();
+        }
+    }
+
+    /** Puts chunk in queue and waits for free space if necessary. Returns {@code false} if consumer closed stream. */
+    private boolean offer(byte[] chunk) throws InterruptedException {
+        while (!closed) {
+            if (chunks.offer(chunk, 100, MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static IOException asIOException(Throwable failure) {
+        if (failure instanceof IOException) {
+            return (IOException)failure;
+        }
+        if (failure instanceof InterruptedException) {
+            return new InterruptedIOException(failure.getMessage());
+        }
+        return new IOException(failure.getMessage(), failure);
+    }
+
+    private class ChunkOutputStream extends OutputStream {
+        private byte[] buffer = new byte[CHUNK_SIZE];
+        private int    count;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                send();
+            }
+            buffer[count++] = (byte)b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    send();
+                }
+                final int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (count > 0) {
+                send();
+            }
+        }
+
+        private void send() throws IOException {
+            final byte[] full = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+            try {
+                if (!offer(full)) {
+                    throw new IOException("Stream closed");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            hasContent = true;
+            started.countDown();
+            buffer = new byte[CHUNK_SIZE];
+            count = 0;
+        }
+    }
+}
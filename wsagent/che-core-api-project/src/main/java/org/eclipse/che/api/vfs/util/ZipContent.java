@@ -16,6 +16,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.ZipEntry;
@@ -87,6 +88,50 @@ public final class ZipContent {
         }
     }
 
+    /**
+     * Wraps uncompressed content of zip stream. Reading of returned stream fails with IOException when number of uncompressed bytes
+     * exceeds the number of compressed bytes, counted by {@code compressedDataCounter}, more than allowed ratio. Unlike
+     * {@link #of(InputStream)} this method doesn't spool zip stream and doesn't read it twice, zip bomb is detected while content of
+     * zip is extracted.
+     */
+    public static InputStream checkingCompressionRatio(InputStream uncompressed, CountingInputStream compressedDataCounter) {
+        return new FilterInputStream(uncompressed) {
+            private long uncompressedBytes;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    count(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int bytes = super.read(b, off, len);
+                if (bytes > 0) {
+                    count(bytes);
+                }
+                return bytes;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                count(skipped);
+                return skipped;
+            }
+
+            private void count(long bytes) throws IOException {
+                uncompressedBytes += bytes;
+                if (uncompressedBytes > ZIP_THRESHOLD && uncompressedBytes > (ZIP_RATIO * compressedDataCounter.getByteCount())) {
+                    throw new IOException("Zip bomb detected");
+                }
+            }
+        };
+    }
+
     private final InputStream zipContent;
 
     private ZipContent(InputStream zipContent) {
@@ -78,6 +78,7 @@ import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import javax.ws.rs.core.Application;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -114,7 +115,9 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 
 /**
  * @author andrew00x
@@ -969,6 +972,69 @@ public class ProjectServiceTest {
         assertEquals(new String(writer.getBody()), myContent);
     }
 
+    @Test
+    public void testGetFileContentRange() throws Exception {
+        String myContent = "to be or not to be";
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", myContent.getBytes());
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=3-7"));
+        ContainerResponse response = launcher.service(GET,
+                                                      String.format("http://localhost:8080/api/project/%s/file/my_project/test.txt",
+                                                                    workspace),
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range"), "bytes 3-7/" + myContent.length());
+        assertEquals(new String(writer.getBody()), "be or");
+        assertNotNull(response.getHttpHeaders().getFirst("ETag"));
+    }
+
+    @Test
+    public void testGetFileContentSuffixRange() throws Exception {
+        String myContent = "to be or not to be";
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", myContent.getBytes());
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=-5"));
+        ContainerResponse response = launcher.service(GET,
+                                                      String.format("http://localhost:8080/api/project/%s/file/my_project/test.txt",
+                                                                    workspace),
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(new String(writer.getBody()), "to be");
+    }
+
+    @Test
+    public void testGetFileContentNotSatisfiableRange() throws Exception {
+        String myContent = "to be or not to be";
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", myContent.getBytes());
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=100-"));
+        ContainerResponse response = launcher.service(GET,
+                                                      String.format("http://localhost:8080/api/project/%s/file/my_project/test.txt",
+                                                                    workspace),
+                                                      "http://localhost:8080/api", headers, null, null);
+        assertEquals(response.getStatus(), 416);
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range"), "bytes */" + myContent.length());
+    }
+
+    @Test
+    public void testGetFileContentNotModified() throws Exception {
+        String myContent = "to be or not to be";
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", myContent.getBytes());
+        String url = String.format("http://localhost:8080/api/project/%s/file/my_project/test.txt", workspace);
+        ContainerResponse response = launcher.service(GET, url, "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        Object entityTag = response.getHttpHeaders().getFirst("ETag");
+        assertNotNull(entityTag);
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", singletonList(entityTag.toString()));
+        response = launcher.service(GET, url, "http://localhost:8080/api", headers, null, null);
+        assertEquals(response.getStatus(), 304);
+        assertNull(response.getEntity());
+    }
+
     @Test
     public void testUpdateFileContent() throws Exception {
         String myContent = "<test>hello</test>";
@@ -1833,6 +1899,97 @@ public class ProjectServiceTest {
         Assert.assertFalse(names.contains("x/test.txt"));
     }
 
+    @Test
+    public void testGetTreeStream() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b/c");
+        a.createFolder("x").createFile("test.txt", "test".getBytes());
+        TreeElement tree = getTreeStream(String.format("http://localhost:8080/api/project/%s/streamtree/my_project/a?depth=2&includeFiles=true",
+                                                       workspace));
+        assertEquals(tree.getNode().getName(), "a");
+        validateFolderLinks(tree.getNode());
+        assertNotNull(tree.getEtag());
+        Assert.assertFalse(tree.isTruncated());
+        Set<String> names = new LinkedHashSet<>();
+        for (TreeElement subTree : tree.getChildren()) {
+            String name = subTree.getNode().getName();
+            names.add(name);
+            for (TreeElement subSubTree : subTree.getChildren()) {
+                names.add(name + "/" + subSubTree.getNode().getName());
+            }
+        }
+        assertEquals(names, new LinkedHashSet<>(Arrays.asList("b", "b/c", "x", "x/test.txt")));
+    }
+
+    @Test
+    public void testGetTreeStreamWithMaxItems() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b");
+        a.createFolder("c");
+        a.createFolder("d");
+        TreeElement tree = getTreeStream(String.format("http://localhost:8080/api/project/%s/streamtree/my_project/a?maxItems=2",
+                                                       workspace));
+        assertEquals(tree.getChildren().size(), 2);
+        assertTrue(tree.isTruncated());
+    }
+
+    @Test
+    public void testGetTreeStreamSkipsChildrenOfNotModifiedFolder() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b");
+        String treeUrl = String.format("http://localhost:8080/api/project/%s/streamtree/my_project/a", workspace);
+        String etag = getTreeStream(treeUrl).getEtag();
+
+        TreeElement notModifiedTree = getTreeStream(treeUrl + "?etag=" + etag);
+        assertTrue(notModifiedTree.isNotModified());
+        assertTrue(notModifiedTree.getChildren().isEmpty());
+
+        a.createFolder("c");
+        TreeElement modifiedTree = getTreeStream(treeUrl + "?etag=" + etag);
+        Assert.assertFalse(modifiedTree.isNotModified());
+        assertEquals(modifiedTree.getChildren().size(), 2);
+    }
+
+    @Test
+    public void testGetTreeStreamTagIsChangedWhenNestedFileIsModified() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        FileEntry file = a.createFolder("b/c").createFile("test.txt", "test".getBytes());
+        String treeUrl = String.format("http://localhost:8080/api/project/%s/streamtree/my_project/a?depth=3&includeFiles=true",
+                                       workspace);
+        String etag = getTreeStream(treeUrl).getEtag();
+
+        file.updateContent("modified content".getBytes());
+        TreeElement tree = getTreeStream(treeUrl + "&etag=" + etag);
+
+        Assert.assertFalse(tree.isNotModified());
+        assertNotEquals(tree.getEtag(), etag);
+        TreeElement c = tree.getChildren().get(0).getChildren().get(0);
+        assertEquals(c.getNode().getName(), "c");
+        assertEquals(c.getChildren().size(), 1);
+    }
+
+    @Test
+    public void testGetTreeStreamTagDependsOnDepthAndMaxItems() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry a = myProject.getBaseFolder().createFolder("a");
+        a.createFolder("b/c");
+        a.createFolder("d");
+        String treeUrl = String.format("http://localhost:8080/api/project/%s/streamtree/my_project/a", workspace);
+        String etag = getTreeStream(treeUrl + "?depth=1").getEtag();
+
+        TreeElement deeperTree = getTreeStream(treeUrl + "?depth=3&etag=" + etag);
+        Assert.assertFalse(deeperTree.isNotModified());
+        assertEquals(deeperTree.getChildren().get(0).getChildren().size(), 1);
+
+        TreeElement limitedTree = getTreeStream(treeUrl + "?depth=1&maxItems=1&etag=" + etag);
+        Assert.assertFalse(limitedTree.isNotModified());
+        assertTrue(limitedTree.isTruncated());
+    }
+
 
     @SuppressWarnings("unchecked")
     @Test
@@ -2149,6 +2306,14 @@ public class ProjectServiceTest {
         assertEquals(link.getHref(), "http://localhost:8080/api/project/" + workspace + "/file" + item.getPath());
     }
 
+    private TreeElement getTreeStream(String url) throws Exception {
+        ContainerResponse response = launcher.service(GET, url, "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput)response.getEntity()).write(output);
+        return DtoFactory.getInstance().createDtoFromJson(output.toString("UTF-8"), TreeElement.class);
+    }
+
     private void validateFolderLinks(ItemReference item) {
         Link link = item.getLink("children");
         assertNotNull(link);
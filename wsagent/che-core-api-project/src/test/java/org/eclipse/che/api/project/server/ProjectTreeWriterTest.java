@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.UriBuilder;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author andrew00x
+ */
+public class ProjectTreeWriterTest {
+    @Test(expectedExceptions = ServerException.class)
+    public void failsBeforeTreeIsWrittenIfChildrenOfNestedFolderCanNotBeRead() throws Exception {
+        FolderEntry folder = mockFolder("/a");
+        FolderEntry child = mockFolder("/a/b");
+        doReturn(singletonList(child)).when(folder).getChildFolders();
+        when(child.getChildFolders()).thenThrow(new ServerException("unable read folder"));
+
+        new ProjectTreeWriter(folder, "workspace", 2, false, -1, emptySet(), mock(UriBuilder.class));
+    }
+
+    @Test
+    public void readsChildrenOfEachFolderOnce() throws Exception {
+        FolderEntry folder = mockFolder("/a");
+        FolderEntry child = mockFolder("/a/b");
+        doReturn(singletonList(child)).when(folder).getChildFolders();
+
+        new ProjectTreeWriter(folder, "workspace", 2, false, -1, emptySet(), mock(UriBuilder.class));
+
+        verify(folder, times(1)).getChildFolders();
+        verify(child, times(1)).getChildFolders();
+    }
+
+    private FolderEntry mockFolder(String path) {
+        FolderEntry folder = mock(FolderEntry.class);
+        when(folder.getPath()).thenReturn(Path.of(path));
+        when(folder.getName()).thenReturn(Path.of(path).getName());
+        when(folder.isFolder()).thenReturn(true);
+        return folder;
+    }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Measures throughput of {@link PathLockFactory} when threads lock the same file, sibling files in one folder and files in
+ * independent folders. All locks have common ancestor, at least root, so the last two cases show cost of intention locks of
+ * ancestors. Usage: {@code PathLockFactoryBenchmark [threads] [locks per thread]}.
+ *
+ * @author andrew00x
+ */
+public class PathLockFactoryBenchmark {
+    public static void main(String[] args) throws Exception {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        final int locks = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        final Path file = Path.of("/projects/che/pom.xml");
+        for (int i = 0; i < 2; i++) {
+            final boolean report = i > 0; // the first round warms up
+            run("exclusive, same file", threads, locks, report, thread -> file, true);
+            run("shared, same file", threads, locks, report, thread -> file, false);
+            run("exclusive, sibling files", threads, locks, report, thread -> Path.of("/projects/che/file" + thread), true);
+            run("exclusive, independent folders", threads, locks, report,
+                thread -> Path.of("/projects/project" + thread + "/src/main/java/Main.java"), true);
+        }
+    }
+
+    private static void run(String name, int threads, int locks, boolean report, IntFunction<Path> paths, boolean exclusive)
+            throws Exception {
+        final PathLockFactory lockFactory = new PathLockFactory(threads);
+        final CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                final PathLockFactory.PathLock lock = lockFactory.getLock(paths.apply(i), exclusive);
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int l = 0; l < locks; l++) {
+                        lock.acquire(60000).release();
+                    }
+                    return null;
+                }));
+            }
+            barrier.await();
+            final long start = System.nanoTime();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            if (report) {
+                System.out.printf("%-32s %12.0f locks/s%n", name, threads * locks / seconds);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        lockFactory.checkClean();
+    }
+}
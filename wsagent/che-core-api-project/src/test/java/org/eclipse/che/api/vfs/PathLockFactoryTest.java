@@ -13,8 +13,10 @@ package org.eclipse.che.api.vfs;
 import junit.framework.TestCase;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -236,4 +238,230 @@ public class PathLockFactoryTest extends TestCase {
         waiter.await();
         assertEquals(2, acquired.get());
     }
+
+    public void testSiblingLocks() throws Throwable {
+        final Path sibling = path.getParent().newPath("d");
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true);
+                lock.acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            // Exclusive lock of sibling must not block, locks of parent must time out.
+            pathLockFactory.getLock(sibling, true).acquire(100).release();
+            try {
+                pathLockFactory.getLock(path.getParent(), false).acquire(100);
+                fail();
+            } catch (RuntimeException e) {
+                // OK
+            }
+        } finally {
+            finisher.countDown();
+        }
+        t.join();
+        pathLockFactory.checkClean();
+    }
+
+    public void testChildLockWhileParentIsShared() throws Throwable {
+        final Path parent = path.getParent();
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(parent, false);
+                lock.acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            pathLockFactory.getLock(path, false).acquire(100).release();
+            try {
+                pathLockFactory.getLock(path, true).acquire(100);
+                fail();
+            } catch (RuntimeException e) {
+                // OK
+            }
+        } finally {
+            finisher.countDown();
+        }
+        t.join();
+        pathLockFactory.getLock(path, true).acquire(100).release();
+        pathLockFactory.checkClean();
+    }
+
+    public void testUpgradeOfSharedLocksByTwoThreads() throws Throwable {
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final AtomicInteger upgraded = new AtomicInteger(0);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>(2));
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                try {
+                    barrier.await();
+                    pathLockFactory.getLock(path, true).acquire(10000).release();
+                    upgraded.incrementAndGet();
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        Thread t1 = new Thread(task);
+        Thread t2 = new Thread(task);
+        final long start = System.currentTimeMillis();
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+        // Thread that holds lock of path re-locks it without waiting for other threads.
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(Collections.emptyList(), errors);
+        assertEquals(2, upgraded.get());
+        pathLockFactory.checkClean();
+    }
+
+    public void testMutualUpgradeOfParentSharedLocksFails() throws Throwable {
+        final Path parent = path.getParent();
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final AtomicInteger upgraded = new AtomicInteger(0);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>(2));
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(parent, false).acquire();
+                try {
+                    barrier.await();
+                    // Exclusive lock of child needs exclusive intention lock of parent
+                    pathLockFactory.getLock(path, true).acquire(10000).release();
+                    upgraded.incrementAndGet();
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        Thread t1 = new Thread(task);
+        Thread t2 = new Thread(task);
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+        assertEquals(1, upgraded.get());
+        assertEquals(1, errors.size());
+        pathLockFactory.checkClean();
+    }
+
+    public void testUpgradeDoesNotWaitForReaders() throws Throwable {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        PathLockFactory.PathLock shared = pathLockFactory.getLock(path, false).acquire();
+        try {
+            PathLockFactory.PathLock exclusive = pathLockFactory.getLock(path, true).acquire(100);
+            final AtomicBoolean locked = new AtomicBoolean(true);
+            Thread other = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        // Threads that don't hold lock of path still can't get it
+                        pathLockFactory.getLock(path, false).acquire(100).release();
+                    } catch (RuntimeException e) {
+                        locked.set(false);
+                    }
+                }
+            };
+            other.start();
+            other.join();
+            exclusive.release();
+            assertFalse(locked.get());
+        } finally {
+            shared.release();
+            finisher.countDown();
+            t.join();
+        }
+        pathLockFactory.checkClean();
+    }
+
+    public void testUpgradeOfDescendantWaitsForReadersOfPath() throws Throwable {
+        final Path parent = path.getParent();
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(parent, false).acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        PathLockFactory.PathLock shared = pathLockFactory.getLock(parent, false).acquire();
+        try {
+            try {
+                pathLockFactory.getLock(path, true).acquire(100);
+                fail();
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage().startsWith("Get lock timeout"));
+            }
+            finisher.countDown();
+            t.join();
+            pathLockFactory.getLock(path, true).acquire(1000).release();
+        } finally {
+            shared.release();
+        }
+        pathLockFactory.checkClean();
+    }
+
+    public void testLockOfAncestorWhileDescendantIsLockedBySameThread() throws Throwable {
+        PathLockFactory.PathLock child = pathLockFactory.getLock(path, true).acquire();
+        pathLockFactory.getLock(Path.ROOT, false).acquire(100).release();
+        pathLockFactory.getLock(path.getParent(), true).acquire(100).release();
+        child.release();
+        pathLockFactory.checkClean();
+    }
 }
@@ -32,9 +32,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -105,6 +111,80 @@ public class ZipArchiverTest {
         assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
     }
 
+    @Test
+    public void compressesFolderWithBigFilesToArchiveInParallel() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        StringBuilder bigContent = new StringBuilder();
+        for (int i = 0; bigContent.length() < ParallelZipWriter.BLOCK_SIZE * 3; i++) {
+            bigContent.append("line ").append(i).append('\n');
+        }
+        folder.getChild(Path.of("a")).createFile("_big.txt", bigContent.toString());
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new ZipArchiver(folder, executor).compress(compressedFolder);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
+    }
+
+    @Test
+    public void writesZip64LocalHeaderAndDataDescriptorForFileThatMayExceed4GiB() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        // Only length of file decides whether ZIP64 is needed, so there is no need to compress 4 GiB of content
+        try (ParallelZipWriter zipWriter = new ParallelZipWriter(archive, null, 1)) {
+            zipWriter.putFile("big.txt", System.currentTimeMillis(), 5L << 30, () -> new ByteArrayInputStream(TEST_CONTENT_BYTES));
+            zipWriter.finish();
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(archive.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(45, bytes.getShort(4));
+        assertEquals(0xFFFFFFFF, bytes.getInt(18));
+        assertEquals(0xFFFFFFFF, bytes.getInt(22));
+        int nameLength = bytes.getShort(26);
+        int extraLength = bytes.getShort(28);
+        assertEquals(20, extraLength);
+        assertEquals(1, bytes.getShort(30 + nameLength));
+        assertEquals(16, bytes.getShort(32 + nameLength));
+
+        File zip = new File(testDirectory, "big.zip");
+        Files.write(zip.toPath(), archive.toByteArray());
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            ZipEntry entry = zipFile.getEntry("big.txt");
+            try (InputStream content = zipFile.getInputStream(entry)) {
+                assertEquals(TEST_CONTENT, new String(ByteStreams.toByteArray(content)));
+            }
+            int dataDescriptor = 30 + nameLength + extraLength + (int)entry.getCompressedSize();
+            assertEquals(0x08074b50, bytes.getInt(dataDescriptor));
+            assertEquals(entry.getCrc(), bytes.getInt(dataDescriptor + 4) & 0xFFFFFFFFL);
+            assertEquals(entry.getCompressedSize(), bytes.getLong(dataDescriptor + 8));
+            assertEquals(entry.getSize(), bytes.getLong(dataDescriptor + 16));
+        }
+    }
+
+    @Test
+    public void extractsArchiveToFolderWithReadAhead() throws Exception {
+        byte[] archive = createTestZipArchive();
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            new ZipArchiver(folder, executor).extract(new ByteArrayInputStream(archive), false, 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+
+        assertEquals(readArchiveEntries(new ByteArrayInputStream(archive)), entries);
+    }
+
     @Test
     public void extractsArchiveToFolder() throws Exception {
         byte[] archive = createTestZipArchive();
@@ -203,9 +283,10 @@ public class ZipArchiverTest {
         if (virtualFile.isFolder()) {
             return "<none>";
         }
-        try {
-            return virtualFile.getContentAsString();
-        } catch (ForbiddenException | ServerException e) {
+        // Content of big files can't be retrieved as string
+        try (InputStream content = virtualFile.getContent()) {
+            return new String(ByteStreams.toByteArray(content));
+        } catch (ForbiddenException | ServerException | IOException e) {
             throw new RuntimeException(e);
         }
     }
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class FileHashSumsSerializerTest {
+    private FileHashSumsSerializer hashSumsSerializer;
+
+    @Before
+    public void setUp() throws Exception {
+        hashSumsSerializer = new FileHashSumsSerializer();
+    }
+
+    @Test
+    public void writesAndReadsHashSums() throws Exception {
+        Map<String, FileHashSum> hashSums = ImmutableMap.of("a.txt", new FileHashSum(5, 1000, "0123456789abcdef"),
+                                                            "b.txt", new FileHashSum(0, 2000, "fedcba9876543210"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        hashSumsSerializer.write(new DataOutputStream(bytes), hashSums);
+        Map<String, FileHashSum> read = hashSumsSerializer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(hashSums, read);
+    }
+
+    @Test
+    public void readsEmptyHashSums() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        hashSumsSerializer.write(new DataOutputStream(bytes), ImmutableMap.of());
+        Map<String, FileHashSum> read = hashSumsSerializer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(0, read.size());
+    }
+}
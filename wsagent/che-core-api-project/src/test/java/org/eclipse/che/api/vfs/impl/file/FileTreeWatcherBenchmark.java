@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.commons.lang.IoUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stress harness of {@link FileTreeWatcher}. Creates, modifies and deletes all files of tree of directories in bursts and measures
+ * time until all notifications are delivered, number of duplicated notifications and heap that is used by watcher. Runs with all
+ * entries tracked, with entries of most directories not tracked and with most directories scanned periodically.
+ * Usage: {@code FileTreeWatcherBenchmark [directories] [files per directory]}.
+ *
+ * @author andrew00x
+ */
+public class FileTreeWatcherBenchmark {
+    private static final long TIMEOUT_MS = 60000;
+
+    public static void main(String[] args) throws Exception {
+        final int directories = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        final int files = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        run("all entries tracked", directories, files, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        run("entries not tracked", directories, files, Integer.MAX_VALUE, files);
+        run("directories scanned", directories, files, 1, Integer.MAX_VALUE);
+    }
+
+    private static void run(String name, int directories, int files, int maxNativeWatches, int maxTrackedItems) throws Exception {
+        final File root = Files.createTempDirectory("watcher").toFile();
+        final EventCounter counter = new EventCounter();
+        FileTreeWatcher watcher = null;
+        try {
+            for (int d = 0; d < directories; d++) {
+                assertTrue(new File(root, "dir" + d).mkdir());
+            }
+            final long heapBefore = usedHeap();
+            watcher = new FileTreeWatcher(root, Collections.emptySet(), counter, maxNativeWatches, maxTrackedItems);
+            watcher.startup();
+            final int expected = directories * files;
+
+            System.out.printf("%s, %d files in %d directories%n", name, expected, directories);
+            burst("create", counter, FileWatcherEventType.CREATED, expected, () -> forEachFile(root, directories, files, file -> {
+                Files.write(file.toPath(), "a".getBytes(UTF_8));
+            }));
+            // Make sure modification time is changed
+            Thread.sleep(1000);
+            burst("modify", counter, FileWatcherEventType.MODIFIED, expected, () -> forEachFile(root, directories, files, file -> {
+                Files.write(file.toPath(), "b".getBytes(UTF_8));
+            }));
+            System.out.printf("  heap used by watcher %8.1f MiB%n", (usedHeap() - heapBefore) / (1024D * 1024D));
+            burst("delete", counter, FileWatcherEventType.DELETED, expected, () -> forEachFile(root, directories, files, file -> {
+                Files.delete(file.toPath());
+            }));
+        } finally {
+            if (watcher != null) {
+                watcher.shutdown();
+            }
+            IoUtil.deleteRecursive(root);
+        }
+    }
+
+    private static void burst(String name, EventCounter counter, FileWatcherEventType type, int expected, IoTask task)
+            throws Exception {
+        counter.reset();
+        final long start = System.currentTimeMillis();
+        task.run();
+        final long written = System.currentTimeMillis();
+        final long deadline = written + TIMEOUT_MS;
+        while (counter.count(type) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        final long delivered = System.currentTimeMillis();
+        System.out.printf("  %-6s written in %6d ms, %6d of %6d notifications %6d ms after that, %4d duplicates, %4d unexpected%n",
+                          name, written - start, counter.count(type), expected, delivered - written, counter.duplicates.get(),
+                          counter.total.get() - counter.count(type) - counter.duplicates.get());
+    }
+
+    private static void forEachFile(File root, int directories, int files, FileTask task) throws IOException {
+        for (int d = 0; d < directories; d++) {
+            final File directory = new File(root, "dir" + d);
+            for (int f = 0; f < files; f++) {
+                task.run(new File(directory, "file" + f + ".txt"));
+            }
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void assertTrue(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    private interface FileTask {
+        void run(File file) throws IOException;
+    }
+
+    /** Counts notifications by type and notifications that are delivered more than once for the same path. */
+    private static class EventCounter implements FileWatcherNotificationHandler {
+        final Map<String, FileWatcherEventType> notified   = new ConcurrentHashMap<>();
+        final AtomicInteger                     total      = new AtomicInteger();
+        final AtomicInteger                     duplicates = new AtomicInteger();
+
+        void reset() {
+            notified.clear();
+            total.set(0);
+            duplicates.set(0);
+        }
+
+        int count(FileWatcherEventType type) {
+            return (int)notified.values().stream().filter(type::equals).count();
+        }
+
+        @Override
+        public void handleFileWatcherEvent(FileWatcherEventType eventType, File watchRoot, String subPath, boolean isDir) {
+            total.incrementAndGet();
+            if (notified.put(subPath, eventType) == eventType) {
+                duplicates.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void started(File watchRoot) {
+        }
+
+        @Override
+        public void errorOccurred(File watchRoot, Throwable cause) {
+            cause.printStackTrace();
+        }
+
+        @Override
+        public boolean addNotificationListener(FileWatcherNotificationListener fileWatcherNotificationListener) {
+            return false;
+        }
+
+        @Override
+        public boolean removeNotificationListener(FileWatcherNotificationListener fileWatcherNotificationListener) {
+            return false;
+        }
+    }
+}
@@ -206,6 +206,26 @@ public class FileTreeWatcherMassiveIoOperationTest {
         assertThatCollectionsContainsSameItemsOrFailWithDiff(eventsCaptor.getAllValues(), created);
     }
 
+    @Test
+    public void watchesTreeCreationWhenLimitOfNativeWatchesIsReached() throws Exception {
+        FileWatcherNotificationHandler notificationListener = aNotificationListener();
+        fileTreeWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationListener, 10);
+        fileTreeWatcher.startup();
+        Thread.sleep(500);
+
+        List<String> allFilesAndDirs = fileWatcherTestTree.createTree("", 7, 5);
+
+        Thread.sleep(10000);
+
+        verify(notificationListener, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationListener, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationListener, never()).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> createdEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationListener, times(allFilesAndDirs.size())).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), createdEvents.capture(), anyBoolean());
+        assertThatCollectionsContainsSameItemsOrFailWithDiff(createdEvents.getAllValues(), allFilesAndDirs);
+    }
+
     private FileWatcherNotificationHandler aNotificationListener() {
         return mock(FileWatcherNotificationHandler.class);
     }
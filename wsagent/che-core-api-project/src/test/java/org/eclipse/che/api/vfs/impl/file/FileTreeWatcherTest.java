@@ -22,8 +22,10 @@ import java.nio.file.FileSystems;
 import java.nio.file.PathMatcher;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.vfs.impl.file.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.vfs.impl.file.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.vfs.impl.file.FileWatcherEventType.MODIFIED;
@@ -33,6 +35,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -186,6 +189,32 @@ public class FileTreeWatcherTest {
         assertEquals(deleted, newHashSet(deletedEvents.getAllValues()));
     }
 
+    @Test
+    public void notifiesAboutEachEntryOfDeletedDirectoryTreeOnce() throws Exception {
+        fileWatcherTestTree.createDirectory("", "watched");
+        Set<String> deleted = newHashSet(fileWatcherTestTree.createTree("watched", 3, 3));
+        deleted.add("watched");
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        fileWatcherTestTree.delete("watched");
+
+        Thread.sleep(5000);
+
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), anyString(), anyBoolean());
+
+        ArgumentCaptor<String> deletedEvents = ArgumentCaptor.forClass(String.class);
+        verify(notificationHandler, times(deleted.size()))
+                .handleFileWatcherEvent(eq(DELETED), eq(testDirectory), deletedEvents.capture(), anyBoolean());
+        assertEquals(deleted, newHashSet(deletedEvents.getAllValues()));
+    }
+
     @Test
     public void doesNotWatchExcludedDirectories() throws Exception {
         fileWatcherTestTree.createDirectory("", "excluded");
@@ -241,6 +270,87 @@ public class FileTreeWatcherTest {
         assertEquals(newHashSet(created), newHashSet(createdEvents.getAllValues()));
     }
 
+    @Test
+    public void collapsesChangesOfTheSamePathWithinDebounceWindow() throws Exception {
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        CountDownLatch markerCreated = new CountDownLatch(1);
+        countDownOnEvent(notificationHandler, markerCreated, CREATED, "marker");
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        String file = fileWatcherTestTree.createFile("");
+        fileWatcherTestTree.updateFile(file);
+        fileWatcherTestTree.delete(file);
+        // Changes are processed in order, so changes of file are processed when marker is reported
+        fileWatcherTestTree.createFile("", "marker");
+
+        assertTrue(markerCreated.await(10, SECONDS));
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(any(FileWatcherEventType.class), eq(testDirectory), eq(file), anyBoolean());
+    }
+
+    @Test
+    public void scansDirectoriesWhenLimitOfNativeWatchesIsReached() throws Exception {
+        fileWatcherTestTree.createDirectory("", "watched");
+        String updatedFile = fileWatcherTestTree.createFile("watched");
+        String createdFile = "watched/created";
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        CountDownLatch notified = new CountDownLatch(2);
+        countDownOnEvent(notificationHandler, notified, CREATED, createdFile);
+        countDownOnEvent(notificationHandler, notified, MODIFIED, updatedFile);
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler, 1);
+        fileWatcher.startup();
+
+        Thread.sleep(1000);
+
+        fileWatcherTestTree.createFile("watched", "created");
+        fileWatcherTestTree.updateFile(updatedFile);
+
+        assertTrue(notified.await(15, SECONDS));
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler, never()).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), anyString(), anyBoolean());
+        verify(notificationHandler).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), eq(createdFile), eq(false));
+        verify(notificationHandler).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), eq(updatedFile), eq(false));
+    }
+
+    @Test
+    public void reportsChangesByNativeEventsWhenLimitOfTrackedFilesIsReached() throws Exception {
+        fileWatcherTestTree.createDirectory("", "watched");
+        String updatedFile = fileWatcherTestTree.createFile("watched");
+        String deletedFile = fileWatcherTestTree.createFile("watched");
+        String createdFile = "watched/created";
+
+        FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
+        CountDownLatch notified = new CountDownLatch(4);
+        countDownOnEvent(notificationHandler, notified, CREATED, createdFile);
+        countDownOnEvent(notificationHandler, notified, MODIFIED, updatedFile);
+        countDownOnEvent(notificationHandler, notified, DELETED, deletedFile);
+        countDownOnEvent(notificationHandler, notified, CREATED, "watched/marker");
+        // Entry of root directory is tracked, entries of directory 'watched' are not
+        fileWatcher = new FileTreeWatcher(testDirectory, newHashSet(), notificationHandler, Integer.MAX_VALUE, 1);
+        fileWatcher.startup();
+
+        Thread.sleep(500);
+
+        fileWatcherTestTree.createFile("watched", "created");
+        fileWatcherTestTree.updateFile(updatedFile);
+        fileWatcherTestTree.delete(deletedFile);
+        String temporaryFile = fileWatcherTestTree.createFile("watched");
+        fileWatcherTestTree.delete(temporaryFile);
+        fileWatcherTestTree.createFile("watched", "marker");
+
+        assertTrue(notified.await(10, SECONDS));
+        verify(notificationHandler, never()).errorOccurred(eq(testDirectory), any(Throwable.class));
+        verify(notificationHandler).handleFileWatcherEvent(eq(CREATED), eq(testDirectory), eq(createdFile), eq(false));
+        verify(notificationHandler).handleFileWatcherEvent(eq(MODIFIED), eq(testDirectory), eq(updatedFile), eq(false));
+        verify(notificationHandler).handleFileWatcherEvent(eq(DELETED), eq(testDirectory), eq(deletedFile), eq(false));
+        verify(notificationHandler, never()).handleFileWatcherEvent(any(FileWatcherEventType.class), eq(testDirectory), eq(temporaryFile),
+                                                                    anyBoolean());
+    }
+
     @Test
     public void notifiesNotificationListenerWhenStarted() throws Exception {
         FileWatcherNotificationHandler notificationHandler = aNotificationHandler();
@@ -271,4 +381,15 @@ public class FileTreeWatcherTest {
     private FileWatcherNotificationHandler aNotificationHandler() {
         return mock(FileWatcherNotificationHandler.class);
     }
+
+    /** Counts down latch when handler is notified about event of the given type for the given path. */
+    private void countDownOnEvent(FileWatcherNotificationHandler notificationHandler,
+                                  CountDownLatch latch,
+                                  FileWatcherEventType eventType,
+                                  String path) {
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(notificationHandler).handleFileWatcherEvent(eq(eventType), eq(testDirectory), eq(path), anyBoolean());
+    }
 }
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import org.eclipse.che.api.core.util.FileCleaner;
+import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.eclipse.che.commons.lang.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class LocalHashSumsCounterTest {
+    private File                   testDirectory;
+    private LocalVirtualFileSystem fileSystem;
+    private PathLockFactory        pathLockFactory;
+    private ExecutorService        executor;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
+        assertTrue(testDirectory.mkdir());
+        fileSystem = new LocalVirtualFileSystem(testDirectory,
+                                                mock(ArchiverFactory.class),
+                                                null,
+                                                mock(AbstractVirtualFileSystemProvider.CloseCallback.class));
+        pathLockFactory = new PathLockFactory(2);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        pathLockFactory.checkClean();
+        IoUtil.deleteRecursive(testDirectory);
+        FileCleaner.stop();
+    }
+
+    @Test
+    public void countsHashSumsOfFilesInFolderTree() throws Exception {
+        VirtualFile folder = fileSystem.getRoot().createFolder("a");
+        folder.createFile("file1", "file1");
+        folder.createFolder("b").createFile("file2", "file2");
+
+        assertEquals(newHashSet(Pair.of(md5("file1".getBytes()), "file1"), Pair.of(md5("file2".getBytes()), "b/file2")),
+                     newHashSet(createCounter().countHashSums((LocalVirtualFile)folder)));
+    }
+
+    @Test
+    public void storesHashSumsInServiceDirectoryOfRoot() throws Exception {
+        VirtualFile folder = fileSystem.getRoot().createFolder("a");
+        folder.createFile("file1", "file1");
+        folder.createFolder("b").createFile("file2", "file2");
+
+        createCounter().countHashSums((LocalVirtualFile)folder);
+
+        assertTrue(getHashSumsIoFile("/a").isFile());
+        assertTrue(getHashSumsIoFile("/a/b").isFile());
+        assertFalse(new File(testDirectory, "a/.vfs").exists());
+        assertFalse(new File(testDirectory, "a/b/.vfs").exists());
+    }
+
+    @Test
+    public void doesNotFollowSymbolicLinksToFolders() throws Exception {
+        LocalVirtualFile folder = (LocalVirtualFile)fileSystem.getRoot().createFolder("a");
+        folder.createFile("file1", "file1");
+        java.nio.file.Files.createSymbolicLink(new File(folder.toIoFile(), "loop").toPath(), folder.toIoFile().toPath());
+
+        assertEquals(newHashSet(Pair.of(md5("file1".getBytes()), "file1")), newHashSet(createCounter().countHashSums(folder)));
+    }
+
+    @Test
+    public void reusesStoredHashSumOfUnchangedFile() throws Exception {
+        LocalVirtualFile folder = (LocalVirtualFile)fileSystem.getRoot().createFolder("a");
+        File ioFile = ((LocalVirtualFile)folder.createFile("file1", "file1")).toIoFile();
+        createCounter().countHashSums(folder);
+        // Replace stored hash sum, counter must trust it while length and modification time of file are the same
+        writeHashSums(getHashSumsIoFile("/a"), "file1", new FileHashSum(ioFile.length(), ioFile.lastModified(), "stored"));
+
+        assertEquals(newHashSet(Pair.of("stored", "file1")), newHashSet(createCounter().countHashSums(folder)));
+    }
+
+    @Test
+    public void recountsHashSumOfModifiedFile() throws Exception {
+        LocalVirtualFile folder = (LocalVirtualFile)fileSystem.getRoot().createFolder("a");
+        File ioFile = ((LocalVirtualFile)folder.createFile("file1", "file1")).toIoFile();
+        LocalHashSumsCounter counter = createCounter();
+        counter.countHashSums(folder);
+
+        Files.write("modified".getBytes(), ioFile);
+        assertTrue(ioFile.setLastModified(ioFile.lastModified() + 10000));
+
+        assertEquals(newHashSet(Pair.of(md5("modified".getBytes()), "file1")), newHashSet(counter.countHashSums(folder)));
+    }
+
+    @Test
+    public void countsHashSumOfLargeFile() throws Exception {
+        LocalVirtualFile folder = (LocalVirtualFile)fileSystem.getRoot().createFolder("a");
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random().nextBytes(content);
+        Files.write(content, new File(folder.toIoFile(), "large"));
+
+        assertEquals(newHashSet(Pair.of(md5(content), "large")), newHashSet(createCounter().countHashSums(folder)));
+    }
+
+    private LocalHashSumsCounter createCounter() {
+        return new LocalHashSumsCounter(".vfs", new File(testDirectory, ".vfs/hashes"), "md5", Hashing.md5(), pathLockFactory, 1000, executor);
+    }
+
+    private File getHashSumsIoFile(String folderPath) {
+        return new File(testDirectory, ".vfs/hashes/md5/" + md5(folderPath.getBytes()));
+    }
+
+    private void writeHashSums(File hashSumsFile, String name, FileHashSum hashSum) throws Exception {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(hashSumsFile)))) {
+            new FileHashSumsSerializer().write(dos, ImmutableMap.of(name, hashSum));
+        }
+    }
+
+    private String md5(byte[] content) {
+        return Hashing.md5().hashBytes(content).toString();
+    }
+}
@@ -50,6 +50,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
@@ -61,6 +62,8 @@ import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -1398,6 +1401,40 @@ public class LocalVirtualFileTest {
         verify(archiver).compress(any(OutputStream.class), any(VirtualFileFilter.class));
     }
 
+    @Test
+    public void throwsFailureOfArchiverThatHappensBeforeArchiveIsStarted() throws Exception {
+        VirtualFile folder = getRoot().createFolder(generateFolderName());
+        Archiver archiver = mock(Archiver.class);
+        when(archiverFactory.createArchiver(eq(folder), eq("zip"))).thenReturn(archiver);
+        when(archiverFactory.getExecutor()).thenReturn(Executors.newSingleThreadExecutor());
+        doThrow(new ServerException("Unable compress")).when(archiver).compress(any(OutputStream.class), any(VirtualFileFilter.class));
+
+        thrown.expect(ServerException.class);
+        thrown.expectMessage("Unable compress");
+
+        folder.zip();
+    }
+
+    @Test
+    public void failsReadingOfArchiveWhenArchiverFailsAfterArchiveIsStarted() throws Exception {
+        VirtualFile folder = getRoot().createFolder(generateFolderName());
+        Archiver archiver = mock(Archiver.class);
+        when(archiverFactory.createArchiver(eq(folder), eq("zip"))).thenReturn(archiver);
+        when(archiverFactory.getExecutor()).thenReturn(Executors.newSingleThreadExecutor());
+        doAnswer(invocation -> {
+            OutputStream output = (OutputStream)invocation.getArguments()[0];
+            output.write(new byte[128 * 1024]);
+            throw new IOException("Unable read file");
+        }).when(archiver).compress(any(OutputStream.class), any(VirtualFileFilter.class));
+
+        InputStream zip = folder.zip();
+
+        thrown.expect(IOException.class);
+        thrown.expectMessage("Unable read file");
+
+        ByteStreams.toByteArray(zip);
+    }
+
     @Test
     public void failsZipFile() throws Exception {
         VirtualFile root = getRoot();
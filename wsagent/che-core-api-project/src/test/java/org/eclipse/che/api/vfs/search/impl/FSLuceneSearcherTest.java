@@ -11,13 +11,20 @@
 package org.eclipse.che.api.vfs.search.impl;
 
 import com.google.common.base.Optional;
+import com.google.common.io.BaseEncoding;
 
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.IndexingEvent;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
@@ -27,16 +34,22 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -294,6 +307,197 @@ public class FSLuceneSearcherTest {
         assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
     }
 
+    @Test
+    public void reindexesOnlyChangedFilesWhenExistedIndexIsInitialized() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        VirtualFile xxx = folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        VirtualFile yyy = folder.createFile("yyy.txt", TEST_CONTENT[0]);
+        folder.createFile("zzz.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+        searcher.close();
+
+        xxx.updateContent(TEST_CONTENT[3]);
+        yyy.delete();
+
+        VirtualFileFilter reopenedFilter = mock(VirtualFileFilter.class);
+        when(reopenedFilter.accept(any(VirtualFile.class))).thenReturn(true);
+        FSLuceneSearcher reopenedSearcher = new FSLuceneSearcher(indexDirectory, reopenedFilter);
+        try {
+            reopenedSearcher.init(virtualFileSystem);
+
+            verify(reopenedFilter).accept(withName("xxx.txt"));
+            verify(reopenedFilter, never()).accept(withName("zzz.txt"));
+            assertEquals(newArrayList("/folder/xxx.txt"), reopenedSearcher.search(new QueryExpression().setText("mission")).getFilePaths());
+            assertEquals(newArrayList("/folder/zzz.txt"), reopenedSearcher.search(new QueryExpression().setText("think")).getFilePaths());
+            assertTrue(reopenedSearcher.search(new QueryExpression().setText("spaceflight")).getFilePaths().isEmpty());
+        } finally {
+            reopenedSearcher.close();
+        }
+    }
+
+    @Test
+    public void initializesIndexInParallelAndReportsProgress() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFolder("project1/a").createFile("xxx.txt", TEST_CONTENT[2]);
+        virtualFileSystem.getRoot().createFolder("project2/b").createFile("yyy.txt", TEST_CONTENT[1]);
+        virtualFileSystem.getRoot().createFolder("folder").createFile("zzz.txt", TEST_CONTENT[0]);
+
+        List<IndexingEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        EventService eventService = new EventService();
+        eventService.subscribe(new EventSubscriber<IndexingEvent>() {
+            @Override
+            public void onEvent(IndexingEvent event) {
+                events.add(event);
+                if (event.getType() == IndexingEvent.EventType.FINISHED) {
+                    finished.countDown();
+                }
+            }
+        });
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            searcher.initInParallel(pool, virtualFileSystem, newArrayList(Path.of("/project1"), Path.of("/project2")), eventService);
+            assertTrue(finished.await(10, SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(newArrayList("/project1/a/xxx.txt"), searcher.search(new QueryExpression().setText("be")).getFilePaths());
+        assertEquals(newArrayList("/project2/b/yyy.txt"), searcher.search(new QueryExpression().setText("think")).getFilePaths());
+        assertEquals(newArrayList("/folder/zzz.txt"), searcher.search(new QueryExpression().setText("spaceflight")).getFilePaths());
+
+        assertEquals(4, events.size());
+        assertEquals(IndexingEvent.EventType.STARTED, events.get(0).getType());
+        assertEquals(IndexingEvent.EventType.SUBTREE_INDEXED, events.get(1).getType());
+        assertEquals(IndexingEvent.EventType.SUBTREE_INDEXED, events.get(2).getType());
+        IndexingEvent finishedEvent = events.get(3);
+        assertEquals(2, finishedEvent.getCompletedSubtrees());
+        assertEquals(3, finishedEvent.getCheckedFiles());
+        assertEquals(3, finishedEvent.getIndexedFiles());
+    }
+
+    @Test
+    public void retrievesSearchResultWithPageCursor() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        assertEquals(8, firstPage.getFilePaths().size());
+        assertTrue(firstPage.getNextPageCursor().isPresent());
+
+        SearchResult lastPage = searcher.search(new QueryExpression().setText("spaceflight")
+                                                                     .setMaxItems(100)
+                                                                     .setPageCursor(firstPage.getNextPageCursor().get()));
+        assertEquals(17, lastPage.getFilePaths().size());
+        assertFalse(lastPage.getNextPageCursor().isPresent());
+
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+    }
+
+    @Test
+    public void retrievesNextPageWithPageCursorFromIndexStateOfFirstPage() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        for (int i = 0; i < 100; i++) {
+            searcher.delete(String.format("/file%02d", i), true);
+        }
+        assertTrue(searcher.search(new QueryExpression().setText("spaceflight")).getFilePaths().isEmpty());
+
+        SearchResult lastPage = searcher.search(new QueryExpression().setText("spaceflight")
+                                                                     .setMaxItems(100)
+                                                                     .setPageCursor(firstPage.getNextPageCursor().get()));
+        assertEquals(17, lastPage.getFilePaths().size());
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+    }
+
+    @Test(expected = ServerException.class)
+    public void failsWhenSearcherOfPageCursorIsNotAvailable() throws Exception {
+        searcher.init(virtualFileSystem());
+        String unknownSearcherCursor = BaseEncoding.base64Url().omitPadding().encode(ByteBuffer.allocate(16)
+                                                                                               .putLong(Long.MAX_VALUE)
+                                                                                               .putInt(0)
+                                                                                               .putFloat(1.0f)
+                                                                                               .array());
+
+        searcher.search(new QueryExpression().setText("spaceflight").setPageCursor(unknownSearcherCursor));
+    }
+
+    @Test
+    public void findsOccurrencesOfTextInFoundFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFile("xxx.txt", TEST_CONTENT[0] + "\n" + TEST_CONTENT[1] + "\nThink again");
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("think").setIncludePositions(true));
+
+        assertEquals(1, result.getResults().size());
+        List<SearchOccurrence> occurrences = result.getResults().get(0).getOccurrences();
+        assertEquals(2, occurrences.size());
+        SearchOccurrence first = occurrences.get(0);
+        assertEquals("think", first.getPhrase());
+        assertEquals(2, first.getLineNumber());
+        assertEquals(TEST_CONTENT[1], first.getLineContent());
+        int lineStart = TEST_CONTENT[0].length() + 1;
+        assertEquals(lineStart, first.getLineStartOffset());
+        assertEquals(lineStart + TEST_CONTENT[1].indexOf("think"), first.getStartOffset());
+        assertEquals(first.getStartOffset() + 5, first.getEndOffset());
+        assertEquals("Think", occurrences.get(1).getPhrase());
+        assertEquals(3, occurrences.get(1).getLineNumber());
+    }
+
+    @Test
+    public void searchesBySubstring() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", "String name = foo.bar(baz);");
+        folder.createFile("yyy.txt", "String name = foo.bar;");
+        folder.createFile("zzz.txt", "String name = FOO.BAR(baz);");
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setPattern("foo.bar(")).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
+    @Test
+    public void searchesByRegex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", "String name = foo.bar(baz);");
+        folder.createFile("yyy.txt", "String name = fooXbar(baz);");
+        folder.createFile("zzz.txt", "String name = foo.bar();");
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setPattern("foo\\.bar\\(\\w+\\)")
+                                                                   .setRegex(true)
+                                                                   .setIncludePositions(true));
+
+        assertEquals(newArrayList("/folder/xxx.txt"), result.getFilePaths());
+        SearchOccurrence occurrence = result.getResults().get(0).getOccurrences().get(0);
+        assertEquals("foo.bar(baz)", occurrence.getPhrase());
+        assertEquals(14, occurrence.getStartOffset());
+    }
+
+    @Test
+    public void searchesByRegexThatCanNotBeNarrowedWithIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[3]);
+        folder.createFile("yyy.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setPattern("\\d{4}").setRegex(true)).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
     private VirtualFileSystem virtualFileSystem() throws Exception {
         return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
     }
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.search.impl.IndexingQueue.Change;
+import org.eclipse.che.api.vfs.search.impl.IndexingQueue.ChangeType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IndexingQueueTest {
+    private IndexingQueue indexingQueue;
+
+    @Before
+    public void setUp() throws Exception {
+        indexingQueue = new IndexingQueue(3);
+    }
+
+    @Test
+    public void coalescesChangesOfTheSamePath() throws Exception {
+        indexingQueue.offer(Change.add(mockFile("/a/b.txt")));
+        indexingQueue.offer(Change.add(mockFile("/a/b.txt")));
+        indexingQueue.offer(Change.delete("/a/b.txt", true));
+
+        List<Change> changes = indexingQueue.drain(10);
+
+        assertEquals(1, changes.size());
+        assertEquals(ChangeType.DELETE_FILE, changes.get(0).getType());
+        assertTrue(indexingQueue.isEmpty());
+    }
+
+    @Test
+    public void keepsOrderOfLatestChanges() throws Exception {
+        indexingQueue.offer(Change.add(mockFile("/a/b.txt")));
+        indexingQueue.offer(Change.delete("/a", false));
+        indexingQueue.offer(Change.add(mockFile("/a/b.txt")));
+
+        List<Change> changes = indexingQueue.drain(10);
+
+        assertEquals(2, changes.size());
+        assertEquals(ChangeType.DELETE_TREE, changes.get(0).getType());
+        assertEquals(ChangeType.ADD, changes.get(1).getType());
+    }
+
+    @Test
+    public void doesNotReplaceDeletionOfTreeWithChangeOfFileWithTheSamePath() throws Exception {
+        indexingQueue.offer(Change.delete("/a", false));
+        indexingQueue.offer(Change.add(mockFile("/a")));
+
+        List<Change> changes = indexingQueue.drain(10);
+
+        assertEquals(2, changes.size());
+        assertEquals(ChangeType.DELETE_TREE, changes.get(0).getType());
+        assertEquals(ChangeType.ADD, changes.get(1).getType());
+    }
+
+    @Test
+    public void rejectsNewPathWhenQueueIsFull() throws Exception {
+        assertTrue(indexingQueue.offer(Change.add(mockFile("/a"))));
+        assertTrue(indexingQueue.offer(Change.add(mockFile("/b"))));
+        assertTrue(indexingQueue.offer(Change.add(mockFile("/c"))));
+
+        assertFalse(indexingQueue.offer(Change.add(mockFile("/d"))));
+        assertTrue(indexingQueue.offer(Change.delete("/c", true)));
+        assertEquals(3, indexingQueue.size());
+    }
+
+    @Test
+    public void rejectsNewPathWhenQueueIsStillFullAfterTimeout() throws Exception {
+        fillQueue();
+
+        assertFalse(indexingQueue.offer(Change.add(mockFile("/d")), 100));
+        assertEquals(3, indexingQueue.size());
+    }
+
+    @Test
+    public void waitsUntilChangesAreDrainedFromFullQueue() throws Exception {
+        fillQueue();
+        Thread drainer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            indexingQueue.drain(1);
+        });
+        drainer.start();
+
+        assertTrue(indexingQueue.offer(Change.add(mockFile("/d")), 10000));
+        drainer.join();
+        assertEquals(3, indexingQueue.size());
+    }
+
+    @Test
+    public void putsChangeInFullQueue() throws Exception {
+        fillQueue();
+
+        indexingQueue.put(Change.add(mockFile("/d")));
+
+        assertEquals(4, indexingQueue.size());
+    }
+
+    @Test
+    public void drainsLimitedNumberOfChanges() throws Exception {
+        indexingQueue.offer(Change.add(mockFile("/a")));
+        indexingQueue.offer(Change.add(mockFile("/b")));
+        indexingQueue.offer(Change.add(mockFile("/c")));
+
+        List<Change> changes = indexingQueue.drain(2);
+
+        assertEquals(2, changes.size());
+        assertEquals("/a", changes.get(0).getPath());
+        assertEquals("/b", changes.get(1).getPath());
+        assertEquals(1, indexingQueue.size());
+    }
+
+    private void fillQueue() {
+        indexingQueue.offer(Change.add(mockFile("/a")));
+        indexingQueue.offer(Change.add(mockFile("/b")));
+        indexingQueue.offer(Change.add(mockFile("/c")));
+    }
+
+    private VirtualFile mockFile(String path) {
+        VirtualFile virtualFile = mock(VirtualFile.class);
+        when(virtualFile.getPath()).thenReturn(Path.of(path));
+        return virtualFile;
+    }
+}
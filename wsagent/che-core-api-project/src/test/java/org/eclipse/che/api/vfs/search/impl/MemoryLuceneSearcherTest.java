@@ -26,6 +26,7 @@ import org.mockito.ArgumentMatcher;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.junit.Assert.assertEquals;
@@ -86,6 +87,22 @@ public class MemoryLuceneSearcherTest {
         assertEquals(newArrayList(file.getPath().toString()), paths);
     }
 
+    @Test
+    public void searchWaitsForBackgroundThreadToApplyPendingChanges() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.init(virtualFileSystem);
+        VirtualFile file = virtualFileSystem.getRoot().createFolder("aaa").createFile("aaa.txt", TEST_CONTENT[1]);
+        List<Thread> indexingThreads = new CopyOnWriteArrayList<>();
+        when(filter.accept(any(VirtualFile.class))).thenAnswer(invocation -> indexingThreads.add(Thread.currentThread()));
+
+        searcher.add(file);
+        List<String> paths = searcher.search(new QueryExpression().setText("should")).getFilePaths();
+
+        assertEquals(newArrayList(file.getPath().toString()), paths);
+        assertFalse(indexingThreads.isEmpty());
+        assertFalse(indexingThreads.contains(Thread.currentThread()));
+    }
+
     @Test
     public void addsFileTreeInIndex() throws Exception {
         VirtualFileSystem virtualFileSystem = virtualFileSystem();
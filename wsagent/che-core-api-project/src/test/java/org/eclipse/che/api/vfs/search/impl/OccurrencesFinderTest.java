@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.base.Strings;
+
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.eclipse.che.api.vfs.search.impl.OccurrencesFinder.MAX_LINE_LENGTH;
+import static org.junit.Assert.assertEquals;
+
+public class OccurrencesFinderTest {
+    @Test
+    public void findsOccurrencesInEachLine() throws Exception {
+        List<SearchOccurrence> occurrences = OccurrencesFinder.forPattern(Pattern.compile("foo"), 10)
+                                                              .find(new StringReader("foo bar\r\nbar foo"));
+
+        assertEquals(2, occurrences.size());
+        assertEquals(1, occurrences.get(0).getLineNumber());
+        assertEquals(0, occurrences.get(0).getStartOffset());
+        assertEquals("foo bar", occurrences.get(0).getLineContent());
+        assertEquals(2, occurrences.get(1).getLineNumber());
+        assertEquals(13, occurrences.get(1).getStartOffset());
+        assertEquals("bar foo", occurrences.get(1).getLineContent());
+    }
+
+    @Test
+    public void skipsEndOfTooLongLine() throws Exception {
+        String longLine = Strings.repeat("x", MAX_LINE_LENGTH) + "foo";
+
+        List<SearchOccurrence> occurrences = OccurrencesFinder.forPattern(Pattern.compile("foo|x+"), 10)
+                                                              .find(new StringReader(longLine + "\nfoo"));
+
+        assertEquals(2, occurrences.size());
+        assertEquals(MAX_LINE_LENGTH, occurrences.get(0).getLineContent().length());
+        assertEquals(2, occurrences.get(1).getLineNumber());
+        assertEquals(longLine.length() + 1, occurrences.get(1).getStartOffset());
+    }
+}
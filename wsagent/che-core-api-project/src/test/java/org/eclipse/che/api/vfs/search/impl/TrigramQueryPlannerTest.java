@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.junit.Test;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TrigramQueryPlannerTest {
+    @Test
+    public void createsQueryForAllTrigramsOfLiteral() throws Exception {
+        Query query = TrigramQueryPlanner.planLiteral("Foo.bar(");
+
+        assertEquals(newHashSet("foo", "oo.", "o.b", ".ba", "bar", "ar("), requiredTrigrams(query));
+    }
+
+    @Test
+    public void doesNotCreateQueryForShortLiteral() throws Exception {
+        assertNull(TrigramQueryPlanner.planLiteral("ab"));
+    }
+
+    @Test
+    public void usesLiteralPartsOfRegex() throws Exception {
+        Query query = TrigramQueryPlanner.planRegex("foo\\.bar\\(\\w+\\)");
+
+        assertEquals(newHashSet("foo", "oo.", "o.b", ".ba", "bar", "ar("), requiredTrigrams(query));
+    }
+
+    @Test
+    public void breaksLiteralOnOptionalCharacter() throws Exception {
+        Query query = TrigramQueryPlanner.planRegex("colou?r");
+
+        assertEquals(newHashSet("col", "olo"), requiredTrigrams(query));
+    }
+
+    @Test
+    public void createsAlternativeQueriesForAlternation() throws Exception {
+        Query query = TrigramQueryPlanner.planRegex("(abc|xyz)123");
+
+        assertTrue(query instanceof BooleanQuery);
+        BooleanClause[] clauses = ((BooleanQuery)query).getClauses();
+        assertEquals(2, clauses.length);
+        assertEquals(BooleanClause.Occur.SHOULD, ((BooleanQuery)clauses[0].getQuery()).getClauses()[0].getOccur());
+        assertEquals(newHashSet("123"), requiredTrigrams(clauses[1].getQuery()));
+    }
+
+    @Test
+    public void doesNotCreateQueryWhenAnyAlternativeMatchesAnything() throws Exception {
+        assertNull(TrigramQueryPlanner.planRegex("abcdef|\\w+"));
+    }
+
+    @Test
+    public void doesNotCreateQueryWhenRegexHasInlineFlags() throws Exception {
+        assertNull(TrigramQueryPlanner.planRegex("(?i)abcdef"));
+    }
+
+    @Test
+    public void ignoresCharacterClasses() throws Exception {
+        Query query = TrigramQueryPlanner.planRegex("[a-z(|]+abc[)]");
+
+        assertEquals(newHashSet("abc"), requiredTrigrams(query));
+    }
+
+    private Set<String> requiredTrigrams(Query query) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (query instanceof TermQuery) {
+            trigrams.add(((TermQuery)query).getTerm().text());
+        } else if (query instanceof BooleanQuery) {
+            for (BooleanClause clause : ((BooleanQuery)query).getClauses()) {
+                if (clause.getOccur() == BooleanClause.Occur.MUST) {
+                    trigrams.addAll(requiredTrigrams(clause.getQuery()));
+                }
+            }
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.util;
+
+import com.google.common.io.ByteStreams;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BackgroundInputStreamTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void readsContentWrittenInBackground() throws Exception {
+        byte[] content = new byte[1024 * 1024 + 3];
+        new Random().nextBytes(content);
+
+        try (InputStream in = BackgroundInputStream.writtenBy(output -> output.write(content), executor)) {
+            assertArrayEquals(content, ByteStreams.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void readsAheadContentOfOtherStream() throws Exception {
+        byte[] content = new byte[300 * 1024];
+        new Random().nextBytes(content);
+
+        try (InputStream in = BackgroundInputStream.readAhead(new ByteArrayInputStream(content), executor)) {
+            assertArrayEquals(content, ByteStreams.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void throwsFailureOfWriterThatDidNotWriteAnything() throws Exception {
+        try {
+            BackgroundInputStream.writtenBy(output -> {
+                throw new IOException("failed");
+            }, executor);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void throwsFailureOfWriterAfterContentThatWasWrittenBeforeFailure() throws Exception {
+        byte[] content = new byte[200 * 1024];
+        InputStream in = BackgroundInputStream.writtenBy(output -> {
+            output.write(content);
+            throw new IOException("failed");
+        }, executor);
+
+        byte[] buffer = new byte[content.length];
+        assertEquals(content.length, ByteStreams.read(in, buffer, 0, buffer.length));
+        try {
+            in.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void stopsWriterWhenStreamIsClosed() throws Exception {
+        CountDownLatch writerStopped = new CountDownLatch(1);
+        InputStream in = BackgroundInputStream.writtenBy(output -> {
+            try {
+                byte[] chunk = new byte[8192];
+                while (true) {
+                    output.write(chunk);
+                }
+            } finally {
+                writerStopped.countDown();
+            }
+        }, executor);
+
+        in.read();
+        in.close();
+
+        assertTrue(writerStopped.await(5, SECONDS));
+    }
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.nativegit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Long-lived {@code git cat-file --batch} process of single repository. Each request writes name of object to the standard input
+ * of process and reads object from its standard output, so reading of object doesn't start new git process. Instance serves single
+ * request at a time. Process that doesn't answer in time is killed. Error output of process is logged when process is stopped.
+ *
+ * @author andrew00x
+ */
+class CatFileProcess {
+    private static final Logger LOG = LoggerFactory.getLogger(CatFileProcess.class);
+
+    private final File                     repository;
+    private final Process                  process;
+    private final OutputStream             input;
+    private final InputStream              output;
+    private final ScheduledExecutorService timer;
+    private final long                     readTimeoutMillis;
+
+    private volatile long    lastUsed;
+    private volatile boolean timedOut;
+
+    /**
+     * Starts {@code git cat-file --batch} process.
+     *
+     * @param repository
+     *         directory of repository
+     * @param timer
+     *         executor that kills process if it doesn't answer in time
+     * @param readTimeoutMillis
+     *         max time of single request
+     * @throws IOException
+     *         if process can't be started
+     */
+    static CatFileProcess start(File repository, ScheduledExecutorService timer, long readTimeoutMillis) throws IOException {
+        final ProcessBuilder pb = new ProcessBuilder("git", "cat-file", "--batch").directory(repository);
+        final Map<String, String> environment = pb.environment();
+        environment.put("HOME", System.getProperty("user.home"));
+        environment.put("LANG", "en_US.UTF-8");
+        environment.put("GDM_LANG", "en_US.UTF-8");
+        environment.put("LANGUAGE", "us");
+        return new CatFileProcess(repository, pb.start(), timer, readTimeoutMillis);
+    }
+
+    private CatFileProcess(File repository, Process process, ScheduledExecutorService timer, long readTimeoutMillis) {
+        this.repository = repository;
+        this.process = process;
+        this.input = new BufferedOutputStream(process.getOutputStream());
+        this.output = new BufferedInputStream(process.getInputStream());
+        this.timer = timer;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Reads object from repository.
+     *
+     * @param object
+     *         name of object in any form that git understands, e.g. {@code HEAD:src/Main.java} or SHA-1 of object
+     * @return object or {@code null} if there is no such object in repository
+     * @throws InterruptedIOException
+     *         if process doesn't answer in time, process is killed and may not be used after that
+     * @throws IOException
+     *         if process is crashed or its output is unexpected, process may not be used after that
+     */
+    synchronized GitObject read(String object) throws IOException {
+        if (object.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Invalid name of object: " + object);
+        }
+        final ScheduledFuture<?> timeout = timer.schedule(this::timeout, readTimeoutMillis, TimeUnit.MILLISECONDS);
+        try {
+            input.write((object + '\n').getBytes(UTF_8));
+            input.flush();
+            // <sha1> SP <type> SP <size> LF <contents> LF
+            // <object> SP missing LF
+            final String header = readLine();
+            if (header.endsWith(" missing") || header.endsWith(" ambiguous")) {
+                return null;
+            }
+            final String[] parts = header.split(" ");
+            if (parts.length != 3) {
+                throw new IOException("Unexpected output of git cat-file: " + header);
+            }
+            final byte[] content;
+            try {
+                content = new byte[Integer.parseInt(parts[2])];
+            } catch (NumberFormatException e) {
+                throw new IOException("Unexpected output of git cat-file: " + header);
+            }
+            readFully(content);
+            if (output.read() != '\n') {
+                throw new IOException("Unexpected end of object " + parts[0]);
+            }
+            return new GitObject(parts[1], content);
+        } catch (IOException e) {
+            if (timedOut) {
+                final InterruptedIOException timeoutError =
+                        new InterruptedIOException("git cat-file didn't answer in " + readTimeoutMillis + " ms");
+                timeoutError.initCause(e);
+                throw timeoutError;
+            }
+            throw e;
+        } finally {
+            timeout.cancel(false);
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /** Returns time of the last request to process. */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /** Stops process. */
+    void close() {
+        try {
+            // process exits after end of its input
+            input.close();
+        } catch (IOException ignored) {
+        }
+        logErrors();
+        process.destroy();
+    }
+
+    /** Kills process without waiting for the end of current request. */
+    void kill() {
+        process.destroyForcibly();
+    }
+
+    private void timeout() {
+        timedOut = true;
+        kill();
+    }
+
+    /** Logs error output of process. Git writes there only when it fails, so everything that is already written is read. */
+    private void logErrors() {
+        final InputStream errors = process.getErrorStream();
+        try {
+            final int available = errors.available();
+            if (available > 0) {
+                final byte[] message = new byte[available];
+                final int read = errors.read(message);
+                if (read > 0) {
+                    LOG.warn("git cat-file in {}: {}", repository, new String(message, 0, read, UTF_8).trim());
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private String readLine() throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = output.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("git cat-file is terminated");
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), UTF_8);
+    }
+
+    private void readFully(byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            final int read = output.read(buffer, offset, buffer.length - offset);
+            if (read < 0) {
+                throw new EOFException("git cat-file is terminated");
+            }
+            offset += read;
+        }
+    }
+
+    /** Object of repository. */
+    static final class GitObject {
+        private final String type;
+        private final byte[] content;
+
+        GitObject(String type, byte[] content) {
+            this.type = type;
+            this.content = content;
+        }
+
+        /** Returns type of object, one of {@code blob}, {@code tree}, {@code commit} or {@code tag}. */
+        String getType() {
+            return type;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+    }
+}
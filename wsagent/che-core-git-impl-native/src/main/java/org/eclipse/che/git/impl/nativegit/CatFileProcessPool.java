@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.nativegit;
+
+import org.eclipse.che.api.git.GitException;
+import org.eclipse.che.git.impl.nativegit.CatFileProcess.GitObject;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@code git cat-file --batch} processes of repositories between requests, see {@link CatFileProcess}. Reading of file
+ * content with process that is already started is much faster than start of {@code git show} for each file. Process is taken from
+ * the pool for the time of single request, so concurrent requests to the same repository are served by different processes.
+ * Processes that are not used for {@link #IDLE_TIMEOUT_MILLIS} are stopped. Process that is crashed is replaced with new one.
+ * Process that doesn't answer for {@link #READ_TIMEOUT_MILLIS} is killed and request fails.
+ *
+ * @author andrew00x
+ */
+@Singleton
+public class CatFileProcessPool {
+    private static final Logger LOG = LoggerFactory.getLogger(CatFileProcessPool.class);
+
+    static final long IDLE_TIMEOUT_MILLIS          = TimeUnit.MINUTES.toMillis(1);
+    static final int  MAX_IDLE_PROCESSES_PER_REPOS = 2;
+    static final long READ_TIMEOUT_MILLIS          = TimeUnit.SECONDS.toMillis(30);
+
+    final ConcurrentMap<File, Deque<CatFileProcess>> idle;
+
+    private final ScheduledExecutorService timer;
+    private final long                     idleTimeoutMillis;
+    private final int                      maxIdleProcesses;
+    private final long                     readTimeoutMillis;
+
+    private volatile boolean closed;
+
+    public CatFileProcessPool() {
+        this(IDLE_TIMEOUT_MILLIS, MAX_IDLE_PROCESSES_PER_REPOS);
+    }
+
+    CatFileProcessPool(long idleTimeoutMillis, int maxIdleProcesses) {
+        this(idleTimeoutMillis, maxIdleProcesses, READ_TIMEOUT_MILLIS);
+    }
+
+    CatFileProcessPool(long idleTimeoutMillis, int maxIdleProcesses, long readTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxIdleProcesses = maxIdleProcesses;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.idle = new ConcurrentHashMap<>();
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("GitCatFileTimer")
+                                                                                          .setDaemon(true)
+                                                                                          .build());
+        final long period = Math.max(1, idleTimeoutMillis / 2);
+        timer.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads content of file from repository.
+     *
+     * @param repository
+     *         directory of repository
+     * @param object
+     *         name of object in any form that git understands, e.g. {@code HEAD:src/Main.java}
+     * @return content of file or {@code null} if there is no such object in repository or object is not a file
+     * @throws GitException
+     *         if git process can't be started, doesn't answer in time or crashed twice while serving the request
+     */
+    public byte[] readBlob(File repository, String object) throws GitException {
+        final File key = repository.getAbsoluteFile();
+        IOException failure = null;
+        // process that was idle for a while may be already terminated, try once again with new process
+        for (int attempt = 0; attempt < 2; attempt++) {
+            final CatFileProcess process;
+            try {
+                process = borrow(key);
+            } catch (IOException e) {
+                throw new GitException("Unable to start git cat-file: " + e.getMessage(), e);
+            }
+            final GitObject gitObject;
+            try {
+                gitObject = process.read(object);
+            } catch (InterruptedIOException e) {
+                process.close();
+                throw new GitException("Unable to read " + object + ": " + e.getMessage(), e);
+            } catch (IOException e) {
+                LOG.debug("git cat-file in {} failed: {}", key, e.getMessage());
+                process.close();
+                failure = e;
+                continue;
+            }
+            release(key, process);
+            return gitObject != null && "blob".equals(gitObject.getType()) ? gitObject.getContent() : null;
+        }
+        throw new GitException("Unable to read " + object + ": " + failure.getMessage(), failure);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        timer.shutdownNow();
+        for (Deque<CatFileProcess> processes : idle.values()) {
+            for (CatFileProcess process; (process = processes.pollFirst()) != null; ) {
+                process.close();
+            }
+        }
+        idle.clear();
+    }
+
+    /** Returns number of started processes that are not used at the moment. */
+    int getIdleCount() {
+        int count = 0;
+        for (Deque<CatFileProcess> processes : idle.values()) {
+            count += processes.size();
+        }
+        return count;
+    }
+
+    private CatFileProcess borrow(File repository) throws IOException {
+        final Deque<CatFileProcess> processes = idle.get(repository);
+        if (processes != null) {
+            for (CatFileProcess process; (process = processes.pollFirst()) != null; ) {
+                if (process.isAlive()) {
+                    return process;
+                }
+                process.close();
+            }
+        }
+        return CatFileProcess.start(repository, timer, readTimeoutMillis);
+    }
+
+    private void release(File repository, CatFileProcess process) {
+        if (closed || !process.isAlive()) {
+            process.close();
+            return;
+        }
+        idle.compute(repository, (key, processes) -> {
+            if (processes == null) {
+                processes = new ConcurrentLinkedDeque<>();
+            }
+            if (processes.size() < maxIdleProcesses) {
+                // the most recently used process is taken first, so extra processes stay idle and get evicted
+                processes.offerFirst(process);
+            } else {
+                process.close();
+            }
+            return processes;
+        });
+    }
+
+    private void evictIdle() {
+        final long expired = System.currentTimeMillis() - idleTimeoutMillis;
+        for (Map.Entry<File, Deque<CatFileProcess>> entry : idle.entrySet()) {
+            for (Iterator<CatFileProcess> i = entry.getValue().descendingIterator(); i.hasNext(); ) {
+                final CatFileProcess process = i.next();
+                if (process.getLastUsed() < expired && entry.getValue().removeLastOccurrence(process)) {
+                    process.close();
+                }
+            }
+            idle.computeIfPresent(entry.getKey(), (key, processes) -> processes.isEmpty() ? null : processes);
+        }
+    }
+}
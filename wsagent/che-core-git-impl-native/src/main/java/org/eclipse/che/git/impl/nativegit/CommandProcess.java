@@ -10,10 +10,13 @@
  *******************************************************************************/
 package org.eclipse.che.git.impl.nativegit;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
 
 import org.eclipse.che.api.core.util.CancellableProcessWrapper;
 import org.eclipse.che.api.core.util.CommandLine;
 import org.eclipse.che.api.core.util.CompositeLineConsumer;
+import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.core.util.ProcessUtil;
@@ -23,7 +26,10 @@ import org.eclipse.che.git.impl.nativegit.commands.GitCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -46,21 +52,7 @@ public class CommandProcess {
      */
     public static void executeGitCommand(GitCommand command, LineConsumerFactory lineConsumerFactory) throws GitException {
         CommandLine commandLine = command.getCommandLine();
-        ProcessBuilder pb = new ProcessBuilder(commandLine.toShellCommand());
-
-        Map<String, String> environment = pb.environment();
-
-        environment.put("HOME", System.getProperty("user.home"));
-        environment.put("LANG", "en_US.UTF-8");
-        environment.put("GDM_LANG", "en_US.UTF-8");
-        environment.put("LANGUAGE", "us");
-
-        //set up and override command specific environment variables
-        for (Map.Entry<String, String> entry : ((Map<String, String>)command.getCommandEnvironment()).entrySet()) {
-            environment.put(entry.getKey(), entry.getValue());
-        }
-
-        pb.directory(command.getRepository());
+        ProcessBuilder pb = createProcessBuilder(command);
 
         LineConsumer lineConsumer = LineConsumer.DEV_NULL;
         if (lineConsumerFactory != null) {
@@ -107,6 +99,80 @@ public class CommandProcess {
         }
     }
 
+    /**
+     * Executes GitCommand and returns its standard output as is, without splitting it in lines. It is used for output that is not
+     * line based, e.g. NUL separated paths that may contain new lines and carriage returns. Error output is read separately and is
+     * used as message of GitException when command fails.
+     *
+     * @param command
+     *         GitCommand that will be executed
+     * @return standard output of command
+     * @throws GitException
+     *         when command execution error occurs
+     */
+    public static byte[] executeGitCommandForBytes(GitCommand command) throws GitException {
+        final CommandLine commandLine = command.getCommandLine();
+        final ProcessBuilder pb = createProcessBuilder(command);
+        File errorFile = null;
+        try {
+            errorFile = File.createTempFile("git-error", null);
+            // Process doesn't block on full pipe of error output while standard output is read
+            pb.redirectError(errorFile);
+            final Process process = pb.start();
+            Watchdog watcher = null;
+            if (command.getTimeout() > 0) {
+                watcher = new Watchdog(command.getTimeout(), TimeUnit.SECONDS);
+                watcher.start(new CancellableProcessWrapper(process));
+            }
+            try {
+                final byte[] output;
+                try (InputStream processOutput = process.getInputStream()) {
+                    output = ByteStreams.toByteArray(processOutput);
+                }
+                if (process.waitFor() != 0) {
+                    String message = searchErrorMessage(Files.readLines(errorFile, StandardCharsets.UTF_8));
+                    LOG.debug(String.format("Command failed!\ncommand: %s\nerror: %s", commandLine.toString(), message));
+                    throw new GitException(message);
+                }
+                LOG.debug(String.format("Command successful!\ncommand: %s", commandLine.toString()));
+                return output;
+            } finally {
+                if (watcher != null) {
+                    watcher.stop();
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Process creating failed", e);
+            throw new GitException("It is not possible to execute command");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitException("Command was interrupted");
+        } finally {
+            if (errorFile != null && !errorFile.delete()) {
+                FileCleaner.addFile(errorFile);
+            }
+        }
+    }
+
+    private static ProcessBuilder createProcessBuilder(GitCommand command) {
+        ProcessBuilder pb = new ProcessBuilder(command.getCommandLine().toShellCommand());
+
+        Map<String, String> environment = pb.environment();
+
+        environment.put("HOME", System.getProperty("user.home"));
+        environment.put("LANG", "en_US.UTF-8");
+        environment.put("GDM_LANG", "en_US.UTF-8");
+        environment.put("LANGUAGE", "us");
+
+        //set up and override command specific environment variables
+        for (Map.Entry<String, String> entry : ((Map<String, String>)command.getCommandEnvironment()).entrySet()) {
+            environment.put(entry.getKey(), entry.getValue());
+        }
+
+        pb.directory(command.getRepository());
+        return pb;
+    }
+
     /**
      * Searches useful information in command output
      *
@@ -88,6 +88,7 @@ import org.eclipse.che.git.impl.nativegit.ssh.GitSshScriptProvider;
 
 import java.io.File;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -115,9 +116,10 @@ public class NativeGitConnection implements GitConnection {
     private static final Pattern noInitCommitWhenLogErrorPattern          =
             Pattern.compile("fatal: your current branch '.*' does not have any commits yet\n");
     private static final Pattern noInitCommitWhenPullErrorPattern         = Pattern.compile("fatal: empty ident name .* not allowed\n");
-    private final NativeGit         nativeGit;
-    private final CredentialsLoader credentialsLoader;
-    private final GitUserResolver   userResolver;
+    private final NativeGit          nativeGit;
+    private final CredentialsLoader  credentialsLoader;
+    private final GitUserResolver    userResolver;
+    private final CatFileProcessPool catFileProcessPool;
 
     /**
      * @param repository
@@ -131,7 +133,27 @@ public class NativeGitConnection implements GitConnection {
      */
     public NativeGitConnection(File repository, GitSshScriptProvider gitSshScriptProvider,
                                CredentialsLoader credentialsLoader, GitUserResolver userResolver) throws GitException {
-        this(new NativeGit(repository, gitSshScriptProvider, credentialsLoader, new GitAskPassScript()), credentialsLoader, userResolver);
+        this(repository, gitSshScriptProvider, credentialsLoader, userResolver, null);
+    }
+
+    /**
+     * @param repository
+     *         directory where commands will be invoked
+     * @param gitSshScriptProvider
+     *         manager for ssh keys. If it is null default ssh will be used;
+     * @param credentialsLoader
+     *         loader for credentials
+     * @param catFileProcessPool
+     *         pool of git cat-file processes that serves reading of file content. If it is null git show is started for each file
+     * @throws GitException
+     *         when some error occurs
+     */
+    public NativeGitConnection(File repository, GitSshScriptProvider gitSshScriptProvider, CredentialsLoader credentialsLoader,
+                               GitUserResolver userResolver, CatFileProcessPool catFileProcessPool) throws GitException {
+        this(new NativeGit(repository, gitSshScriptProvider, credentialsLoader, new GitAskPassScript()),
+             credentialsLoader,
+             userResolver,
+             catFileProcessPool);
     }
 
     /**
@@ -144,9 +166,15 @@ public class NativeGitConnection implements GitConnection {
      */
     public NativeGitConnection(NativeGit nativeGit, CredentialsLoader credentialsLoader, GitUserResolver userResolver)
             throws GitException {
+        this(nativeGit, credentialsLoader, userResolver, null);
+    }
+
+    private NativeGitConnection(NativeGit nativeGit, CredentialsLoader credentialsLoader, GitUserResolver userResolver,
+                                CatFileProcessPool catFileProcessPool) {
         this.credentialsLoader = credentialsLoader;
         this.nativeGit = nativeGit;
         this.userResolver = userResolver;
+        this.catFileProcessPool = catFileProcessPool;
     }
 
     @Override
@@ -274,7 +302,13 @@ public class NativeGitConnection implements GitConnection {
         final String remoteUri = request.getRemoteUri();
         CloneCommand clone = nativeGit.createCloneCommand();
         clone.setRemoteUri(remoteUri);
-        clone.setRemoteName(request.getRemoteName());
+        clone.setRemoteName(request.getRemoteName())
+             .setBranch(request.getBranch())
+             .setSingleBranch(request.isSingleBranch())
+             .setDepth(request.getDepth())
+             .setFilter(request.getFilter())
+             .setReference(request.getReference() == null ? null : new File(request.getReference()))
+             .setNoCheckout(request.isNoCheckout());
         if (clone.getTimeout() > 0) {
             clone.setTimeout(request.getTimeout());
         }
@@ -325,6 +359,14 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public ShowFileContentResponse showFileContent(ShowFileContentRequest request) throws GitException {
+        if (catFileProcessPool != null) {
+            final byte[] content = catFileProcessPool.readBlob(nativeGit.getRepository(),
+                                                               request.getVersion() + ":" + request.getFile());
+            if (content != null) {
+                return DtoFactory.newDto(ShowFileContentResponse.class).withContent(new String(content, StandardCharsets.UTF_8));
+            }
+            // there is no such file, let git show report error
+        }
         ShowFileContentCommand showCommand = nativeGit.createShowFileContentCommand().withFile(request.getFile())
                                                       .withVersion(request.getVersion());
         return showCommand.execute();
@@ -374,7 +416,13 @@ public class NativeGitConnection implements GitConnection {
     @Override
     public LogPage log(LogRequest request) throws GitException {
         try {
-            return new LogPage(nativeGit.createLogCommand().setFileFilter(request.getFileFilter()).execute());
+            final LogCommand logCommand = nativeGit.createLogCommand();
+            if (request != null) {
+                logCommand.setFileFilter(request.getFileFilter())
+                          .setSkip(request.getSkip())
+                          .setCount(request.getMaxCount());
+            }
+            return new LogPage(logCommand.execute());
         } catch (ServerException exception) {
             if (noInitCommitWhenLogErrorPattern.matcher(exception.getMessage()).find()) {
                 throw new GitException(exception.getMessage(), ErrorCodes.INIT_COMMIT_WAS_NOT_PERFORMED);
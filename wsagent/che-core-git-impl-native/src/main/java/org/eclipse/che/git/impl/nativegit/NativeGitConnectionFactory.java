@@ -34,18 +34,31 @@ public class NativeGitConnectionFactory extends GitConnectionFactory {
     private final CredentialsLoader    credentialsLoader;
     private final GitSshScriptProvider gitSshScriptProvider;
     private final GitUserResolver      userResolver;
+    private final CatFileProcessPool   catFileProcessPool;
 
-    @Inject
     public NativeGitConnectionFactory(CredentialsLoader credentialsLoader, GitSshScriptProvider gitSshScriptProvider, GitUserResolver userResolver) {
+        this(credentialsLoader, gitSshScriptProvider, userResolver, null);
+    }
+
+    @Inject
+    public NativeGitConnectionFactory(CredentialsLoader credentialsLoader,
+                                      GitSshScriptProvider gitSshScriptProvider,
+                                      GitUserResolver userResolver,
+                                      CatFileProcessPool catFileProcessPool) {
         this.credentialsLoader = credentialsLoader;
         this.gitSshScriptProvider = gitSshScriptProvider;
         this.userResolver = userResolver;
+        this.catFileProcessPool = catFileProcessPool;
     }
 
 
     @Override
     public GitConnection getConnection(File workDir, LineConsumerFactory outputPublisherFactory) throws GitException {
-        final GitConnection gitConnection = new NativeGitConnection(workDir, gitSshScriptProvider, credentialsLoader, userResolver);
+        final GitConnection gitConnection = new NativeGitConnection(workDir,
+                                                                  gitSshScriptProvider,
+                                                                  credentialsLoader,
+                                                                  userResolver,
+                                                                  catFileProcessPool);
         gitConnection.setOutputLineConsumerFactory(outputPublisherFactory);
         return gitConnection;
     }
@@ -62,14 +62,15 @@ public class NativeGitDiffPage extends DiffPage {
      * @throws GitException when any error occurs
      */
     private void commitToIndex(String commit, PrintWriter outWriter) throws GitException {
-        outWriter.print(nativeGit.createDiffCommand()
+        nativeGit.createDiffCommand()
                 .setCommitA(commit)
                 .setCached(true)
                 .setType(request.getType().toString())
                 .setFileFilter(request.getFileFilter())
                 .setNoRenames(request.isNoRenames())
                 .setRenamesCount(request.getRenameLimit())
-                .execute());
+                .setOutput(outWriter)
+                .execute();
     }
 
     /**
@@ -77,12 +78,13 @@ public class NativeGitDiffPage extends DiffPage {
      * @throws GitException when any error occurs
      */
     private void workingTreeToIndex(PrintWriter outWriter) throws GitException {
-        outWriter.print(nativeGit.createDiffCommand()
+        nativeGit.createDiffCommand()
                 .setType(request.getType().toString())
                 .setFileFilter(request.getFileFilter())
                 .setNoRenames(request.isNoRenames())
                 .setRenamesCount(request.getRenameLimit())
-                .execute());
+                .setOutput(outWriter)
+                .execute();
     }
 
     /**
@@ -92,14 +94,15 @@ public class NativeGitDiffPage extends DiffPage {
      * @throws GitException when any error occurs
      */
     private void commitToCommit(String commitA, String commitB, PrintWriter outWriter) throws GitException {
-        outWriter.print(nativeGit.createDiffCommand()
+        nativeGit.createDiffCommand()
                 .setCommitA(commitA)
                 .setCommitB(commitB)
                 .setType(request.getType().toString())
                 .setFileFilter(request.getFileFilter())
                 .setNoRenames(request.isNoRenames())
                 .setRenamesCount(request.getRenameLimit())
-                .execute());
+                .setOutput(outWriter)
+                .execute();
     }
 
     /**
@@ -108,12 +111,13 @@ public class NativeGitDiffPage extends DiffPage {
      * @throws GitException
      */
     private void commitToWorkingTree(String commit, PrintWriter outWriter) throws GitException {
-         outWriter.print(nativeGit.createDiffCommand()
+         nativeGit.createDiffCommand()
                  .setCommitA(commit)
                  .setType(request.getType().toString())
                  .setFileFilter(request.getFileFilter())
                  .setNoRenames(request.isNoRenames())
                  .setRenamesCount(request.getRenameLimit())
-                 .execute());
+                 .setOutput(outWriter)
+                 .execute();
     }
 }
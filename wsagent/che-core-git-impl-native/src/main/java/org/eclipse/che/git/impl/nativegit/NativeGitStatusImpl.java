@@ -19,6 +19,7 @@ import org.eclipse.che.git.impl.nativegit.commands.StatusCommand;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -258,9 +259,8 @@ public class NativeGitStatusImpl implements Status, InfoPage {
      *         when it is not possible to get status information
      */
     public void load() throws GitException {
-        StatusCommand status = nativeGit.createStatusCommand().setFormat(StatusFormat.PORCELAIN);
-        List<String> statusOutput = status.execute();
-        setClean(statusOutput.size() == 0);
+        List<String> statusOutput = nativeGit.createStatusCommand().executePorcelain();
+        setClean(statusOutput.isEmpty());
         if (!isClean()) {
             added = new ArrayList<>();
             changed = new ArrayList<>();
@@ -270,56 +270,45 @@ public class NativeGitStatusImpl implements Status, InfoPage {
             untracked = new ArrayList<>();
             untrackedFolders = new ArrayList<>();
             conflicting = new ArrayList<>();
-            for (String statusLine : statusOutput) {
-                //add conflict files AA, UU, any of U
-                if (!(addIfMatches(conflicting, statusLine, 'A', 'A') //
-                        || addIfMatches(conflicting, statusLine, 'D', 'D') //
-                        || addIfMatches(conflicting, statusLine, 'U', '*') //
-                        || addIfMatches(conflicting, statusLine, '*', 'U'))) {
+            // each path is reported once, so lists don't need checks for duplicates
+            for (Iterator<String> iterator = statusOutput.iterator(); iterator.hasNext(); ) {
+                final String entry = iterator.next();
+                final char x = entry.charAt(0);
+                final char y = entry.charAt(1);
+                final String path = entry.substring(3);
+                if (x == '?' && y == '?') {
+                    if (path.endsWith("/")) {
+                        //add untracked folders
+                        untrackedFolders.add(path.substring(0, path.length() - 1));
+                    } else {
+                        //add untracked Files
+                        untracked.add(path);
+                    }
+                } else if (x == 'U' || y == 'U' || (x == 'A' && y == 'A') || (x == 'D' && y == 'D')) {
+                    //add conflict files AA, DD, any of U
+                    conflicting.add(path);
+                } else if (x != '!') {
+                    // Original path of renamed or copied file follows its entry
+                    final String originalPath = (x == 'R' || x == 'C') && iterator.hasNext() ? iterator.next() : null;
                     // Add index-based entries
-                    addIfMatches(added, statusLine, 'A', '*');
-                    addIfMatches(removed, statusLine, 'D', '*');
-                    addIfMatches(changed, statusLine, 'M', '*');
+                    if (x == 'A' || x == 'R' || x == 'C') {
+                        added.add(path);
+                    } else if (x == 'D') {
+                        removed.add(path);
+                    } else if (x == 'M') {
+                        changed.add(path);
+                    }
+                    if (x == 'R' && originalPath != null) {
+                        removed.add(originalPath);
+                    }
                     // Add working tree - based entries
-                    addIfMatches(missing, statusLine, '*', 'D');
-                    addIfMatches(modified, statusLine, '*', 'M');
+                    if (y == 'D') {
+                        missing.add(path);
+                    } else if (y == 'M') {
+                        modified.add(path);
+                    }
                 }
-                if (statusLine.endsWith("/")) {
-                    //add untracked folders
-                    addIfMatches(untrackedFolders, statusLine.substring(0, statusLine.length() - 1), '?', '?');
-                } else {
-                    //add untracked Files
-                    addIfMatches(untracked, statusLine, '?', '?');
-                }
-            }
-        }
-    }
-
-    /**
-     * Adds files to container if they matched to template.
-     *
-     * @param container
-     *         container for matched files
-     * @param statusLine
-     *         short status command line
-     * @param x
-     *         first template parameter
-     * @param y
-     *         second template parameter
-     */
-    private static boolean addIfMatches(List<String> container, String statusLine, char x, char y) {
-        if (matches(statusLine, x, y)) {
-            final String filename = statusLine.substring(3);
-            if (!container.contains(filename)) {
-                container.add(filename);
             }
-            return true;
         }
-        return false;
-    }
-
-    private static boolean matches(String statusLine, char x, char y) {
-        return (x == '*' || x == statusLine.charAt(0)) &&
-               (y == '*' || y == statusLine.charAt(1));
     }
 }
@@ -24,7 +24,13 @@ import java.io.File;
  */
 public class CloneCommand extends RemoteOperationCommand<Void> {
 
-    private String remoteName;
+    private String  remoteName;
+    private String  branch;
+    private boolean singleBranch;
+    private int     depth;
+    private String  filter;
+    private File    reference;
+    private boolean noCheckout;
 
     public CloneCommand(File repository, GitSshScriptProvider gitSshScriptProvider, CredentialsLoader credentialsLoader, GitAskPassScript gitAskPassScript) {
         super(repository, gitSshScriptProvider, credentialsLoader, gitAskPassScript);
@@ -38,6 +44,25 @@ public class CloneCommand extends RemoteOperationCommand<Void> {
         if (remoteName != null) {
             commandLine.add("--origin", remoteName);
         } //else default origin name
+        if (branch != null) {
+            commandLine.add("--branch", branch);
+        }
+        if (singleBranch) {
+            commandLine.add("--single-branch");
+        }
+        if (depth > 0) {
+            commandLine.add("--depth", Integer.toString(depth));
+        }
+        if (filter != null) {
+            commandLine.add("--filter=" + filter);
+        }
+        if (reference != null) {
+            // don't depend on reference repository after clone
+            commandLine.add("--reference-if-able", reference.getAbsolutePath(), "--dissociate");
+        }
+        if (noCheckout) {
+            commandLine.add("--no-checkout");
+        }
         commandLine.add(getRemoteUri(), getRepository().getAbsolutePath());
         // Progress not shown if not a terminal. Activating progress output. See git clone man page.
         commandLine.add("--progress");
@@ -54,4 +79,64 @@ public class CloneCommand extends RemoteOperationCommand<Void> {
         this.remoteName = remoteName;
         return this;
     }
+
+    /**
+     * @param branch
+     *         branch to check out after clone, if it is null than branch that remote HEAD points to will be used
+     * @return CloneCommand with established branch
+     */
+    public CloneCommand setBranch(String branch) {
+        this.branch = branch;
+        return this;
+    }
+
+    /**
+     * @param singleBranch
+     *         if <code>true</code> only history of the branch that is checked out after clone is fetched
+     * @return CloneCommand with established singleBranch parameter
+     */
+    public CloneCommand setSingleBranch(boolean singleBranch) {
+        this.singleBranch = singleBranch;
+        return this;
+    }
+
+    /**
+     * @param depth
+     *         number of the latest commits to fetch, if it is 0 than full history will be fetched
+     * @return CloneCommand with established depth
+     */
+    public CloneCommand setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * @param filter
+     *         filter of objects for partial clone, e.g. blob:none
+     * @return CloneCommand with established filter
+     */
+    public CloneCommand setFilter(String filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * @param reference
+     *         local repository to borrow objects from while cloning
+     * @return CloneCommand with established reference repository
+     */
+    public CloneCommand setReference(File reference) {
+        this.reference = reference;
+        return this;
+    }
+
+    /**
+     * @param noCheckout
+     *         if <code>true</code> files are not checked out after clone
+     * @return CloneCommand with established noCheckout parameter
+     */
+    public CloneCommand setNoCheckout(boolean noCheckout) {
+        this.noCheckout = noCheckout;
+        return this;
+    }
 }
@@ -14,6 +14,7 @@ import org.eclipse.che.api.git.GitException;
 import org.eclipse.che.api.git.shared.DiffRequest;
 
 import java.io.File;
+import java.io.PrintWriter;
 import java.util.List;
 
 /**
@@ -30,6 +31,8 @@ public class DiffCommand extends GitCommand<String> {
     private boolean  cached;
     private boolean  noRenames;
     private int      renamesCount;
+    private PrintWriter output;
+    private boolean     failed;
 
     public DiffCommand(File repository) {
         super(repository);
@@ -39,6 +42,7 @@ public class DiffCommand extends GitCommand<String> {
     @Override
     public String execute() throws GitException {
         reset();
+        failed = false;
         commandLine.add("diff");
         if (!(type == null || type.equals(DiffRequest.DiffType.RAW.toString()))) {
             commandLine.add(type);
@@ -62,12 +66,43 @@ public class DiffCommand extends GitCommand<String> {
             commandLine.add(filesFilter);
         }
         start();
+        if (output != null) {
+            return "";
+        }
         if (type == null || type.equals("--raw")) {
             return getText() + "\n";
         }
         return getText();
     }
 
+    @Override
+    public void writeLine(String line) {
+        if (output == null) {
+            super.writeLine(line);
+            return;
+        }
+        // Error output of git is merged with diff. Keep it for message of GitException but don't send it as part of diff.
+        // Git doesn't write diff after error but may write hints for it, e.g. how to separate paths from revisions.
+        failed |= line.startsWith("fatal:") || line.startsWith("error:");
+        if (failed || line.startsWith("warning:")) {
+            super.writeLine(line);
+            return;
+        }
+        output.print(line);
+        output.print('\n');
+    }
+
+    /**
+     * @param output
+     *         if it is set diff is written to this writer line by line while git produces it, instead of being kept in memory.
+     *         {@link #execute()} returns empty string in this case
+     * @return DiffCommand with established output
+     */
+    public DiffCommand setOutput(PrintWriter output) {
+        this.output = output;
+        return this;
+    }
+
     /**
      * @param commitA
      *         first commit
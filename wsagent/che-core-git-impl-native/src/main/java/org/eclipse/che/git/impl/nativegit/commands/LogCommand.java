@@ -16,7 +16,7 @@ import org.eclipse.che.api.git.shared.GitUser;
 import org.eclipse.che.api.git.shared.Revision;
 
 import java.io.File;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -27,6 +27,7 @@ import java.util.List;
 public class LogCommand extends GitCommand<List<Revision>> {
 
     private int          count;
+    private int          skip;
     private String       branch;
     private List<String> fileFilter;
 
@@ -45,11 +46,17 @@ public class LogCommand extends GitCommand<List<Revision>> {
             commandLine.add(branch);
         }
         if (count > 0) {
-            commandLine.add("-" + count);
+            commandLine.add("--max-count=" + count);
+        }
+        if (skip > 0) {
+            commandLine.add("--skip=" + skip);
+        }
+        if (fileFilter != null && !fileFilter.isEmpty()) {
+            // paths may be absent in working tree, e.g. deleted files
+            commandLine.add("--").add(fileFilter);
         }
-        commandLine.add(fileFilter);
         start();
-        List<Revision> list = new LinkedList<>();
+        List<Revision> list = new ArrayList<>(lines.size());
         final DtoFactory dtoFactory = DtoFactory.getInstance();
         for (String oneRev : lines) {
             String[] elements = oneRev.split("#");
@@ -80,6 +87,16 @@ public class LogCommand extends GitCommand<List<Revision>> {
         return this;
     }
 
+    /**
+     * @param skip
+     *         number of the newest log objects to skip
+     * @return LogCommand with established number of skipped log objects
+     */
+    public LogCommand setSkip(int skip) {
+        this.skip = skip;
+        return this;
+    }
+
     /**
      * @param branch
      *         branch
@@ -12,16 +12,23 @@ package org.eclipse.che.git.impl.nativegit.commands;
 
 import org.eclipse.che.api.git.GitException;
 import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.git.impl.nativegit.CommandProcess;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Show repository status.
  *
  * @author Eugene Voevodin
  */
 public class StatusCommand extends GitCommand<List<String>> {
+    /** Set when git doesn't support porcelain v2, it isn't checked for each command. */
+    private static volatile boolean porcelainV2Unsupported;
 
     private StatusFormat format;
 
@@ -52,6 +59,92 @@ public class StatusCommand extends GitCommand<List<String>> {
         return getLines();
     }
 
+    /**
+     * Gets status in format that is intended for parsing, see 'Porcelain Format' in git-status documentation. Each entry has form
+     * {@code XY PATH}, the original path of renamed or copied file follows its entry as separate entry. Entries are separated with
+     * NUL instead of new line, so paths are never quoted and may contain any characters.
+     * <p>
+     * 'Porcelain Format Version 2' is used if git supports it (since git 2.11), its entries are converted to the format above.
+     * Otherwise version 1 is used.
+     *
+     * @return status entries
+     * @throws GitException
+     *         when command execution error occurs
+     */
+    public List<String> executePorcelain() throws GitException {
+        if (!porcelainV2Unsupported) {
+            try {
+                return parsePorcelainV2(executeForText("--porcelain=v2"));
+            } catch (GitException e) {
+                if (e.getMessage() == null || !e.getMessage().contains("takes no value")) {
+                    throw e;
+                }
+                // git older than 2.11: error: option `porcelain' takes no value
+                porcelainV2Unsupported = true;
+            }
+        }
+        return splitEntries(executeForText("--porcelain"));
+    }
+
+    private String executeForText(String porcelainOption) throws GitException {
+        reset();
+        commandLine.add("status", porcelainOption, "-z");
+        // Output isn't read by lines, otherwise new lines and carriage returns in paths are lost
+        return new String(CommandProcess.executeGitCommandForBytes(this), UTF_8);
+    }
+
+    private static List<String> splitEntries(String output) {
+        final List<String> entries = new ArrayList<>();
+        int start = 0;
+        for (int end; (end = output.indexOf('\0', start)) >= 0; start = end + 1) {
+            entries.add(output.substring(start, end));
+        }
+        return entries;
+    }
+
+    /**
+     * Converts entries of porcelain v2, e.g. {@code 1 .M N... 100644 100644 100644 3a1f 3a1f file}, to entries of porcelain v1,
+     * e.g. {@code " M file"}.
+     */
+    private static List<String> parsePorcelainV2(String output) {
+        final List<String> entries = new ArrayList<>();
+        final Iterator<String> iterator = splitEntries(output).iterator();
+        while (iterator.hasNext()) {
+            final String entry = iterator.next();
+            switch (entry.charAt(0)) {
+                case '1':
+                    entries.add(porcelainV1Entry(entry, 8));
+                    break;
+                case '2':
+                    entries.add(porcelainV1Entry(entry, 9));
+                    if (iterator.hasNext()) {
+                        // original path of renamed or copied file
+                        entries.add(iterator.next());
+                    }
+                    break;
+                case 'u':
+                    entries.add(porcelainV1Entry(entry, 10));
+                    break;
+                case '?':
+                case '!':
+                    entries.add(entry.charAt(0) + entry);
+                    break;
+                default:
+            }
+        }
+        return entries;
+    }
+
+    /** Gets status code and path of porcelain v2 entry that has {@code fields} space separated fields before path. */
+    private static String porcelainV1Entry(String entry, int fields) {
+        int index = 0;
+        for (int i = 0; i < fields; i++) {
+            index = entry.indexOf(' ', index) + 1;
+        }
+        // v2 shows unchanged status as '.' instead of ' '
+        return entry.substring(2, 4).replace('.', ' ') + ' ' + entry.substring(index);
+    }
+
     /**
      * Sets the output format that will be used.
      * 
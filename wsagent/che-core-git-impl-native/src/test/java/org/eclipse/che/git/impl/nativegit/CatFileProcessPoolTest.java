@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.nativegit;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author andrew00x
+ */
+public class CatFileProcessPoolTest {
+    private File               repository;
+    private CatFileProcessPool pool;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        repository = Files.createTempDirectory("cat-file").toFile();
+        git("init");
+        git("config", "user.name", "test");
+        git("config", "user.email", "test@codenvy.com");
+        write("README", "first\n");
+        git("add", "README");
+        git("commit", "-m", "first");
+        write("README", "second\r\nwithout new line");
+        git("commit", "-a", "-m", "second");
+        pool = new CatFileProcessPool(200, 1);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        pool.shutdown();
+        IoUtil.deleteRecursive(repository);
+    }
+
+    @Test
+    public void readsContentOfFile() throws Exception {
+        assertEquals(new String(pool.readBlob(repository, "HEAD:README"), UTF_8), "second\r\nwithout new line");
+        assertEquals(new String(pool.readBlob(repository, "HEAD~1:README"), UTF_8), "first\n");
+    }
+
+    @Test
+    public void reusesProcessOfRepository() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            pool.readBlob(repository, "HEAD:README");
+        }
+
+        assertEquals(pool.getIdleCount(), 1);
+    }
+
+    @Test
+    public void returnsNullWhenFileDoesNotExist() throws Exception {
+        assertNull(pool.readBlob(repository, "HEAD:unknown"));
+        assertNull(pool.readBlob(repository, "unknown:README"));
+        // process is still usable after missing object
+        assertEquals(new String(pool.readBlob(repository, "HEAD~1:README"), UTF_8), "first\n");
+    }
+
+    @Test
+    public void returnsNullWhenObjectIsNotFile() throws Exception {
+        assertNull(pool.readBlob(repository, "HEAD"));
+        assertNull(pool.readBlob(repository, "HEAD:"));
+    }
+
+    @Test
+    public void stopsIdleProcesses() throws Exception {
+        pool.readBlob(repository, "HEAD:README");
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getIdleCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(pool.getIdleCount(), 0);
+        assertEquals(new String(pool.readBlob(repository, "HEAD~1:README"), UTF_8), "first\n");
+    }
+
+    @Test
+    public void replacesCrashedProcess() throws Exception {
+        pool.readBlob(repository, "HEAD:README");
+        final CatFileProcess crashed = pool.idle.get(repository.getAbsoluteFile()).peekFirst();
+        crashed.kill();
+
+        assertEquals(new String(pool.readBlob(repository, "HEAD~1:README"), UTF_8), "first\n");
+        assertEquals(pool.getIdleCount(), 1);
+        assertNotSame(pool.idle.get(repository.getAbsoluteFile()).peekFirst(), crashed);
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(new File(repository, name).toPath(), content.getBytes(UTF_8));
+    }
+
+    private void git(String... args) throws Exception {
+        final String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        final Process process = new ProcessBuilder(command).directory(repository).inheritIO().start();
+        assertEquals(process.waitFor(), 0, String.join(" ", command));
+    }
+}
@@ -25,11 +25,11 @@ import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.core.model.machine.Recipe;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.core.util.BatchingWebsocketLineConsumer;
 import org.eclipse.che.api.core.util.CompositeLineConsumer;
 import org.eclipse.che.api.core.util.FileCleaner;
-import org.eclipse.che.api.core.util.FileLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
-import org.eclipse.che.api.core.util.WebsocketLineConsumer;
+import org.eclipse.che.api.core.util.LogFileWriter;
 import org.eclipse.che.api.machine.server.dao.SnapshotDao;
 import org.eclipse.che.api.machine.server.exception.InvalidRecipeException;
 import org.eclipse.che.api.machine.server.exception.MachineException;
@@ -66,8 +66,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.net.URL;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -103,6 +101,7 @@ public class MachineManager {
     private final int                      defaultMachineMemorySizeMB;
     private final MachineCleaner           machineCleaner;
     private final WsAgentLauncher          wsAgentLauncher;
+    private final LogFileWriter            logFileWriter;
 
     @Inject
     public MachineManager(SnapshotDao snapshotDao,
@@ -112,12 +111,14 @@ public class MachineManager {
                           EventService eventService,
                           @Named("machine.default_mem_size_mb") int defaultMachineMemorySizeMB,
                           @Named("api.endpoint") String apiEndpoint,
-                          WsAgentLauncher wsAgentLauncher) {
+                          WsAgentLauncher wsAgentLauncher,
+                          LogFileWriter logFileWriter) {
         this.snapshotDao = snapshotDao;
         this.machineInstanceProviders = machineInstanceProviders;
         this.eventService = eventService;
         this.apiEndpoint = apiEndpoint;
         this.wsAgentLauncher = wsAgentLauncher;
+        this.logFileWriter = logFileWriter;
         this.machineLogsDir = new File(machineLogsDir);
         this.machineRegistry = machineRegistry;
         this.defaultMachineMemorySizeMB = defaultMachineMemorySizeMB;
@@ -636,6 +637,7 @@ public class MachineManager {
         final LineConsumer processLogger = getProcessLogger(machineId, pid, outputChannel);
 
         executor.execute(ThreadLocalPropagateContext.wrap(() -> {
+            MachineProcessEvent event;
             try {
                 eventService.publish(newDto(MachineProcessEvent.class)
                                              .withEventType(MachineProcessEvent.EventType.STARTED)
@@ -644,22 +646,28 @@ public class MachineManager {
 
                 instanceProcess.start(processLogger);
 
-                eventService.publish(newDto(MachineProcessEvent.class)
-                                             .withEventType(MachineProcessEvent.EventType.STOPPED)
-                                             .withMachineId(machineId)
-                                             .withProcessId(pid));
+                event = newDto(MachineProcessEvent.class).withEventType(MachineProcessEvent.EventType.STOPPED)
+                                                         .withMachineId(machineId)
+                                                         .withProcessId(pid);
             } catch (ConflictException | MachineException error) {
-                eventService.publish(newDto(MachineProcessEvent.class)
-                                             .withEventType(MachineProcessEvent.EventType.ERROR)
-                                             .withMachineId(machineId)
-                                             .withProcessId(pid)
-                                             .withError(error.getLocalizedMessage()));
-
                 try {
                     processLogger.writeLine(String.format("[ERROR] %s", error.getMessage()));
                 } catch (IOException ignored) {
                 }
+
+                event = newDto(MachineProcessEvent.class).withEventType(MachineProcessEvent.EventType.ERROR)
+                                                         .withMachineId(machineId)
+                                                         .withProcessId(pid)
+                                                         .withError(error.getLocalizedMessage());
+            } finally {
+                // sends the rest of output, so clients get all of it before status of process
+                try {
+                    processLogger.close();
+                } catch (IOException e) {
+                    LOG.warn("Unable close log of process {} of machine {}. {}", pid, machineId, e.getMessage());
+                }
             }
+            eventService.publish(event);
         }));
         return instanceProcess;
     }
@@ -759,7 +767,7 @@ public class MachineManager {
         final File machineLogsFile = getMachineLogsFile(machineId);
         if (machineLogsFile.isFile()) {
             try {
-                return Files.newBufferedReader(machineLogsFile.toPath(), Charset.defaultCharset());
+                return logFileWriter.newReader(machineLogsFile);
             } catch (IOException e) {
                 throw new MachineException(String.format("Unable read log file for machine '%s'. %s", machineId, e.getMessage()));
             }
@@ -784,7 +792,7 @@ public class MachineManager {
         final File processLogsFile = getProcessLogsFile(machineId, pid);
         if (processLogsFile.isFile()) {
             try {
-                return Files.newBufferedReader(processLogsFile.toPath(), Charset.defaultCharset());
+                return logFileWriter.newReader(processLogsFile);
             } catch (IOException e) {
                 throw new MachineException(
                         String.format("Unable read log file for process '%s' of machine '%s'. %s", pid, machineId, e.getMessage()));
@@ -877,9 +885,9 @@ public class MachineManager {
         }
     }
 
-    private FileLineConsumer getMachineFileLogger(String machineId) throws MachineException {
+    private LineConsumer getMachineFileLogger(String machineId) throws MachineException {
         try {
-            return new FileLineConsumer(getMachineLogsFile(machineId));
+            return logFileWriter.open(getMachineLogsFile(machineId));
         } catch (IOException e) {
             throw new MachineException(String.format("Unable create log file for machine '%s'. %s", machineId, e.getMessage()));
         }
@@ -893,9 +901,9 @@ public class MachineManager {
         return new File(new File(machineLogsDir, machineId), Integer.toString(pid));
     }
 
-    private FileLineConsumer getProcessFileLogger(String machineId, int pid) throws MachineException {
+    private LineConsumer getProcessFileLogger(String machineId, int pid) throws MachineException {
         try {
-            return new FileLineConsumer(getProcessLogsFile(machineId, pid));
+            return logFileWriter.open(getProcessLogsFile(machineId, pid));
         } catch (IOException e) {
             throw new MachineException(
                     String.format("Unable create log file for process '%s' of machine '%s'. %s", pid, machineId, e.getMessage()));
@@ -916,11 +924,16 @@ public class MachineManager {
 
     private LineConsumer getLogger(LineConsumer fileLogger, String outputChannel) throws MachineException {
         if (outputChannel != null) {
-            return new CompositeLineConsumer(fileLogger, new WebsocketLineConsumer(outputChannel));
+            return new CompositeLineConsumer(fileLogger, getOutputChannelLogger(outputChannel));
         }
         return fileLogger;
     }
 
+    /** Returns consumer that sends output to websocket channel. Lines are batched, output is sent completely when it is closed. */
+    LineConsumer getOutputChannelLogger(String outputChannel) {
+        return new BatchingWebsocketLineConsumer(outputChannel);
+    }
+
     static ChannelsImpl getMachineChannels(String machineName, String workspaceId, String envName) {
         return new ChannelsImpl(workspaceId + ':' + envName + ':' + machineName,
                                 "machine:status:" + workspaceId + ':' + machineName);
@@ -19,24 +19,31 @@ import org.eclipse.che.api.machine.server.spi.Instance;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Holds active machines
+ * Holds active machines.
+ *
+ * <p>Machines are kept in concurrent maps, so reading methods never block.
+ * Modifications are serialized, machine is put to the map of running machines
+ * before it is removed from the map of not yet running machines, so it is
+ * always visible for readers while it is moved.
  *
  * @author Alexander Garagatyi
  */
 @Singleton
 public class MachineRegistry {
-    // TODO add locks per workspace or machine
-    private final HashMap<String, Instance>    instances;
-    private final HashMap<String, MachineImpl> machines;
+    private final ConcurrentMap<String, Instance>    instances;
+    private final ConcurrentMap<String, MachineImpl> machines;
+    /** Running dev machines, workspace id -> instance. */
+    private final ConcurrentMap<String, Instance>    devInstances;
 
     public MachineRegistry() {
-        instances = new HashMap<>();
-        machines = new HashMap<>();
+        instances = new ConcurrentHashMap<>();
+        machines = new ConcurrentHashMap<>();
+        devInstances = new ConcurrentHashMap<>();
     }
 
     //TODO return unmodifiable lists
@@ -47,10 +54,18 @@ public class MachineRegistry {
      * @throws MachineException
      *         if any error occurs
      */
-    public synchronized List<MachineImpl> getMachines() throws MachineException {
-        final List<MachineImpl> list = new ArrayList<>(machines.size() + instances.size());
-        list.addAll(machines.values());
-        list.addAll(instances.values().stream().map(this::toMachine).collect(Collectors.toList()));
+    public List<MachineImpl> getMachines() throws MachineException {
+        // read not running machines first, machine that is started meanwhile is found in both maps
+        final List<MachineImpl> notRunning = new ArrayList<>(machines.values());
+        final List<MachineImpl> list = new ArrayList<>(notRunning.size() + instances.size());
+        for (MachineImpl machine : notRunning) {
+            if (!instances.containsKey(machine.getId())) {
+                list.add(machine);
+            }
+        }
+        for (Instance instance : instances.values()) {
+            list.add(toMachine(instance));
+        }
         return Collections.unmodifiableList(list);
     }
 
@@ -64,7 +79,7 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized MachineImpl getMachine(String machineId) throws NotFoundException, MachineException {
+    public MachineImpl getMachine(String machineId) throws NotFoundException, MachineException {
         MachineImpl machine = machines.get(machineId);
         if (machine == null) {
             final Instance instance = instances.get(machineId);
@@ -87,14 +102,12 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized MachineImpl getDevMachine(String workspaceId) throws NotFoundException, MachineException {
-        for (Instance instance : instances.values()) {
-            if (instance.getWorkspaceId().equals(workspaceId) && instance.getConfig().isDev()) {
-                return toMachine(instance);
-            }
+    public MachineImpl getDevMachine(String workspaceId) throws NotFoundException, MachineException {
+        final Instance instance = devInstances.get(workspaceId);
+        if (instance == null) {
+            throw new NotFoundException("Dev machine of workspace " + workspaceId + " is not running.");
         }
-
-        throw new NotFoundException("Dev machine of workspace " + workspaceId + " is not running.");
+        return toMachine(instance);
     }
 
     /**
@@ -108,7 +121,7 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized Instance getInstance(String machineId) throws NotFoundException, MachineException {
+    public Instance getInstance(String machineId) throws NotFoundException, MachineException {
         final Instance instance = instances.get(machineId);
         if (instance == null) {
             throw new NotFoundException("Machine " + machineId + " is not found");
@@ -128,10 +141,9 @@ public class MachineRegistry {
      *         if any other error occurs
      */
     public synchronized void addMachine(MachineImpl machine) throws MachineException, ConflictException {
-        if (machines.containsKey(machine.getId())) {
+        if (machines.putIfAbsent(machine.getId(), machine) != null) {
             throw new ConflictException("Machine with id " + machine.getId() + " is already exist");
         }
-        machines.put(machine.getId(), machine);
     }
 
     /**
@@ -149,6 +161,9 @@ public class MachineRegistry {
             throw new NotFoundException("Machine " + instance.getId() + " not found");
         } else {
             instances.put(instance.getId(), instance);
+            if (instance.getConfig().isDev()) {
+                devInstances.put(instance.getWorkspaceId(), instance);
+            }
             machines.remove(instance.getId());
         }
     }
@@ -164,6 +179,9 @@ public class MachineRegistry {
     public synchronized void remove(String machineId) throws NotFoundException {
         final Instance instance = instances.remove(machineId);
         final MachineImpl machine = machines.remove(machineId);
+        if (instance != null) {
+            devInstances.remove(instance.getWorkspaceId(), instance);
+        }
         if (null == instance && null == machine) {
             throw new NotFoundException("Machine " + machineId + " is not found");
         }
@@ -17,12 +17,14 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.Server;
 import org.eclipse.che.api.machine.server.MachineManager;
+import org.eclipse.che.commons.lang.cache.ConcurrentSLRUCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -31,8 +33,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.URI;
 import java.net.URL;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,8 +48,13 @@ import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
 
 /**
  * Routes requests to extension API hosted in machine
+ * <p>
+ * Requests are processed asynchronously if container supports it. Requests to each machine are forwarded by own pool of threads
+ * with limited size, so threads of container are not blocked by slow machine and slow machine can't take all threads of proxy.
+ * Bodies of request and response are streamed without buffering of the whole body. Connections to the machine are reused.
  *
  * @author Alexander Garagatyi
+ * @see MachineProxyMetrics
  */
 @Singleton
 public class MachineExtensionProxyServlet extends HttpServlet {
@@ -50,13 +62,51 @@ public class MachineExtensionProxyServlet extends HttpServlet {
     private static final String WORKSPACE_ID_PATTERN = "([^/]+)";
     private static final Pattern EXTENSION_API_URI = Pattern.compile(".*?/ext/([^/]+/" + WORKSPACE_ID_PATTERN + "/?.*|" + WORKSPACE_ID_PATTERN + "/)");
 
-    private final String         wsAgentPort;
-    private final MachineManager machineManager;
+    /** Max number of machines whose connection pools are kept, pools of the least recently used machines are shut down. */
+    private static final int MAX_MACHINE_POOLS = 1000;
+    private static final int BUFFER_SIZE       = 8192;
+
+    private final String                                        wsAgentPort;
+    private final MachineManager                                machineManager;
+    private final int                                           maxConnectionsPerMachine;
+    private final int                                           maxQueuedRequestsPerMachine;
+    private final int                                           connectTimeout;
+    private final int                                           readTimeout;
+    private final ConcurrentSLRUCache<String, MachineProxyPool> pools;
 
     @Inject
-    public MachineExtensionProxyServlet(@Named("machine.extension.api_port") String wsAgentPort, MachineManager machineManager) {
+    public MachineExtensionProxyServlet(@Named("machine.extension.api_port") String wsAgentPort,
+                                        MachineManager machineManager,
+                                        @Named("machine.proxy.max_connections_per_machine") int maxConnectionsPerMachine,
+                                        @Named("machine.proxy.max_queued_requests_per_machine") int maxQueuedRequestsPerMachine,
+                                        @Named("machine.proxy.connect_timeout_ms") int connectTimeout,
+                                        @Named("machine.proxy.read_timeout_ms") int readTimeout) {
         this.wsAgentPort = wsAgentPort;
         this.machineManager = machineManager;
+        this.maxConnectionsPerMachine = maxConnectionsPerMachine;
+        this.maxQueuedRequestsPerMachine = maxQueuedRequestsPerMachine;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        pools = new ConcurrentSLRUCache<String, MachineProxyPool>(MAX_MACHINE_POOLS) {
+            @Override
+            protected void evict(String address, MachineProxyPool pool) {
+                pool.shutdown();
+            }
+        };
+    }
+
+    /** Returns snapshot of metrics of requests proxied to the machines. Key of map is address of machine's extension API. */
+    public Map<String, MachineProxyMetrics> getMetrics() {
+        final Map<String, MachineProxyMetrics> metrics = new HashMap<>();
+        for (Map.Entry<String, MachineProxyPool> entry : pools) {
+            metrics.put(entry.getKey(), entry.getValue().getMetrics());
+        }
+        return metrics;
+    }
+
+    @Override
+    public void destroy() {
+        pools.clear();
     }
 
     // fixme secure request to another's machine
@@ -69,51 +119,125 @@ public class MachineExtensionProxyServlet extends HttpServlet {
 
     @Override
     public void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        final String extensionApiUrl;
         try {
-            HttpURLConnection conn = prepareProxyConnection(req);
+            extensionApiUrl = getExtensionApiUrl(req);
+        } catch (NotFoundException e) {
+            resp.sendError(SC_SERVICE_UNAVAILABLE, "Request can't be forwarded to machine. " + e.getLocalizedMessage());
+            return;
+        } catch (ServerException e) {
+            resp.sendError(SC_BAD_GATEWAY, "Request can't be forwarded to machine. " + e.getLocalizedMessage());
+            return;
+        }
 
+        if (req.isAsyncSupported()) {
+            final AsyncContext asyncContext = req.startAsync();
+            // response may be streamed for a long time, rely on read timeout of connection to machine
+            asyncContext.setTimeout(0);
+            final Future<?> result = submit(extensionApiUrl, () -> {
+                try {
+                    return proxy(req, resp, extensionApiUrl);
+                } catch (Throwable e) {
+                    // request must be completed whatever happens, otherwise client waits for response forever
+                    LOG.error(e.getLocalizedMessage(), e);
+                    sendBadGateway(resp, e);
+                    return false;
+                } finally {
+                    asyncContext.complete();
+                }
+            });
+            if (result == null) {
+                resp.sendError(SC_SERVICE_UNAVAILABLE, "Request can't be forwarded to machine. Too many requests to machine");
+                asyncContext.complete();
+            }
+        } else {
+            final Future<?> result = submit(extensionApiUrl, () -> proxy(req, resp, extensionApiUrl));
+            if (result == null) {
+                resp.sendError(SC_SERVICE_UNAVAILABLE, "Request can't be forwarded to machine. Too many requests to machine");
+                return;
+            }
             try {
-                conn.connect();
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    /** Submits request to the pool of machine. Returns {@code null} if request is rejected. */
+    private Future<?> submit(String extensionApiUrl, MachineProxyPool.ProxyRequest request) {
+        final URI uri = URI.create(extensionApiUrl);
+        final String address = uri.getScheme() + "://" + uri.getRawAuthority();
+        while (true) {
+            final MachineProxyPool pool = pools.get(address, key -> new MachineProxyPool(key,
+                                                                                        maxConnectionsPerMachine,
+                                                                                        maxQueuedRequestsPerMachine));
+            final Future<?> result = pool.submit(request);
+            if (result != null || !pool.isShutdown()) {
+                return result;
+            }
+            // pool was evicted from cache concurrently, get new one
+        }
+    }
 
-                setResponse(resp, conn);
-            } catch (IOException e) {
-                resp.sendError(SC_BAD_GATEWAY, "Request can't be forwarded to machine. " + e.getLocalizedMessage());
-            } finally {
+    /** Forwards request to machine and copies response. Returns {@code false} if request failed. */
+    private boolean proxy(HttpServletRequest req, HttpServletResponse resp, String extensionApiUrl) {
+        HttpURLConnection conn = null;
+        try {
+            conn = prepareProxyConnection(req, extensionApiUrl);
+            setResponse(resp, conn);
+            return true;
+        } catch (IOException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+            if (conn != null) {
+                // don't reuse connection which is in unknown state
                 conn.disconnect();
             }
+            sendBadGateway(resp, e);
+            return false;
+        }
+    }
 
-        } catch (NotFoundException e) {
-            resp.sendError(SC_SERVICE_UNAVAILABLE, "Request can't be forwarded to machine. " + e.getLocalizedMessage());
-        } catch (ServerException e) {
-            resp.sendError(SC_BAD_GATEWAY, "Request can't be forwarded to machine. " + e.getLocalizedMessage());
+    /** Responds with 502 (Bad Gateway) unless part of response is already sent. */
+    private void sendBadGateway(HttpServletResponse resp, Throwable error) {
+        if (!resp.isCommitted()) {
+            try {
+                resp.sendError(SC_BAD_GATEWAY, "Request can't be forwarded to machine. " + error.getLocalizedMessage());
+            } catch (IOException ignored) {
+            }
         }
     }
 
-    private HttpURLConnection prepareProxyConnection(HttpServletRequest req) throws NotFoundException, ServerException {
-        String extensionApiUrl = getExtensionApiUrl(req);
-        try {
-            final HttpURLConnection conn = (HttpURLConnection)new URL(extensionApiUrl).openConnection();
+    private HttpURLConnection prepareProxyConnection(HttpServletRequest req, String extensionApiUrl) throws IOException {
+        final HttpURLConnection conn = (HttpURLConnection)new URL(extensionApiUrl).openConnection();
+        conn.setConnectTimeout(connectTimeout);
+        conn.setReadTimeout(readTimeout);
 
-            conn.setRequestMethod(req.getMethod());
+        conn.setRequestMethod(req.getMethod());
 
-            setHeaders(conn, req);
+        setHeaders(conn, req);
 
-            if ("POST".equals(req.getMethod()) || "PUT".equals(req.getMethod()) || "DELETE".equals(req.getMethod())) {
-                if (req.getInputStream() != null) {
-                    conn.setDoOutput(true);
+        if ("POST".equals(req.getMethod()) || "PUT".equals(req.getMethod()) || "DELETE".equals(req.getMethod())) {
+            if (req.getInputStream() != null) {
+                conn.setDoOutput(true);
+                // stream body, otherwise HttpURLConnection keeps the whole body in memory
+                final int contentLength = req.getContentLength();
+                if (contentLength >= 0) {
+                    conn.setFixedLengthStreamingMode(contentLength);
+                } else {
+                    conn.setChunkedStreamingMode(BUFFER_SIZE);
+                }
 
-                    try (InputStream is = req.getInputStream();
-                         OutputStream os = conn.getOutputStream()) {
-                        ByteStreams.copy(is, os);
-                    }
+                try (InputStream is = req.getInputStream();
+                     OutputStream os = conn.getOutputStream()) {
+                    ByteStreams.copy(is, os);
                 }
             }
-
-            return conn;
-        } catch (IOException e) {
-            LOG.error(e.getLocalizedMessage(), e);
-            throw new ServerException(e.getLocalizedMessage());
         }
+
+        return conn;
     }
 
     private String getExtensionApiUrl(HttpServletRequest req) throws NotFoundException, ServerException {
@@ -150,41 +274,50 @@ public class MachineExtensionProxyServlet extends HttpServlet {
         return uriBuilder.build().toString();
     }
 
-    private void setResponse(HttpServletResponse resp, HttpURLConnection conn) throws ServerException {
-        try {
-            final int responseCode = conn.getResponseCode();
+    private void setResponse(HttpServletResponse resp, HttpURLConnection conn) throws IOException {
+        final int responseCode = conn.getResponseCode();
 
-            resp.setStatus(responseCode);
+        resp.setStatus(responseCode);
 
-            InputStream responseStream;
-            if (responseCode / 100 == 2 && responseCode != 204) {
-                responseStream = conn.getInputStream();
-            } else {
-                responseStream = conn.getErrorStream();
-            }
+        InputStream responseStream;
+        if (responseCode / 100 == 2 && responseCode != 204) {
+            responseStream = conn.getInputStream();
+        } else {
+            responseStream = conn.getErrorStream();
+        }
 
-            // copy headers from proxy response to origin response
-            conn.getHeaderFields()
-                .entrySet()
-                .stream()
-                .filter(header -> !skipHeader(header.getKey()))
-                .forEach(header -> {
-                    for (String headerValue : header.getValue()) {
-                        resp.addHeader(header.getKey(), headerValue);
-                    }
-                });
-
-            if (responseStream != null) {
-                // copy content of input or error stream from destination response to output stream of origin response
-                try (OutputStream os = resp.getOutputStream();
-                     InputStream is = responseStream) {
-                    ByteStreams.copy(is, os);
-                    os.flush();
+        // copy headers from proxy response to origin response
+        conn.getHeaderFields()
+            .entrySet()
+            .stream()
+            .filter(header -> !skipHeader(header.getKey()))
+            .forEach(header -> {
+                for (String headerValue : header.getValue()) {
+                    resp.addHeader(header.getKey(), headerValue);
                 }
+            });
+
+        if (responseStream != null) {
+            // copy content of input or error stream from destination response to output stream of origin response,
+            // stream is read to the end and closed, so connection may be reused
+            try (OutputStream os = resp.getOutputStream();
+                 InputStream is = responseStream) {
+                copy(is, os);
+                os.flush();
+            }
+        }
+    }
+
+    /** Copies stream and flushes output each time when there is no more data available without blocking. */
+    private static void copy(InputStream is, OutputStream os) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            os.write(buffer, 0, read);
+            if (is.available() == 0) {
+                // send what we have while machine prepares the next part of response
+                os.flush();
             }
-        } catch (IOException e) {
-            LOG.error(e.getLocalizedMessage(), e);
-            throw new ServerException(e.getLocalizedMessage());
         }
     }
 
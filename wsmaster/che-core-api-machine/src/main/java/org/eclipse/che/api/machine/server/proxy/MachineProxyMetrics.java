@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.proxy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of metrics of requests proxied to the single machine. Latency is the time between receiving of request by proxy and
+ * writing of the whole response to the client, including waiting for free connection to the machine.
+ *
+ * @author andrew00x
+ * @see MachineExtensionProxyServlet#getMetrics()
+ */
+public final class MachineProxyMetrics {
+    private final long requests;
+    private final long failed;
+    private final long rejected;
+    private final int  active;
+    private final int  queued;
+    private final long totalWaitNanos;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+
+    MachineProxyMetrics(long requests, long failed, long rejected, int active, int queued, long totalWaitNanos,
+                        long totalLatencyNanos, long maxLatencyNanos) {
+        this.requests = requests;
+        this.failed = failed;
+        this.rejected = rejected;
+        this.active = active;
+        this.queued = queued;
+        this.totalWaitNanos = totalWaitNanos;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    /** Number of completed requests, including failed requests. */
+    public long getRequestCount() {
+        return requests;
+    }
+
+    /** Number of requests that were not forwarded to the machine or whose response was not completely sent to the client. */
+    public long getFailedCount() {
+        return failed;
+    }
+
+    /** Number of requests that were rejected because there were too many requests to the machine. */
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    /** Number of requests that are forwarded to the machine at the moment. */
+    public int getActiveCount() {
+        return active;
+    }
+
+    /** Number of requests that wait for free connection to the machine. */
+    public int getQueuedCount() {
+        return queued;
+    }
+
+    /** Average time that requests waited for free connection to the machine. */
+    public long getAverageWait(TimeUnit unit) {
+        return requests == 0 ? 0 : unit.convert(totalWaitNanos / requests, TimeUnit.NANOSECONDS);
+    }
+
+    public long getAverageLatency(TimeUnit unit) {
+        return requests == 0 ? 0 : unit.convert(totalLatencyNanos / requests, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "MachineProxyMetrics{" +
+               "requests=" + requests +
+               ", failed=" + failed +
+               ", rejected=" + rejected +
+               ", active=" + active +
+               ", queued=" + queued +
+               ", averageWaitMillis=" + getAverageWait(TimeUnit.MILLISECONDS) +
+               ", averageLatencyMillis=" + getAverageLatency(TimeUnit.MILLISECONDS) +
+               ", maxLatencyMillis=" + getMaxLatency(TimeUnit.MILLISECONDS) +
+               '}';
+    }
+}
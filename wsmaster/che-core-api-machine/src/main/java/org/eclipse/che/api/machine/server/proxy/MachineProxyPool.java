@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.proxy;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits number of concurrent requests to the single machine. Each thread of pool keeps at most one connection to the machine, so
+ * size of pool is max number of connections. Requests that don't get free thread wait in the bounded queue, requests that don't fit
+ * the queue are rejected. So slow machine may hold only own threads, not threads of the whole server.
+ *
+ * @author andrew00x
+ */
+final class MachineProxyPool {
+    private final String             address;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder     requests;
+    private final LongAdder     failed;
+    private final LongAdder     rejected;
+    private final AtomicInteger active;
+    private final LongAdder     totalWaitNanos;
+    private final LongAdder     totalLatencyNanos;
+    private final AtomicLong    maxLatencyNanos;
+
+    MachineProxyPool(String address, int maxConnections, int maxQueuedRequests) {
+        this.address = address;
+        executor = new ThreadPoolExecutor(maxConnections,
+                                          maxConnections,
+                                          60L, TimeUnit.SECONDS,
+                                          new LinkedBlockingQueue<>(maxQueuedRequests),
+                                          new ThreadFactoryBuilder().setNameFormat("MachineProxy-" + address.replace("%", "%%") + "-%d")
+                                                                    .setDaemon(true)
+                                                                    .build());
+        // machine may be idle for a long time, don't keep threads for it
+        executor.allowCoreThreadTimeOut(true);
+        requests = new LongAdder();
+        failed = new LongAdder();
+        rejected = new LongAdder();
+        active = new AtomicInteger();
+        totalWaitNanos = new LongAdder();
+        totalLatencyNanos = new LongAdder();
+        maxLatencyNanos = new AtomicLong();
+    }
+
+    String getAddress() {
+        return address;
+    }
+
+    /**
+     * Submits request to the pool.
+     *
+     * @param request
+     *         proxies request, gets time when request was submitted, see {@link System#nanoTime()}
+     * @return result of request or {@code null} if request is rejected because there are too many requests to the machine or pool
+     * is shut down
+     */
+    Future<?> submit(ProxyRequest request) {
+        final long submitted = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                final long started = System.nanoTime();
+                totalWaitNanos.add(started - submitted);
+                active.incrementAndGet();
+                boolean failure = true;
+                try {
+                    failure = !request.proxy();
+                } finally {
+                    active.decrementAndGet();
+                    final long latency = System.nanoTime() - submitted;
+                    requests.increment();
+                    if (failure) {
+                        failed.increment();
+                    }
+                    totalLatencyNanos.add(latency);
+                    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (!executor.isShutdown()) {
+                rejected.increment();
+            }
+            return null;
+        }
+    }
+
+    boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /** Stops accepting new requests, requests that are already accepted are completed. */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    MachineProxyMetrics getMetrics() {
+        return new MachineProxyMetrics(requests.sum(),
+                                       failed.sum(),
+                                       rejected.sum(),
+                                       active.get(),
+                                       executor.getQueue().size(),
+                                       totalWaitNanos.sum(),
+                                       totalLatencyNanos.sum(),
+                                       maxLatencyNanos.get());
+    }
+
+    interface ProxyRequest {
+        /** Proxies request to the machine and returns {@code false} if request failed. */
+        boolean proxy();
+    }
+}
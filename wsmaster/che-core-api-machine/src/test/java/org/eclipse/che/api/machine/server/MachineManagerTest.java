@@ -11,13 +11,16 @@
 package org.eclipse.che.api.machine.server;
 
 import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.model.machine.Limits;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.api.core.util.LogFileWriter;
 import org.eclipse.che.api.machine.server.dao.SnapshotDao;
+import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.LimitsImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
@@ -25,10 +28,13 @@ import org.eclipse.che.api.machine.server.model.impl.MachineSourceImpl;
 import org.eclipse.che.api.machine.server.model.impl.ServerConfImpl;
 import org.eclipse.che.api.machine.server.recipe.RecipeImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
+import org.eclipse.che.api.machine.server.spi.InstanceProcess;
 import org.eclipse.che.api.machine.server.spi.InstanceProvider;
+import org.eclipse.che.api.machine.shared.dto.event.MachineProcessEvent;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.user.UserImpl;
+import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
 import org.testng.annotations.AfterMethod;
@@ -42,16 +48,23 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 
 /**
@@ -82,12 +95,16 @@ public class MachineManagerTest {
     private Limits                   limits;
 
     private MachineManager manager;
+    private EventService   eventService;
+    private LogFileWriter  logFileWriter;
+    private String         machineLogsDir;
 
     @BeforeMethod
     public void setUp() throws Exception {
         final SnapshotDao snapshotDao = mock(SnapshotDao.class);
-        final EventService eventService = mock(EventService.class);
-        final String machineLogsDir = targetDir().resolve("logs-dir").toString();
+        eventService = mock(EventService.class);
+        machineLogsDir = targetDir().resolve("logs-dir").toString();
+        logFileWriter = new LogFileWriter(100, 100, LogFileWriter.FsyncPolicy.NEVER, 0, 0);
         IoUtil.deleteRecursive(new File(machineLogsDir));
         manager = spy(new MachineManager(snapshotDao,
                                          machineRegistry,
@@ -96,7 +113,8 @@ public class MachineManagerTest {
                                          eventService,
                                          DEFAULT_MACHINE_MEMORY_SIZE_MB,
                                          "apiEndpoint",
-                                         wsAgentLauncher));
+                                         wsAgentLauncher,
+                                         logFileWriter));
 
         EnvironmentContext envCont = new EnvironmentContext();
         envCont.setUser(new UserImpl(null, USER_ID, null, null, false));
@@ -114,6 +132,7 @@ public class MachineManagerTest {
     @AfterMethod
     public void tearDown() throws Exception {
         EnvironmentContext.reset();
+        logFileWriter.stop();
     }
 
     @Test(expectedExceptions = BadRequestException.class, expectedExceptionsMessageRegExp = "Invalid machine name @name!")
@@ -182,6 +201,111 @@ public class MachineManagerTest {
         verify(wsAgentLauncher, never()).startWsAgent(WS_ID);
     }
 
+    @Test
+    public void shouldCloseProcessLogWhenProcessIsFinished() throws Exception {
+        final InstanceProcess process = mockProcess();
+
+        manager.exec(MACHINE_ID, createCommand(), null);
+
+        verify(process, timeout(5000)).start(any(LineConsumer.class));
+        waitForClosedLogs();
+    }
+
+    @Test
+    public void shouldCloseProcessLogWhenProcessIsFailed() throws Exception {
+        final InstanceProcess process = mockProcess();
+        doThrow(new MachineException("failed")).when(process).start(any(LineConsumer.class));
+
+        manager.exec(MACHINE_ID, createCommand(), null);
+
+        verify(process, timeout(5000)).start(any(LineConsumer.class));
+        waitForClosedLogs();
+    }
+
+    @Test
+    public void shouldSendProcessOutputBeforeProcessIsReportedAsStopped() throws Exception {
+        final InstanceProcess process = mockProcess();
+        final List<String> sent = recordOutputAndEvents();
+        doAnswer(invocation -> {
+            ((LineConsumer)invocation.getArguments()[0]).writeLine("output");
+            return null;
+        }).when(process).start(any(LineConsumer.class));
+
+        manager.exec(MACHINE_ID, createCommand(), "channel");
+
+        verify(eventService, timeout(5000)).publish(argThat(isProcessEvent(MachineProcessEvent.EventType.STOPPED)));
+        assertEquals(sent, Arrays.asList("event STARTED", "line output", "closed", "event STOPPED"));
+    }
+
+    @Test
+    public void shouldSendProcessOutputAndErrorBeforeProcessIsReportedAsFailed() throws Exception {
+        final InstanceProcess process = mockProcess();
+        final List<String> sent = recordOutputAndEvents();
+        doThrow(new MachineException("failed")).when(process).start(any(LineConsumer.class));
+
+        manager.exec(MACHINE_ID, createCommand(), "channel");
+
+        verify(eventService, timeout(5000)).publish(argThat(isProcessEvent(MachineProcessEvent.EventType.ERROR)));
+        assertEquals(sent, Arrays.asList("event STARTED", "line [ERROR] failed", "closed", "event ERROR"));
+    }
+
+    /** Records lines that are sent to the output channel, closing of channel and events of process in order they happen. */
+    private List<String> recordOutputAndEvents() {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        doReturn(new LineConsumer() {
+            @Override
+            public void writeLine(String line) {
+                sent.add("line " + line);
+            }
+
+            @Override
+            public void close() {
+                sent.add("closed");
+            }
+        }).when(manager).getOutputChannelLogger(anyString());
+        doAnswer(invocation -> {
+            final Object event = invocation.getArguments()[0];
+            if (event instanceof MachineProcessEvent) {
+                sent.add("event " + ((MachineProcessEvent)event).getEventType());
+            }
+            return null;
+        }).when(eventService).publish(any());
+        return sent;
+    }
+
+    private static ArgumentMatcher<Object> isProcessEvent(MachineProcessEvent.EventType type) {
+        return new ArgumentMatcher<Object>() {
+            @Override
+            public boolean matches(Object argument) {
+                return argument instanceof MachineProcessEvent && ((MachineProcessEvent)argument).getEventType() == type;
+            }
+        };
+    }
+
+    private InstanceProcess mockProcess() throws Exception {
+        new File(machineLogsDir, MACHINE_ID).mkdirs();
+        final InstanceProcess process = mock(InstanceProcess.class);
+        when(process.getPid()).thenReturn(1);
+        when(instance.createProcess(any(Command.class), anyString())).thenReturn(process);
+        return process;
+    }
+
+    private void waitForClosedLogs() throws Exception {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (logFileWriter.getOpenFileCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(logFileWriter.getOpenFileCount(), 0);
+    }
+
+    private static Command createCommand() {
+        final Command command = mock(Command.class);
+        when(command.getCommandLine()).thenReturn("echo hello");
+        when(command.getName()).thenReturn("hello");
+        when(command.getType()).thenReturn("custom");
+        return command;
+    }
+
     private static Path targetDir() throws Exception {
         final URL url = Thread.currentThread().getContextClassLoader().getResource(".");
         assertNotNull(url);
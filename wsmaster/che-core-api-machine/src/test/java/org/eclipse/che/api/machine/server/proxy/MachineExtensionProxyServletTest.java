@@ -23,11 +23,13 @@ import org.eclipse.jetty.server.handler.ContextHandler;
 import org.everrest.test.mock.MockHttpServletRequest;
 import org.everrest.test.mock.MockHttpServletResponse;
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -46,8 +48,12 @@ import java.util.concurrent.Executors;
 
 import static javax.servlet.http.HttpServletResponse.SC_BAD_GATEWAY;
 import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -145,13 +151,18 @@ public class MachineExtensionProxyServletTest {
 
         extensionApiRequest = new ExtensionApiRequest();
 
-        proxyServlet = new MachineExtensionProxyServlet(EXTENSIONS_API_PORT, machineManager);
+        proxyServlet = new MachineExtensionProxyServlet(EXTENSIONS_API_PORT, machineManager, 2, 10, 10000, 60000);
 
         when(machineManager.getDevMachine(WORKSPACE_ID)).thenReturn(machine);
         when(machine.getRuntime()).thenReturn(machineRuntimeInfo);
         when(machineRuntimeInfo.getServers()).thenReturn(machineServers);
     }
 
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        proxyServlet.destroy();
+    }
+
     @AfterClass
     public void tearDown() throws Exception {
         jettyServer.stop();
@@ -500,6 +511,53 @@ public class MachineExtensionProxyServletTest {
         assertEquals(mockResponse.getStatus(), SC_SERVICE_UNAVAILABLE, mockResponse.getOutputContent());
     }
 
+    @Test
+    public void shouldCollectMetricsOfProxiedRequests() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest mockRequest =
+                    new MockHttpServletRequest(DEFAULT_URL,
+                                               new ByteArrayInputStream(new byte[0]),
+                                               0,
+                                               "GET",
+                                               defaultHeaders);
+
+            MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+
+            proxyServlet.service(mockRequest, mockResponse);
+
+            assertEquals(mockResponse.getStatus(), 200);
+        }
+
+        final Map<String, MachineProxyMetrics> metrics = proxyServlet.getMetrics();
+        assertEquals(metrics.size(), 1);
+        final MachineProxyMetrics machineMetrics = metrics.get("http://localhost:" + jettyServer.getURI().getPort());
+        assertEquals(machineMetrics.getRequestCount(), 3);
+        assertEquals(machineMetrics.getFailedCount(), 0);
+        assertEquals(machineMetrics.getRejectedCount(), 0);
+        assertEquals(machineMetrics.getActiveCount(), 0);
+    }
+
+    @Test
+    public void shouldCompleteAsyncRequestAndRespondBadGatewayIfProxyingFailsUnexpectedly() throws Exception {
+        MockHttpServletRequest mockRequest =
+                spy(new MockHttpServletRequest(DEFAULT_URL,
+                                               new ByteArrayInputStream(new byte[0]),
+                                               0,
+                                               "GET",
+                                               defaultHeaders));
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        doReturn(true).when(mockRequest).isAsyncSupported();
+        doReturn(asyncContext).when(mockRequest).startAsync();
+        doThrow(new IllegalStateException("unexpected")).when(mockRequest).getHeaderNames();
+
+        MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+
+        proxyServlet.service(mockRequest, mockResponse);
+
+        verify(asyncContext, timeout(5000)).complete();
+        assertEquals(mockResponse.getStatus(), SC_BAD_GATEWAY);
+    }
+
     /**
      * Header name is case insensitive in accordance to spec. So we can't compare arrays via equals method.
      *
@@ -11,8 +11,6 @@
 package org.eclipse.che.api.workspace.server;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
 
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ConflictException;
@@ -35,14 +33,14 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import static java.lang.String.format;
-import static java.util.stream.Collectors.toList;
+import static java.util.Collections.emptySet;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPING;
@@ -60,9 +58,11 @@ import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPING;
  * All operations performed by registry are synchronous.
  *
  * <p>The implementation is thread-safe.
- * Workspaces are stored in memory - in 2 Maps. First for <i>identifier -> workspace</i> mapping,
- * second for <i>owner -> list of workspaces</i> mapping(which speeds up fetching workspaces by owner).
- * Maps are guarded by {@link ReentrantReadWriteLock}.
+ * Workspaces are stored in memory - in 2 concurrent Maps. First for <i>identifier -> workspace</i> mapping,
+ * second for <i>owner -> set of workspace identifiers</i> mapping(which speeds up fetching workspaces by owner).
+ * Each workspace is guarded by its own {@link WorkspaceState}, so reading of workspace never waits
+ * for start or stop of another workspace. Owner index is updated under the lock of owner's entry and
+ * always checks the first map, so it stays consistent when the same workspace is started and removed concurrently.
  *
  * <p>The implementation doesn't validate parameters.
  * They should be validated by caller of methods of this class.
@@ -75,19 +75,17 @@ public class RuntimeWorkspaceRegistry {
 
     private static final Logger LOG = LoggerFactory.getLogger(RuntimeWorkspaceRegistry.class);
 
-    private final Map<String, RuntimeWorkspaceImpl>          idToWorkspaces;
-    private final ListMultimap<String, RuntimeWorkspaceImpl> ownerToWorkspaces;
-    private final ReadWriteLock                              lock;
-    private final MachineManager                             machineManager;
+    private final ConcurrentMap<String, WorkspaceState> idToWorkspaces;
+    private final ConcurrentMap<String, Set<String>>    ownerToWorkspaces;
+    private final MachineManager                        machineManager;
 
     private volatile boolean isStopped;
 
     @Inject
     public RuntimeWorkspaceRegistry(MachineManager machineManager) {
         this.machineManager = machineManager;
-        this.idToWorkspaces = new HashMap<>();
-        this.ownerToWorkspaces = ArrayListMultimap.create();
-        this.lock = new ReentrantReadWriteLock();
+        this.idToWorkspaces = new ConcurrentHashMap<>();
+        this.ownerToWorkspaces = new ConcurrentHashMap<>();
     }
 
     /**
@@ -129,19 +127,30 @@ public class RuntimeWorkspaceRegistry {
                                                                     .setStatus(STARTING)
                                                                     .build();
         // Save workspace with 'STARTING' status
-        lock.writeLock().lock();
-        try {
-            checkRegistryIsNotStopped();
-            final RuntimeWorkspace running = idToWorkspaces.get(newRuntime.getId());
-            if (running != null) {
-                throw new ConflictException(format("Could not start workspace '%s' because its status is '%s'",
-                                                   running.getConfig().getName(),
-                                                   running.getStatus()));
+        final WorkspaceState state = new WorkspaceState(newRuntime);
+        final WorkspaceState running = idToWorkspaces.putIfAbsent(newRuntime.getId(), state);
+        if (running != null) {
+            final RuntimeWorkspaceImpl runningWorkspace = running.copy();
+            throw new ConflictException(format("Could not start workspace '%s' because its status is '%s'",
+                                               runningWorkspace.getConfig().getName(),
+                                               runningWorkspace.getStatus()));
+        }
+        ownerToWorkspaces.compute(newRuntime.getOwner(), (owner, ids) -> {
+            // workspace might be already removed, e.g. by 'stopRegistry', it must not be indexed then
+            if (idToWorkspaces.get(newRuntime.getId()) != state) {
+                return ids;
             }
-            idToWorkspaces.put(newRuntime.getId(), newRuntime);
-            ownerToWorkspaces.get(newRuntime.getOwner()).add(newRuntime);
-        } finally {
-            lock.writeLock().unlock();
+            if (ids == null) {
+                ids = new CopyOnWriteArraySet<>();
+            }
+            ids.add(newRuntime.getId());
+            return ids;
+        });
+        // 'stopRegistry' might be performed after the first check, its flag is set before workspaces are removed,
+        // so either 'stopRegistry' removes workspace or workspace is removed here
+        if (isStopped) {
+            doRemoveWorkspace(newRuntime.getId());
+            checkRegistryIsNotStopped();
         }
         startEnvironment(newRuntime.getActiveEnvironment(), newRuntime.getId(), recover);
         return get(newRuntime.getId());
@@ -202,24 +211,11 @@ public class RuntimeWorkspaceRegistry {
      */
     public void stop(String workspaceId) throws NotFoundException, ServerException, ConflictException {
         checkRegistryIsNotStopped();
-        lock.writeLock().lock();
-        final RuntimeWorkspaceImpl workspace;
-        try {
-            checkRegistryIsNotStopped();
-            workspace = idToWorkspaces.get(workspaceId);
-            if (workspace == null) {
-                throw new NotFoundException("Workspace with id " + workspaceId + " is not running.");
-            }
-            if (workspace.getStatus() != RUNNING) {
-                throw new ConflictException(format("Couldn't stop '%s' workspace because its status is '%s'",
-                                                   workspace.getConfig().getName(),
-                                                   workspace.getStatus()));
-            }
-            workspace.setStatus(STOPPING);
-        } finally {
-            lock.writeLock().unlock();
+        final WorkspaceState state = idToWorkspaces.get(workspaceId);
+        if (state == null) {
+            throw new NotFoundException("Workspace with id " + workspaceId + " is not running.");
         }
-        stopMachines(workspace);
+        stopMachines(state.toStopping());
     }
 
     /**
@@ -248,12 +244,7 @@ public class RuntimeWorkspaceRegistry {
      * @return true if workspace is running, otherwise false
      */
     public boolean hasRuntime(String workspaceId) {
-        lock.readLock().lock();
-        try {
-            return idToWorkspaces.containsKey(workspaceId);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return idToWorkspaces.containsKey(workspaceId);
     }
 
     /**
@@ -269,17 +260,11 @@ public class RuntimeWorkspaceRegistry {
      *         when workspace with specified {@code workspaceId} was not found
      */
     public RuntimeWorkspaceImpl get(String workspaceId) throws NotFoundException {
-        lock.readLock().lock();
-        final RuntimeWorkspaceImpl runtimeWorkspace;
-        try {
-            runtimeWorkspace = idToWorkspaces.get(workspaceId);
-            if (runtimeWorkspace == null) {
-                throw new NotFoundException("Workspace with id " + workspaceId + " is not running.");
-            }
-        } finally {
-            lock.readLock().unlock();
+        final WorkspaceState state = idToWorkspaces.get(workspaceId);
+        if (state == null) {
+            throw new NotFoundException("Workspace with id " + workspaceId + " is not running.");
         }
-        return new RuntimeWorkspaceImpl(runtimeWorkspace);
+        return state.copy();
     }
 
     /**
@@ -293,15 +278,15 @@ public class RuntimeWorkspaceRegistry {
      * @return list of workspace owned by {@code ownerId} or empty list when user doesn't have any workspaces running
      */
     public List<RuntimeWorkspaceImpl> getByOwner(String ownerId) {
-        lock.readLock().lock();
-        try {
-            return ownerToWorkspaces.get(ownerId)
-                                    .stream()
-                                    .map(RuntimeWorkspaceImpl::new)
-                                    .collect(toList());
-        } finally {
-            lock.readLock().unlock();
+        final Set<String> ids = ownerToWorkspaces.getOrDefault(ownerId, emptySet());
+        final List<RuntimeWorkspaceImpl> workspaces = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            final WorkspaceState state = idToWorkspaces.get(id);
+            if (state != null) {
+                workspaces.add(state.copy());
+            }
         }
+        return workspaces;
     }
 
     /**
@@ -328,17 +313,11 @@ public class RuntimeWorkspaceRegistry {
         // 'stopRegistry' was performed and workspace was removed by 'stopRegistry',
         // in that case dev-machine must not be destroyed(MachineManager is responsible for it)
         // and another machines must not be started.
-        lock.writeLock().lock();
-        try {
-            if (!addRunningMachine(devMachine)) {
-                // Dev machine was started but workspace doesn't exist
-                // it means that registry was stopped, dev-machine must not be
-                // destroyed in this place as MachineManager#cleanup() does it
-                throw new ServerException("Workspace '" + workspaceId + "' had been stopped before its dev-machine was started");
-            }
-            idToWorkspaces.get(workspaceId).setStatus(RUNNING);
-        } finally {
-            lock.writeLock().unlock();
+        if (!addRunningMachine(devMachine)) {
+            // Dev machine was started but workspace doesn't exist
+            // it means that registry was stopped, dev-machine must not be
+            // destroyed in this place as MachineManager#cleanup() does it
+            throw new ServerException("Workspace '" + workspaceId + "' had been stopped before its dev-machine was started");
         }
 
         // Try to start all the other machines different from the dev one.
@@ -347,7 +326,7 @@ public class RuntimeWorkspaceRegistry {
             try {
                 final MachineImpl nonDevMachine = createMachine(nonDevCfg, workspaceId, environment.getName(), recover);
                 if (!addRunningMachine(nonDevMachine)) {
-                    // Non dev machine was started but workspace doesn't exist
+                    // Non dev machine was started but workspace is stopping or doesn't exist
                     // it means that either registry was stopped or runtime workspace
                     // was stopped by client. In the case when it was stopped by
                     // client we should destroy newly started non-dev machine
@@ -369,38 +348,30 @@ public class RuntimeWorkspaceRegistry {
     }
 
     /**
-     * Adds given machine to the running workspace, if the workspace exists.
-     * Sets up this machine as dev-machine if it is dev.
+     * Adds given machine to the running workspace, if the workspace exists and is not stopping.
+     * Sets up this machine as dev-machine and switches workspace to {@link WorkspaceStatus#RUNNING} if it is dev.
      *
-     * @return true if machine was added to the workspace(workspace exists) and false otherwise
+     * @return true if machine was added to the workspace(workspace exists and is not stopping) and false otherwise
      */
     @VisibleForTesting
     boolean addRunningMachine(MachineImpl machine) throws ServerException {
-        lock.writeLock().lock();
-        try {
-            final RuntimeWorkspaceImpl workspace = idToWorkspaces.get(machine.getWorkspaceId());
-            if (workspace != null) {
-                if (machine.getConfig().isDev()) {
-                    workspace.setDevMachine(machine);
-                }
-                workspace.getMachines().add(machine);
-            }
-            return workspace != null;
-        } finally {
-            lock.writeLock().unlock();
-        }
+        final WorkspaceState state = idToWorkspaces.get(machine.getWorkspaceId());
+        return state != null && state.addMachine(machine);
     }
 
     private void doRemoveWorkspace(String workspaceId) {
-        lock.writeLock().lock();
-        try {
-            final RuntimeWorkspaceImpl workspace = idToWorkspaces.get(workspaceId);
-            if (workspace != null) {
-                ownerToWorkspaces.get(workspace.getOwner()).removeIf(ws -> ws.getId().equals(workspaceId));
-            }
-            idToWorkspaces.remove(workspaceId);
-        } finally {
-            lock.writeLock().unlock();
+        final WorkspaceState state = idToWorkspaces.remove(workspaceId);
+        if (state != null) {
+            state.removed();
+            ownerToWorkspaces.computeIfPresent(state.owner, (owner, ids) -> {
+                // the same workspace might be started again after it was removed from the first map,
+                // its identifier is kept in the index then
+                final WorkspaceState restarted = idToWorkspaces.get(workspaceId);
+                if (restarted == null || !owner.equals(restarted.owner)) {
+                    ids.remove(workspaceId);
+                }
+                return ids.isEmpty() ? null : ids;
+            });
         }
     }
 
@@ -475,13 +446,62 @@ public class RuntimeWorkspaceRegistry {
     @VisibleForTesting
     void stopRegistry() {
         isStopped = true;
-        lock.writeLock().lock();
-        try {
-            new ArrayList<>(idToWorkspaces.values()).stream()
-                                                    .map(UsersWorkspace::getId)
-                                                    .forEach(this::doRemoveWorkspace);
-        } finally {
-            lock.writeLock().unlock();
+        new ArrayList<>(idToWorkspaces.keySet()).forEach(this::doRemoveWorkspace);
+    }
+
+    /**
+     * Guards single runtime workspace and moves it through {@link WorkspaceStatus#STARTING} ->
+     * {@link WorkspaceStatus#RUNNING} -> {@link WorkspaceStatus#STOPPING} statuses.
+     * Methods are performed under the lock of this workspace only and never wait for machines start or stop.
+     */
+    private static final class WorkspaceState {
+        final String owner;
+
+        private final RuntimeWorkspaceImpl workspace;
+
+        private boolean removed;
+
+        WorkspaceState(RuntimeWorkspaceImpl workspace) {
+            this.owner = workspace.getOwner();
+            this.workspace = workspace;
+        }
+
+        synchronized RuntimeWorkspaceImpl copy() {
+            return new RuntimeWorkspaceImpl(workspace);
+        }
+
+        /** Switches running workspace to STOPPING and returns workspace which machines should be stopped. */
+        synchronized RuntimeWorkspaceImpl toStopping() throws ConflictException, NotFoundException {
+            if (removed) {
+                throw new NotFoundException("Workspace with id " + workspace.getId() + " is not running.");
+            }
+            if (workspace.getStatus() != RUNNING) {
+                throw new ConflictException(format("Couldn't stop '%s' workspace because its status is '%s'",
+                                                   workspace.getConfig().getName(),
+                                                   workspace.getStatus()));
+            }
+            workspace.setStatus(STOPPING);
+            return copy();
+        }
+
+        /**
+         * Adds machine to the workspace, returns false if workspace is stopping or was removed.
+         * Dev-machine switches starting workspace to RUNNING.
+         */
+        synchronized boolean addMachine(MachineImpl machine) {
+            if (removed || workspace.getStatus() == STOPPING) {
+                return false;
+            }
+            if (machine.getConfig().isDev()) {
+                workspace.setDevMachine(machine);
+                workspace.setStatus(RUNNING);
+            }
+            workspace.getMachines().add(machine);
+            return true;
+        }
+
+        synchronized void removed() {
+            removed = true;
         }
     }
 }
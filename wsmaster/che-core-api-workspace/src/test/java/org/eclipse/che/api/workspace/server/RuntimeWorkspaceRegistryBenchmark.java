@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.server;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.model.machine.MachineConfig;
+import org.eclipse.che.api.machine.server.MachineManager;
+import org.eclipse.che.api.machine.server.model.impl.LimitsImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.UsersWorkspaceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.commons.lang.NameGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures latency of {@link RuntimeWorkspaceRegistry} reads while hundreds of workspaces are started and stopped concurrently,
+ * the way IDE and dashboard poll workspaces. Start and stop of machines take some time, reads should not wait for them.
+ * It is not run as test, run it manually with
+ * <pre>
+ * java -cp ... org.eclipse.che.api.workspace.server.RuntimeWorkspaceRegistryBenchmark [seconds]
+ * </pre>
+ *
+ * @author andrew00x
+ */
+public class RuntimeWorkspaceRegistryBenchmark {
+    private static final int  WORKSPACES        = 500;
+    private static final int  OWNERS            = 100;
+    private static final int  LIFECYCLE_THREADS = 100;
+    private static final int  READER_THREADS    = 16;
+    private static final long MACHINE_START_MS  = 20;
+    private static final long MACHINE_STOP_MS   = 10;
+
+    public static void main(String[] args) throws Exception {
+        final long millis = TimeUnit.SECONDS.toMillis(args.length > 0 ? Integer.parseInt(args[0]) : 10);
+        final RuntimeWorkspaceRegistry registry = new RuntimeWorkspaceRegistry(machineManager());
+        final UsersWorkspaceImpl[] workspaces = new UsersWorkspaceImpl[WORKSPACES];
+        for (int i = 0; i < WORKSPACES; i++) {
+            workspaces[i] = workspace("workspace" + i, "user" + (i % OWNERS));
+        }
+
+        final LongAdder starts = new LongAdder();
+        final LongAdder stops = new LongAdder();
+        final LongAdder reads = new LongAdder();
+        final LongAdder readNanos = new LongAdder();
+        final AtomicLong maxReadNanos = new AtomicLong();
+        final long deadline = System.currentTimeMillis() + millis;
+        final CountDownLatch done = new CountDownLatch(LIFECYCLE_THREADS + READER_THREADS);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < LIFECYCLE_THREADS; t++) {
+            threads.add(new Thread(() -> {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.currentTimeMillis() < deadline) {
+                    final UsersWorkspaceImpl workspace = workspaces[random.nextInt(WORKSPACES)];
+                    try {
+                        if (registry.hasRuntime(workspace.getId())) {
+                            registry.stop(workspace.getId());
+                            stops.increment();
+                        } else {
+                            registry.start(workspace, workspace.getConfig().getDefaultEnv());
+                            starts.increment();
+                        }
+                    } catch (ConflictException | NotFoundException ignored) {
+                        // another thread starts or stops the same workspace
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+                done.countDown();
+            }));
+        }
+        for (int t = 0; t < READER_THREADS; t++) {
+            threads.add(new Thread(() -> {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.currentTimeMillis() < deadline) {
+                    final long start = System.nanoTime();
+                    if (random.nextBoolean()) {
+                        try {
+                            registry.get("workspace" + random.nextInt(WORKSPACES)).getStatus();
+                        } catch (NotFoundException ignored) {
+                            // workspace is not running
+                        }
+                    } else {
+                        registry.getByOwner("user" + random.nextInt(OWNERS));
+                    }
+                    final long time = System.nanoTime() - start;
+                    reads.increment();
+                    readNanos.add(time);
+                    maxReadNanos.accumulateAndGet(time, Math::max);
+                }
+                done.countDown();
+            }));
+        }
+        threads.forEach(Thread::start);
+        done.await();
+        registry.stopRegistry();
+
+        final double seconds = millis / 1000D;
+        System.out.printf("workspaces: %d, lifecycle threads: %d, reader threads: %d, %.0f s%n",
+                          WORKSPACES, LIFECYCLE_THREADS, READER_THREADS, seconds);
+        System.out.printf("starts/s: %.0f, stops/s: %.0f%n", starts.sum() / seconds, stops.sum() / seconds);
+        System.out.printf("reads/s: %.0f, average read: %d us, max read: %d us%n",
+                          reads.sum() / seconds,
+                          TimeUnit.NANOSECONDS.toMicros(readNanos.sum() / Math.max(1, reads.sum())),
+                          TimeUnit.NANOSECONDS.toMicros(maxReadNanos.get()));
+    }
+
+    private static MachineManager machineManager() throws Exception {
+        final MachineManager machineManager = mock(MachineManager.class);
+        when(machineManager.createMachineSync(any(), anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(MACHINE_START_MS);
+            return MachineImpl.builder()
+                              .setId(NameGenerator.generate("machine", 16))
+                              .setWorkspaceId((String)invocation.getArguments()[1])
+                              .setConfig(new MachineConfigImpl((MachineConfig)invocation.getArguments()[0]))
+                              .build();
+        });
+        doAnswer(invocation -> {
+            Thread.sleep(MACHINE_STOP_MS);
+            return null;
+        }).when(machineManager).destroy(anyString(), anyBoolean());
+        return machineManager;
+    }
+
+    private static UsersWorkspaceImpl workspace(String id, String owner) {
+        final MachineConfigImpl dev = MachineConfigImpl.builder()
+                                                       .setDev(true)
+                                                       .setName("dev")
+                                                       .setType("docker")
+                                                       .setLimits(new LimitsImpl(1024))
+                                                       .build();
+        final MachineConfigImpl db = MachineConfigImpl.builder()
+                                                      .setDev(false)
+                                                      .setName("db")
+                                                      .setType("docker")
+                                                      .setLimits(new LimitsImpl(512))
+                                                      .build();
+        final WorkspaceConfigImpl config = WorkspaceConfigImpl.builder()
+                                                              .setName(id)
+                                                              .setDefaultEnv("default")
+                                                              .setEnvironments(singletonList(new EnvironmentImpl("default",
+                                                                                                                 null,
+                                                                                                                 asList(dev, db))))
+                                                              .build();
+        return UsersWorkspaceImpl.builder()
+                                 .setId(id)
+                                 .setOwner(owner)
+                                 .setConfig(config)
+                                 .build();
+    }
+}
@@ -32,7 +32,16 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
@@ -247,6 +256,91 @@ public class RuntimeWorkspaceRegistryTest {
         assertFalse(registry.hasRuntime(workspaceMock.getId()));
     }
 
+    @Test
+    public void shouldNotAddMachineToStoppingWorkspace() throws Exception {
+        final UsersWorkspaceImpl workspaceMock = workspaceMock();
+        registry.start(workspaceMock, workspaceMock.getConfig().getDefaultEnv());
+        final MachineConfigImpl nonDevCfg = mock(MachineConfigImpl.class);
+        final AtomicBoolean added = new AtomicBoolean(true);
+
+        doAnswer(invocation -> {
+            assertEquals(registry.get(WORKSPACE_ID).getStatus(), WorkspaceStatus.STOPPING);
+            added.set(registry.addRunningMachine(machineMock(nonDevCfg)));
+            return null;
+        }).when(machineManagerMock).destroy(any(), anyBoolean());
+
+        registry.stop(WORKSPACE_ID);
+
+        assertFalse(added.get(), "Machine was added to the stopping workspace");
+        assertFalse(registry.hasRuntime(WORKSPACE_ID));
+    }
+
+    @Test
+    public void shouldKeepOwnerIndexConsistentWhenTheSameWorkspaceIsStartedAndRemovedConcurrently() throws Exception {
+        final UsersWorkspaceImpl workspaceMock = workspaceMock();
+        final String owner = workspaceMock.getOwner();
+        final int threads = 4;
+        final int rounds = 500;
+        // every third start fails on dev-machine creation and removes workspace from the start thread
+        final AtomicInteger starts = new AtomicInteger();
+        doAnswer(invocation -> {
+            final MachineConfig cfg = (MachineConfig)invocation.getArguments()[0];
+            if (cfg.isDev() && starts.incrementAndGet() % 3 == 0) {
+                throw new MachineException("Creation error");
+            }
+            return machineMock(cfg);
+        }).when(machineManagerMock).createMachineSync(any(), anyString(), anyString());
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CyclicBarrier barrier = new CyclicBarrier(threads);
+            final List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int r = 0; r < rounds; r++) {
+                        try {
+                            registry.start(workspaceMock, workspaceMock.getConfig().getDefaultEnv());
+                        } catch (ConflictException | ServerException ignored) {
+                            // started by another thread, failed or stopped by another thread while starting
+                        }
+                        assertTrue(registry.getByOwner(owner).size() <= 1, "Workspace is indexed more than once");
+                        try {
+                            registry.stop(WORKSPACE_ID);
+                        } catch (ConflictException | NotFoundException ignored) {
+                            // starting, stopping or removed by another thread
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (registry.hasRuntime(WORKSPACE_ID)) {
+            assertEquals(registry.getByOwner(owner).size(), 1);
+            registry.stop(WORKSPACE_ID);
+        }
+        assertTrue(registry.getByOwner(owner).isEmpty());
+
+        // workspace is indexed after restart
+        final RuntimeWorkspaceImpl restarted = startIgnoringFailure(workspaceMock);
+        assertEquals(registry.getByOwner(owner), singletonList(restarted));
+    }
+
+    private RuntimeWorkspaceImpl startIgnoringFailure(UsersWorkspaceImpl workspace) throws Exception {
+        while (true) {
+            try {
+                return registry.start(workspace, workspace.getConfig().getDefaultEnv());
+            } catch (MachineException ignored) {
+                // every third start fails
+            }
+        }
+    }
+
     private static MachineImpl machineMock(MachineConfig cfg) {
         return MachineImpl.builder()
                           .setId(NameGenerator.generate("machine", 10))